@@ -0,0 +1,60 @@
+package benchmarks;
+
+import asset_cache.AssetCache;
+import danogl.util.Vector2;
+import headless.HeadlessWindowController;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cold start of the game's assets: decoding every file of the assets directory, as the game
+ * does without a bundle, and copying them out of the bundle built by AssetBundler, which has to be built
+ * into assets/assets.bundle beforehand. Every fork preloads once, in a fresh JVM.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 10, jvmArgsAppend = "-Djava.awt.headless=true")
+public class AssetLoadBenchmark {
+
+    private static final String ASSETS_DIRECTORY = "assets";
+    private static final String ASSET_BUNDLE_PATH = ASSETS_DIRECTORY + "/assets.bundle";
+
+    @Setup
+    public void setUp() {
+        if (!Files.isRegularFile(Path.of(ASSET_BUNDLE_PATH))) {
+            throw new IllegalStateException("Build " + ASSET_BUNDLE_PATH + " with AssetBundler first");
+        }
+    }
+
+    @Benchmark
+    public AssetCache decodeDirectory() {
+        AssetCache assetCache = AssetCache.getInstance();
+        assetCache.preload(ASSETS_DIRECTORY, new HeadlessWindowController(Vector2.ONES, false));
+        return assetCache;
+    }
+
+    @Benchmark
+    public AssetCache loadBundle() {
+        AssetCache assetCache = AssetCache.getInstance();
+        if (!assetCache.preloadBundle(ASSET_BUNDLE_PATH)) {
+            throw new IllegalStateException(ASSET_BUNDLE_PATH + " is stale, build it again");
+        }
+        return assetCache;
+    }
+
+}
@@ -0,0 +1,52 @@
+package benchmarks;
+
+import danogl.GameObject;
+import danogl.collisions.Collision;
+import danogl.gui.Sound;
+import danogl.util.Vector2;
+import gameobjects.Ball;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.sound.sampled.Clip;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class BallCollisionBenchmark {
+
+    private static final float BALL_DIAMETER = 35;
+    private static final float BALL_VELOCITY = 200;
+
+    private Ball ball;
+    private GameObject other;
+    private Collision collision;
+
+    @Setup
+    public void setUp() {
+        ball = new Ball(Vector2.ZERO, new Vector2(BALL_DIAMETER, BALL_DIAMETER), null,
+                new Sound(new Clip[0]));
+        ball.setVelocity(new Vector2(BALL_VELOCITY, BALL_VELOCITY));
+        other = new GameObject(Vector2.ZERO, Vector2.ONES, null);
+        collision = new FixedCollision(Vector2.UP);
+    }
+
+    @Benchmark
+    public Vector2 onCollisionEnter() {
+        ball.onCollisionEnter(other, collision);
+        return ball.getVelocity();
+    }
+
+}
@@ -0,0 +1,111 @@
+package benchmarks;
+
+import brick_strategies.BrickStrategyFactory;
+import danogl.collisions.Collision;
+import danogl.collisions.GameObjectCollection;
+import danogl.collisions.Layer;
+import danogl.gui.Sound;
+import danogl.util.Counter;
+import danogl.util.Vector2;
+import gameobjects.Ball;
+import gameobjects.Brick;
+import gameobjects.GameObjectPools;
+import headless.HeadlessImageReader;
+import headless.HeadlessSoundReader;
+import headless.HeadlessWindowController;
+import headless.ScriptedInputListener;
+import profiling.FrameProfiler;
+import randomness.RandomService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.sound.sampled.Clip;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Brick.onCollisionEnter through the whole strategy chain, for strategies exactly as
+ * BrickStrategyFactory hands them to bricks: combined, counting their triggers and emitting their JFR
+ * events, and decorated by the profiler when it is on. The strategies are given by description, so any
+ * other combination can be measured with e.g. -p strategy=addPaddle+addPaddle. Every invocation hits a
+ * fresh brick in a fresh collection, with a factory of its own, so objects spawned by earlier hits don't
+ * pile up; the setup is per invocation for that reason and its cost is excluded from the results.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class BrickCollisionBenchmark {
+
+    private static final Vector2 WINDOW_DIMENSIONS = new Vector2(700, 500);
+    private static final Vector2 BRICK_TOP_LEFT_CORNER = new Vector2(25, 25);
+    private static final Vector2 BRICK_DIMENSIONS = new Vector2(80, 15);
+    private static final Vector2 BALL_DIMENSIONS = new Vector2(35, 35);
+    private static final String BALL_TAG = "ball";
+    private static final long SEED = 42;
+
+    // every single strategy, and every double and triple combination of different ones
+    @Param({"removeBrick", "puck", "addPaddle", "changeCamera", "widenOrNarrowObject",
+            "puck+addPaddle", "puck+changeCamera", "puck+widenOrNarrowObject", "addPaddle+changeCamera",
+            "addPaddle+widenOrNarrowObject", "changeCamera+widenOrNarrowObject",
+            "puck+addPaddle+changeCamera", "puck+addPaddle+widenOrNarrowObject",
+            "puck+changeCamera+widenOrNarrowObject", "addPaddle+changeCamera+widenOrNarrowObject"})
+    public String strategy;
+
+    @Param({"false", "true"})
+    public boolean isProfiled;
+
+    private int strategyId;
+    private HeadlessWindowController windowController;
+    private HeadlessImageReader imageReader;
+    private HeadlessSoundReader soundReader;
+    private ScriptedInputListener inputListener;
+    private FrameProfiler frameProfiler;
+    private Ball ball;
+    private Collision collision;
+    private Brick brick;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        strategyId = BrickStrategyFactory.parseStrategyId(strategy);
+        windowController = new HeadlessWindowController(WINDOW_DIMENSIONS, true);
+        imageReader = new HeadlessImageReader(windowController);
+        soundReader = new HeadlessSoundReader(windowController);
+        inputListener = new ScriptedInputListener();
+        frameProfiler = isProfiled ? new FrameProfiler() : FrameProfiler.DISABLED;
+        ball = new Ball(Vector2.ZERO, BALL_DIMENSIONS, null, new Sound(new Clip[0]));
+        ball.setTag(BALL_TAG);
+        collision = new FixedCollision(Vector2.DOWN);
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        GameObjectCollection gameObjectCollection = new GameObjectCollection();
+        // fresh pools, so every hit allocates its objects and adds a mock paddle like the first one does
+        BrickStrategyFactory brickStrategyFactory = new BrickStrategyFactory(gameObjectCollection,
+                new CameraHoldingGameManager(), imageReader, soundReader, inputListener, windowController,
+                WINDOW_DIMENSIONS, new GameObjectPools(0), new RandomService(SEED));
+        brickStrategyFactory.setFrameProfiler(frameProfiler);
+        brick = new Brick(BRICK_TOP_LEFT_CORNER, BRICK_DIMENSIONS, null,
+                brickStrategyFactory.getStrategy(strategyId), new Counter(1));
+        gameObjectCollection.addGameObject(brick, Layer.STATIC_OBJECTS);
+    }
+
+    @Benchmark
+    public Brick onCollisionEnter() {
+        brick.onCollisionEnter(ball, collision);
+        return brick;
+    }
+
+}
@@ -0,0 +1,102 @@
+package benchmarks;
+
+import brick_strategies.BrickStrategyFactory;
+import brick_strategies.RemoveBrickStrategy;
+import danogl.GameObject;
+import danogl.collisions.GameObjectCollection;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Counter;
+import danogl.util.Vector2;
+import gameobjects.Brick;
+import levels.BrickField;
+import levels.Level;
+import levels.LevelBuilder;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Compares the heap that a level's bricks take as Brick objects and as a BrickField. Every Brick gets a
+ * counter of its own, as a level's bricks do, but they all share a single strategy, where a level's bricks
+ * get a strategy chain each, so the figures of the Bricks are a lower bound. Takes the number of bricks as
+ * its argument.
+ */
+public class BrickFootprintComparison {
+
+    private static final int DEFAULT_NUM_BRICKS = 100_000;
+    private static final float BRICK_WIDTH = 20;
+    private static final float BRICK_HEIGHT = 8;
+    private static final float DISTANCE_BETWEEN_BRICKS = 1;
+    private static final int BRICKS_PER_ROW = 30;
+    private static final int NUM_GCS = 3;
+    private static final double BYTES_PER_MEGABYTE = 1 << 20;
+
+    private static final MemoryMXBean MEMORY_MX_BEAN = ManagementFactory.getMemoryMXBean();
+
+    public static void main(String[] args) throws IOException {
+        int numBricks = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_NUM_BRICKS;
+        LevelBuilder levelBuilder = new LevelBuilder();
+        int spriteId = levelBuilder.addSprite("assets/brick.png");
+        for (int i = 0; i < numBricks; i++) {
+            levelBuilder.addBrick((i % BRICKS_PER_ROW) * (BRICK_WIDTH + DISTANCE_BETWEEN_BRICKS),
+                    (i / BRICKS_PER_ROW) * (BRICK_HEIGHT + DISTANCE_BETWEEN_BRICKS), BRICK_WIDTH, BRICK_HEIGHT,
+                    spriteId, BrickStrategyFactory.RANDOM_STRATEGY_ID);
+        }
+        Path levelPath = Files.createTempFile("level", ".lvl");
+        try {
+            levelBuilder.write(levelPath);
+            // the level is mapped rather than read, so it takes no heap of its own
+            Level level = Level.load(levelPath);
+            System.out.printf("%d bricks%n", numBricks);
+            // the field goes first, so that the Bricks' garbage can't skew its smaller figure
+            long brickFieldBytes = measureBrickField(level);
+            long bricksBytes = measureBricks(level);
+            report("Brick objects", numBricks, bricksBytes);
+            report("BrickField", numBricks, brickFieldBytes);
+        } finally {
+            Files.deleteIfExists(levelPath);
+        }
+    }
+
+    private static long measureBricks(Level level) {
+        GameObjectCollection gameObjectCollection = new GameObjectCollection();
+        RemoveBrickStrategy strategy = new RemoveBrickStrategy(gameObjectCollection);
+        long before = usedHeap();
+        GameObject[] bricks = new GameObject[level.getNumBricks()];
+        for (int i = 0; i < bricks.length; i++) {
+            bricks[i] = new Brick(new Vector2(level.getBrickX(i), level.getBrickY(i)),
+                    new Vector2(level.getBrickWidth(i), level.getBrickHeight(i)), null, strategy, new Counter(1));
+        }
+        long bytes = usedHeap() - before;
+        Reference.reachabilityFence(bricks);
+        return bytes;
+    }
+
+    private static long measureBrickField(Level level) {
+        GameObjectCollection gameObjectCollection = new GameObjectCollection();
+        long before = usedHeap();
+        // the field only creates strategies and draws sprites while the game runs
+        BrickField brickField = new BrickField(level, gameObjectCollection, null, new Renderable[1],
+                new Counter(), 0, Vector2.ONES);
+        long bytes = usedHeap() - before;
+        Reference.reachabilityFence(brickField);
+        return bytes;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < NUM_GCS; i++) {
+            System.gc();
+        }
+        return MEMORY_MX_BEAN.getHeapMemoryUsage().getUsed();
+    }
+
+    private static void report(String name, int numBricks, long bytes) {
+        System.out.printf("%-14s %8.1f MB, %6.1f bytes per brick%n", name, bytes / BYTES_PER_MEGABYTE,
+                (double) bytes / numBricks);
+    }
+
+}
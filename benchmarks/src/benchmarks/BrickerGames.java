@@ -0,0 +1,55 @@
+package benchmarks;
+
+import danogl.GameManager;
+import danogl.util.Vector2;
+import levels.Level;
+import randomness.RandomService;
+
+import java.lang.reflect.InvocationTargetException;
+
+public class BrickerGames {
+
+    private static final String GAME_MANAGER_CLASS_NAME = "BrickerGameManager";
+    private static final long SEED = 42;
+
+    /**
+     * Creates a headless BrickerGameManager. The game manager lives in the default package, which
+     * classes in named packages can't import, so it is looked up by name. Its random choices are seeded
+     * with a fixed seed, so every fork measures the same games.
+     *
+     * @param windowDimensions dimensions reported to the game as the window's
+     * @param numBricksRows    number of rows in the brick grid
+     * @param numBricksCols    number of bricks in every row of the grid
+     * @return the new game manager, which also implements SimulatedGame
+     */
+    public static GameManager newHeadlessGame(Vector2 windowDimensions, int numBricksRows, int numBricksCols) {
+        try {
+            return (GameManager) Class.forName(GAME_MANAGER_CLASS_NAME)
+                    .getConstructor(String.class, Vector2.class, boolean.class, int.class, int.class,
+                            RandomService.class)
+                    .newInstance(null, windowDimensions, true, numBricksRows, numBricksCols,
+                            new RandomService(SEED));
+        } catch (ClassNotFoundException | NoSuchMethodException | InstantiationException |
+                 IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Failed to create " + GAME_MANAGER_CLASS_NAME, e);
+        }
+    }
+
+    /**
+     * Sets the level of a game created by newHeadlessGame, which the next initialization builds the world
+     * around.
+     *
+     * @param level the level, or null for the default grid of bricks
+     */
+    public static void setLevel(GameManager gameManager, Level level) {
+        try {
+            gameManager.getClass().getMethod("setLevel", Level.class).invoke(gameManager, level);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Failed to set the level of " + GAME_MANAGER_CLASS_NAME, e);
+        }
+    }
+
+    private BrickerGames() {
+    }
+
+}
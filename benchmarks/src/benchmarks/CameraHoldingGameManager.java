@@ -0,0 +1,29 @@
+package benchmarks;
+
+import danogl.GameManager;
+import danogl.gui.rendering.Camera;
+
+public class CameraHoldingGameManager extends GameManager {
+
+    private Camera camera;
+
+    /**
+     * GameManager.setCamera re-maps mouse coordinates on the window, which only exists after run(), so
+     * the camera set by ChangeCameraStrategy is only kept here.
+     */
+    @Override
+    public void setCamera(Camera camera) {
+        this.camera = camera;
+    }
+
+    @Override
+    public Camera getCamera() {
+        return camera;
+    }
+
+    @Override
+    public Camera camera() {
+        return camera;
+    }
+
+}
@@ -0,0 +1,317 @@
+package benchmarks;
+
+import collisions.GridIndexedGameObjectCollection;
+import danogl.GameObject;
+import danogl.collisions.Collision;
+import danogl.collisions.GameObjectCollection;
+import danogl.collisions.Layer;
+import danogl.util.Vector2;
+import randomness.RandomService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Checks that GridIndexedGameObjectCollection calls the same collision callbacks as the engine's
+ * GameObjectCollection: plays the same seeded, scripted world through both, step by step, and compares the
+ * onCollisionEnter, onCollisionStay and onCollisionExit calls every object got, in the order they came.
+ * Balls bounce about a lattice of bricks laid out as the game's, some of which break when hit, while slow
+ * pucks drift through the bricks, and between steps the script removes bricks and pucks that are touching
+ * something and puts broken bricks back. Swept collisions are the grid collection's alone, so no object is
+ * swept. Exits with status 1 on the first difference, or if the script never got to one of its cases, so
+ * it can gate a build. Takes the seed and the number of steps as its arguments.
+ */
+public class CollisionDifferentialCheck {
+
+    private static final long DEFAULT_SEED = 42;
+    private static final int DEFAULT_NUM_STEPS = 36_000;
+    private static final float DELTA_TIME = 1f / 60;
+    private static final float WINDOW_WIDTH = 700;
+    private static final float WINDOW_HEIGHT = 500;
+    private static final float BORDER_WIDTH = 20;
+    private static final int NUM_BRICKS_ROWS = 5;
+    private static final int NUM_BRICKS_COLS = 8;
+    private static final float BRICK_HEIGHT = 15;
+    private static final float DISTANCE_BETWEEN_BRICKS = 1;
+    private static final float BRICKS_DISTANCE_FROM_BORDER = 5;
+    private static final int NUM_BALLS = 3;
+    private static final float BALL_DIAMETER = 20;
+    private static final float BALL_VELOCITY = 250;
+    private static final float PUCK_DIAMETER = 12;
+    private static final float MIN_PUCK_VELOCITY = 40;
+    private static final float MAX_PUCK_VELOCITY = 120;
+    private static final int MAX_PUCKS = 12;
+    // one brick in this many breaks when a ball hits it
+    private static final int FRAGILE_BRICK_ODDS = 3;
+    // the steps between the script's actions
+    private static final int PUCK_SPAWN_INTERVAL = 53;
+    private static final int BRICK_REMOVAL_INTERVAL = 97;
+    private static final int PUCK_REMOVAL_INTERVAL = 131;
+    private static final int BRICK_RESTORE_INTERVAL = 211;
+
+    public static void main(String[] args) {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_SEED;
+        int numSteps = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_NUM_STEPS;
+        Vector2 bricksTopLeftCorner = new Vector2(BORDER_WIDTH + BRICKS_DISTANCE_FROM_BORDER,
+                BORDER_WIDTH + BRICKS_DISTANCE_FROM_BORDER);
+        // the bricks' lattice doubles as the grid, as in the game
+        World gridWorld = new World(new GridIndexedGameObjectCollection(bricksTopLeftCorner,
+                getBrickDimensions().add(new Vector2(DISTANCE_BETWEEN_BRICKS, DISTANCE_BETWEEN_BRICKS)),
+                NUM_BRICKS_ROWS, NUM_BRICKS_COLS), seed);
+        World stockWorld = new World(new GameObjectCollection(), seed);
+        for (int step = 0; step < numSteps; step++) {
+            gridWorld.step();
+            stockWorld.step();
+            int difference = findDifference(gridWorld.log, stockWorld.log);
+            if (difference >= 0) {
+                System.out.printf("Step %d, callback %d:%n  grid:  %s%n  stock: %s%n", step, difference,
+                        difference < gridWorld.log.size() ? gridWorld.log.get(difference) : "none",
+                        difference < stockWorld.log.size() ? stockWorld.log.get(difference) : "none");
+                System.exit(1);
+            }
+            gridWorld.log.clear();
+            stockWorld.log.clear();
+        }
+        System.out.printf("%d steps, seed %d: %d enters, %d stays, %d exits, %d bricks broken, " +
+                        "%d bricks and %d pucks removed in contact, %d bricks put back%n", numSteps, seed,
+                gridWorld.numEnters, gridWorld.numStays, gridWorld.numExits, gridWorld.numBricksBroken,
+                gridWorld.numBricksRemovedInContact, gridWorld.numPucksRemovedInContact,
+                gridWorld.numBricksRestored);
+        if (gridWorld.numEnters == 0 || gridWorld.numStays == 0 || gridWorld.numExits == 0 ||
+                gridWorld.numBricksBroken == 0 || gridWorld.numBricksRemovedInContact == 0 ||
+                gridWorld.numPucksRemovedInContact == 0 || gridWorld.numBricksRestored == 0) {
+            System.out.println("The script didn't get to every case, so the check is inconclusive");
+            System.exit(1);
+        }
+        System.out.println("Both collections called the same callbacks");
+    }
+
+    private static Vector2 getBrickDimensions() {
+        float bricksWidth = WINDOW_WIDTH - 2 * (BORDER_WIDTH + BRICKS_DISTANCE_FROM_BORDER) -
+                (NUM_BRICKS_COLS - 1) * DISTANCE_BETWEEN_BRICKS;
+        return new Vector2(bricksWidth / NUM_BRICKS_COLS, BRICK_HEIGHT);
+    }
+
+    private static int findDifference(List<String> log, List<String> otherLog) {
+        for (int i = 0; i < Math.max(log.size(), otherLog.size()); i++) {
+            if (i >= log.size() || i >= otherLog.size() || !log.get(i).equals(otherLog.get(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private enum Kind {
+        WALL, BRICK, FRAGILE_BRICK, BALL, PUCK
+    }
+
+    /*
+     * A world of walls, bricks, balls and pucks in a collection, and the script that plays it. Its random
+     * choices don't depend on the collisions, so two worlds of the same seed only part if their collections
+     * call different callbacks.
+     */
+    private static class World {
+
+        private final GameObjectCollection gameObjectCollection;
+        private final SplittableRandom random;
+        // the objects in the collection, in the order they were added, which is the order they're updated in
+        private final List<Probe> objects = new ArrayList<>();
+        private final List<Probe> brokenBricks = new ArrayList<>();
+        private final List<String> log = new ArrayList<>();
+        private int step;
+        private int numPucksSpawned;
+        private long numEnters;
+        private long numStays;
+        private long numExits;
+        private long numBricksBroken;
+        private long numBricksRemovedInContact;
+        private long numPucksRemovedInContact;
+        private long numBricksRestored;
+
+        private World(GameObjectCollection gameObjectCollection, long seed) {
+            this.gameObjectCollection = gameObjectCollection;
+            this.random = new RandomService(seed).split();
+            add(new Probe(this, "left wall", Kind.WALL, Vector2.ZERO, new Vector2(BORDER_WIDTH, WINDOW_HEIGHT)),
+                    Layer.DEFAULT);
+            add(new Probe(this, "right wall", Kind.WALL, new Vector2(WINDOW_WIDTH - BORDER_WIDTH, 0),
+                    new Vector2(BORDER_WIDTH, WINDOW_HEIGHT)), Layer.DEFAULT);
+            add(new Probe(this, "top wall", Kind.WALL, Vector2.ZERO, new Vector2(WINDOW_WIDTH, BORDER_WIDTH)),
+                    Layer.DEFAULT);
+            add(new Probe(this, "bottom wall", Kind.WALL, new Vector2(0, WINDOW_HEIGHT - BORDER_WIDTH),
+                    new Vector2(WINDOW_WIDTH, BORDER_WIDTH)), Layer.DEFAULT);
+            Vector2 brickDimensions = getBrickDimensions();
+            for (int row = 0; row < NUM_BRICKS_ROWS; row++) {
+                for (int col = 0; col < NUM_BRICKS_COLS; col++) {
+                    Kind kind = random.nextInt(FRAGILE_BRICK_ODDS) == 0 ? Kind.FRAGILE_BRICK : Kind.BRICK;
+                    Vector2 topLeftCorner = new Vector2(
+                            BORDER_WIDTH + BRICKS_DISTANCE_FROM_BORDER +
+                                    col * (brickDimensions.x() + DISTANCE_BETWEEN_BRICKS),
+                            BORDER_WIDTH + BRICKS_DISTANCE_FROM_BORDER +
+                                    row * (brickDimensions.y() + DISTANCE_BETWEEN_BRICKS));
+                    add(new Probe(this, "brick " + row + "," + col, kind, topLeftCorner, brickDimensions),
+                            Layer.STATIC_OBJECTS);
+                }
+            }
+            for (int i = 0; i < NUM_BALLS; i++) {
+                Probe ball = new Probe(this, "ball " + i, Kind.BALL,
+                        new Vector2(WINDOW_WIDTH / (NUM_BALLS + 1) * (i + 1), WINDOW_HEIGHT / 2),
+                        new Vector2(BALL_DIAMETER, BALL_DIAMETER));
+                ball.setVelocity(randomDirection().mult(BALL_VELOCITY));
+                add(ball, Layer.DEFAULT);
+            }
+            gameObjectCollection.update(0);
+        }
+
+        private void step() {
+            if (step % PUCK_SPAWN_INTERVAL == 0 && countPucks() < MAX_PUCKS) {
+                spawnPuck();
+            }
+            if (step % BRICK_RESTORE_INTERVAL == 0 && !brokenBricks.isEmpty()) {
+                add(brokenBricks.remove(0), Layer.STATIC_OBJECTS);
+                numBricksRestored++;
+            }
+            for (int i = 0; i < objects.size(); i++) {
+                objects.get(i).update(DELTA_TIME);
+            }
+            gameObjectCollection.update(DELTA_TIME);
+            gameObjectCollection.handleCollisions();
+            // removed between steps, so their pairs are dropped while they're colliding
+            if (step % BRICK_REMOVAL_INTERVAL == 0) {
+                Probe brick = findInContact(Kind.BRICK);
+                if (brick != null) {
+                    remove(brick, Layer.STATIC_OBJECTS);
+                    brokenBricks.add(brick);
+                    numBricksRemovedInContact++;
+                }
+            }
+            if (step % PUCK_REMOVAL_INTERVAL == 0) {
+                Probe puck = findInContact(Kind.PUCK);
+                if (puck != null) {
+                    remove(puck, Layer.DEFAULT);
+                    numPucksRemovedInContact++;
+                }
+            }
+            step++;
+        }
+
+        /*
+         * Breaks a brick during collision handling, as RemoveBrickStrategy does, so it keeps colliding until
+         * the end of the step.
+         */
+        private void breakBrick(Probe brick) {
+            if (remove(brick, Layer.STATIC_OBJECTS)) {
+                brokenBricks.add(brick);
+                numBricksBroken++;
+            }
+        }
+
+        private void record(Probe gameObject, String callback, GameObject other) {
+            log.add(step + ": " + gameObject.name + " " + callback + " " + ((Probe) other).name);
+        }
+
+        private void spawnPuck() {
+            Vector2 topLeftCorner = new Vector2(
+                    BORDER_WIDTH + random.nextFloat() * (WINDOW_WIDTH - 2 * BORDER_WIDTH - PUCK_DIAMETER),
+                    BORDER_WIDTH + random.nextFloat() * (WINDOW_HEIGHT - 2 * BORDER_WIDTH - PUCK_DIAMETER));
+            Probe puck = new Probe(this, "puck " + numPucksSpawned++, Kind.PUCK, topLeftCorner,
+                    new Vector2(PUCK_DIAMETER, PUCK_DIAMETER));
+            float speed = MIN_PUCK_VELOCITY + random.nextFloat() * (MAX_PUCK_VELOCITY - MIN_PUCK_VELOCITY);
+            puck.setVelocity(randomDirection().mult(speed));
+            add(puck, Layer.DEFAULT);
+        }
+
+        private Vector2 randomDirection() {
+            double angle = random.nextDouble() * 2 * Math.PI;
+            return new Vector2((float) Math.cos(angle), (float) Math.sin(angle));
+        }
+
+        private int countPucks() {
+            int numPucks = 0;
+            for (int i = 0; i < objects.size(); i++) {
+                if (objects.get(i).kind == Kind.PUCK) {
+                    numPucks++;
+                }
+            }
+            return numPucks;
+        }
+
+        /*
+         * @return The first object of the given kind that had a callback this step, or null if none did.
+         */
+        private Probe findInContact(Kind kind) {
+            for (int i = 0; i < objects.size(); i++) {
+                Probe gameObject = objects.get(i);
+                if (gameObject.kind == kind && gameObject.lastContactStep == step) {
+                    return gameObject;
+                }
+            }
+            return null;
+        }
+
+        private void add(Probe gameObject, int layerId) {
+            gameObjectCollection.addGameObject(gameObject, layerId);
+            objects.add(gameObject);
+        }
+
+        private boolean remove(Probe gameObject, int layerId) {
+            if (!gameObjectCollection.removeGameObject(gameObject, layerId)) {
+                return false;
+            }
+            objects.remove(gameObject);
+            return true;
+        }
+
+    }
+
+    /*
+     * Records every collision callback it gets into its world's log. Balls bounce off everything but pucks,
+     * and pucks only bounce off the walls, so they drift through bricks and each other.
+     */
+    private static class Probe extends GameObject {
+
+        private final World world;
+        private final String name;
+        private final Kind kind;
+        private int lastContactStep = -1;
+
+        private Probe(World world, String name, Kind kind, Vector2 topLeftCorner, Vector2 dimensions) {
+            super(topLeftCorner, dimensions, null);
+            this.world = world;
+            this.name = name;
+            this.kind = kind;
+        }
+
+        @Override
+        public void onCollisionEnter(GameObject other, Collision collision) {
+            super.onCollisionEnter(other, collision);
+            world.record(this, "enter", other);
+            world.numEnters++;
+            lastContactStep = world.step;
+            Kind otherKind = ((Probe) other).kind;
+            if (kind == Kind.BALL && otherKind != Kind.PUCK || kind == Kind.PUCK && otherKind == Kind.WALL) {
+                setVelocity(getVelocity().flipped(collision.getNormal()));
+            }
+            if (kind == Kind.FRAGILE_BRICK && otherKind == Kind.BALL) {
+                world.breakBrick(this);
+            }
+        }
+
+        @Override
+        public void onCollisionStay(GameObject other, Collision collision) {
+            super.onCollisionStay(other, collision);
+            world.record(this, "stay", other);
+            world.numStays++;
+            lastContactStep = world.step;
+        }
+
+        @Override
+        public void onCollisionExit(GameObject other) {
+            super.onCollisionExit(other);
+            world.record(this, "exit", other);
+            world.numExits++;
+        }
+
+    }
+
+}
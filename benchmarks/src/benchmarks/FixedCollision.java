@@ -0,0 +1,38 @@
+package benchmarks;
+
+import danogl.collisions.Collision;
+import danogl.util.Vector2;
+
+public class FixedCollision implements Collision {
+
+    private final Vector2 normal;
+
+    public FixedCollision(Vector2 normal) {
+        this.normal = normal;
+    }
+
+    @Override
+    public Vector2 getNormal() {
+        return normal;
+    }
+
+    @Override
+    public Vector2 getCollisionPoint() {
+        return Vector2.ZERO;
+    }
+
+    @Override
+    public Vector2 getPenetrationArea() {
+        return Vector2.ZERO;
+    }
+
+    @Override
+    public Vector2 getRelativeVelocity() {
+        return Vector2.ZERO;
+    }
+
+    @Override
+    public void onFrameStart() {
+    }
+
+}
@@ -0,0 +1,106 @@
+package benchmarks;
+
+import danogl.GameManager;
+import danogl.GameObject;
+import danogl.collisions.GameObjectCollection;
+import danogl.gui.Sound;
+import danogl.util.Vector2;
+import gameobjects.Puck;
+import headless.HeadlessGameRunner;
+import headless.SimulatedGame;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.sound.sampled.Clip;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a whole frame of BrickerGameManager.update: object updates, collision handling, strategy
+ * callbacks, out-of-bounds removal and the game-end check.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class GameManagerUpdateBenchmark {
+
+    private static final float DELTA_TIME = 1f / 60;
+    private static final float WINDOW_WIDTH = 700;
+    private static final float MIN_WINDOW_HEIGHT = 500;
+    private static final float BORDER_WIDTH = 20;
+    private static final float BRICK_ROW_HEIGHT = 16;
+    private static final float FREE_HEIGHT_BELOW_BRICKS = 300;
+    private static final float PUCK_DIAMETER = 2;
+    private static final float DISTANCE_BETWEEN_PUCKS = 1;
+    private static final String GRID_SEPARATOR = "x";
+
+    @Param({"5x8", "50x50", "500x500"})
+    public String brickGrid;
+
+    @Param({"1", "100", "10000"})
+    public int numPucks;
+
+    private HeadlessGameRunner runner;
+    private SimulatedGame game;
+    private Sound silentSound;
+    private float pucksTopY;
+    private int gamesStarted;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] gridDimensions = brickGrid.split(GRID_SEPARATOR);
+        int numBricksRows = Integer.parseInt(gridDimensions[0]);
+        int numBricksCols = Integer.parseInt(gridDimensions[1]);
+        // the window grows with the grid so that no brick starts out of bounds
+        float bricksBottomY = BORDER_WIDTH + numBricksRows * BRICK_ROW_HEIGHT;
+        Vector2 windowDimensions = new Vector2(WINDOW_WIDTH,
+                Math.max(MIN_WINDOW_HEIGHT, bricksBottomY + FREE_HEIGHT_BELOW_BRICKS));
+        GameManager gameManager = BrickerGames.newHeadlessGame(windowDimensions, numBricksRows, numBricksCols);
+        game = (SimulatedGame) gameManager;
+        runner = new HeadlessGameRunner(gameManager, windowDimensions, DELTA_TIME);
+        silentSound = new Sound(new Clip[0]);
+        pucksTopY = bricksBottomY + BRICK_ROW_HEIGHT;
+        runner.initializeGame();
+        addPucks();
+    }
+
+    @Benchmark
+    public boolean update() {
+        boolean isWindowOpen = runner.tick();
+        if (runner.getGamesStarted() != gamesStarted) {
+            // the game ended and was re-initialized without the benchmark's pucks
+            addPucks();
+        }
+        return isWindowOpen;
+    }
+
+    /*
+     * The pucks are laid out in a lattice below the bricks and don't move, so their number stays the same
+     * throughout the measurement instead of dropping as they fall out of the window.
+     */
+    private void addPucks() {
+        GameObjectCollection gameObjectCollection = game.getGameObjectCollection();
+        Vector2 puckDimensions = new Vector2(PUCK_DIAMETER, PUCK_DIAMETER);
+        float step = PUCK_DIAMETER + DISTANCE_BETWEEN_PUCKS;
+        int pucksPerRow = (int) ((WINDOW_WIDTH - 2 * BORDER_WIDTH) / step) - 1;
+        for (int i = 0; i < numPucks; i++) {
+            GameObject puck = new Puck(new Vector2(BORDER_WIDTH + step * (1 + i % pucksPerRow),
+                    pucksTopY + step * (i / pucksPerRow)), puckDimensions, null, silentSound);
+            gameObjectCollection.addGameObject(puck);
+        }
+        gamesStarted = runner.getGamesStarted();
+    }
+
+}
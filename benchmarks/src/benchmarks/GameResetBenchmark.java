@@ -0,0 +1,109 @@
+package benchmarks;
+
+import brick_strategies.BrickStrategyFactory;
+import danogl.GameManager;
+import danogl.util.Vector2;
+import headless.HeadlessGameRunner;
+import levels.LevelBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures starting a new game after a played one: in place, as the game does, or by building the world
+ * again, as it does when the level was set again. A level of 0 bricks stands for the default grid.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class GameResetBenchmark {
+
+    private static final float DELTA_TIME = 1f / 60;
+    private static final Vector2 WINDOW_DIMENSIONS = new Vector2(700, 500);
+    private static final int NUM_BRICKS_ROWS = 5;
+    private static final int NUM_BRICKS_COLS = 8;
+    private static final float LEVEL_LEFT = 20;
+    private static final float LEVEL_TOP = 20;
+    private static final float BRICK_WIDTH = 80;
+    private static final float BRICK_HEIGHT = 15;
+    private static final float DISTANCE_BETWEEN_BRICKS = 1;
+    private static final int BRICKS_PER_ROW = 8;
+    private static final int TICKS_PER_GAME = 300;
+
+    @Param({"0", "1000", "1000000"})
+    public int numBricks;
+
+    @Param({"true", "false"})
+    public boolean isInPlace;
+
+    private Path levelPath;
+    private levels.Level level;
+    private GameManager gameManager;
+    private HeadlessGameRunner runner;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() throws IOException {
+        gameManager = BrickerGames.newHeadlessGame(WINDOW_DIMENSIONS, NUM_BRICKS_ROWS, NUM_BRICKS_COLS);
+        if (numBricks > 0) {
+            LevelBuilder levelBuilder = new LevelBuilder();
+            int spriteId = levelBuilder.addSprite("assets/brick.png");
+            for (int i = 0; i < numBricks; i++) {
+                levelBuilder.addBrick(LEVEL_LEFT + (i % BRICKS_PER_ROW) * (BRICK_WIDTH + DISTANCE_BETWEEN_BRICKS),
+                        LEVEL_TOP + (i / BRICKS_PER_ROW) * (BRICK_HEIGHT + DISTANCE_BETWEEN_BRICKS),
+                        BRICK_WIDTH, BRICK_HEIGHT, spriteId, BrickStrategyFactory.RANDOM_STRATEGY_ID);
+            }
+            levelPath = Files.createTempFile("level", ".lvl");
+            levelBuilder.write(levelPath);
+            level = levels.Level.load(levelPath);
+            BrickerGames.setLevel(gameManager, level);
+        }
+        runner = new HeadlessGameRunner(gameManager, WINDOW_DIMENSIONS, DELTA_TIME);
+        runner.initializeGame();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (levelPath != null) {
+            Files.deleteIfExists(levelPath);
+        }
+    }
+
+    /*
+     * Every game is played for a while first, so that the reset has destroyed bricks and spawned objects
+     * to undo.
+     */
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        for (int i = 0; i < TICKS_PER_GAME; i++) {
+            runner.tick();
+        }
+        if (!isInPlace) {
+            BrickerGames.setLevel(gameManager, level);
+        }
+    }
+
+    @Benchmark
+    public HeadlessGameRunner initializeGame() {
+        runner.initializeGame();
+        return runner;
+    }
+
+}
@@ -0,0 +1,213 @@
+package benchmarks;
+
+import danogl.GameManager;
+import danogl.GameObject;
+import danogl.collisions.Collision;
+import danogl.collisions.GameObjectCollection;
+import danogl.gui.Sound;
+import danogl.util.Vector2;
+import gameobjects.Ball;
+import gameobjects.GameObjectPool;
+import gameobjects.GameObjectPools;
+import gameobjects.Paddle;
+import gameobjects.Puck;
+import gameobjects.ScrollingCamera;
+import gameobjects.WidenOrNarrowObject;
+import headless.HeadlessGameRunner;
+import headless.ScriptedInputListener;
+
+import javax.sound.sampled.Clip;
+import java.awt.event.KeyEvent;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.function.Supplier;
+
+/**
+ * Checks that the game's own per-frame code allocates nothing once warmed up: every check runs a call many
+ * times, and then counts the bytes the thread allocated over as many more. Exits with status 1 if any
+ * check allocated, so it can gate a build. The engine's own per-frame work, like pairing up colliding
+ * objects or removing one from a collection, isn't covered, so the checks leave objects where they are in
+ * their collections. Moving objects go through the engine's Transform.update, whose temporaries only the
+ * JIT's escape analysis removes, so run the check with the JIT as the game runs.
+ */
+public class HotPathAllocationCheck {
+
+    private static final int WARMUP_CALLS = 200_000;
+    private static final int MEASURED_CALLS = 100_000;
+    private static final float DELTA_TIME = 1f / 60;
+    private static final Vector2 WINDOW_DIMENSIONS = new Vector2(700, 500);
+    private static final Vector2 PADDLE_DIMENSIONS = new Vector2(150, 20);
+    private static final int PADDLE_MIN_DISTANCE_FROM_EDGE = 21;
+    private static final float BALL_DIAMETER = 35;
+    private static final float BALL_VELOCITY = 200;
+    private static final float WORLD_HEIGHT = 2000;
+    private static final Vector2 POWER_UP_DIMENSIONS = new Vector2(30, 30);
+    private static final float POWER_UP_VELOCITY = 150;
+    private static final int NUM_FALLING_PUCKS = 50;
+    private static final int NUM_BRICKS_ROWS = 5;
+    private static final int NUM_BRICKS_COLS = 8;
+    private static final Object[] NO_ARGS = {};
+
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) {
+        boolean isAllocationFree = true;
+        isAllocationFree &= check("Paddle.update", paddleUpdate());
+        isAllocationFree &= check("Ball.onCollisionEnter", bounce(new Ball(Vector2.ZERO,
+                new Vector2(BALL_DIAMETER, BALL_DIAMETER), null, new Sound(new Clip[0]))));
+        isAllocationFree &= check("Puck.onCollisionEnter", bounce(new Puck(Vector2.ZERO,
+                new Vector2(BALL_DIAMETER, BALL_DIAMETER), null, new Sound(new Clip[0]))));
+        isAllocationFree &= check("ScrollingCamera.update", scrollingCameraUpdate());
+        isAllocationFree &= check("WidenOrNarrowObject.update", widenOrNarrowObjectUpdate());
+        isAllocationFree &= check("WidenOrNarrowObject.onCollisionEnter", widenOrNarrowObjectCatch());
+        isAllocationFree &= check("GameObjectPools.removeObjectsBelow", removeObjectsBelow());
+        isAllocationFree &= check("BrickerGameManager.checkForGameEnd", gameManagerCall("checkForGameEnd"));
+        if (!isAllocationFree) {
+            System.exit(1);
+        }
+    }
+
+    private static Runnable paddleUpdate() {
+        ScriptedInputListener inputListener = new ScriptedInputListener();
+        inputListener.pressKey(KeyEvent.VK_LEFT);
+        Paddle paddle = new Paddle(Vector2.ZERO, PADDLE_DIMENSIONS, null, inputListener, WINDOW_DIMENSIONS,
+                PADDLE_MIN_DISTANCE_FROM_EDGE);
+        paddle.setCenter(WINDOW_DIMENSIONS.mult(0.5f));
+        // alternates between both keys and the left one, so that both branches of the update run
+        int[] calls = {0};
+        return () -> {
+            if (calls[0]++ % 2 == 0) {
+                inputListener.pressKey(KeyEvent.VK_RIGHT);
+            } else {
+                inputListener.releaseKey(KeyEvent.VK_RIGHT);
+            }
+            paddle.update(DELTA_TIME);
+        };
+    }
+
+    private static Runnable bounce(Ball ball) {
+        ball.setVelocity(new Vector2(BALL_VELOCITY, BALL_VELOCITY));
+        GameObject other = new GameObject(Vector2.ZERO, Vector2.ONES, null);
+        // facing normals alternate, so that every bounce flips the velocity back
+        Collision[] collisions = {new FixedCollision(Vector2.UP), new FixedCollision(Vector2.DOWN)};
+        int[] calls = {0};
+        return () -> ball.onCollisionEnter(other, collisions[calls[0]++ % collisions.length]);
+    }
+
+    private static Runnable scrollingCameraUpdate() {
+        Ball ball = new Ball(Vector2.ZERO, new Vector2(BALL_DIAMETER, BALL_DIAMETER), null,
+                new Sound(new Clip[0]));
+        ScrollingCamera camera = new ScrollingCamera(ball, WINDOW_DIMENSIONS, WORLD_HEIGHT);
+        // the ball is moved by hand, so that the camera follows it through the whole world
+        return () -> {
+            float ballY = ball.getTopLeftCorner().y() + BALL_VELOCITY * DELTA_TIME;
+            ball.transform().setTopLeftCorner(0, ballY > WORLD_HEIGHT ? 0 : ballY);
+            camera.update(DELTA_TIME);
+        };
+    }
+
+    private static Runnable widenOrNarrowObjectUpdate() {
+        WidenOrNarrowObject widenOrNarrowObject = new WidenOrNarrowObject(Vector2.ZERO, POWER_UP_DIMENSIONS,
+                null, new GameObjectCollection(), true, new GameObjectPools(1).getWidenOrNarrowObjectPool());
+        widenOrNarrowObject.setVelocity(new Vector2(0, POWER_UP_VELOCITY));
+        // the object falls through the whole world, and then from its top again
+        return () -> {
+            if (widenOrNarrowObject.getTopLeftCorner().y() > WORLD_HEIGHT) {
+                widenOrNarrowObject.transform().setTopLeftCorner(0, 0);
+            }
+            widenOrNarrowObject.update(DELTA_TIME);
+        };
+    }
+
+    /*
+     * A power-up caught by the paddle resizes it, and is removed and returned to its pool, which hands it out
+     * again in the next frame, as it is when a brick spawns the next one.
+     */
+    private static Runnable widenOrNarrowObjectCatch() {
+        GameObjectPool<WidenOrNarrowObject> pool = new GameObjectPools(1).getWidenOrNarrowObjectPool();
+        // the engine's removal allocates, so the collection only tells the object it was in it
+        GameObjectCollection gameObjectCollection = new GameObjectCollection() {
+            @Override
+            public boolean removeGameObject(GameObject gameObject) {
+                return true;
+            }
+        };
+        Supplier<WidenOrNarrowObject> factory = () -> new WidenOrNarrowObject(Vector2.ZERO, POWER_UP_DIMENSIONS,
+                null, gameObjectCollection, true, pool);
+        GameObject paddle = new GameObject(Vector2.ZERO, PADDLE_DIMENSIONS, null);
+        Collision collision = new FixedCollision(Vector2.UP);
+        // widening and narrowing alternate, and the paddle is put back to size so it doesn't shrink away
+        int[] calls = {0};
+        return () -> {
+            WidenOrNarrowObject widenOrNarrowObject = pool.acquire(factory);
+            widenOrNarrowObject.setWiden(calls[0]++ % 2 == 0);
+            paddle.transform().setDimensions(PADDLE_DIMENSIONS.x(), PADDLE_DIMENSIONS.y());
+            widenOrNarrowObject.onCollisionEnter(paddle, collision);
+            pool.onFrameStart();
+        };
+    }
+
+    /*
+     * Pucks falling through the world, none of them low enough to be removed.
+     */
+    private static Runnable removeObjectsBelow() {
+        GameObjectPools gameObjectPools = new GameObjectPools(NUM_FALLING_PUCKS);
+        GameObjectCollection gameObjectCollection = new GameObjectCollection();
+        Sound sound = new Sound(new Clip[0]);
+        for (int i = 0; i < NUM_FALLING_PUCKS; i++) {
+            Puck puck = gameObjectPools.getPuckPool().acquire(() -> new Puck(Vector2.ZERO,
+                    new Vector2(BALL_DIAMETER, BALL_DIAMETER), null, sound));
+            puck.transform().setTopLeftCorner(i * BALL_DIAMETER, i * WORLD_HEIGHT / NUM_FALLING_PUCKS);
+            gameObjectCollection.addGameObject(puck);
+        }
+        gameObjectCollection.update(0);
+        return () -> gameObjectPools.removeObjectsBelow(gameObjectCollection, WORLD_HEIGHT + BALL_DIAMETER);
+    }
+
+    /*
+     * Calls one of the private per-step methods of a headless game at its start, where its ball is in play
+     * and its bricks are left. The game manager lives in the default package, so the method is looked up by
+     * name; once the JIT generated its accessor, a call through it allocates nothing by itself.
+     */
+    private static Runnable gameManagerCall(String methodName) {
+        GameManager gameManager = BrickerGames.newHeadlessGame(WINDOW_DIMENSIONS, NUM_BRICKS_ROWS,
+                NUM_BRICKS_COLS);
+        new HeadlessGameRunner(gameManager, WINDOW_DIMENSIONS, DELTA_TIME).initializeGame();
+        Method method;
+        try {
+            method = gameManager.getClass().getDeclaredMethod(methodName);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Failed to find " + methodName, e);
+        }
+        method.setAccessible(true);
+        return () -> {
+            try {
+                method.invoke(gameManager, NO_ARGS);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException("Failed to call " + methodName, e);
+            }
+        };
+    }
+
+    private static boolean check(String name, Runnable call) {
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            call.run();
+        }
+        long threadId = Thread.currentThread().getId();
+        // reading the counter can allocate by itself, which an empty loop accounts for
+        long baselineStart = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId);
+        long baselineBytes = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId) - baselineStart;
+        long start = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            call.run();
+        }
+        long allocatedBytes = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId) - start - baselineBytes;
+        boolean isAllocationFree = allocatedBytes <= 0;
+        System.out.printf("%-40s %s (%.2f bytes per call)%n", name, isAllocationFree ? "OK" : "ALLOCATES",
+                (double) allocatedBytes / MEASURED_CALLS);
+        return isAllocationFree;
+    }
+
+}
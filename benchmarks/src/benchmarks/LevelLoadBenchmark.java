@@ -0,0 +1,80 @@
+package benchmarks;
+
+import brick_strategies.BrickStrategyFactory;
+import levels.Level;
+import levels.LevelBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures mapping a binary level file, alone and followed by a pass that reads every brick's fields, as
+ * building the level's bricks does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class LevelLoadBenchmark {
+
+    private static final float BRICK_WIDTH = 80;
+    private static final float BRICK_HEIGHT = 15;
+    private static final float DISTANCE_BETWEEN_BRICKS = 1;
+    private static final int BRICKS_PER_ROW = 1000;
+
+    @Param({"1000", "1000000"})
+    public int numBricks;
+
+    private Path levelPath;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setUp() throws IOException {
+        LevelBuilder levelBuilder = new LevelBuilder();
+        int spriteId = levelBuilder.addSprite("assets/brick.png");
+        for (int i = 0; i < numBricks; i++) {
+            levelBuilder.addBrick((i % BRICKS_PER_ROW) * (BRICK_WIDTH + DISTANCE_BETWEEN_BRICKS),
+                    (i / BRICKS_PER_ROW) * (BRICK_HEIGHT + DISTANCE_BETWEEN_BRICKS), BRICK_WIDTH, BRICK_HEIGHT,
+                    spriteId, BrickStrategyFactory.RANDOM_STRATEGY_ID);
+        }
+        levelPath = Files.createTempFile("level", ".lvl");
+        levelBuilder.write(levelPath);
+    }
+
+    @TearDown(org.openjdk.jmh.annotations.Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(levelPath);
+    }
+
+    @Benchmark
+    public Level load() throws IOException {
+        return Level.load(levelPath);
+    }
+
+    @Benchmark
+    public float loadAndReadBricks() throws IOException {
+        Level level = Level.load(levelPath);
+        float sum = 0;
+        for (int i = 0; i < level.getNumBricks(); i++) {
+            sum += level.getBrickX(i) + level.getBrickY(i) + level.getBrickWidth(i) + level.getBrickHeight(i) +
+                    level.getSpriteId(i) + level.getStrategyId(i);
+        }
+        return sum;
+    }
+
+}
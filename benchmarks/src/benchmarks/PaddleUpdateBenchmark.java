@@ -0,0 +1,59 @@
+package benchmarks;
+
+import danogl.util.Vector2;
+import gameobjects.Paddle;
+import headless.ScriptedInputListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.event.KeyEvent;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class PaddleUpdateBenchmark {
+
+    private static final float DELTA_TIME = 1f / 60;
+    private static final Vector2 WINDOW_DIMENSIONS = new Vector2(700, 500);
+    private static final Vector2 PADDLE_DIMENSIONS = new Vector2(150, 20);
+    private static final int PADDLE_MIN_DISTANCE_FROM_EDGE = 21;
+
+    @Param({"none", "left", "right", "both"})
+    public String pressedKeys;
+
+    private Paddle paddle;
+
+    @Setup
+    public void setUp() {
+        ScriptedInputListener inputListener = new ScriptedInputListener();
+        if (pressedKeys.equals("left") || pressedKeys.equals("both")) {
+            inputListener.pressKey(KeyEvent.VK_LEFT);
+        }
+        if (pressedKeys.equals("right") || pressedKeys.equals("both")) {
+            inputListener.pressKey(KeyEvent.VK_RIGHT);
+        }
+        paddle = new Paddle(Vector2.ZERO, PADDLE_DIMENSIONS, null, inputListener, WINDOW_DIMENSIONS,
+                PADDLE_MIN_DISTANCE_FROM_EDGE);
+        paddle.setCenter(WINDOW_DIMENSIONS.mult(0.5f));
+    }
+
+    @Benchmark
+    public Vector2 update() {
+        paddle.update(DELTA_TIME);
+        return paddle.getVelocity();
+    }
+
+}
@@ -0,0 +1,123 @@
+package benchmarks;
+
+import brick_strategies.BrickStrategyFactory;
+import danogl.GameManager;
+import danogl.util.Vector2;
+import headless.HeadlessGameRunner;
+import levels.LevelBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import snapshots.SnapshotRing;
+import snapshots.Snapshottable;
+import snapshots.WorldSnapshot;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures capturing a snapshot of a game that has been played for a while, on its own or into a ring,
+ * checksumming it as a lockstep game does after every step, and restoring it. A level of 0 bricks stands
+ * for the default grid; levels of 10,000 bricks or more are brick fields.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class SnapshotBenchmark {
+
+    private static final float DELTA_TIME = 1f / 60;
+    private static final Vector2 WINDOW_DIMENSIONS = new Vector2(700, 500);
+    private static final int NUM_BRICKS_ROWS = 5;
+    private static final int NUM_BRICKS_COLS = 8;
+    private static final float LEVEL_LEFT = 20;
+    private static final float LEVEL_TOP = 20;
+    private static final float BRICK_WIDTH = 80;
+    private static final float BRICK_HEIGHT = 15;
+    private static final float DISTANCE_BETWEEN_BRICKS = 1;
+    private static final int BRICKS_PER_ROW = 8;
+    private static final int TICKS_BEFORE_SNAPSHOT = 600;
+    private static final int RING_CAPACITY = 300;
+
+    @Param({"0", "10000", "1000000"})
+    public int numBricks;
+
+    private Path levelPath;
+    private Snapshottable game;
+    private WorldSnapshot snapshot;
+    private SnapshotRing snapshotRing;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        GameManager gameManager = BrickerGames.newHeadlessGame(WINDOW_DIMENSIONS, NUM_BRICKS_ROWS,
+                NUM_BRICKS_COLS);
+        if (numBricks > 0) {
+            LevelBuilder levelBuilder = new LevelBuilder();
+            int spriteId = levelBuilder.addSprite("assets/brick.png");
+            for (int i = 0; i < numBricks; i++) {
+                levelBuilder.addBrick(LEVEL_LEFT + (i % BRICKS_PER_ROW) * (BRICK_WIDTH + DISTANCE_BETWEEN_BRICKS),
+                        LEVEL_TOP + (i / BRICKS_PER_ROW) * (BRICK_HEIGHT + DISTANCE_BETWEEN_BRICKS),
+                        BRICK_WIDTH, BRICK_HEIGHT, spriteId, BrickStrategyFactory.RANDOM_STRATEGY_ID);
+            }
+            levelPath = Files.createTempFile("level", ".lvl");
+            levelBuilder.write(levelPath);
+            BrickerGames.setLevel(gameManager, levels.Level.load(levelPath));
+        }
+        HeadlessGameRunner runner = new HeadlessGameRunner(gameManager, WINDOW_DIMENSIONS, DELTA_TIME);
+        runner.initializeGame();
+        // a game with destroyed bricks and spawned objects, which is still going on
+        for (int i = 0; i < TICKS_BEFORE_SNAPSHOT; i++) {
+            runner.tick();
+        }
+        game = (Snapshottable) gameManager;
+        snapshot = new WorldSnapshot();
+        game.captureSnapshot(snapshot);
+        snapshotRing = new SnapshotRing(RING_CAPACITY, snapshot.getSize());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (levelPath != null) {
+            Files.deleteIfExists(levelPath);
+        }
+    }
+
+    @Benchmark
+    public WorldSnapshot captureSnapshot() {
+        game.captureSnapshot(snapshot);
+        return snapshot;
+    }
+
+    @Benchmark
+    public SnapshotRing captureIntoRing() {
+        snapshotRing.capture(game);
+        return snapshotRing;
+    }
+
+    @Benchmark
+    public long captureChecksum() {
+        game.captureSnapshot(snapshot);
+        return snapshot.getChecksum();
+    }
+
+    @Benchmark
+    public Snapshottable restoreSnapshot() {
+        game.restoreSnapshot(snapshot);
+        return game;
+    }
+
+}
@@ -0,0 +1,56 @@
+package benchmarks;
+
+import brick_strategies.BrickStrategyFactory;
+import brick_strategies.CollisionStrategy;
+import danogl.collisions.GameObjectCollection;
+import danogl.util.Vector2;
+import gameobjects.GameObjectPools;
+import headless.HeadlessImageReader;
+import headless.HeadlessSoundReader;
+import headless.HeadlessWindowController;
+import headless.ScriptedInputListener;
+import randomness.RandomService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building the strategy chain of a single brick, which createBricks does for every brick.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class StrategyFactoryBenchmark {
+
+    private static final Vector2 WINDOW_DIMENSIONS = new Vector2(700, 500);
+    private static final long SEED = 42;
+
+    private BrickStrategyFactory brickStrategyFactory;
+
+    @Setup
+    public void setUp() {
+        HeadlessWindowController windowController = new HeadlessWindowController(WINDOW_DIMENSIONS, true);
+        brickStrategyFactory = new BrickStrategyFactory(new GameObjectCollection(),
+                new CameraHoldingGameManager(), new HeadlessImageReader(windowController),
+                new HeadlessSoundReader(windowController), new ScriptedInputListener(), windowController,
+                WINDOW_DIMENSIONS, new GameObjectPools(0), new RandomService(SEED));
+    }
+
+    @Benchmark
+    public CollisionStrategy getStrategy() {
+        return brickStrategyFactory.getStrategy();
+    }
+
+}
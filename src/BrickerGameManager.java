@@ -1,24 +1,55 @@
+import asset_cache.AssetCache;
+import asset_cache.CachingImageReader;
+import asset_cache.CachingSoundReader;
+import audio.AudioMixer;
 import brick_strategies.BrickStrategyFactory;
+import collisions.GridIndexedGameObjectCollection;
+import counters.ObservableCounter;
 import gameobjects.*;
+import headless.GameStatistics;
+import headless.HeadlessGameRunner;
+import headless.HeadlessTextRenderable;
+import headless.SimulatedGame;
+import jfr.GameResetEvent;
+import jfr.LifeLostEvent;
+import levels.BrickField;
+import levels.BrickGrid;
+import levels.Level;
+import levels.LevelStreamer;
+import netplay.LockstepController;
+import netplay.LockstepSession;
+import profiling.FrameProfiler;
+import randomness.RandomService;
+import randomness.RewindableRandom;
+import rendering.StaticLayerCache;
+import replays.ReplayRecorder;
+import replays.ReplayWriter;
+import snapshots.SnapshotController;
+import snapshots.SnapshotRing;
+import snapshots.Snapshottable;
+import snapshots.SnapshottableBricks;
+import snapshots.WorldSnapshot;
+import snapshots.WorldSnapshotCodec;
+import timing.FixedTimestep;
 import danogl.GameManager;
 import danogl.GameObject;
 import danogl.collisions.GameObjectCollection;
 import danogl.collisions.Layer;
 import danogl.components.CoordinateSpace;
 import danogl.gui.*;
+import danogl.gui.rendering.Camera;
 import danogl.gui.rendering.RectangleRenderable;
 import danogl.gui.rendering.Renderable;
-import danogl.util.Counter;
+import danogl.gui.rendering.TextRenderable;
+import danogl.util.ModifiableList;
 import danogl.util.Vector2;
 
 import java.awt.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Objects;
-import java.util.Random;
 
-public class BrickerGameManager extends GameManager {
-
-    private static final float WINDOW_WIDTH = 700;
-    private static final float WINDOW_HEIGHT = 500;
+public class BrickerGameManager extends GameManager implements SimulatedGame, Snapshottable {
 
     private static final float CENTER_CONSTANT = 0.5f;
 
@@ -29,13 +60,13 @@ public class BrickerGameManager extends GameManager {
     private static final String BALL_TAG = "ball";
 
     private static final float PADDLE_HEIGHT = 20;
-    private static final float PADDLE_WIDTH = 150;
+    static final float PADDLE_WIDTH = 150;
     private static final int PADDLE_MIN_DISTANCE_FROM_EDGE = BORDER_WIDTH + 1;
     private static final float PADDLE_DISTANCE_FROM_BOTTOM = 30;
 
     private static final float BRICK_HEIGHT = 15;
-    private static final int NUM_BRICKS_ROWS = 5;
-    private static final int NUM_BRICKS_COLS = 8;
+    static final int NUM_BRICKS_ROWS = 5;
+    static final int NUM_BRICKS_COLS = 8;
     private static final float DISTANCE_BETWEEN_BRICKS = 1;
     private static final float EXTREME_BRICK_DISTANCE_FROM_BORDER = 5;
 
@@ -51,12 +82,90 @@ public class BrickerGameManager extends GameManager {
     private static final String LOSE_MSG = "You lose!";
     private static final String PLAY_AGAIN_MSG = " Play again?";
 
-    private GameObject ball;
+    private static final String ASSETS_DIRECTORY = "assets";
+    private static final String ASSET_BUNDLE_PATH = ASSETS_DIRECTORY + "/assets.bundle";
+
+    // levels whose bricks come closer than this to the bottom of the window scroll
+    private static final float MIN_DISTANCE_BELOW_LEVEL = 350;
+    private static final float LEVEL_CHUNK_HEIGHT = 128;
+    // levels with at least this many bricks keep them in a BrickField rather than as objects
+    private static final int BRICK_FIELD_MIN_BRICKS = 10_000;
+
+    // the layers the game puts its objects in, in the order the collection iterates over them, its draw order
+    private static final int[] LAYERS_IN_UPDATE_ORDER =
+            {Layer.BACKGROUND, Layer.STATIC_OBJECTS, Layer.DEFAULT, Layer.FOREGROUND, Layer.UI};
+    // the layers drawn over the static layer cache, in order
+    private static final int[] LAYERS_DRAWN_OVER_STATIC_CACHE =
+            {Layer.BACKGROUND, Layer.DEFAULT, Layer.FOREGROUND, Layer.UI};
+
+    // a snapshot every tenth of a second of a window's game, and the last half minute of them
+    private static final int DEFAULT_SNAPSHOT_INTERVAL = 6;
+    private static final int DEFAULT_NUM_SNAPSHOTS = 300;
+
+    // the paddles of a two-player game start at these fractions of the window's width, by player
+    private static final float[] TWO_PLAYER_PADDLE_CENTERS = {0.25f, 0.75f};
+
+    private static final int DEFAULT_MAX_POOLED_OBJECTS = 64;
+    static final int DEFAULT_STEPS_PER_SECOND = 60;
+    static final int DEFAULT_MAX_STEPS_PER_FRAME = 5;
+
+    private final boolean isHeadless;
+    private final int numBricksRows;
+    private final int numBricksCols;
+    private final RandomService randomService;
+    private RewindableRandom ballRandom;
+    private Camera headlessCamera;
+    private int maxPooledObjects = DEFAULT_MAX_POOLED_OBJECTS;
+    private GameObjectPools gameObjectPools;
+    private DynamicObjectRegistry movingObjects;
+    private FixedTimestep fixedTimestep = new FixedTimestep(DEFAULT_STEPS_PER_SECOND, DEFAULT_MAX_STEPS_PER_FRAME);
+    private int targetFramerate;
+    private FrameProfiler frameProfiler = FrameProfiler.DISABLED;
+    // the session's sounds play through its own mixer, and are opened once for it
+    private final AudioMixer audioMixer;
+    private CachingSoundReader cachingSoundReader;
+    private Level level;
+    private LevelStreamer levelStreamer;
+    private BrickField brickField;
+    private StaticLayerCache staticLayerCache;
+    private ScrollingCamera scrollingCamera;
+    private float worldHeight;
+    private BrickStrategyFactory brickStrategyFactory;
+    private int numBricks;
+    private long numPucksBeforeGame;
+    private long numUpdates;
+    private boolean isGameOver;
+    private boolean isGameWon;
+    // set when a setting changed that the world is built around, so the next game builds it anew
+    private boolean isWorldStale;
+    // tells the games of the session apart, so that a snapshot is only restored into its own game
+    private long numGamesStarted;
+    private final SnapshotController snapshotController = new SnapshotController(this);
+    private WorldSnapshotCodec snapshotCodec;
+    // null unless the game is played by two players in lockstep
+    private LockstepController lockstepController;
+    // null unless the session is recorded
+    private ReplayRecorder replayRecorder;
+    // the steps simulated since the session started, across its games and never rewound
+    private long numSessionSteps;
+
+    private Ball ball;
+    private Paddle paddle;
+    // the second player's paddle, or null
+    private Paddle secondPaddle;
+    private GameObject[] borders;
     private GameObject background;
+    // the grid, the level streamer or the brick field, whichever holds the bricks
+    private SnapshottableBricks bricks;
+    // null unless the bricks are a grid
+    private BrickGrid brickGrid;
+    private GraphicLifeCounter[] graphicLives;
+    private NumericLifeCounter numericLifeCounter;
 
-    private Counter bricksCounter;
-    private Counter livesCounter;
+    private ObservableCounter bricksCounter;
+    private ObservableCounter livesCounter;
 
+    private UserInputListener inputListener;
     private WindowController windowController;
     private Vector2 windowDimensions;
 
@@ -67,12 +176,64 @@ public class BrickerGameManager extends GameManager {
      * @param windowDimensions dimensions in pixels. can be null to indicate a
      */
     public BrickerGameManager(String windowTitle, Vector2 windowDimensions) {
+        this(windowTitle, windowDimensions, false);
+    }
+
+    /**
+     * Creates a game that is either shown in a window or simulated without one
+     *
+     * @param windowTitle      can be null to indicate the usage of the default window title
+     * @param windowDimensions dimensions in pixels. can be null to indicate a
+     * @param isHeadless       true if the game is driven by a HeadlessGameRunner rather than by run()
+     */
+    public BrickerGameManager(String windowTitle, Vector2 windowDimensions, boolean isHeadless) {
+        this(windowTitle, windowDimensions, isHeadless, NUM_BRICKS_ROWS, NUM_BRICKS_COLS);
+    }
+
+    /**
+     * Creates a game with a brick grid of the given size
+     *
+     * @param windowTitle      can be null to indicate the usage of the default window title
+     * @param windowDimensions dimensions in pixels. can be null to indicate a
+     * @param isHeadless       true if the game is driven by a HeadlessGameRunner rather than by run()
+     * @param numBricksRows    number of rows in the brick grid
+     * @param numBricksCols    number of bricks in every row of the grid
+     */
+    public BrickerGameManager(String windowTitle, Vector2 windowDimensions, boolean isHeadless,
+                              int numBricksRows, int numBricksCols) {
+        this(windowTitle, windowDimensions, isHeadless, numBricksRows, numBricksCols,
+                new RandomService(RandomService.newSeed()));
+    }
+
+    /**
+     * Creates a game whose randomness is fully determined by the given service
+     *
+     * @param windowTitle      can be null to indicate the usage of the default window title
+     * @param windowDimensions dimensions in pixels. can be null to indicate a
+     * @param isHeadless       true if the game is driven by a HeadlessGameRunner rather than by run()
+     * @param numBricksRows    number of rows in the brick grid
+     * @param numBricksCols    number of bricks in every row of the grid
+     * @param randomService    the source of every random choice made in this session's games
+     */
+    public BrickerGameManager(String windowTitle, Vector2 windowDimensions, boolean isHeadless,
+                              int numBricksRows, int numBricksCols, RandomService randomService) {
         super(windowTitle, windowDimensions);
+        this.isHeadless = isHeadless;
+        this.numBricksRows = numBricksRows;
+        this.numBricksCols = numBricksCols;
+        this.randomService = randomService;
+        // a mixer of the session's own, so sessions in the same process don't mix their sounds
+        this.audioMixer = isHeadless ? AudioMixer.DISABLED : new AudioMixer();
+        if (!isHeadless) {
+            setSnapshots(DEFAULT_SNAPSHOT_INTERVAL, DEFAULT_NUM_SNAPSHOTS);
+        }
     }
 
     /**
      * The method will be called once when a GameGUIComponent is created,
      * and again after every invocation of windowController.resetGame().
+     * Once a game was set up, the games that follow reuse its objects, unless the level or the profiler
+     * changed, or the game is set up for another window or input listener.
      *
      * @param imageReader      Contains a single method: readImage, which reads an image from disk.
      *                         See its documentation for help.
@@ -91,29 +252,93 @@ public class BrickerGameManager extends GameManager {
     @Override
     public void initializeGame(ImageReader imageReader, SoundReader soundReader,
                                UserInputListener inputListener, WindowController windowController) {
+        GameResetEvent gameResetEvent = new GameResetEvent();
+        gameResetEvent.begin();
+        numGamesStarted++;
+        snapshotController.onGameStart();
+        if (canResetInPlace(inputListener, windowController)) {
+            // GameManager's initialization would replace the collection the world is in
+            if (!isHeadless && targetFramerate > 0) {
+                windowController.setTargetFramerate(targetFramerate);
+            }
+            resetGameInPlace();
+            gameResetEvent.commit(numBricks, livesCounter.value(), true);
+            return;
+        }
         // initialization
-        super.initializeGame(imageReader, soundReader, inputListener, windowController);
+        if (isHeadless) {
+            // GameManager's initialization registers mouse listeners on the window, which doesn't exist here
+            headlessCamera = null;
+        } else {
+            super.initializeGame(imageReader, soundReader, inputListener, windowController);
+            if (targetFramerate > 0) {
+                windowController.setTargetFramerate(targetFramerate);
+            }
+            // assets are decoded once per process and shared by every game that follows, or only copied out
+            // of the bundle built from them, as long as it's up to date
+            AssetCache assetCache = AssetCache.getInstance();
+            if (!assetCache.preloadBundle(ASSET_BUNDLE_PATH)) {
+                assetCache.preload(ASSETS_DIRECTORY, windowController);
+            }
+            imageReader = new CachingImageReader(windowController, assetCache);
+            // the reader outlives the world, so that a new one doesn't open the session's sounds again
+            if (cachingSoundReader == null) {
+                cachingSoundReader = new CachingSoundReader(windowController, assetCache, audioMixer);
+            }
+            soundReader = cachingSoundReader;
+        }
+        this.inputListener = inputListener;
         this.windowController = windowController;
         windowDimensions = windowController.getWindowDimensions();
+        // the world is as tall as the window, unless the level needs more room to scroll through
+        worldHeight = level == null ?
+                windowDimensions.y() : Math.max(windowDimensions.y(), level.getBottom() + MIN_DISTANCE_BELOW_LEVEL);
+        GridIndexedGameObjectCollection gameObjectCollection = createGameObjectCollection();
+        setGameObjectsCollection(gameObjectCollection);
+        // pools hold on to objects of the previous collection, so every game gets its own
+        gameObjectPools = new GameObjectPools(maxPooledObjects);
+        // the ball and paddle, which are interpolated when rendering along with the pooled objects
+        movingObjects = new DynamicObjectRegistry();
+        fixedTimestep.reset();
+        // balls and pucks don't skip bricks, borders or paddles however far they move in a step
+        gameObjectCollection.setSweptObjects(gameObject -> gameObject instanceof Ball, movingObjects,
+                gameObjectPools.getDynamicObjectRegistry());
+        gameObjectCollection.setFrameProfiler(frameProfiler);
+        // streams are split in a fixed order, so every game of the session is reproducible from the seed
+        ballRandom = new RewindableRandom(randomService.split());
+        scrollingCamera = null;
+        numUpdates = 0;
+        isGameOver = false;
+        isGameWon = false;
 
         // create ball
         createBall(imageReader, soundReader);
 
-        // create paddle
-        createPaddle(imageReader, inputListener);
+        // create scrolling camera
+        createScrollingCamera();
+
+        // create paddles, which are steered by the players' inputs of every step in a lockstep or recorded game
+        UserInputListener paddleInputListener = lockstepController != null ?
+                lockstepController.getInputListener(0) :
+                replayRecorder != null ? replayRecorder.getInputListener() : inputListener;
+        paddle = createPaddle(imageReader, paddleInputListener, 0);
+        secondPaddle = lockstepController != null ?
+                createPaddle(imageReader, lockstepController.getInputListener(1), 1) : null;
 
         // create borders
         createBorders();
 
-        BrickStrategyFactory brickStrategyFactory = new BrickStrategyFactory(gameObjects(), this, imageReader,
-                soundReader, inputListener, windowController, windowDimensions);
+        // mock paddles follow the first player's keys
+        brickStrategyFactory = new BrickStrategyFactory(gameObjects(), this, imageReader, soundReader,
+                paddleInputListener, windowController, windowDimensions, gameObjectPools, randomService);
+        brickStrategyFactory.setFrameProfiler(frameProfiler);
 
-        // create bricks
-        createBricks(imageReader, brickStrategyFactory);
-
-        // create background
+        // create background, which a brick field is drawn over
         createBackground(imageReader);
 
+        // create bricks
+        createBricks(imageReader);
+
         // create graphic lives
         createGraphicLives(imageReader);
 
@@ -122,6 +347,137 @@ public class BrickerGameManager extends GameManager {
 
         // set camera coordinate space
         background.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
+
+        // create the cache of what rarely changes, which is drawn again only where bricks come and go
+        createStaticLayerCache(gameObjectCollection);
+
+        // snapshots refer to the objects of this world
+        snapshotCodec = new WorldSnapshotCodec(this, gameObjectCollection, gameObjectPools, brickStrategyFactory,
+                ball, secondPaddle != null ? new Paddle[]{paddle, secondPaddle} : new Paddle[]{paddle}, borders,
+                scrollingCamera);
+
+        numPucksBeforeGame = 0;
+        isWorldStale = false;
+        gameResetEvent.commit(numBricks, livesCounter.value(), false);
+    }
+
+    private boolean canResetInPlace(UserInputListener inputListener, WindowController windowController) {
+        return ball != null && !isWorldStale && inputListener == this.inputListener &&
+                windowController == this.windowController;
+    }
+
+    /*
+     * Starts a new game in the world of the last one, rather than building the world again. Every object
+     * leaves the collection, the spawned ones for their pools, and the world's own are put back the way a
+     * new game creates them and added back in the same order, with the random streams split in the same
+     * order too, so the game plays exactly as it would in a new world: the layers hold the objects in the
+     * same order, no collision carries over, and the moving objects start as still as new ones. No asset is
+     * read again, and only a level streamer's bricks may be created, as many as there are around the view
+     * at most, so a restart takes about the same time however large the level is.
+     */
+    private void resetGameInPlace() {
+        GameObjectCollection gameObjectCollection = gameObjects();
+        // the last step's removals are applied first, and the removals below before anything is added back
+        gameObjectCollection.update(0);
+        removeAllObjects(Layer.DEFAULT);
+        removeAllObjects(Layer.BACKGROUND);
+        bricks.reset();
+        for (GraphicLifeCounter graphicLife : graphicLives) {
+            livesCounter.removeListener(graphicLife);
+        }
+        livesCounter.removeListener(numericLifeCounter);
+        gameObjectCollection.update(0);
+
+        fixedTimestep.reset();
+        ballRandom.setRandom(randomService.split());
+        numUpdates = 0;
+        isGameOver = false;
+        isGameWon = false;
+
+        // power-ups change the size of whatever they hit, which the world's own objects get back
+        ball.resetCollisionCount();
+        ball.transform().setDimensions(BALL_DIAMETER, BALL_DIAMETER);
+        ball.stop();
+        repositionBall(ball);
+        gameObjectCollection.addGameObject(ball);
+        if (scrollingCamera != null) {
+            scrollingCamera.follow();
+        }
+        // a strategy may have switched to a camera of its own
+        setCamera(scrollingCamera);
+        paddle.stop();
+        repositionPaddle(paddle, 0);
+        gameObjectCollection.addGameObject(paddle);
+        if (secondPaddle != null) {
+            secondPaddle.stop();
+            repositionPaddle(secondPaddle, 1);
+            gameObjectCollection.addGameObject(secondPaddle);
+        }
+        Vector2[][] bordersAttributes = getBordersAttributes();
+        for (int i = 0; i < borders.length; i++) {
+            borders[i].setDimensions(bordersAttributes[i][1]);
+            borders[i].setTopLeftCorner(bordersAttributes[i][0]);
+            gameObjectCollection.addGameObject(borders[i]);
+        }
+
+        brickStrategyFactory.reset(randomService);
+        gameObjectCollection.addGameObject(background, Layer.BACKGROUND);
+        resetBricks();
+        for (GraphicLifeCounter graphicLife : graphicLives) {
+            livesCounter.addListener(graphicLife);
+            gameObjectCollection.addGameObject(graphicLife, Layer.BACKGROUND);
+        }
+        livesCounter.addListener(numericLifeCounter);
+        gameObjectCollection.addGameObject(numericLifeCounter, Layer.BACKGROUND);
+        // a single change, which no counter is removed by, and which brings the numeric counter's text up to date
+        livesCounter.increaseBy(NUM_GRAPHIC_LIVES - livesCounter.value());
+
+        staticLayerCache.invalidate();
+        numPucksBeforeGame = countAcquiredPucks();
+    }
+
+    private void removeAllObjects(int layer) {
+        GameObjectCollection gameObjectCollection = gameObjects();
+        // the collection throws rather than iterating over an empty layer
+        if (gameObjectCollection.isLayerEmpty(layer)) {
+            return;
+        }
+        for (GameObject gameObject : gameObjectCollection.objectsInLayer(layer)) {
+            if (gameObjectCollection.removeGameObject(gameObject, layer)) {
+                gameObjectPools.release(gameObject);
+            }
+        }
+    }
+
+    private void resetBricks() {
+        GameObjectCollection gameObjectCollection = gameObjects();
+        if (brickField != null) {
+            brickField.setSeed(randomService.split().nextLong());
+            gameObjectCollection.addGameObject(brickField, Layer.BACKGROUND);
+        } else if (levelStreamer != null) {
+            levelStreamer.setSeed(randomService.split().nextLong());
+            updateLevelStreamer();
+        } else {
+            // strategies are drawn in the order a new game creates the bricks in
+            Vector2 brickDimensions = getBrickDimensions();
+            for (int i = 0; i < brickGrid.getNumBricks(); i++) {
+                Brick brick = brickGrid.getBrick(i);
+                brick.setDimensions(brickDimensions);
+                brick.setTopLeftCorner(getGridBrickTopLeftCorner(i / numBricksCols, i % numBricksCols));
+                brick.setCollisionStrategy(brickStrategyFactory.getStrategy());
+                gameObjectCollection.addGameObject(brick, Layer.STATIC_OBJECTS);
+            }
+        }
+        bricksCounter.increaseBy(numBricks - bricksCounter.value());
+    }
+
+    private void createStaticLayerCache(GridIndexedGameObjectCollection gameObjectCollection) {
+        staticLayerCache = new StaticLayerCache(gameObjectCollection, background, brickField, windowDimensions);
+        gameObjectCollection.setStaticObjectsListener(staticLayerCache::markDirty);
+        if (brickField != null) {
+            brickField.setDestroyedBricksListener(
+                    brick -> staticLayerCache.markDirty(brick.getTopLeftCorner(), brick.getDimensions()));
+        }
     }
 
     private void createBall(ImageReader imageReader, SoundReader soundReader) {
@@ -131,92 +487,218 @@ public class BrickerGameManager extends GameManager {
         ball.setTag(BALL_TAG);
         repositionBall(ball);
         gameObjects().addGameObject(ball);
+        movingObjects.register(ball);
     }
 
     public void repositionBall(GameObject ball) {
         float ballVelX = BALL_VELOCITY;
         float ballVelY = BALL_VELOCITY;
-        Random rand = new Random();
-        if (rand.nextBoolean()) {
+        if (ballRandom.nextBoolean()) {
             ballVelX *= -1;
         }
-        if (rand.nextBoolean()) {
+        if (ballRandom.nextBoolean()) {
             ballVelY *= -1;
         }
         ball.setVelocity(new Vector2(ballVelX, ballVelY));
-        ball.setCenter(windowDimensions.mult(CENTER_CONSTANT));
+        ball.transform().setCenter(windowDimensions.x() * CENTER_CONSTANT,
+                worldHeight - windowDimensions.y() * CENTER_CONSTANT);
+        movingObjects.forgetPreviousPosition(ball);
+        if (scrollingCamera != null) {
+            movingObjects.forgetPreviousPosition(scrollingCamera);
+        }
+    }
+
+    private void createScrollingCamera() {
+        if (worldHeight > windowDimensions.y()) {
+            scrollingCamera = new ScrollingCamera(ball, windowDimensions, worldHeight);
+            setCamera(scrollingCamera);
+            movingObjects.register(scrollingCamera);
+        }
     }
 
-    private void createPaddle(ImageReader imageReader, UserInputListener inputListener) {
+    private Paddle createPaddle(ImageReader imageReader, UserInputListener inputListener, int player) {
         Renderable paddleImage = imageReader.readImage("assets/paddle.png", true);
-        GameObject paddle = new Paddle(Vector2.ZERO, new Vector2(PADDLE_WIDTH, PADDLE_HEIGHT), paddleImage,
+        Paddle paddle = new Paddle(Vector2.ZERO, new Vector2(PADDLE_WIDTH, PADDLE_HEIGHT), paddleImage,
                 inputListener, windowDimensions, PADDLE_MIN_DISTANCE_FROM_EDGE);
-        paddle.setCenter(new Vector2(windowDimensions.x() / 2,
-                windowDimensions.y() - PADDLE_DISTANCE_FROM_BOTTOM));
+        repositionPaddle(paddle, player);
         gameObjects().addGameObject(paddle);
+        movingObjects.register(paddle);
+        return paddle;
+    }
+
+    private void repositionPaddle(GameObject paddle, int player) {
+        // power-ups change the paddle's size
+        paddle.setVelocity(Vector2.ZERO);
+        paddle.transform().setDimensions(PADDLE_WIDTH, PADDLE_HEIGHT);
+        float centerX = lockstepController != null ?
+                windowDimensions.x() * TWO_PLAYER_PADDLE_CENTERS[player] : windowDimensions.x() / 2;
+        paddle.transform().setCenter(centerX, worldHeight - PADDLE_DISTANCE_FROM_BOTTOM);
+        movingObjects.forgetPreviousPosition(paddle);
     }
 
     private void createBorders() {
+        Vector2[][] borders_attributes = getBordersAttributes();
+        borders = new GameObject[borders_attributes.length];
+        for (int i = 0; i < borders_attributes.length; i++) {
+            borders[i] = createBorder(borders_attributes[i][0], borders_attributes[i][1]);
+        }
+    }
+
+    private Vector2[][] getBordersAttributes() {
         // left, right and then top borders
-        Vector2[][] borders_attributes = {{Vector2.ZERO, new Vector2(BORDER_WIDTH, windowDimensions.y())},
-                {new Vector2(windowDimensions.x() - BORDER_WIDTH, 0), new Vector2(BORDER_WIDTH,
-                        windowDimensions.y())},
+        return new Vector2[][]{{Vector2.ZERO, new Vector2(BORDER_WIDTH, worldHeight)},
+                {new Vector2(windowDimensions.x() - BORDER_WIDTH, 0), new Vector2(BORDER_WIDTH, worldHeight)},
                 {new Vector2(BORDER_WIDTH, 0),
                         new Vector2(windowDimensions.x() - 2 * BORDER_WIDTH, BORDER_WIDTH)}};
-
-        for (Vector2[] border_attributes : borders_attributes) {
-            createBorder(border_attributes[0], border_attributes[1]);
-        }
     }
 
-    private void createBorder(Vector2 topLeftCorner, Vector2 dimensions) {
-        gameObjects().addGameObject(
+    private GameObject createBorder(Vector2 topLeftCorner, Vector2 dimensions) {
+        GameObject border =
                 new GameObject(
                         //anchored at top-left corner of the screen
                         topLeftCorner,
-                        //height of border is the height of the screen
+                        //height of border is the height of the world
                         new Vector2(dimensions.x(), dimensions.y()),
                         //this game object is invisible; it doesn’t have a Renderable
                         new RectangleRenderable(Color.CYAN)
-                ));
+                );
+        gameObjects().addGameObject(border);
+        return border;
     }
 
-    private void createBricks(ImageReader imageReader, BrickStrategyFactory brickStrategyFactory) {
+    private Vector2 getBrickDimensions() {
         float bricksWidthToSpan =
                 windowDimensions.x() - 2 * BORDER_WIDTH - 2 * EXTREME_BRICK_DISTANCE_FROM_BORDER -
-                        (NUM_BRICKS_COLS - 1) * DISTANCE_BETWEEN_BRICKS;
-        float brickWidth = bricksWidthToSpan / NUM_BRICKS_COLS;
-        Vector2 brickDimensions = new Vector2(brickWidth, BRICK_HEIGHT);
-        Renderable brickImage = imageReader.readImage("assets/brick.png", false);
-        GameObjectCollection gameObjectCollection = gameObjects();
-        bricksCounter = new Counter();
+                        (numBricksCols - 1) * DISTANCE_BETWEEN_BRICKS;
+        return new Vector2(bricksWidthToSpan / numBricksCols, BRICK_HEIGHT);
+    }
+
+    private Vector2 getBricksTopLeftCorner() {
         // leftest top brick
-        Vector2 initTopLeftCorner = new Vector2(BORDER_WIDTH + EXTREME_BRICK_DISTANCE_FROM_BORDER,
+        return new Vector2(BORDER_WIDTH + EXTREME_BRICK_DISTANCE_FROM_BORDER,
                 BORDER_WIDTH + EXTREME_BRICK_DISTANCE_FROM_BORDER);
+    }
+
+    private Vector2 getGridBrickTopLeftCorner(int row, int col) {
+        Vector2 bricksTopLeftCorner = getBricksTopLeftCorner();
+        return new Vector2(bricksTopLeftCorner.x() + col * (getBrickDimensions().x() + DISTANCE_BETWEEN_BRICKS),
+                bricksTopLeftCorner.y() + row * (BRICK_HEIGHT + DISTANCE_BETWEEN_BRICKS));
+    }
+
+    private GridIndexedGameObjectCollection createGameObjectCollection() {
+        if (level == null) {
+            // the bricks' lattice doubles as the broadphase grid for collisions with them
+            return new GridIndexedGameObjectCollection(getBricksTopLeftCorner(),
+                    getBrickDimensions().add(new Vector2(DISTANCE_BETWEEN_BRICKS, DISTANCE_BETWEEN_BRICKS)),
+                    numBricksRows, numBricksCols);
+        }
+        if (level.getNumBricks() >= BRICK_FIELD_MIN_BRICKS) {
+            // only the bricks near balls and pucks are in the collection, wherever they are, so rows are
+            // reused, and cells are no smaller than a ball so that a ball overlaps few of them
+            Vector2 cellDimensions = new Vector2(Math.max(level.getMaxBrickWidth(), BALL_DIAMETER),
+                    Math.max(level.getMaxBrickHeight(), BALL_DIAMETER));
+            int numCols = (int) Math.ceil((level.getRight() - level.getLeft()) / cellDimensions.x());
+            int numRows = (int) Math.ceil(windowDimensions.y() / cellDimensions.y()) + 1;
+            return new GridIndexedGameObjectCollection(new Vector2(level.getLeft(), level.getTop()),
+                    cellDimensions, numRows, numCols, true);
+        }
+        // cells as large as the largest brick, so that no brick overlaps more than four of them
+        Vector2 cellDimensions = new Vector2(Math.max(level.getMaxBrickWidth(), 1),
+                Math.max(level.getMaxBrickHeight(), 1));
+        int numCols = (int) Math.ceil((level.getRight() - level.getLeft()) / cellDimensions.x());
+        if (worldHeight > windowDimensions.y()) {
+            // only the bricks around the view are in the collection, so rows are reused as it scrolls
+            float maxLiveHeight = LevelStreamer.getMaxLiveHeight(windowDimensions.y(), LEVEL_CHUNK_HEIGHT,
+                    level.getMaxBrickHeight());
+            int numRows = (int) Math.ceil(maxLiveHeight / cellDimensions.y()) + 1;
+            return new GridIndexedGameObjectCollection(new Vector2(level.getLeft(), level.getTop()),
+                    cellDimensions, numRows, numCols, true);
+        }
+        int numRows = (int) Math.ceil((level.getBottom() - level.getTop()) / cellDimensions.y());
+        return new GridIndexedGameObjectCollection(new Vector2(level.getLeft(), level.getTop()),
+                cellDimensions, numRows, numCols);
+    }
 
-        for (int i = 0; i < NUM_BRICKS_ROWS; i++) {
-            Vector2 curTopLeftCorner = initTopLeftCorner.add(new Vector2(0,
-                    i * (BRICK_HEIGHT + DISTANCE_BETWEEN_BRICKS)));
-            for (int j = 0; j < NUM_BRICKS_COLS; j++) {
-                GameObject newBrick =
-                        new Brick(curTopLeftCorner.add(
-                                new Vector2(j * (brickWidth + DISTANCE_BETWEEN_BRICKS), 0)),
+    private void createBricks(ImageReader imageReader) {
+        bricksCounter = new ObservableCounter();
+        levelStreamer = null;
+        brickField = null;
+        brickGrid = null;
+        if (level != null && level.getNumBricks() >= BRICK_FIELD_MIN_BRICKS) {
+            createBrickField(imageReader);
+            bricks = brickField;
+        } else if (level != null) {
+            createLevelStreamer(imageReader);
+            bricks = levelStreamer;
+        } else {
+            createGridBricks(imageReader);
+            bricks = brickGrid;
+        }
+        numBricks = bricksCounter.value();
+    }
+
+    private void createGridBricks(ImageReader imageReader) {
+        Vector2 brickDimensions = getBrickDimensions();
+        Renderable brickImage = imageReader.readImage("assets/brick.png", false);
+        GameObjectCollection gameObjectCollection = gameObjects();
+        brickGrid = new BrickGrid(gameObjectCollection, numBricksRows * numBricksCols, bricksCounter);
+
+        for (int i = 0; i < numBricksRows; i++) {
+            for (int j = 0; j < numBricksCols; j++) {
+                Brick newBrick =
+                        new Brick(getGridBrickTopLeftCorner(i, j),
                                 brickDimensions, brickImage, brickStrategyFactory.getStrategy(),
-                                bricksCounter);
+                                brickGrid.createBrickCounter(i * numBricksCols + j));
                 bricksCounter.increment();
                 gameObjectCollection.addGameObject(newBrick, Layer.STATIC_OBJECTS);
+                brickGrid.setBrick(i * numBricksCols + j, newBrick);
             }
         }
     }
 
+    private void createLevelStreamer(ImageReader imageReader) {
+        // the bricks around the view are created right away, so the first frame shows them
+        levelStreamer = new LevelStreamer(level, gameObjects(), brickStrategyFactory, readLevelSprites(imageReader),
+                bricksCounter, randomService.split().nextLong(), LEVEL_CHUNK_HEIGHT);
+        updateLevelStreamer();
+    }
+
+    private void createBrickField(ImageReader imageReader) {
+        brickField = new BrickField(level, gameObjects(), brickStrategyFactory, readLevelSprites(imageReader),
+                bricksCounter, randomService.split().nextLong(), windowDimensions);
+        // bricks are created for whatever can break them, as it comes near
+        brickField.setMovers(gameObject -> gameObject instanceof Ball, movingObjects,
+                gameObjectPools.getDynamicObjectRegistry());
+        // the background layer collides with nothing, and the field is drawn right over the background
+        gameObjects().addGameObject(brickField, Layer.BACKGROUND);
+    }
+
+    private Renderable[] readLevelSprites(ImageReader imageReader) {
+        Renderable[] sprites = new Renderable[level.getNumSprites()];
+        for (int i = 0; i < sprites.length; i++) {
+            sprites[i] = imageReader.readImage(level.getSpritePath(i), false);
+        }
+        return sprites;
+    }
+
+    private void updateLevelStreamer() {
+        float viewTop = scrollingCamera != null ? scrollingCamera.getTopLeftCorner().y() : 0;
+        levelStreamer.update(viewTop, viewTop + windowDimensions.y());
+    }
+
     private void createBackground(ImageReader imageReader) {
         background = new GameObject(
                 Vector2.ZERO,
                 windowDimensions,
-                imageReader.readImage("assets/DARK_BG2_Small.jpeg", false));
+                imageReader.readImage("assets/DARK_BG2_small.jpeg", false));
         gameObjects().addGameObject(background, Layer.BACKGROUND);
     }
 
+    // the HUD stays in place while the view scrolls
+    private CoordinateSpace getHudCoordinateSpace() {
+        return scrollingCamera != null ? CoordinateSpace.CAMERA_COORDINATES : CoordinateSpace.WORLD_COORDINATES;
+    }
+
     private void createGraphicLives(ImageReader imageReader) {
         float graphicLifeCounterWidth = windowDimensions.x() / 15;
         Vector2 graphicLifeDimensions = new Vector2(graphicLifeCounterWidth, GRAPHIC_LIFE_HEIGHT);
@@ -224,7 +706,8 @@ public class BrickerGameManager extends GameManager {
         Vector2 curTopLeftCorner = new Vector2(BORDER_WIDTH + EXTREME_GRAPHIC_LIFE_DISTANCE_FROM_BORDER,
                 windowDimensions.y() - GRAPHIC_LIFE_HEIGHT - EXTREME_GRAPHIC_LIFE_DISTANCE_FROM_BORDER);
         GameObjectCollection gameObjectCollection = gameObjects();
-        livesCounter = new Counter(NUM_GRAPHIC_LIVES);
+        livesCounter = new ObservableCounter(NUM_GRAPHIC_LIVES);
+        graphicLives = new GraphicLifeCounter[NUM_GRAPHIC_LIVES];
 
         for (int i = 0; i < NUM_GRAPHIC_LIVES; i++) {
             GraphicLifeCounter graphicLifeCounter =
@@ -232,7 +715,9 @@ public class BrickerGameManager extends GameManager {
                             new Vector2(i * (graphicLifeCounterWidth + DISTANCE_BETWEEN_GRAPHIC_LIVES), 0)),
                             graphicLifeDimensions, livesCounter, graphicLiveImage,
                             gameObjectCollection, i + 1);
+            graphicLifeCounter.setCoordinateSpace(getHudCoordinateSpace());
             gameObjectCollection.addGameObject(graphicLifeCounter, Layer.BACKGROUND);
+            graphicLives[i] = graphicLifeCounter;
         }
     }
 
@@ -244,49 +729,369 @@ public class BrickerGameManager extends GameManager {
                                 NUMERIC_LIFE_COUNTER_DISTANCE_FROM_GRAPHIC_LIFE));
         Vector2 numericLifeCounterDimensions = new Vector2(windowDimensions.x() / 8,
                 NUMERIC_LIFE_COUNTER_HEIGHT);
-        GameObject numericLifeCounter = new NumericLifeCounter(livesCounter, topLeftCorner,
-                numericLifeCounterDimensions, gameObjects());
+        String livesText = String.format("Lives remaining: %d", livesCounter.value());
+        TextRenderable textRenderable =
+                isHeadless ? new HeadlessTextRenderable(livesText) : new TextRenderable(livesText);
+        numericLifeCounter = new NumericLifeCounter(livesCounter, topLeftCorner,
+                numericLifeCounterDimensions, gameObjects(), textRenderable);
+        numericLifeCounter.setCoordinateSpace(getHudCoordinateSpace());
         gameObjects().addGameObject(numericLifeCounter, Layer.BACKGROUND);
     }
 
     /**
-     * Called once per frame. Any logic is put here. Rendering, on the other hand,
-     * should only be done within 'render'.
-     * Note that the time that passes between subsequent calls to this method is not constant.
+     * Called once per frame. Advances the game by as many fixed steps as fit in the time that passed,
+     * together with the time left over from previous frames, so the simulation doesn't depend on the
+     * frame rate. Rendering, on the other hand, should only be done within 'render'.
      *
      * @param deltaTime The time, in seconds, that passed since the last invocation
-     *                  of this method (i.e., since the last frame). This is useful
-     *                  for either accumulating the total time that passed since some
-     *                  event, or for physics integration (i.e., multiply this by
-     *                  the acceleration to get an estimate of the added velocity or
-     *                  by the velocity to get an estimate of the difference in position).
+     *                  of this method (i.e., since the last frame).
      */
     @Override
     public void update(float deltaTime) {
-        super.update(deltaTime);
+        frameProfiler.beginFrame((GridIndexedGameObjectCollection) gameObjects());
+        // rewinding one of the games of a lockstep session would take it out of sync with the other
+        if (lockstepController == null && !isGameOver && snapshotController.handleKeys(inputListener)) {
+            // the frame shows the snapshot rewound to rather than moving on from it
+            fixedTimestep.reset();
+            frameProfiler.enterPhase(null);
+            return;
+        }
+        fixedTimestep.advance(deltaTime);
+        // the window resets or closes once a game ends, so the steps after that belong to no game
+        while (!isGameOver && isNextStepReady() && fixedTimestep.consumeStep()) {
+            step(fixedTimestep.getStepTime());
+        }
+        if (lockstepController != null) {
+            checkLockstepSession();
+        }
+        // the sounds the frame's collisions asked for start together, each once
+        frameProfiler.enterPhase(FrameProfiler.Phase.AUDIO);
+        audioMixer.flush();
+        frameProfiler.enterPhase(null);
+    }
+
+    /**
+     * Renders the moving objects in between their last two simulated positions, by how far the frame is
+     * past the last step, so their motion looks smooth whatever the ratio of frame rate to step rate.
+     */
+    @Override
+    public void render(Graphics2D g) {
+        frameProfiler.enterPhase(FrameProfiler.Phase.RENDER);
+        float interpolationFactor = fixedTimestep.getInterpolationFactor();
+        DynamicObjectRegistry dynamicObjectRegistry = gameObjectPools.getDynamicObjectRegistry();
+        movingObjects.beginInterpolation(interpolationFactor);
+        dynamicObjectRegistry.beginInterpolation(interpolationFactor);
+        renderLayers(g);
+        dynamicObjectRegistry.endInterpolation();
+        movingObjects.endInterpolation();
+        frameProfiler.enterPhase(null);
+    }
+
+    /*
+     * Draws what GameManager.render draws, except that the static layer, the brick field and the background
+     * are drawn by the static layer cache, in one go.
+     */
+    private void renderLayers(Graphics2D g) {
+        Camera camera = isHeadless ? headlessCamera : getCamera();
+        staticLayerCache.render(g, camera);
+        GameObjectCollection gameObjectCollection = gameObjects();
+        for (int layer : LAYERS_DRAWN_OVER_STATIC_CACHE) {
+            // the collection throws rather than iterating over an empty layer
+            if (gameObjectCollection.isLayerEmpty(layer)) {
+                continue;
+            }
+            for (GameObject gameObject : gameObjectCollection.objectsInLayer(layer)) {
+                if (!staticLayerCache.isCached(gameObject)) {
+                    gameObject.render(g, camera);
+                }
+            }
+        }
+    }
+
+    private void step(float stepTime) {
+        numSessionSteps++;
+        if (lockstepController != null) {
+            lockstepController.beginStep();
+        } else if (replayRecorder != null) {
+            replayRecorder.beginStep(inputListener);
+        }
+        // collision handling and the strategies it triggers switch phases by themselves
+        frameProfiler.enterPhase(FrameProfiler.Phase.OBJECT_UPDATES);
+        movingObjects.recordPreviousPositions();
+        gameObjectPools.getDynamicObjectRegistry().recordPreviousPositions();
+        // objects removed last step have left the collection by now, so they may be handed out again
+        gameObjectPools.onFrameStart();
+        if (levelStreamer != null) {
+            updateLevelStreamer();
+        }
+        if (brickField != null) {
+            brickField.updateCreatedBricks(stepTime);
+        }
+        numUpdates++;
+        updateObjects(stepTime);
+        frameProfiler.enterPhase(FrameProfiler.Phase.OUT_OF_BOUNDS_CULLING);
         removeObjectsOutOfBounds();
+        frameProfiler.enterPhase(FrameProfiler.Phase.GAME_END_CHECK);
         checkForGameEnd();
+        captureSnapshots();
+        if (lockstepController != null) {
+            frameProfiler.enterPhase(FrameProfiler.Phase.LOCKSTEP);
+            lockstepController.endStep();
+        }
+        // the checksum of the step a game ends at is recorded before the dialog, which may exit the process
+        if (replayRecorder != null && !isGameOver && replayRecorder.isChecksumDue(numSessionSteps)) {
+            recordChecksum();
+        }
     }
 
-    private void removeObjectsOutOfBounds() {
+    /*
+     * Does what GameManager.update does, except that the camera is updated in the same place whether or not
+     * it's kept here, so that a game steps the same with a window as without one, as it's played back.
+     */
+    private void updateObjects(float stepTime) {
         GameObjectCollection gameObjectCollection = gameObjects();
-        for (GameObject gameObject : gameObjectCollection) {
-            if (!Objects.equals(gameObject.getTag(), BALL_TAG) && gameObject.getCenter().y() > windowDimensions.y()) {
-                gameObjectCollection.removeGameObject(gameObject);
+        // the collection's own iterator allocates a stream over its layers every time it's asked for
+        for (int layer : LAYERS_IN_UPDATE_ORDER) {
+            // the collection throws rather than iterating over an empty layer
+            if (gameObjectCollection.isLayerEmpty(layer)) {
+                continue;
             }
+            // the objects added or removed during the updates are only applied to the layer afterwards
+            ModifiableList<GameObject> gameObjects =
+                    (ModifiableList<GameObject>) gameObjectCollection.objectsInLayer(layer);
+            for (int i = 0; i < gameObjects.size(); i++) {
+                gameObjects.get(i).update(stepTime);
+            }
+        }
+        Camera camera = getCamera();
+        if (camera != null) {
+            camera.update(stepTime);
+        }
+        gameObjectCollection.update(stepTime);
+        gameObjectCollection.handleCollisions();
+    }
+
+    private void recordChecksum() {
+        frameProfiler.enterPhase(FrameProfiler.Phase.SNAPSHOTS);
+        replayRecorder.recordChecksum();
+    }
+
+    // a lockstep game only simulates a step once the inputs of both players for it are in
+    private boolean isNextStepReady() {
+        if (lockstepController == null) {
+            return true;
         }
+        frameProfiler.enterPhase(FrameProfiler.Phase.LOCKSTEP);
+        return lockstepController.pollNextStep(inputListener);
+    }
+
+    private void checkLockstepSession() {
+        String message = lockstepController.getEndMessage();
+        if (message != null) {
+            isGameOver = true;
+            windowController.showMessageBox(message);
+            windowController.closeWindow();
+        }
+    }
+
+    private void captureSnapshots() {
+        if (isGameOver || !snapshotController.isCaptureDue(numUpdates) ||
+                ((GridIndexedGameObjectCollection) gameObjects()).getNumCollisionsInProgress() > 0) {
+            return;
+        }
+        frameProfiler.enterPhase(FrameProfiler.Phase.SNAPSHOTS);
+        snapshotController.captureSnapshots(numUpdates);
+    }
+
+    /**
+     * Without a window there are no mouse listeners to re-map, which GameManager's implementation relies
+     * on, so a headless game keeps its camera here instead.
+     *
+     * @param camera The camera to use, or null to render in window coordinates.
+     */
+    @Override
+    public void setCamera(Camera camera) {
+        if (isHeadless) {
+            headlessCamera = camera;
+        } else {
+            super.setCamera(camera);
+        }
+    }
+
+    @Override
+    public Camera getCamera() {
+        return isHeadless ? headlessCamera : super.getCamera();
+    }
+
+    @Override
+    public Camera camera() {
+        return getCamera();
+    }
+
+    /**
+     * Limits the number of removed pucks, power-ups and mock paddles kept for reuse by every pool. Takes
+     * effect immediately and in every game that follows.
+     *
+     * @param maxPooledObjects maximal number of free objects per pool, 0 disables pooling
+     */
+    public void setMaxPooledObjects(int maxPooledObjects) {
+        this.maxPooledObjects = maxPooledObjects;
+        if (gameObjectPools != null) {
+            gameObjectPools.setMaxPooledObjects(maxPooledObjects);
+        }
+    }
+
+    /**
+     * Sets the rate of the simulation, which is independent of the frame rate. Takes effect immediately.
+     *
+     * @param stepsPerSecond   number of fixed simulation steps in a second of game time
+     * @param maxStepsPerFrame maximal number of steps simulated in a frame; when frames take longer than
+     *                         that many steps, the game slows down rather than falling further behind
+     */
+    public void setSimulationRate(int stepsPerSecond, int maxStepsPerFrame) {
+        fixedTimestep = new FixedTimestep(stepsPerSecond, maxStepsPerFrame);
+    }
+
+    /**
+     * Sets the rate at which the window renders, from the next game on. Has no effect on a headless game.
+     *
+     * @param targetFramerate frames per second, or 0 for the engine's default
+     */
+    public void setTargetFramerate(int targetFramerate) {
+        this.targetFramerate = targetFramerate;
+    }
+
+    /**
+     * @return The mixer the session's sounds play through.
+     */
+    public AudioMixer getAudioMixer() {
+        return audioMixer;
+    }
+
+    /**
+     * Makes the games from the next one on record the time of their frames' phases into the given profiler.
+     *
+     * @param frameProfiler the profiler, or FrameProfiler.DISABLED to record nothing
+     */
+    public void setFrameProfiler(FrameProfiler frameProfiler) {
+        this.frameProfiler = frameProfiler;
+        isWorldStale = true;
+    }
+
+    /**
+     * Makes the games from the next one on play the given level, instead of a grid of bricks with random
+     * strategies.
+     *
+     * @param level the level to play, or null for the grid
+     */
+    public void setLevel(Level level) {
+        this.level = level;
+        isWorldStale = true;
+    }
+
+    /**
+     * Makes the games from the next one on two-player games, played in lockstep with the other player of
+     * the session: every step waits for both players' inputs, and each steers a paddle of its own, so the
+     * game must be created with a RandomService seeded with the session's seed, and both players must play
+     * the same level at the same simulation rate. Rewinding and quick saves are disabled, and a game that
+     * ends is followed by the next one without asking.
+     *
+     * @param lockstepSession the session, connected to the other player
+     */
+    public void setLockstepSession(LockstepSession lockstepSession) {
+        lockstepController = new LockstepController(lockstepSession, this);
+        snapshotController.setSnapshots(0, 0);
+        isWorldStale = true;
+    }
+
+    /**
+     * Records the session into the given writer, from the first step on, so that must be called before the
+     * first game starts. The paddles are steered by the input recorded for every step, and every rewind and
+     * quick load is recorded too, along with a checksum of the state now and then, as ReplayRecorder does,
+     * and at the end of every game. A two-player game can't be recorded.
+     *
+     * @param replayWriter the writer, which the caller closes once the session is over
+     */
+    public void setReplayWriter(ReplayWriter replayWriter) {
+        if (lockstepController != null) {
+            throw new IllegalStateException("A two-player game can't be recorded");
+        }
+        replayRecorder = new ReplayRecorder(replayWriter, this);
+        isWorldStale = true;
+    }
+
+    /**
+     * Makes the game capture a snapshot every given number of steps into a ring of the given size, from the
+     * next step on, which rewind restores. A game in a window captures a snapshot every
+     * DEFAULT_SNAPSHOT_INTERVAL steps by default, a headless one none.
+     *
+     * @param snapshotInterval number of steps between snapshots, or 0 to capture none
+     * @param numSnapshots     number of snapshots kept, the latest ones
+     */
+    public void setSnapshots(int snapshotInterval, int numSnapshots) {
+        snapshotController.setSnapshots(snapshotInterval, numSnapshots);
+    }
+
+    /**
+     * @return The ring the game captures its snapshots into, or null if it captures none.
+     */
+    public SnapshotRing getSnapshotRing() {
+        return snapshotController.getSnapshotRing();
+    }
+
+    /**
+     * Restores the game from one of the snapshots it captured, which drops the ones captured after it.
+     *
+     * @param numSnapshotsBack 0 for the latest snapshot, 1 for the one before it, and so on.
+     * @return false if there aren't that many snapshots of the current game.
+     */
+    public boolean rewind(int numSnapshotsBack) {
+        if (!snapshotController.rewind(numSnapshotsBack)) {
+            return false;
+        }
+        fixedTimestep.reset();
+        return true;
+    }
+
+    public RandomService getRandomService() {
+        return randomService;
+    }
+
+    @Override
+    public GameObjectCollection getGameObjectCollection() {
+        return gameObjects();
+    }
+
+    @Override
+    public GameStatistics getGameStatistics() {
+        return new GameStatistics(isGameOver, isGameWon, numUpdates, NUM_GRAPHIC_LIVES - livesCounter.value(),
+                numBricks - bricksCounter.value(), countAcquiredPucks() - numPucksBeforeGame,
+                brickStrategyFactory.getNumTriggers());
+    }
+
+    // the pools outlive the games that are reset in place, so a game's pucks are counted from its start
+    private long countAcquiredPucks() {
+        GameObjectPool<Puck> puckPool = gameObjectPools.getPuckPool();
+        return puckPool.getCreated() + puckPool.getReused();
+    }
+
+    private void removeObjectsOutOfBounds() {
+        // only spawned objects can leave the window; the ball is handled by checkForGameEnd
+        gameObjectPools.removeObjectsBelow(gameObjects(), worldHeight);
     }
 
     private void checkForGameEnd() {
-        double ballHeight = ball.getCenter().y();
+        // getCenter() would allocate a vector every frame
+        double ballHeight = ball.getTopLeftCorner().y() + ball.getDimensions().y() / 2;
 
         String prompt = "";
         if (bricksCounter.value() <= 0) {
             // win
             prompt = WIN_MSG;
         }
-        if (ballHeight > windowDimensions.y()) {
+        if (ballHeight > worldHeight) {
             livesCounter.decrement();
+            LifeLostEvent.emit(livesCounter.value());
             if (livesCounter.value() <= 0) {
                 // lose
                 prompt = LOSE_MSG;
@@ -295,9 +1100,16 @@ public class BrickerGameManager extends GameManager {
             }
         }
         if (!prompt.isEmpty()) {
-            prompt += PLAY_AGAIN_MSG;
-            if (windowController.openYesNoDialog(prompt)) {
-                MockPaddle.isInstantiated = false;
+            isGameOver = true;
+            isGameWon = Objects.equals(prompt, WIN_MSG);
+            if (replayRecorder != null) {
+                recordChecksum();
+            }
+            if (lockstepController != null) {
+                // both players play on, as either of them leaving would end the session
+                windowController.showMessageBox(prompt);
+                windowController.resetGame();
+            } else if (windowController.openYesNoDialog(prompt + PLAY_AGAIN_MSG)) {
                 windowController.resetGame();
             } else {
                 windowController.closeWindow();
@@ -305,8 +1117,104 @@ public class BrickerGameManager extends GameManager {
         }
     }
 
-    public static void main(String[] args) {
-        new BrickerGameManager("BrickBreaker++", new Vector2(WINDOW_WIDTH, WINDOW_HEIGHT)).run();
+    /**
+     * Captures the game at the end of its last step: the counters, the random streams' positions, the world's
+     * objects, as WorldSnapshotCodec writes them, and the destroyed bricks. Takes time in proportion to the
+     * spawned objects, plus a pass over the destroyed bricks.
+     */
+    @Override
+    public void captureSnapshot(WorldSnapshot snapshot) {
+        ByteBuffer state = snapshotCodec.beginCapture(snapshot, bricks.getMaxStateBytes(), numBricks);
+        state.putLong(numGamesStarted);
+        state.putLong(numUpdates);
+        state.putInt(livesCounter.value());
+        state.putInt(bricksCounter.value());
+        state.putLong(countAcquiredPucks() - numPucksBeforeGame);
+        state.putInt(ballRandom.getPosition());
+        snapshotCodec.captureWorld(state);
+        bricks.captureState(state);
+        snapshot.endCapture();
+        bricks.copyDestroyedBricks(snapshot.getDestroyedBricks());
+        snapshot.setSessionStep(numSessionSteps);
+    }
+
+    /**
+     * Puts the game back the way captureSnapshot found it, as resetGameInPlace does a new game: every object
+     * leaves the collection and the ones the snapshot holds, bricks included, are added back in the same
+     * order, and the random streams are taken back to where they were, so the game plays on exactly as it
+     * did. The one thing forgotten are the collisions in progress, whose objects collide anew if they still
+     * overlap, which is why the game only captures snapshots at steps without any. Takes time in proportion
+     * to the objects and the bricks around the view, plus a pass over the destroyed bricks; danogl removes
+     * objects from a layer one search at a time, so a streamed level with thousands of bricks in view takes
+     * a good part of a frame to restore.
+     *
+     * @throws IllegalArgumentException if the snapshot was captured in another game, whose random streams
+     *                                  are gone.
+     */
+    @Override
+    public void restoreSnapshot(WorldSnapshot snapshot) {
+        ByteBuffer state = snapshot.getState();
+        if (state.getLong() != numGamesStarted) {
+            throw new IllegalArgumentException("The snapshot was captured in another game");
+        }
+        GameObjectCollection gameObjectCollection = gameObjects();
+        // the objects added during the last step are only in the layer once they're applied
+        gameObjectCollection.update(0);
+        removeAllObjects(Layer.DEFAULT);
+        for (GraphicLifeCounter graphicLife : graphicLives) {
+            gameObjectCollection.removeGameObject(graphicLife, Layer.BACKGROUND);
+            livesCounter.removeListener(graphicLife);
+        }
+        gameObjectCollection.removeGameObject(numericLifeCounter, Layer.BACKGROUND);
+        bricks.reset();
+        gameObjectCollection.update(0);
+        // the removed objects are free again, and handed out in the order the snapshot holds them in
+        gameObjectPools.onFrameStart();
+
+        numUpdates = state.getLong();
+        int numLives = state.getInt();
+        int numBricksLeft = state.getInt();
+        long numPucksSpawned = state.getLong();
+        ballRandom.setPosition(state.getInt());
+        snapshotCodec.restoreWorld(state);
+        bricks.setDestroyedBricks(snapshot.getDestroyedBricks());
+        bricks.restoreState(state);
+        bricksCounter.increaseBy(numBricksLeft - bricksCounter.value());
+        livesCounter.increaseBy(numLives - livesCounter.value());
+        for (int i = 0; i < graphicLives.length && i < numLives; i++) {
+            livesCounter.addListener(graphicLives[i]);
+            gameObjectCollection.addGameObject(graphicLives[i], Layer.BACKGROUND);
+        }
+        gameObjectCollection.addGameObject(numericLifeCounter, Layer.BACKGROUND);
+        gameObjectCollection.update(0);
+        snapshotCodec.endRestore();
+
+        if (levelStreamer != null) {
+            updateLevelStreamer();
+        }
+        movingObjects.forgetPreviousPosition(ball);
+        movingObjects.forgetPreviousPosition(paddle);
+        if (secondPaddle != null) {
+            movingObjects.forgetPreviousPosition(secondPaddle);
+        }
+        if (scrollingCamera != null) {
+            movingObjects.forgetPreviousPosition(scrollingCamera);
+        }
+        numPucksBeforeGame = countAcquiredPucks() - numPucksSpawned;
+        snapshotController.onRestore(numUpdates);
+        isGameOver = false;
+        isGameWon = false;
+        staticLayerCache.invalidate();
+        if (replayRecorder != null) {
+            replayRecorder.recordRestore(snapshot);
+        }
+    }
+
+    /**
+     * Starts the game in the mode the arguments ask for, see BrickerLauncher.
+     */
+    public static void main(String[] args) throws InterruptedException, IOException {
+        BrickerLauncher.main(args);
     }
 
 }
@@ -0,0 +1,304 @@
+import balance.BalanceAnalyzer;
+import balance.BalanceReport;
+import brick_strategies.BrickStrategyFactory;
+import headless.GameStatistics;
+import headless.HeadlessGameRunner;
+import levels.Level;
+import netplay.LockstepServer;
+import netplay.LockstepSession;
+import profiling.FrameProfiler;
+import profiling.MetricsExporter;
+import randomness.RandomService;
+import replays.Replay;
+import replays.ReplayPlayer;
+import replays.ReplayWriter;
+import danogl.util.Vector2;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Starts BrickerGameManager in the mode its command-line arguments ask for: a game in a window, which may
+ * be one side of a two-player game, a headless run, a balance analysis, a two-player server, or the
+ * playback of a replay.
+ */
+public class BrickerLauncher {
+
+    private static final float WINDOW_WIDTH = 700;
+    private static final float WINDOW_HEIGHT = 500;
+    private static final String WINDOW_TITLE = "BrickBreaker++";
+
+    // hides up to about 67ms between the players at 60 steps per second
+    private static final int DEFAULT_INPUT_DELAY = 4;
+
+    // a keyframe every 5 seconds of a replay at 60 steps per second when playing one
+    private static final int REPLAY_KEYFRAME_INTERVAL = 300;
+    private static final String REPLAYS_DIRECTORY = "replays";
+    private static final DateTimeFormatter REPLAY_FILE_NAME_FORMAT =
+            DateTimeFormatter.ofPattern("'session-'yyyyMMdd-HHmmss'.replay'");
+
+    private static final String HEADLESS_ARG = "--headless";
+    private static final String SEED_ARG = "--seed";
+    private static final String TICK_RATE_ARG = "--tick-rate";
+    private static final String FPS_ARG = "--fps";
+    private static final String LEVEL_ARG = "--level";
+    private static final String PROFILE_ARG = "--profile";
+    private static final String PROFILE_CSV_ARG = "--profile-csv";
+    private static final long PROFILE_CSV_PERIOD_MILLIS = 5000;
+    private static final long DEFAULT_HEADLESS_TICKS = 1_000_000;
+    private static final float HEADLESS_DELTA_TIME = 1f / 60;
+    private static final String BALANCE_ARG = "--balance";
+    private static final String THREADS_ARG = "--threads";
+    private static final String SERVE_ARG = "--serve";
+    private static final String CONNECT_ARG = "--connect";
+    private static final String INPUT_DELAY_ARG = "--input-delay";
+    private static final String RECORD_ARG = "--record";
+    private static final String NO_RECORD_ARG = "--no-record";
+    private static final String REPLAY_ARG = "--replay";
+    private static final String REPLAY_TO_ARG = "--to";
+    private static final int DEFAULT_BALANCE_GAMES = 1000;
+    private static final long MAX_BALANCE_TICKS_PER_GAME = 60 * 60 * 60;
+    private static final float BALANCE_PADDLE_DEAD_ZONE = BrickerGameManager.PADDLE_WIDTH / 4;
+
+    private BrickerLauncher() {
+    }
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        RandomService randomService = parseRandomService(args);
+        if (args.length > 0 && Objects.equals(args[0], HEADLESS_ARG)) {
+            runHeadless(args, randomService);
+            return;
+        }
+        if (args.length > 0 && Objects.equals(args[0], BALANCE_ARG)) {
+            runBalanceAnalysis(args, randomService);
+            return;
+        }
+        if (findArgValue(args, SERVE_ARG) != null) {
+            runLockstepServer(args, randomService);
+            return;
+        }
+        if (findArgValue(args, REPLAY_ARG) != null) {
+            runReplay(args);
+            return;
+        }
+        runWindowed(args, randomService);
+    }
+
+    /*
+     * Plays a game in a window, recorded unless it's one side of a two-player game or asked not to be.
+     */
+    private static void runWindowed(String[] args, RandomService randomService) throws IOException {
+        LockstepSession lockstepSession = null;
+        if (findArgValue(args, CONNECT_ARG) != null) {
+            lockstepSession = connectToLockstepServer(args);
+            randomService = new RandomService(lockstepSession.getSeed());
+        }
+        Vector2 windowDimensions = new Vector2(WINDOW_WIDTH, WINDOW_HEIGHT);
+        BrickerGameManager gameManager = new BrickerGameManager(WINDOW_TITLE, windowDimensions, false,
+                BrickerGameManager.NUM_BRICKS_ROWS, BrickerGameManager.NUM_BRICKS_COLS, randomService);
+        applyGameArgs(args, gameManager);
+        if (lockstepSession != null) {
+            gameManager.setLockstepSession(lockstepSession);
+        } else if (!Arrays.asList(args).contains(NO_RECORD_ARG)) {
+            // every session is recorded unless asked not to, into a file of its own by default
+            String recordArg = findArgValue(args, RECORD_ARG);
+            Path recordPath = recordArg != null ? Path.of(recordArg) :
+                    Files.createDirectories(Path.of(REPLAYS_DIRECTORY))
+                            .resolve(LocalDateTime.now().format(REPLAY_FILE_NAME_FORMAT));
+            ReplayWriter replayWriter = startRecording(args, gameManager, randomService, windowDimensions,
+                    recordPath);
+            // the window exits the process when it closes, so the recording is closed on the way out
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    replayWriter.close();
+                } catch (IOException e) {
+                    System.err.println("The replay wasn't written: " + e);
+                }
+            }, "replay-closer"));
+        }
+        String fpsArg = findArgValue(args, FPS_ARG);
+        if (fpsArg != null) {
+            gameManager.setTargetFramerate(Integer.parseInt(fpsArg));
+        }
+        // the window exits the process when it closes, which ends the exporter's threads along with it
+        startProfiling(args, gameManager);
+        gameManager.run();
+    }
+
+    private static void runHeadless(String[] args, RandomService randomService) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        long numTicks = args.length > 1 && !args[1].startsWith("--") ?
+                Long.parseLong(args[1]) : DEFAULT_HEADLESS_TICKS;
+        Vector2 windowDimensions = new Vector2(WINDOW_WIDTH, WINDOW_HEIGHT);
+        BrickerGameManager gameManager = new BrickerGameManager(null, windowDimensions, true,
+                BrickerGameManager.NUM_BRICKS_ROWS, BrickerGameManager.NUM_BRICKS_COLS, randomService);
+        applyGameArgs(args, gameManager);
+        HeadlessGameRunner runner = new HeadlessGameRunner(gameManager, windowDimensions, HEADLESS_DELTA_TIME);
+        MetricsExporter metricsExporter = startProfiling(args, gameManager);
+        String recordArg = findArgValue(args, RECORD_ARG);
+        ReplayWriter replayWriter = recordArg != null ?
+                startRecording(args, gameManager, randomService, windowDimensions, Path.of(recordArg)) : null;
+        double ticksPerSecond;
+        try {
+            runner.initializeGame();
+            ticksPerSecond = runner.run(numTicks);
+        } finally {
+            if (metricsExporter != null) {
+                metricsExporter.close();
+            }
+            if (replayWriter != null) {
+                replayWriter.close();
+            }
+        }
+        System.out.printf("%d ticks, %d games, %.0f ticks/sec, %s%n", runner.getTicks(),
+                runner.getGamesStarted(), ticksPerSecond, randomService);
+    }
+
+    private static void runBalanceAnalysis(String[] args, RandomService randomService)
+            throws InterruptedException {
+        System.setProperty("java.awt.headless", "true");
+        int numGames = args.length > 1 && !args[1].startsWith("--") ?
+                Integer.parseInt(args[1]) : DEFAULT_BALANCE_GAMES;
+        String numThreadsArg = findArgValue(args, THREADS_ARG);
+        int numThreads = numThreadsArg != null ?
+                Integer.parseInt(numThreadsArg) : Runtime.getRuntime().availableProcessors();
+        Vector2 windowDimensions = new Vector2(WINDOW_WIDTH, WINDOW_HEIGHT);
+        BalanceAnalyzer<BrickerGameManager> analyzer = new BalanceAnalyzer<>(
+                seed -> new BrickerGameManager(null, windowDimensions, true, BrickerGameManager.NUM_BRICKS_ROWS,
+                        BrickerGameManager.NUM_BRICKS_COLS, new RandomService(seed)),
+                BrickStrategyFactory.getStrategyNames(), windowDimensions, HEADLESS_DELTA_TIME,
+                MAX_BALANCE_TICKS_PER_GAME, BALANCE_PADDLE_DEAD_ZONE);
+        long startTime = System.nanoTime();
+        BalanceReport report = analyzer.run(numGames, randomService.getSeed(), numThreads);
+        System.out.printf("%s%n%d threads, %.1f sec, %s%n", report, numThreads,
+                (System.nanoTime() - startTime) / 1e9, randomService);
+    }
+
+    /*
+     * Serves a single two-player game on the port that follows --serve, on every interface, from the seed
+     * and with the input delay of the arguments.
+     */
+    private static void runLockstepServer(String[] args, RandomService randomService) throws IOException {
+        String inputDelayArg = findArgValue(args, INPUT_DELAY_ARG);
+        int inputDelay = inputDelayArg != null ? Integer.parseInt(inputDelayArg) : DEFAULT_INPUT_DELAY;
+        try (LockstepServer server = new LockstepServer(
+                new InetSocketAddress(Integer.parseInt(findArgValue(args, SERVE_ARG))), inputDelay,
+                randomService.getSeed())) {
+            System.out.printf("Serving a game on port %d, input delay %d, %s%n", server.getPort(), inputDelay,
+                    randomService);
+            server.run();
+        }
+    }
+
+    /*
+     * Joins the server at the host:port that follows --connect, which picks the seed.
+     */
+    private static LockstepSession connectToLockstepServer(String[] args) throws IOException {
+        String address = findArgValue(args, CONNECT_ARG);
+        int portSeparator = address.lastIndexOf(':');
+        System.out.println("Waiting for the other player");
+        return LockstepSession.connect(new InetSocketAddress(address.substring(0, portSeparator),
+                Integer.parseInt(address.substring(portSeparator + 1))));
+    }
+
+    /*
+     * Plays back the replay that follows --replay, up to the step that follows --to or to its end, and
+     * prints how far it got, whether its checksums matched, and the last game's statistics.
+     */
+    private static void runReplay(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        Replay replay = Replay.load(Path.of(findArgValue(args, REPLAY_ARG)));
+        Level level = replay.getLevelPath() != null ? Level.load(Path.of(replay.getLevelPath())) : null;
+        ReplayPlayer<BrickerGameManager> player = new ReplayPlayer<>(() -> {
+            BrickerGameManager gameManager = new BrickerGameManager(null, replay.getWindowDimensions(), true,
+                    replay.getNumBricksRows(), replay.getNumBricksCols(), new RandomService(replay.getSeed()));
+            gameManager.setSimulationRate(replay.getStepsPerSecond(),
+                    BrickerGameManager.DEFAULT_MAX_STEPS_PER_FRAME);
+            gameManager.setLevel(level);
+            return gameManager;
+        }, replay, REPLAY_KEYFRAME_INTERVAL);
+        String toArg = findArgValue(args, REPLAY_TO_ARG);
+        double stepsPerSecond = player.play(toArg != null ? Long.parseLong(toArg) : replay.getNumSteps());
+        GameStatistics gameStatistics = player.getGame().getGameStatistics();
+        System.out.printf("%s%nPlayed %d steps, %d games, %.0fx real time, %d checksums matched%s%n" +
+                        "Game %d: step %d, %d lives lost, %d bricks destroyed%n", replay, player.getStep(),
+                player.getNumGamesStarted(), stepsPerSecond / replay.getStepsPerSecond(),
+                player.getNumVerifiedChecksums(), player.getDivergedStep() >= 0 ?
+                        ", diverged at step " + player.getDivergedStep() : "",
+                player.getNumGamesStarted(), gameStatistics.getTicks(), gameStatistics.getLivesLost(),
+                gameStatistics.getBricksDestroyed());
+    }
+
+    /*
+     * Records the session into the given file, with the settings of the arguments.
+     */
+    private static ReplayWriter startRecording(String[] args, BrickerGameManager gameManager,
+                                               RandomService randomService, Vector2 windowDimensions,
+                                               Path path) throws IOException {
+        String tickRateArg = findArgValue(args, TICK_RATE_ARG);
+        ReplayWriter replayWriter = new ReplayWriter(path, randomService.getSeed(),
+                tickRateArg != null ? Integer.parseInt(tickRateArg) : BrickerGameManager.DEFAULT_STEPS_PER_SECOND,
+                windowDimensions, BrickerGameManager.NUM_BRICKS_ROWS, BrickerGameManager.NUM_BRICKS_COLS,
+                findArgValue(args, LEVEL_ARG));
+        gameManager.setReplayWriter(replayWriter);
+        return replayWriter;
+    }
+
+    private static void applyGameArgs(String[] args, BrickerGameManager gameManager) throws IOException {
+        String tickRateArg = findArgValue(args, TICK_RATE_ARG);
+        if (tickRateArg != null) {
+            gameManager.setSimulationRate(Integer.parseInt(tickRateArg),
+                    BrickerGameManager.DEFAULT_MAX_STEPS_PER_FRAME);
+        }
+        String levelArg = findArgValue(args, LEVEL_ARG);
+        if (levelArg != null) {
+            gameManager.setLevel(Level.load(Path.of(levelArg)));
+        }
+    }
+
+    /**
+     * Profiles the game's frames if asked to, serving the metrics on the port that follows --profile, and
+     * dumping them to the CSV file that follows --profile-csv.
+     *
+     * @return The exporter of the metrics, or null if the game isn't profiled.
+     */
+    private static MetricsExporter startProfiling(String[] args, BrickerGameManager gameManager)
+            throws IOException {
+        String profilePortArg = findArgValue(args, PROFILE_ARG);
+        String profileCsvArg = findArgValue(args, PROFILE_CSV_ARG);
+        if (profilePortArg == null && profileCsvArg == null) {
+            return null;
+        }
+        FrameProfiler frameProfiler = new FrameProfiler();
+        gameManager.setFrameProfiler(frameProfiler);
+        MetricsExporter metricsExporter = new MetricsExporter(frameProfiler, gameManager.getAudioMixer());
+        if (profilePortArg != null) {
+            metricsExporter.startHttpServer(Integer.parseInt(profilePortArg));
+        }
+        if (profileCsvArg != null) {
+            metricsExporter.startCsvDump(Path.of(profileCsvArg), PROFILE_CSV_PERIOD_MILLIS);
+        }
+        return metricsExporter;
+    }
+
+    private static String findArgValue(String[] args, String argName) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (Objects.equals(args[i], argName)) {
+                return args[i + 1];
+            }
+        }
+        return null;
+    }
+
+    private static RandomService parseRandomService(String[] args) {
+        String seedArg = findArgValue(args, SEED_ARG);
+        return new RandomService(seedArg != null ? Long.parseLong(seedArg) : RandomService.newSeed());
+    }
+
+}
@@ -0,0 +1,269 @@
+package asset_cache;
+
+import audio.DecodedSound;
+import danogl.gui.rendering.ImageRenderable;
+
+import javax.sound.sampled.AudioFormat;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The assets of a directory, decoded ahead of time by AssetBundler and mapped into memory from a single
+ * file: every image, in both of ImageReader's transparency options, packed into one atlas, and every sound
+ * as raw PCM. Creating the game's images and sounds from a bundle only copies their pixels and samples,
+ * and every image is drawn from the same atlas.
+ * <p>
+ * The file is little-endian. A header holds the format's magic number and version, the number of source
+ * files, images and sounds, the atlas' dimensions and the offset of its pixels. It is followed by the
+ * source files' paths with the SHA-256 hash of their contents, by the atlas' UV table, which holds every
+ * image's rectangle in the atlas in pixels, and by the sounds' PCM formats and the offsets of their
+ * samples. The atlas' pixels follow as packed ARGB ints, and the sounds' samples after them.
+ */
+public class AssetBundle {
+
+    static final int MAGIC = 0x414B5242; // "BRKA"
+    static final int VERSION = 1;
+    static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+    static final int HEADER_SIZE = 8 * Integer.BYTES;
+    static final int HASH_SIZE = 32;
+    static final int IMAGE_ENTRY_SIZE = Short.BYTES + Byte.BYTES + 4 * Integer.BYTES;
+    static final int SOUND_ENTRY_SIZE = Short.BYTES + 2 * Byte.BYTES + 7 * Integer.BYTES;
+
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    private final ByteBuffer buffer;
+    private final String[] sourcePaths;
+    private final int[] sourceHashOffsets;
+    private final int numImages;
+    private final int numSounds;
+    private final int atlasWidth;
+    private final int atlasHeight;
+    private final int atlasOffset;
+    private final int imagesOffset;
+    private final int soundsOffset;
+    private BufferedImage atlas;
+
+    private AssetBundle(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not an asset bundle");
+        }
+        int version = buffer.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported asset bundle version " + version);
+        }
+        int numSources = buffer.getInt(8);
+        this.numImages = buffer.getInt(12);
+        this.numSounds = buffer.getInt(16);
+        this.atlasWidth = buffer.getInt(20);
+        this.atlasHeight = buffer.getInt(24);
+        this.atlasOffset = buffer.getInt(28);
+        if (numSources < 0 || numImages < 0 || numSounds < 0 || atlasWidth < 0 || atlasHeight < 0) {
+            throw new IOException("Corrupt asset bundle header");
+        }
+
+        this.sourcePaths = new String[numSources];
+        this.sourceHashOffsets = new int[numSources];
+        int offset = HEADER_SIZE;
+        for (int i = 0; i < numSources; i++) {
+            if (offset + Short.BYTES > buffer.capacity()) {
+                throw new IOException("Truncated asset bundle");
+            }
+            int length = Short.toUnsignedInt(buffer.getShort(offset));
+            offset += Short.BYTES;
+            if (offset + length + HASH_SIZE > buffer.capacity()) {
+                throw new IOException("Truncated asset bundle");
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(offset, bytes);
+            sourcePaths[i] = new String(bytes, StandardCharsets.UTF_8);
+            sourceHashOffsets[i] = offset + length;
+            offset += length + HASH_SIZE;
+        }
+
+        this.imagesOffset = offset;
+        this.soundsOffset = imagesOffset + numImages * IMAGE_ENTRY_SIZE;
+        if ((long) atlasOffset + (long) atlasWidth * atlasHeight * Integer.BYTES > buffer.capacity() ||
+                atlasOffset < soundsOffset + numSounds * SOUND_ENTRY_SIZE) {
+            throw new IOException("Truncated asset bundle");
+        }
+        for (int i = 0; i < numImages; i++) {
+            checkSourceId(getImageSourceId(i));
+            int imageOffset = imagesOffset + i * IMAGE_ENTRY_SIZE + Short.BYTES + Byte.BYTES;
+            int x = buffer.getInt(imageOffset);
+            int y = buffer.getInt(imageOffset + 4);
+            int width = buffer.getInt(imageOffset + 8);
+            int height = buffer.getInt(imageOffset + 12);
+            if (x < 0 || y < 0 || width <= 0 || height <= 0 || x + width > atlasWidth ||
+                    y + height > atlasHeight) {
+                throw new IOException("Corrupt asset bundle image " + i);
+            }
+        }
+        for (int i = 0; i < numSounds; i++) {
+            checkSourceId(getSoundSourceId(i));
+            int soundOffset = soundsOffset + i * SOUND_ENTRY_SIZE;
+            long samplesOffset = buffer.getInt(soundOffset + SOUND_ENTRY_SIZE - 2 * Integer.BYTES);
+            long samplesLength = buffer.getInt(soundOffset + SOUND_ENTRY_SIZE - Integer.BYTES);
+            if (samplesOffset < 0 || samplesLength < 0 || samplesOffset + samplesLength > buffer.capacity()) {
+                throw new IOException("Truncated asset bundle");
+            }
+        }
+    }
+
+    /**
+     * Maps the given bundle into memory. The file should not be modified while the bundle is in use.
+     *
+     * @throws IOException If the file can't be read, or isn't an asset bundle of a supported version.
+     */
+    public static AssetBundle load(Path path) throws IOException {
+        // the mapping stays valid after its channel is closed
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(BYTE_ORDER);
+            return new AssetBundle(buffer);
+        }
+    }
+
+    static byte[] hash(byte[] contents) {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM).digest(contents);
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Hashes the files the bundle was built from as they are now, and compares them with the hashes they
+     * had when it was built. A bundle with stale sources would hand out outdated assets.
+     *
+     * @return The paths of the source files that changed since the bundle was built or can't be read.
+     */
+    public List<String> findStaleSources() {
+        List<String> staleSources = new ArrayList<>();
+        byte[] bundledHash = new byte[HASH_SIZE];
+        for (int i = 0; i < sourcePaths.length; i++) {
+            buffer.get(sourceHashOffsets[i], bundledHash);
+            try {
+                if (!Arrays.equals(bundledHash, hash(Files.readAllBytes(Path.of(sourcePaths[i]))))) {
+                    staleSources.add(sourcePaths[i]);
+                }
+            } catch (IOException e) {
+                staleSources.add(sourcePaths[i]);
+            }
+        }
+        return staleSources;
+    }
+
+    public int getNumSources() {
+        return sourcePaths.length;
+    }
+
+    /**
+     * @return The path of the source file, as given to ImageReader or SoundReader.
+     */
+    public String getSourcePath(int sourceId) {
+        return sourcePaths[sourceId];
+    }
+
+    public int getNumImages() {
+        return numImages;
+    }
+
+    /**
+     * @return The path and transparency option the image was read with.
+     */
+    public AssetKey getImageKey(int image) {
+        int imageOffset = imagesOffset + image * IMAGE_ENTRY_SIZE;
+        return new AssetKey(sourcePaths[getImageSourceId(image)], buffer.get(imageOffset + Short.BYTES) != 0);
+    }
+
+    /**
+     * @return The image, drawn from its rectangle of the atlas, which is copied out of the bundle the first
+     * time any image is asked for and shared by all of them.
+     */
+    public ImageRenderable getImage(int image) {
+        int imageOffset = imagesOffset + image * IMAGE_ENTRY_SIZE + Short.BYTES + Byte.BYTES;
+        return new AtlasImageRenderable(getAtlas(), buffer.getInt(imageOffset), buffer.getInt(imageOffset + 4),
+                buffer.getInt(imageOffset + 8), buffer.getInt(imageOffset + 12));
+    }
+
+    public int getNumSounds() {
+        return numSounds;
+    }
+
+    public String getSoundPath(int sound) {
+        return sourcePaths[getSoundSourceId(sound)];
+    }
+
+    /**
+     * @return The sound's samples, copied out of the bundle, which a mixer opens clips of to play it.
+     */
+    public DecodedSound getSound(int sound) {
+        int soundOffset = soundsOffset + sound * SOUND_ENTRY_SIZE + Short.BYTES;
+        boolean isSigned = buffer.get(soundOffset) == 0;
+        boolean isBigEndian = buffer.get(soundOffset + 1) != 0;
+        soundOffset += 2 * Byte.BYTES;
+        AudioFormat format = new AudioFormat(isSigned ? AudioFormat.Encoding.PCM_SIGNED :
+                AudioFormat.Encoding.PCM_UNSIGNED, buffer.getFloat(soundOffset), buffer.getInt(soundOffset + 4),
+                buffer.getInt(soundOffset + 8), buffer.getInt(soundOffset + 12), buffer.getFloat(soundOffset + 16),
+                isBigEndian);
+        byte[] samples = new byte[buffer.getInt(soundOffset + 24)];
+        buffer.get(buffer.getInt(soundOffset + 20), samples);
+        return new DecodedSound(format, samples);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d sources, %d images in a %dx%d atlas, %d sounds", sourcePaths.length, numImages,
+                atlasWidth, atlasHeight, numSounds);
+    }
+
+    private int getImageSourceId(int image) {
+        return buffer.getShort(imagesOffset + image * IMAGE_ENTRY_SIZE);
+    }
+
+    private int getSoundSourceId(int sound) {
+        return buffer.getShort(soundsOffset + sound * SOUND_ENTRY_SIZE);
+    }
+
+    private void checkSourceId(int sourceId) throws IOException {
+        if (sourceId < 0 || sourceId >= sourcePaths.length) {
+            throw new IOException("Unknown asset bundle source " + sourceId);
+        }
+    }
+
+    /*
+     * The atlas is copied row by row through the raster rather than wrapped around an array of our own,
+     * which would keep Java2D from caching it in video memory.
+     */
+    private synchronized BufferedImage getAtlas() {
+        if (atlas == null) {
+            atlas = new BufferedImage(Math.max(atlasWidth, 1), Math.max(atlasHeight, 1),
+                    BufferedImage.TYPE_INT_ARGB);
+            IntBuffer pixels = buffer.slice(atlasOffset, atlasWidth * atlasHeight * Integer.BYTES)
+                    .order(BYTE_ORDER).asIntBuffer();
+            int[] row = new int[atlasWidth];
+            for (int y = 0; y < atlasHeight; y++) {
+                pixels.get(row);
+                atlas.getRaster().setDataElements(0, y, atlasWidth, 1, row);
+            }
+        }
+        return atlas;
+    }
+
+}
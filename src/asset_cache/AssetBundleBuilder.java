@@ -0,0 +1,224 @@
+package asset_cache;
+
+import javax.sound.sampled.AudioFormat;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Collects decoded images and sounds, along with the files they were decoded from, and writes them in the
+ * format read by AssetBundle. The images are packed into the atlas in shelves, tallest first, and every
+ * image is surrounded by a copy of its edge pixels, so that scaling it smoothly never blends in its
+ * neighbours.
+ */
+public class AssetBundleBuilder {
+
+    private static final int MIN_ATLAS_WIDTH = 2048;
+    private static final int EDGE_PADDING = 1;
+
+    private final List<String> sourcePaths;
+    private final List<byte[]> sourceHashes;
+    private final List<ImageEntry> images;
+    private final List<SoundEntry> sounds;
+
+    public AssetBundleBuilder() {
+        this.sourcePaths = new ArrayList<>();
+        this.sourceHashes = new ArrayList<>();
+        this.images = new ArrayList<>();
+        this.sounds = new ArrayList<>();
+    }
+
+    /**
+     * @param sourcePath Path of the file, as given to ImageReader or SoundReader.
+     * @param contents   The file's contents, whose hash AssetBundle.findStaleSources checks the file against.
+     * @return The source's id, to be given to addImage and addSound.
+     */
+    public int addSource(String sourcePath, byte[] contents) {
+        if (sourcePaths.size() == Short.MAX_VALUE) {
+            throw new IllegalStateException("Too many sources");
+        }
+        if (sourcePath.getBytes(StandardCharsets.UTF_8).length > 0xFFFF) {
+            throw new IllegalArgumentException("Source path too long: " + sourcePath);
+        }
+        sourcePaths.add(sourcePath);
+        sourceHashes.add(AssetBundle.hash(contents));
+        return sourcePaths.size() - 1;
+    }
+
+    /**
+     * @param image The image as ImageReader reads the source with the given transparency option.
+     */
+    public void addImage(int sourceId, boolean useTopLeftPixelAsTransparentColor, BufferedImage image) {
+        checkSourceId(sourceId);
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+        images.add(new ImageEntry(sourceId, useTopLeftPixelAsTransparentColor, width, height, pixels));
+    }
+
+    /**
+     * @param format  A PCM format of the samples.
+     * @param samples The sound's samples, as SoundReader would play them.
+     */
+    public void addSound(int sourceId, AudioFormat format, byte[] samples) {
+        checkSourceId(sourceId);
+        AudioFormat.Encoding encoding = format.getEncoding();
+        if (!encoding.equals(AudioFormat.Encoding.PCM_SIGNED) &&
+                !encoding.equals(AudioFormat.Encoding.PCM_UNSIGNED)) {
+            throw new IllegalArgumentException("Sounds must be PCM, not " + encoding);
+        }
+        sounds.add(new SoundEntry(sourceId, format, samples));
+    }
+
+    public void write(Path path) throws IOException {
+        byte[][] encodedSourcePaths = new byte[sourcePaths.size()][];
+        int sourcesSize = 0;
+        for (int i = 0; i < encodedSourcePaths.length; i++) {
+            encodedSourcePaths[i] = sourcePaths.get(i).getBytes(StandardCharsets.UTF_8);
+            sourcesSize += Short.BYTES + encodedSourcePaths[i].length + AssetBundle.HASH_SIZE;
+        }
+        int atlasWidth = packImages();
+        int atlasHeight = 0;
+        for (ImageEntry image : images) {
+            atlasHeight = Math.max(atlasHeight, image.top + image.height + EDGE_PADDING);
+        }
+        int tablesSize = AssetBundle.HEADER_SIZE + sourcesSize + images.size() * AssetBundle.IMAGE_ENTRY_SIZE +
+                sounds.size() * AssetBundle.SOUND_ENTRY_SIZE;
+        // the pixels are aligned, so that they can be read as ints
+        int atlasOffset = (tablesSize + Integer.BYTES - 1) / Integer.BYTES * Integer.BYTES;
+        long size = atlasOffset + (long) atlasWidth * atlasHeight * Integer.BYTES;
+        for (SoundEntry sound : sounds) {
+            size += sound.samples.length;
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Assets too large to bundle");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size).order(AssetBundle.BYTE_ORDER);
+
+        buffer.putInt(AssetBundle.MAGIC).putInt(AssetBundle.VERSION).putInt(sourcePaths.size())
+                .putInt(images.size()).putInt(sounds.size()).putInt(atlasWidth).putInt(atlasHeight)
+                .putInt(atlasOffset);
+        for (int i = 0; i < encodedSourcePaths.length; i++) {
+            buffer.putShort((short) encodedSourcePaths[i].length).put(encodedSourcePaths[i])
+                    .put(sourceHashes.get(i));
+        }
+        for (ImageEntry image : images) {
+            buffer.putShort((short) image.sourceId).put((byte) (image.useTopLeftPixelAsTransparentColor ? 1 : 0))
+                    .putInt(image.left).putInt(image.top).putInt(image.width).putInt(image.height);
+        }
+        int samplesOffset = atlasOffset + atlasWidth * atlasHeight * Integer.BYTES;
+        for (SoundEntry sound : sounds) {
+            AudioFormat format = sound.format;
+            boolean isSigned = format.getEncoding().equals(AudioFormat.Encoding.PCM_SIGNED);
+            buffer.putShort((short) sound.sourceId).put((byte) (isSigned ? 0 : 1))
+                    .put((byte) (format.isBigEndian() ? 1 : 0)).putFloat(format.getSampleRate())
+                    .putInt(format.getSampleSizeInBits()).putInt(format.getChannels())
+                    .putInt(format.getFrameSize()).putFloat(format.getFrameRate()).putInt(samplesOffset)
+                    .putInt(sound.samples.length);
+            samplesOffset += sound.samples.length;
+        }
+        buffer.position(atlasOffset);
+        buffer.asIntBuffer().put(drawAtlas(atlasWidth, atlasHeight));
+        buffer.position(atlasOffset + atlasWidth * atlasHeight * Integer.BYTES);
+        for (SoundEntry sound : sounds) {
+            buffer.put(sound.samples);
+        }
+        buffer.rewind();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    private void checkSourceId(int sourceId) {
+        if (sourceId < 0 || sourceId >= sourcePaths.size()) {
+            throw new IllegalArgumentException("Unknown source id " + sourceId);
+        }
+    }
+
+    /*
+     * Places the images in rows as wide as the atlas, every row as tall as its first, tallest image.
+     * Returns the atlas' width, which fits the widest image.
+     */
+    private int packImages() {
+        int atlasWidth = MIN_ATLAS_WIDTH;
+        for (ImageEntry image : images) {
+            atlasWidth = Math.max(atlasWidth, image.width + 2 * EDGE_PADDING);
+        }
+        List<ImageEntry> tallestFirst = new ArrayList<>(images);
+        tallestFirst.sort(Comparator.comparingInt((ImageEntry image) -> image.height).reversed());
+        int x = 0;
+        int rowTop = 0;
+        int rowHeight = 0;
+        for (ImageEntry image : tallestFirst) {
+            int paddedWidth = image.width + 2 * EDGE_PADDING;
+            if (x + paddedWidth > atlasWidth) {
+                x = 0;
+                rowTop += rowHeight;
+                rowHeight = 0;
+            }
+            image.left = x + EDGE_PADDING;
+            image.top = rowTop + EDGE_PADDING;
+            x += paddedWidth;
+            rowHeight = Math.max(rowHeight, image.height + 2 * EDGE_PADDING);
+        }
+        return atlasWidth;
+    }
+
+    private int[] drawAtlas(int atlasWidth, int atlasHeight) {
+        int[] atlas = new int[atlasWidth * atlasHeight];
+        for (ImageEntry image : images) {
+            for (int y = -EDGE_PADDING; y < image.height + EDGE_PADDING; y++) {
+                int sourceY = Math.min(Math.max(y, 0), image.height - 1);
+                for (int x = -EDGE_PADDING; x < image.width + EDGE_PADDING; x++) {
+                    int sourceX = Math.min(Math.max(x, 0), image.width - 1);
+                    atlas[(image.top + y) * atlasWidth + image.left + x] =
+                            image.pixels[sourceY * image.width + sourceX];
+                }
+            }
+        }
+        return atlas;
+    }
+
+    private static class ImageEntry {
+        private final int sourceId;
+        private final boolean useTopLeftPixelAsTransparentColor;
+        private final int width;
+        private final int height;
+        private final int[] pixels;
+        private int left;
+        private int top;
+
+        private ImageEntry(int sourceId, boolean useTopLeftPixelAsTransparentColor, int width, int height,
+                           int[] pixels) {
+            this.sourceId = sourceId;
+            this.useTopLeftPixelAsTransparentColor = useTopLeftPixelAsTransparentColor;
+            this.width = width;
+            this.height = height;
+            this.pixels = pixels;
+        }
+    }
+
+    private static class SoundEntry {
+        private final int sourceId;
+        private final AudioFormat format;
+        private final byte[] samples;
+
+        private SoundEntry(int sourceId, AudioFormat format, byte[] samples) {
+            this.sourceId = sourceId;
+            this.format = format;
+            this.samples = samples;
+        }
+    }
+
+}
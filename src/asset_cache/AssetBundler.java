@@ -0,0 +1,105 @@
+package asset_cache;
+
+import danogl.gui.ImageReader;
+import danogl.gui.rendering.ImageRenderable;
+import danogl.util.Vector2;
+import headless.HeadlessWindowController;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Builds the asset bundle of a directory: decodes every image in it with ImageReader, in both transparency
+ * options, and every sound to PCM, as AssetCache.preload would, and writes them to a bundle that
+ * AssetCache.preloadBundle maps instead. Sounds that aren't PCM already are converted to 16-bit signed PCM.
+ */
+public class AssetBundler {
+
+    private static final int PCM_SAMPLE_SIZE_IN_BITS = 16;
+
+    private AssetBundler() {
+    }
+
+    /**
+     * @param directory The directory holding the assets, e.g. "assets". The bundle's paths start with it, as
+     *                  the paths the game reads its assets with do.
+     * @return The decoded assets of the directory.
+     * @throws IOException If a file can't be read or decoded.
+     */
+    public static AssetBundleBuilder bundle(String directory) throws IOException {
+        List<Path> files;
+        try (Stream<Path> paths = Files.list(Path.of(directory))) {
+            files = paths.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        // ImageReader reports what it can't read to its window, rather than throwing
+        HeadlessWindowController windowController = new HeadlessWindowController(Vector2.ONES, false);
+        AssetBundleBuilder assetBundleBuilder = new AssetBundleBuilder();
+        for (Path file : files) {
+            String path = directory + "/" + file.getFileName();
+            String lowerCasePath = path.toLowerCase(Locale.ROOT);
+            if (lowerCasePath.endsWith(AssetCache.SOUND_EXTENSION)) {
+                byte[] contents = Files.readAllBytes(file);
+                addSound(assetBundleBuilder, assetBundleBuilder.addSource(path, contents), path, contents);
+            } else if (AssetCache.isImage(lowerCasePath)) {
+                int sourceId = assetBundleBuilder.addSource(path, Files.readAllBytes(file));
+                for (boolean transparency : AssetCache.IMAGE_TRANSPARENCY_OPTIONS) {
+                    ImageRenderable image = new ImageReader(windowController).readImage(path, transparency);
+                    if (windowController.isClosed()) {
+                        throw new IOException(windowController.getLastMessage());
+                    }
+                    assetBundleBuilder.addImage(sourceId, transparency, (BufferedImage) image.getImage());
+                }
+            }
+        }
+        return assetBundleBuilder;
+    }
+
+    private static void addSound(AssetBundleBuilder assetBundleBuilder, int sourceId, String path,
+                                 byte[] contents) throws IOException {
+        try (AudioInputStream stream = AudioSystem.getAudioInputStream(new ByteArrayInputStream(contents))) {
+            AudioFormat format = stream.getFormat();
+            AudioFormat.Encoding encoding = format.getEncoding();
+            AudioInputStream pcmStream = stream;
+            if (!encoding.equals(AudioFormat.Encoding.PCM_SIGNED) &&
+                    !encoding.equals(AudioFormat.Encoding.PCM_UNSIGNED)) {
+                format = new AudioFormat(format.getSampleRate(), PCM_SAMPLE_SIZE_IN_BITS, format.getChannels(),
+                        true, false);
+                pcmStream = AudioSystem.getAudioInputStream(format, stream);
+            }
+            assetBundleBuilder.addSound(sourceId, format, pcmStream.readAllBytes());
+        } catch (UnsupportedAudioFileException e) {
+            throw new IOException("Failed to decode '" + path + "': " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Usage: AssetBundler &lt;assets directory&gt; &lt;bundle file&gt;
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: AssetBundler <assets directory> <bundle file>");
+            System.exit(1);
+        }
+        System.setProperty("java.awt.headless", "true");
+        bundle(args[0]).write(Path.of(args[1]));
+        AssetBundle assetBundle = AssetBundle.load(Path.of(args[1]));
+        List<String> staleSources = assetBundle.findStaleSources();
+        if (!staleSources.isEmpty()) {
+            System.err.println("Sources changed while bundling: " + staleSources);
+            System.exit(1);
+        }
+        System.out.println(assetBundle);
+    }
+
+}
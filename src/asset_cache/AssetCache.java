@@ -0,0 +1,252 @@
+package asset_cache;
+
+import audio.DecodedSound;
+import audio.MixingSoundReader;
+import danogl.gui.ImageReader;
+import danogl.gui.WindowController;
+import danogl.gui.rendering.ImageRenderable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A process-wide cache of decoded images and sounds, keyed by path and reading options. It outlives
+ * GameManager.initializeGame, so restarting the game doesn't decode anything again. The least recently
+ * used asset is evicted once more than the maximal number of assets are cached. Sounds are kept decoded,
+ * without clips, as every session plays them through a mixer of its own.
+ */
+public class AssetCache {
+
+    private static final int DEFAULT_MAX_ENTRIES = 64;
+    private static final float LOAD_FACTOR = 0.75f;
+    static final boolean[] IMAGE_TRANSPARENCY_OPTIONS = {false, true};
+    static final String SOUND_EXTENSION = ".wav";
+    private static final String[] IMAGE_EXTENSIONS = {".png", ".jpg", ".jpeg"};
+    private static final AssetCache INSTANCE = new AssetCache(DEFAULT_MAX_ENTRIES);
+
+    private final LinkedHashMap<AssetKey, Object> assets;
+    private final Set<Path> preloadedPaths;
+    private int maxEntries;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    AssetCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.preloadedPaths = new HashSet<>();
+        this.assets = new LinkedHashMap<>(maxEntries, LOAD_FACTOR, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<AssetKey, Object> eldest) {
+                if (size() > AssetCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public static AssetCache getInstance() {
+        return INSTANCE;
+    }
+
+    public synchronized void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+        while (assets.size() > maxEntries) {
+            AssetKey eldest = assets.keySet().iterator().next();
+            assets.remove(eldest);
+            evictions++;
+        }
+    }
+
+    public ImageRenderable getImage(String path, boolean useTopLeftPixelAsTransparentColor,
+                                    Supplier<ImageRenderable> loader) {
+        return (ImageRenderable) get(new AssetKey(path, useTopLeftPixelAsTransparentColor), loader);
+    }
+
+    public DecodedSound getSound(String path, Supplier<DecodedSound> loader) {
+        return (DecodedSound) get(new AssetKey(path, false), loader);
+    }
+
+    /**
+     * Decodes every image and sound file in the given directory in parallel, one task per asset and
+     * reading option, and caches the results. Directories that were already preloaded are skipped.
+     *
+     * @param directory        The directory holding the assets, e.g. "assets".
+     * @param windowController Reports images that can't be read, as ImageReader does. Sounds that can't be
+     *                         read are left to be read, and reported, on first use.
+     */
+    public void preload(String directory, WindowController windowController) {
+        Path directoryPath = Path.of(directory);
+        List<Path> files;
+        synchronized (this) {
+            if (!preloadedPaths.add(directoryPath)) {
+                return;
+            }
+        }
+        try (Stream<Path> paths = Files.list(directoryPath)) {
+            files = paths.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        } catch (IOException e) {
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            List<AssetKey> keys = new ArrayList<>();
+            List<Future<?>> futures = new ArrayList<>();
+            for (Path file : files) {
+                String path = directory + "/" + file.getFileName();
+                String lowerCasePath = path.toLowerCase(Locale.ROOT);
+                if (lowerCasePath.endsWith(SOUND_EXTENSION)) {
+                    keys.add(new AssetKey(path, false));
+                    futures.add(executor.submit(() -> MixingSoundReader.decode(path)));
+                } else if (isImage(lowerCasePath)) {
+                    for (boolean transparency : IMAGE_TRANSPARENCY_OPTIONS) {
+                        keys.add(new AssetKey(path, transparency));
+                        // ImageReader keeps per-read state, so every task gets its own
+                        futures.add(executor.submit(() ->
+                                new ImageReader(windowController).readImage(path, transparency)));
+                    }
+                }
+            }
+            for (int i = 0; i < keys.size(); i++) {
+                Object asset;
+                try {
+                    asset = futures.get(i).get();
+                } catch (ExecutionException e) {
+                    // a file that can't be decoded is read (and reported) again on first use
+                    continue;
+                }
+                if (asset != null) {
+                    synchronized (this) {
+                        assets.putIfAbsent(keys.get(i), asset);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Caches every image and sound of the given bundle, as preload would cache those of the directory it was
+     * built from, as long as none of its source files changed since it was built. Decoding nothing, this
+     * only takes copying the atlas and the sounds' samples out of the mapped file. Bundles that were already
+     * preloaded are skipped.
+     *
+     * @param bundlePath The bundle's file, as written by AssetBundler.
+     * @return true if the bundle is preloaded, false if it's missing, unreadable or stale, in which case
+     * nothing was cached and the directory should be preloaded instead.
+     */
+    public boolean preloadBundle(String bundlePath) {
+        Path path = Path.of(bundlePath);
+        synchronized (this) {
+            if (preloadedPaths.contains(path)) {
+                return true;
+            }
+        }
+        if (!Files.isRegularFile(path)) {
+            return false;
+        }
+        AssetBundle assetBundle;
+        try {
+            assetBundle = AssetBundle.load(path);
+        } catch (IOException e) {
+            return false;
+        }
+        // the sources are hashed while the atlas is copied, but nothing is cached before they're found intact
+        CompletableFuture<List<String>> staleSources = CompletableFuture.supplyAsync(assetBundle::findStaleSources);
+        ImageRenderable[] images = new ImageRenderable[assetBundle.getNumImages()];
+        for (int i = 0; i < images.length; i++) {
+            images[i] = assetBundle.getImage(i);
+        }
+        if (!staleSources.join().isEmpty()) {
+            return false;
+        }
+        synchronized (this) {
+            for (int i = 0; i < images.length; i++) {
+                assets.putIfAbsent(assetBundle.getImageKey(i), images[i]);
+            }
+        }
+        DecodedSound[] sounds = new DecodedSound[assetBundle.getNumSounds()];
+        for (int i = 0; i < sounds.length; i++) {
+            sounds[i] = assetBundle.getSound(i);
+        }
+        synchronized (this) {
+            for (int i = 0; i < sounds.length; i++) {
+                assets.putIfAbsent(new AssetKey(assetBundle.getSoundPath(i), false), sounds[i]);
+            }
+            preloadedPaths.add(path);
+        }
+        return true;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized int size() {
+        return assets.size();
+    }
+
+    public synchronized void clear() {
+        assets.clear();
+        preloadedPaths.clear();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("AssetCache[size=%d, hits=%d, misses=%d, evictions=%d]", assets.size(), hits,
+                misses, evictions);
+    }
+
+    private synchronized Object get(AssetKey key, Supplier<?> loader) {
+        Object asset = assets.get(key);
+        if (asset != null) {
+            hits++;
+            return asset;
+        }
+        misses++;
+        asset = loader.get();
+        if (asset != null) {
+            assets.put(key, asset);
+        }
+        return asset;
+    }
+
+    static boolean isImage(String lowerCasePath) {
+        for (String extension : IMAGE_EXTENSIONS) {
+            if (lowerCasePath.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,46 @@
+package asset_cache;
+
+import java.util.Objects;
+
+public class AssetKey {
+
+    private final String path;
+    private final boolean useTopLeftPixelAsTransparentColor;
+
+    public AssetKey(String path, boolean useTopLeftPixelAsTransparentColor) {
+        this.path = path;
+        this.useTopLeftPixelAsTransparentColor = useTopLeftPixelAsTransparentColor;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public boolean useTopLeftPixelAsTransparentColor() {
+        return useTopLeftPixelAsTransparentColor;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof AssetKey)) {
+            return false;
+        }
+        AssetKey otherKey = (AssetKey) other;
+        return useTopLeftPixelAsTransparentColor == otherKey.useTopLeftPixelAsTransparentColor &&
+                path.equals(otherKey.path);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(path, useTopLeftPixelAsTransparentColor);
+    }
+
+    @Override
+    public String toString() {
+        return path + (useTopLeftPixelAsTransparentColor ? " (transparent)" : "");
+    }
+
+}
@@ -0,0 +1,75 @@
+package asset_cache;
+
+import danogl.gui.rendering.ImageRenderable;
+import danogl.util.Vector2;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+
+/**
+ * An image that is a rectangle of an atlas. It is drawn straight from the atlas, so drawing the images of
+ * an atlas one after the other keeps drawing from the same source image, which Java2D caches once rather
+ * than once per image. It is drawn the way ImageRenderable draws its image, rotation, mirroring and
+ * opaqueness included, and getImage returns the rectangle as an image of its own, sharing the atlas'
+ * pixels.
+ */
+public class AtlasImageRenderable extends ImageRenderable {
+
+    private static final float HALF = 0.5f;
+
+    private final BufferedImage atlas;
+    private final int left;
+    private final int top;
+    private final int width;
+    private final int height;
+
+    public AtlasImageRenderable(BufferedImage atlas, int left, int top, int width, int height) {
+        super(atlas.getSubimage(left, top, width, height));
+        this.atlas = atlas;
+        this.left = left;
+        this.top = top;
+        this.width = width;
+        this.height = height;
+    }
+
+    @Override
+    public void render(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions, double degreesCounterClockwise,
+                       boolean isFlippedHorizontally, boolean isFlippedVertically, double opaqueness) {
+        if (opaqueness <= 0) {
+            return;
+        }
+        int x = (int) topLeftCorner.x();
+        int y = (int) topLeftCorner.y();
+        int drawnWidth = (int) dimensions.x();
+        int drawnHeight = (int) dimensions.y();
+        // a mirrored image is drawn from its far edge back, and turns the other way
+        if (isFlippedHorizontally) {
+            drawnWidth = -drawnWidth;
+            x -= drawnWidth;
+            degreesCounterClockwise = -degreesCounterClockwise;
+        }
+        if (isFlippedVertically) {
+            drawnHeight = -drawnHeight;
+            y -= drawnHeight;
+            degreesCounterClockwise = -degreesCounterClockwise;
+        }
+        AffineTransform originalTransform = null;
+        if (degreesCounterClockwise != 0) {
+            originalTransform = g.getTransform();
+            g.rotate(Math.toRadians(-degreesCounterClockwise), topLeftCorner.x() + dimensions.x() * HALF,
+                    topLeftCorner.y() + dimensions.y() * HALF);
+        }
+        if (opaqueness < 1) {
+            g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, (float) opaqueness));
+        } else if (g.getComposite() != AlphaComposite.SrcOver) {
+            g.setComposite(AlphaComposite.SrcOver);
+        }
+        g.drawImage(atlas, x, y, x + drawnWidth, y + drawnHeight, left, top, left + width, top + height, null);
+        if (originalTransform != null) {
+            g.setTransform(originalTransform);
+        }
+    }
+
+}
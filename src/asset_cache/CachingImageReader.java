@@ -0,0 +1,22 @@
+package asset_cache;
+
+import danogl.gui.ImageReader;
+import danogl.gui.WindowController;
+import danogl.gui.rendering.ImageRenderable;
+
+public class CachingImageReader extends ImageReader {
+
+    private final AssetCache assetCache;
+
+    public CachingImageReader(WindowController windowController, AssetCache assetCache) {
+        super(windowController);
+        this.assetCache = assetCache;
+    }
+
+    @Override
+    public ImageRenderable readImage(String imageFilePath, boolean useTopLeftPixelAsTransparentColor) {
+        return assetCache.getImage(imageFilePath, useTopLeftPixelAsTransparentColor,
+                () -> super.readImage(imageFilePath, useTopLeftPixelAsTransparentColor));
+    }
+
+}
@@ -0,0 +1,38 @@
+package asset_cache;
+
+import audio.AudioMixer;
+import audio.DecodedSound;
+import audio.MixingSoundReader;
+import danogl.gui.Sound;
+import danogl.gui.WindowController;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads sounds decoded once per process by an AssetCache, and opens their clips for a single session's
+ * mixer, once per sound for as long as the reader is kept.
+ */
+public class CachingSoundReader extends MixingSoundReader {
+
+    private final AssetCache assetCache;
+    private final Map<String, Sound> sounds;
+
+    public CachingSoundReader(WindowController windowController, AssetCache assetCache, AudioMixer mixer) {
+        super(windowController, mixer);
+        this.assetCache = assetCache;
+        this.sounds = new HashMap<>();
+    }
+
+    @Override
+    public Sound readSound(String soundFilePath) {
+        Sound sound = sounds.get(soundFilePath);
+        if (sound == null) {
+            DecodedSound decodedSound = assetCache.getSound(soundFilePath, () -> decode(soundFilePath));
+            sound = decodedSound != null ? createSound(soundFilePath, decodedSound) : super.readSound(soundFilePath);
+            sounds.put(soundFilePath, sound);
+        }
+        return sound;
+    }
+
+}
@@ -0,0 +1,267 @@
+package audio;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.Clip;
+import javax.sound.sampled.LineUnavailableException;
+
+/**
+ * Decides which of the plays the game asks for reach the audio device. A ball bouncing about a dense brick
+ * field asks for its sound many times a frame, and every play that reaches a clip costs the game thread a
+ * few calls into the audio system, which locks against the audio thread, for a sound no one hears apart
+ * from the others. So the mixer collects the plays MixedSounds ask for during a frame, and starts them
+ * when it's flushed at the end of it:
+ * <ul>
+ *     <li>Plays of the same sound in the same frame are merged into one.</li>
+ *     <li>A sound starts at most a given number of plays in any second, and plays past that are dropped.</li>
+ *     <li>No more than a given number of plays, the voices, are playing at a time. A play that finds none
+ *     free takes the voice that started the longest ago, and stops what played on it.</li>
+ * </ul>
+ * A voice is busy for as long as its clip is, which the mixer tells by the clip's length rather than asking
+ * the clip. The counts of plays merged, dropped and cut short are kept so they can be reported.
+ * <p>
+ * Every session plays through a mixer of its own, whose requests and flushes are only made by the session's
+ * game thread. The counts may be read from any thread.
+ */
+public class AudioMixer {
+
+    static final long NANOS_IN_MICROSECOND = 1000;
+    static final long NANOS_IN_SECOND = 1_000_000_000;
+    // as many as SoundReader opens for a sound
+    private static final int CLIPS_PER_SOUND = 5;
+    private static final int DEFAULT_NUM_VOICES = 8;
+    private static final int DEFAULT_MAX_PLAYS_PER_SECOND = 15;
+    private static final int INITIAL_PENDING_CAPACITY = 8;
+
+    /**
+     * A mixer that ignores every play, for sessions without audio. It keeps no state, so any number of
+     * sessions may share it.
+     */
+    public static final AudioMixer DISABLED = new AudioMixer(1, 1, false);
+
+    private final boolean isEnabled;
+    private final int maxPlaysPerSecond;
+    // the voices, by the sound and clip playing on them, or a null sound while a voice was never used
+    private final MixedSound[] voiceSounds;
+    private final int[] voiceClips;
+    private final long[] voiceStartNanos;
+    private final long[] voiceEndNanos;
+    // the sounds asked for since the last flush, each once
+    private MixedSound[] pendingSounds = new MixedSound[INITIAL_PENDING_CAPACITY];
+    private int numPendingSounds;
+    private volatile long numRequested;
+    private volatile long numMerged;
+    private volatile long numRateLimited;
+    private volatile long numStarted;
+    private volatile long numStolen;
+
+    /**
+     * @param numVoices         The number of plays that may be playing at a time.
+     * @param maxPlaysPerSecond The number of plays a sound may start in any second.
+     */
+    public AudioMixer(int numVoices, int maxPlaysPerSecond) {
+        this(numVoices, maxPlaysPerSecond, true);
+    }
+
+    /**
+     * Creates a mixer of 8 voices, that lets a sound start 15 plays a second.
+     */
+    public AudioMixer() {
+        this(DEFAULT_NUM_VOICES, DEFAULT_MAX_PLAYS_PER_SECOND);
+    }
+
+    private AudioMixer(int numVoices, int maxPlaysPerSecond, boolean isEnabled) {
+        if (numVoices <= 0 || maxPlaysPerSecond <= 0) {
+            throw new IllegalArgumentException("A mixer needs a voice, and to let a sound play every second");
+        }
+        this.isEnabled = isEnabled;
+        this.maxPlaysPerSecond = maxPlaysPerSecond;
+        this.voiceSounds = new MixedSound[numVoices];
+        this.voiceClips = new int[numVoices];
+        this.voiceStartNanos = new long[numVoices];
+        this.voiceEndNanos = new long[numVoices];
+    }
+
+    public boolean isEnabled() {
+        return isEnabled;
+    }
+
+    /**
+     * Opens as many clips of the given sound as SoundReader does, for a sound that plays through the mixer.
+     * May be called from any thread.
+     *
+     * @throws LineUnavailableException If the audio device has no clip left to open.
+     * @throws IllegalArgumentException If there is no audio device that plays the sound's format.
+     */
+    public MixedSound createSound(DecodedSound decodedSound) throws LineUnavailableException {
+        AudioFormat format = decodedSound.getFormat();
+        byte[] samples = decodedSound.getSamples();
+        Clip[] clips = new Clip[CLIPS_PER_SOUND];
+        for (int i = 0; i < clips.length; i++) {
+            clips[i] = AudioSystem.getClip();
+            clips[i].open(format, samples, 0, samples.length);
+        }
+        return new MixedSound(this, clips, maxPlaysPerSecond);
+    }
+
+    /**
+     * Starts the plays asked for since the last flush that aren't dropped. Should be called once per frame.
+     */
+    public void flush() {
+        if (numPendingSounds == 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (int i = 0; i < numPendingSounds; i++) {
+            MixedSound sound = pendingSounds[i];
+            pendingSounds[i] = null;
+            sound.isPending = false;
+            if (sound.isRateLimited(now)) {
+                numRateLimited++;
+            } else {
+                start(sound, now);
+            }
+        }
+        numPendingSounds = 0;
+    }
+
+    /**
+     * @return The number of plays asked for.
+     */
+    public long getNumRequested() {
+        return numRequested;
+    }
+
+    /**
+     * @return The number of plays merged into a play of the same sound in the same frame.
+     */
+    public long getNumMerged() {
+        return numMerged;
+    }
+
+    /**
+     * @return The number of plays dropped because their sound played too often in the last second.
+     */
+    public long getNumRateLimited() {
+        return numRateLimited;
+    }
+
+    public long getNumStarted() {
+        return numStarted;
+    }
+
+    /**
+     * @return The number of plays cut short by a play that took their voice.
+     */
+    public long getNumStolen() {
+        return numStolen;
+    }
+
+    /**
+     * @return The number of plays asked for that never reached a voice, merged or rate limited.
+     */
+    public long getNumDropped() {
+        return numMerged + numRateLimited;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AudioMixer[voices=%d, requested=%d, started=%d, merged=%d, rateLimited=%d, " +
+                "stolen=%d]", voiceSounds.length, numRequested, numStarted, numMerged, numRateLimited, numStolen);
+    }
+
+    void request(MixedSound sound) {
+        if (!isEnabled) {
+            return;
+        }
+        numRequested++;
+        if (sound.isPending) {
+            numMerged++;
+            return;
+        }
+        if (numPendingSounds == pendingSounds.length) {
+            MixedSound[] grownPendingSounds = new MixedSound[numPendingSounds * 2];
+            System.arraycopy(pendingSounds, 0, grownPendingSounds, 0, numPendingSounds);
+            pendingSounds = grownPendingSounds;
+        }
+        pendingSounds[numPendingSounds++] = sound;
+        sound.isPending = true;
+    }
+
+    private void start(MixedSound sound, long now) {
+        int clip = findIdleClip(sound, now);
+        int voice;
+        if (clip >= 0) {
+            // a clip that played last keeps its voice, as no other play took it since
+            voice = sound.clipVoices[clip] >= 0 ? sound.clipVoices[clip] : findFreeVoice(now);
+            if (voice < 0) {
+                voice = findOldestVoice();
+                steal(voice);
+            }
+        } else {
+            // every clip of the sound is playing, so its oldest play starts over
+            clip = findOldestClip(sound);
+            voice = sound.clipVoices[clip];
+            steal(voice);
+        }
+        MixedSound previousSound = voiceSounds[voice];
+        if (previousSound != null) {
+            previousSound.clipVoices[voiceClips[voice]] = -1;
+        }
+        voiceSounds[voice] = sound;
+        voiceClips[voice] = clip;
+        voiceStartNanos[voice] = now;
+        voiceEndNanos[voice] = now + sound.clipNanos[clip];
+        sound.clipVoices[clip] = voice;
+        sound.recordStart(now);
+        Clip startedClip = sound.clips[clip];
+        startedClip.setFramePosition(0);
+        startedClip.start();
+        numStarted++;
+    }
+
+    private void steal(int voice) {
+        voiceSounds[voice].clips[voiceClips[voice]].stop();
+        numStolen++;
+    }
+
+    private int findIdleClip(MixedSound sound, long now) {
+        for (int clip = 0; clip < sound.clips.length; clip++) {
+            int voice = sound.clipVoices[clip];
+            if (voice < 0 || voiceEndNanos[voice] <= now) {
+                return clip;
+            }
+        }
+        return -1;
+    }
+
+    private int findOldestClip(MixedSound sound) {
+        int oldestClip = 0;
+        for (int clip = 1; clip < sound.clips.length; clip++) {
+            if (voiceStartNanos[sound.clipVoices[clip]] < voiceStartNanos[sound.clipVoices[oldestClip]]) {
+                oldestClip = clip;
+            }
+        }
+        return oldestClip;
+    }
+
+    private int findFreeVoice(long now) {
+        for (int voice = 0; voice < voiceSounds.length; voice++) {
+            if (voiceSounds[voice] == null || voiceEndNanos[voice] <= now) {
+                return voice;
+            }
+        }
+        return -1;
+    }
+
+    private int findOldestVoice() {
+        int oldestVoice = 0;
+        for (int voice = 1; voice < voiceSounds.length; voice++) {
+            if (voiceStartNanos[voice] < voiceStartNanos[oldestVoice]) {
+                oldestVoice = voice;
+            }
+        }
+        return oldestVoice;
+    }
+
+}
@@ -0,0 +1,27 @@
+package audio;
+
+import javax.sound.sampled.AudioFormat;
+
+/**
+ * The samples of a sound file, decoded to PCM, and their format. Opens no clip, so it can be kept for as
+ * long as the file is needed, and played through any mixer, which opens clips of its own.
+ */
+public class DecodedSound {
+
+    private final AudioFormat format;
+    private final byte[] samples;
+
+    public DecodedSound(AudioFormat format, byte[] samples) {
+        this.format = format;
+        this.samples = samples;
+    }
+
+    public AudioFormat getFormat() {
+        return format;
+    }
+
+    public byte[] getSamples() {
+        return samples;
+    }
+
+}
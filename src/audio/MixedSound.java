@@ -0,0 +1,67 @@
+package audio;
+
+import danogl.gui.Sound;
+
+import javax.sound.sampled.Clip;
+
+/**
+ * A sound whose plays go through an AudioMixer: play only asks the mixer for a voice, which it gets, or
+ * doesn't, when the mixer flushes at the end of the frame. Its clips are the voices it may play on, and
+ * the mixer keeps track of which of them is playing, so nothing asks the clips whether they're running.
+ * <p>
+ * Looped plays and stopping every occurrence go straight to the clips, as a danogl Sound's do, and are
+ * outside of the mixer's pool.
+ */
+public class MixedSound extends Sound {
+
+    private final AudioMixer mixer;
+    // the mixer's bookkeeping, only touched by the game thread
+    final Clip[] clips;
+    final long[] clipNanos;
+    // the voice every clip plays on, or -1 while it plays on none
+    final int[] clipVoices;
+    // the start times of the last plays, oldest first from nextRecentStart on once all are filled
+    final long[] recentStartNanos;
+    int numRecentStarts;
+    int nextRecentStart;
+    boolean isPending;
+
+    MixedSound(AudioMixer mixer, Clip[] clips, int maxPlaysPerSecond) {
+        super(clips);
+        this.mixer = mixer;
+        this.clips = clips;
+        this.clipNanos = new long[clips.length];
+        this.clipVoices = new int[clips.length];
+        for (int i = 0; i < clips.length; i++) {
+            clipNanos[i] = clips[i].getMicrosecondLength() * AudioMixer.NANOS_IN_MICROSECOND;
+            clipVoices[i] = -1;
+        }
+        this.recentStartNanos = new long[maxPlaysPerSecond];
+    }
+
+    /**
+     * Asks the mixer to play the sound once the frame is over. Plays asked for again in the same frame are
+     * merged into this one.
+     */
+    @Override
+    public void play() {
+        mixer.request(this);
+    }
+
+    /*
+     * Whether the sound started as many plays as it may in a second during the last second.
+     */
+    boolean isRateLimited(long now) {
+        return numRecentStarts == recentStartNanos.length &&
+                now - recentStartNanos[nextRecentStart] < AudioMixer.NANOS_IN_SECOND;
+    }
+
+    void recordStart(long now) {
+        recentStartNanos[nextRecentStart] = now;
+        nextRecentStart = (nextRecentStart + 1) % recentStartNanos.length;
+        if (numRecentStarts < recentStartNanos.length) {
+            numRecentStarts++;
+        }
+    }
+
+}
@@ -0,0 +1,77 @@
+package audio;
+
+import danogl.gui.Sound;
+import danogl.gui.SoundReader;
+import danogl.gui.WindowController;
+
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads sounds that play through an AudioMixer. Files are looked up as SoundReader looks them up, on disk
+ * and then on the class path, and a file that can't be read is left to SoundReader, which reports it.
+ */
+public class MixingSoundReader extends SoundReader {
+
+    private final AudioMixer mixer;
+
+    public MixingSoundReader(WindowController windowController, AudioMixer mixer) {
+        super(windowController);
+        this.mixer = mixer;
+    }
+
+    @Override
+    public Sound readSound(String soundFilePath) {
+        DecodedSound decodedSound = decode(soundFilePath);
+        return decodedSound != null ? createSound(soundFilePath, decodedSound) : super.readSound(soundFilePath);
+    }
+
+    /**
+     * Decodes a sound file, looked up as readSound looks it up, without opening any clip of it. May be called
+     * from any thread.
+     *
+     * @return The sound's samples, or null if the file can't be read.
+     */
+    public static DecodedSound decode(String soundFilePath) {
+        try (InputStream inputStream = openFile(soundFilePath);
+             AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(inputStream)) {
+            return new DecodedSound(audioInputStream.getFormat(), audioInputStream.readAllBytes());
+        } catch (IOException | UnsupportedAudioFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Opens the clips of a decoded sound for the reader's mixer, or leaves the file to SoundReader if they
+     * can't be opened.
+     */
+    protected Sound createSound(String soundFilePath, DecodedSound decodedSound) {
+        try {
+            return mixer.createSound(decodedSound);
+        } catch (LineUnavailableException | IllegalArgumentException e) {
+            return super.readSound(soundFilePath);
+        }
+    }
+
+    private static InputStream openFile(String path) throws IOException {
+        InputStream inputStream;
+        try {
+            inputStream = new FileInputStream(path);
+        } catch (FileNotFoundException e) {
+            inputStream = MixingSoundReader.class.getResourceAsStream("/" + path);
+            if (inputStream == null) {
+                throw e;
+            }
+        }
+        // the audio system marks and resets the stream while it tells the file's format
+        return new BufferedInputStream(inputStream);
+    }
+
+}
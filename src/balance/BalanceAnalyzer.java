@@ -0,0 +1,119 @@
+package balance;
+
+import danogl.GameManager;
+import danogl.util.Vector2;
+import headless.BallTrackingInputScript;
+import headless.HeadlessGameRunner;
+import headless.SimulatedGame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongFunction;
+
+/**
+ * Plays many games without a window, in parallel, with a paddle that follows the ball, and aggregates
+ * their statistics into a BalanceReport. Every game gets its own game manager, seeded with a seed drawn
+ * from the analysis' seed by the game's index, so the report only depends on that seed and on the number
+ * of games, and not on the number of threads or on how the games were spread between them.
+ * <p>
+ * Games share the engine's classes between threads, so they must stay clear of the few engine methods
+ * that compute in static scratch vectors, like Transform.setCenter(Vector2) - set centers through
+ * setCenter(float, float) instead.
+ *
+ * @param <G> The type of the simulated game manager.
+ */
+public class BalanceAnalyzer<G extends GameManager & SimulatedGame> {
+
+    // games are handed to the workers in small batches, to keep them from contending on the counter
+    private static final int GAMES_PER_BATCH = 16;
+
+    private final LongFunction<G> gameFactory;
+    private final String[] strategyNames;
+    private final Vector2 windowDimensions;
+    private final float deltaTime;
+    private final long maxTicksPerGame;
+    private final float paddleDeadZone;
+
+    /**
+     * @param gameFactory      Creates a headless game whose random choices are all drawn from the given
+     *                         seed. Called from several threads at once.
+     * @param strategyNames    The names of the brick strategies, indexed like the games' strategy triggers.
+     * @param windowDimensions Dimensions reported to the games as the window's.
+     * @param deltaTime        The simulated time, in seconds, that passes in every tick.
+     * @param maxTicksPerGame  Games that don't end after this many ticks are reported as unfinished.
+     * @param paddleDeadZone   See BallTrackingInputScript.
+     */
+    public BalanceAnalyzer(LongFunction<G> gameFactory, String[] strategyNames, Vector2 windowDimensions,
+                           float deltaTime, long maxTicksPerGame, float paddleDeadZone) {
+        this.gameFactory = gameFactory;
+        this.strategyNames = strategyNames.clone();
+        this.windowDimensions = windowDimensions;
+        this.deltaTime = deltaTime;
+        this.maxTicksPerGame = maxTicksPerGame;
+        this.paddleDeadZone = paddleDeadZone;
+    }
+
+    /**
+     * @param numGames   Number of games to play.
+     * @param seed       Determines all the games.
+     * @param numThreads Number of games played at once.
+     * @return The aggregated statistics of all the games.
+     */
+    public BalanceReport run(int numGames, long seed, int numThreads) throws InterruptedException {
+        long[] gameSeeds = new long[numGames];
+        SplittableRandom seedRandom = new SplittableRandom(seed);
+        for (int i = 0; i < numGames; i++) {
+            gameSeeds[i] = seedRandom.nextLong();
+        }
+
+        AtomicInteger nextGame = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            List<Future<BalanceReport>> workerReports = new ArrayList<>(numThreads);
+            for (int i = 0; i < numThreads; i++) {
+                workerReports.add(executor.submit(() -> {
+                    BalanceReport workerReport = new BalanceReport(strategyNames);
+                    int firstGame;
+                    while ((firstGame = nextGame.getAndAdd(GAMES_PER_BATCH)) < numGames) {
+                        int lastGame = Math.min(firstGame + GAMES_PER_BATCH, numGames);
+                        for (int game = firstGame; game < lastGame; game++) {
+                            workerReport.add(playGame(gameSeeds[game]).getGameStatistics());
+                        }
+                    }
+                    return workerReport;
+                }));
+            }
+            BalanceReport report = new BalanceReport(strategyNames);
+            for (Future<BalanceReport> workerReport : workerReports) {
+                report.merge(workerReport.get());
+            }
+            return report;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A simulated game failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private G playGame(long seed) {
+        G game = gameFactory.apply(seed);
+        HeadlessGameRunner runner = new HeadlessGameRunner(game, windowDimensions, deltaTime);
+        // declining to play again closes the window, which ends the run when the game ends
+        runner.getWindowController().setPlayAgainAnswer(false);
+        runner.getInputListener().setInputScript(new BallTrackingInputScript(game, paddleDeadZone));
+        runner.initializeGame();
+        for (long tick = 0; tick < maxTicksPerGame; tick++) {
+            if (!runner.tick()) {
+                break;
+            }
+        }
+        return game;
+    }
+
+}
@@ -0,0 +1,128 @@
+package balance;
+
+import headless.GameStatistics;
+
+import java.util.Arrays;
+
+/**
+ * Aggregates the statistics of many simulated games. Only sums and counts are kept, so merging the
+ * reports of parallel workers gives the same result whatever the order the games were played in.
+ */
+public class BalanceReport {
+
+    private final String[] strategyNames;
+    private final long[] strategyTriggers;
+    private long[] livesLostHistogram;
+    private long numGames;
+    private long numWon;
+    private long numLost;
+    private long sumTicks;
+    private long maxTicks;
+    private long sumLivesLost;
+    private long sumBricksDestroyed;
+    private long sumPucksSpawned;
+
+    /**
+     * @param strategyNames The names of the brick strategies, indexed like the games' strategy triggers.
+     */
+    public BalanceReport(String[] strategyNames) {
+        this.strategyNames = strategyNames.clone();
+        this.strategyTriggers = new long[strategyNames.length];
+        this.livesLostHistogram = new long[0];
+    }
+
+    public void add(GameStatistics gameStatistics) {
+        numGames++;
+        if (gameStatistics.isOver()) {
+            if (gameStatistics.isWon()) {
+                numWon++;
+            } else {
+                numLost++;
+            }
+        }
+        sumTicks += gameStatistics.getTicks();
+        maxTicks = Math.max(maxTicks, gameStatistics.getTicks());
+        int livesLost = gameStatistics.getLivesLost();
+        sumLivesLost += livesLost;
+        if (livesLost >= livesLostHistogram.length) {
+            livesLostHistogram = Arrays.copyOf(livesLostHistogram, livesLost + 1);
+        }
+        livesLostHistogram[livesLost]++;
+        sumBricksDestroyed += gameStatistics.getBricksDestroyed();
+        sumPucksSpawned += gameStatistics.getPucksSpawned();
+        for (int i = 0; i < strategyTriggers.length; i++) {
+            strategyTriggers[i] += gameStatistics.getStrategyTriggers(i);
+        }
+    }
+
+    public void merge(BalanceReport other) {
+        numGames += other.numGames;
+        numWon += other.numWon;
+        numLost += other.numLost;
+        sumTicks += other.sumTicks;
+        maxTicks = Math.max(maxTicks, other.maxTicks);
+        sumLivesLost += other.sumLivesLost;
+        if (other.livesLostHistogram.length > livesLostHistogram.length) {
+            livesLostHistogram = Arrays.copyOf(livesLostHistogram, other.livesLostHistogram.length);
+        }
+        for (int i = 0; i < other.livesLostHistogram.length; i++) {
+            livesLostHistogram[i] += other.livesLostHistogram[i];
+        }
+        sumBricksDestroyed += other.sumBricksDestroyed;
+        sumPucksSpawned += other.sumPucksSpawned;
+        for (int i = 0; i < strategyTriggers.length; i++) {
+            strategyTriggers[i] += other.strategyTriggers[i];
+        }
+    }
+
+    public long getNumGames() {
+        return numGames;
+    }
+
+    public double getWinRate() {
+        return ratio(numWon, numGames);
+    }
+
+    public double getMeanTicks() {
+        return ratio(sumTicks, numGames);
+    }
+
+    public double getMeanLivesLost() {
+        return ratio(sumLivesLost, numGames);
+    }
+
+    public double getMeanPucksSpawned() {
+        return ratio(sumPucksSpawned, numGames);
+    }
+
+    /**
+     * @return How many times the given strategy took effect, per game.
+     */
+    public double getStrategyTriggersPerGame(int strategy) {
+        return ratio(strategyTriggers[strategy], numGames);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("games: %d (won %d, lost %d, unfinished %d), win rate %.2f%%%n",
+                numGames, numWon, numLost, numGames - numWon - numLost, 100 * getWinRate()));
+        report.append(String.format("game length: mean %.1f ticks, max %d ticks%n", getMeanTicks(), maxTicks));
+        report.append(String.format("lives lost: mean %.3f, histogram %s%n", getMeanLivesLost(),
+                Arrays.toString(livesLostHistogram)));
+        report.append(String.format("bricks destroyed: mean %.2f, pucks spawned: mean %.2f%n",
+                ratio(sumBricksDestroyed, numGames), getMeanPucksSpawned()));
+        long sumTriggers = Arrays.stream(strategyTriggers).sum();
+        report.append("strategy triggers (per game, share):");
+        for (int i = 0; i < strategyNames.length; i++) {
+            report.append(String.format("%n  %-20s %8.3f %6.2f%%", strategyNames[i],
+                    getStrategyTriggersPerGame(i), 100 * ratio(strategyTriggers[i], sumTriggers)));
+        }
+        return report.toString();
+    }
+
+    private static double ratio(long numerator, long denominator) {
+        return denominator == 0 ? 0 : (double) numerator / denominator;
+    }
+
+}
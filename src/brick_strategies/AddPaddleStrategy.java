@@ -4,10 +4,12 @@ import danogl.GameObject;
 import danogl.gui.ImageReader;
 import danogl.gui.UserInputListener;
 import danogl.gui.rendering.Renderable;
-import danogl.util.Counter;
 import danogl.util.Vector2;
+import gameobjects.GameObjectPool;
 import gameobjects.MockPaddle;
 
+import java.util.function.Supplier;
+
 public class AddPaddleStrategy extends RemoveBrickStrategyDecorator implements CollisionStrategy {
 
     private static final float MOCK_PADDLE_HEIGHT = 20;
@@ -18,31 +20,48 @@ public class AddPaddleStrategy extends RemoveBrickStrategyDecorator implements C
     private final ImageReader imageReader;
     private final UserInputListener inputListener;
     private final Vector2 windowDimensions;
+    private final GameObjectPool<MockPaddle> mockPaddlePool;
+    private final Supplier<MockPaddle> mockPaddleFactory;
+    private Renderable mockPaddleImage;
 
     public AddPaddleStrategy(CollisionStrategy toBeDecorated, ImageReader imageReader,
-                             UserInputListener inputListener, Vector2 windowDimensions) {
+                             UserInputListener inputListener, Vector2 windowDimensions,
+                             GameObjectPool<MockPaddle> mockPaddlePool) {
         super(toBeDecorated);
         this.imageReader = imageReader;
         this.inputListener = inputListener;
         this.windowDimensions = windowDimensions;
+        this.mockPaddlePool = mockPaddlePool;
+        this.mockPaddleFactory = () -> new MockPaddle(Vector2.ZERO, Vector2.ONES, null, inputListener,
+                windowDimensions, getGameObjectCollection(), MOCK_PADDLE_MIN_DISTANCE_FROM_EDGE,
+                NUM_COLLISIONS_FOR_MOCK_PADDLE_DISAPPEARANCE, mockPaddlePool);
     }
 
     @Override
-    public void onCollision(GameObject thisObj, GameObject otherObj, Counter counter) {
-        super.onCollision(thisObj, otherObj, counter);
-        if (!MockPaddle.isInstantiated) {
+    public void applyEffect(GameObject thisObj, GameObject otherObj) {
+        // a single mock paddle at a time; the pool knows whether the current game has one
+        if (mockPaddlePool.getNumActiveObjects() == 0) {
             createMockPaddle(thisObj);
         }
     }
 
+    /**
+     * @return A mock paddle from the pool, with the paddle's image, and at rest. It is up to the caller to
+     * place it and to add it to the collection.
+     */
+    public MockPaddle acquireMockPaddle() {
+        if (mockPaddleImage == null) {
+            mockPaddleImage = imageReader.readImage("assets/paddle.png", true);
+        }
+        MockPaddle mockPaddle = mockPaddlePool.acquire(mockPaddleFactory);
+        mockPaddle.renderer().setRenderable(mockPaddleImage);
+        return mockPaddle;
+    }
+
     private void createMockPaddle(GameObject thisObj) {
-        Renderable mockPaddleImage = imageReader.readImage("assets/paddle.png", true);
-        Vector2 mockPaddleTopLeftCorner = new Vector2(thisObj.getTopLeftCorner().x(),
-                windowDimensions.y() / 2);
-        GameObject mockPaddle = new MockPaddle(mockPaddleTopLeftCorner, new Vector2(MOCK_PADDLE_WIDTH,
-                MOCK_PADDLE_HEIGHT), mockPaddleImage, inputListener, windowDimensions,
-                getGameObjectCollection(), MOCK_PADDLE_MIN_DISTANCE_FROM_EDGE,
-                NUM_COLLISIONS_FOR_MOCK_PADDLE_DISAPPEARANCE);
+        MockPaddle mockPaddle = acquireMockPaddle();
+        mockPaddle.transform().setDimensions(MOCK_PADDLE_WIDTH, MOCK_PADDLE_HEIGHT);
+        mockPaddle.transform().setTopLeftCorner(thisObj.getTopLeftCorner().x(), windowDimensions.y() / 2);
         getGameObjectCollection().addGameObject(mockPaddle);
     }
 
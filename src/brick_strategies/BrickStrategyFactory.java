@@ -7,95 +7,293 @@ import danogl.gui.UserInputListener;
 import danogl.gui.WindowController;
 import danogl.util.Vector2;
 import danogl.GameManager;
+import gameobjects.GameObjectPools;
+import jfr.StrategyEffectEvent;
+import profiling.FrameProfiler;
+import randomness.RandomService;
+import randomness.RewindableRandom;
 
-import java.util.Objects;
-import java.util.Random;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.regex.Pattern;
 
 public class BrickStrategyFactory {
-    private static final String REMOVE_BRICK_STRATEGY_STRING = "removeBrickStrategy";
-    private static final String PUCK_STRATEGY_STRING = "puckStrategy";
-    private static final String ADD_PADDLE_STRATEGY_STRING = "addPaddleStrategy";
-    private static final String CHANGE_CAMERA_STRATEGY_STRING = "changeCameraStrategy";
-    private static final String WIDEN_OR_NARROW_OBJECT_STRATEGY_STRING = "widenOrNarrowObjectStrategy";
-    private static final String DOUBLE_STRATEGY_STRING = "doubleStrategy";
-
-    private final GameObjectCollection gameObjectCollection;
-    private final GameManager gameManager;
-    private final ImageReader imageReader;
-    private final SoundReader soundReader;
-    private final UserInputListener inputListener;
-    private final WindowController windowController;
-    private final Vector2 windowDimensions;
-    private final String[] collisionStrategiesStrings;
+    /**
+     * The id of a strategy drawn at random, like getStrategy() does.
+     */
+    public static final int RANDOM_STRATEGY_ID = -1;
+    private static final String RANDOM_STRATEGY_NAME = "random";
+    private static final String STRATEGY_NAMES_SEPARATOR = "+";
+    private static final int MAX_COMBINED_STRATEGIES = 3;
+    private static final int REMOVE_BRICK_STRATEGY = 0;
+    private static final int PUCK_STRATEGY = 1;
+    private static final int ADD_PADDLE_STRATEGY = 2;
+    private static final int CHANGE_CAMERA_STRATEGY = 3;
+    private static final int WIDEN_OR_NARROW_OBJECT_STRATEGY = 4;
+    private static final int DOUBLE_STRATEGY = 5;
+    private static final int NUM_STRATEGIES = 6;
+    private static final String[] STRATEGY_NAMES =
+            {"removeBrick", "puck", "addPaddle", "changeCamera", "widenOrNarrowObject"};
+    // a combination of up to three strategies is keyed by a number with one digit per strategy
+    private static final int COMBINATION_KEY_BASE = DOUBLE_STRATEGY;
+    private static final int NUM_COMBINATION_KEYS =
+            COMBINATION_KEY_BASE * COMBINATION_KEY_BASE * COMBINATION_KEY_BASE;
 
+    private final CollisionStrategy removeBrickStrategy;
+    private final CollisionEffect[] effects;
+    private final CollisionStrategy[] strategiesByCombination;
+    private final long[] numTriggers;
+    private final PuckStrategy puckStrategy;
+    private final WidenOrNarrowObjectStrategy widenOrNarrowObjectStrategy;
+    private final AddPaddleStrategy addPaddleStrategy;
+    private final ChangeCameraStrategy changeCameraStrategy;
+    // the streams drawn from during a game, which snapshots take back
+    private final RewindableRandom puckRandom;
+    private final RewindableRandom widenOrNarrowObjectRandom;
+    private SplittableRandom random;
+    private FrameProfiler frameProfiler = FrameProfiler.DISABLED;
 
+    /**
+     * Every strategy is created here once, and all the bricks that draw the same combination of strategies
+     * share a single instance of it.
+     */
     public BrickStrategyFactory(GameObjectCollection gameObjectCollection, GameManager gameManager,
                                 ImageReader imageReader, SoundReader soundReader,
                                 UserInputListener inputListener, WindowController windowController,
-                                Vector2 windowDimensions) {
-        this.gameObjectCollection = gameObjectCollection;
-        this.gameManager = gameManager;
-        this.imageReader = imageReader;
-        this.soundReader = soundReader;
-        this.inputListener = inputListener;
-        this.windowController = windowController;
-        this.windowDimensions = windowDimensions;
-        this.collisionStrategiesStrings = new String[]{REMOVE_BRICK_STRATEGY_STRING, PUCK_STRATEGY_STRING,
-                ADD_PADDLE_STRATEGY_STRING, CHANGE_CAMERA_STRATEGY_STRING,
-                WIDEN_OR_NARROW_OBJECT_STRATEGY_STRING, DOUBLE_STRATEGY_STRING};
+                                Vector2 windowDimensions, GameObjectPools gameObjectPools,
+                                RandomService randomService) {
+        // every strategy draws from its own stream, so the bricks' layout doesn't depend on the hits
+        this.random = randomService.split();
+        this.puckRandom = new RewindableRandom(randomService.split());
+        this.widenOrNarrowObjectRandom = new RewindableRandom(randomService.split());
+
+        this.removeBrickStrategy = new RemoveBrickStrategy(gameObjectCollection);
+        this.puckStrategy = new PuckStrategy(removeBrickStrategy, imageReader, soundReader,
+                gameObjectPools.getPuckPool(), puckRandom);
+        this.widenOrNarrowObjectStrategy = new WidenOrNarrowObjectStrategy(removeBrickStrategy, imageReader,
+                gameObjectPools.getWidenOrNarrowObjectPool(), widenOrNarrowObjectRandom);
+        this.numTriggers = new long[STRATEGY_NAMES.length];
+        this.effects = new CollisionEffect[STRATEGY_NAMES.length];
+        // the brick's removal is done by every combination, so its own effect only counts the trigger
+        effects[REMOVE_BRICK_STRATEGY] = countTriggers(REMOVE_BRICK_STRATEGY, (thisObj, otherObj) -> {
+        });
+        effects[PUCK_STRATEGY] = countTriggers(PUCK_STRATEGY, puckStrategy);
+        this.addPaddleStrategy = new AddPaddleStrategy(removeBrickStrategy, imageReader, inputListener,
+                windowDimensions, gameObjectPools.getMockPaddlePool());
+        effects[ADD_PADDLE_STRATEGY] = countTriggers(ADD_PADDLE_STRATEGY, addPaddleStrategy);
+        this.changeCameraStrategy = new ChangeCameraStrategy(removeBrickStrategy, windowController, gameManager);
+        effects[CHANGE_CAMERA_STRATEGY] = countTriggers(CHANGE_CAMERA_STRATEGY, changeCameraStrategy);
+        effects[WIDEN_OR_NARROW_OBJECT_STRATEGY] = countTriggers(WIDEN_OR_NARROW_OBJECT_STRATEGY,
+                widenOrNarrowObjectStrategy);
+        this.strategiesByCombination = new CollisionStrategy[NUM_COMBINATION_KEYS];
+    }
+
+    /**
+     * Starts the factory over for a new game, drawing from streams split from the given service in the
+     * same order as the constructor splits them, so that the game plays as it would with a new factory.
+     * The strategies, and the images and sounds they read, are kept.
+     */
+    public void reset(RandomService randomService) {
+        this.random = randomService.split();
+        puckRandom.setRandom(randomService.split());
+        widenOrNarrowObjectRandom.setRandom(randomService.split());
+        Arrays.fill(numTriggers, 0);
+    }
+
+    /**
+     * Writes what the game changed in the factory since it was created or reset: how many times every
+     * strategy took effect, and how far the strategies drew from their streams.
+     */
+    public void captureState(ByteBuffer state) {
+        for (long numStrategyTriggers : numTriggers) {
+            state.putLong(numStrategyTriggers);
+        }
+        state.putInt(puckRandom.getPosition());
+        state.putInt(widenOrNarrowObjectRandom.getPosition());
+    }
+
+    /**
+     * Takes the factory back to a state written by captureState since it was last created or reset.
+     */
+    public void restoreState(ByteBuffer state) {
+        for (int i = 0; i < numTriggers.length; i++) {
+            numTriggers[i] = state.getLong();
+        }
+        puckRandom.setPosition(state.getInt());
+        widenOrNarrowObjectRandom.setPosition(state.getInt());
+    }
+
+    public PuckStrategy getPuckStrategy() {
+        return puckStrategy;
+    }
+
+    public WidenOrNarrowObjectStrategy getWidenOrNarrowObjectStrategy() {
+        return widenOrNarrowObjectStrategy;
+    }
+
+    public AddPaddleStrategy getAddPaddleStrategy() {
+        return addPaddleStrategy;
+    }
+
+    public ChangeCameraStrategy getChangeCameraStrategy() {
+        return changeCameraStrategy;
+    }
+
+    /**
+     * Makes the strategies created from now on count their time in the given profiler. Should be called
+     * before any strategy is asked for, as the strategies are shared.
+     */
+    public void setFrameProfiler(FrameProfiler frameProfiler) {
+        this.frameProfiler = frameProfiler;
+    }
+
+    /**
+     * @return The names of the strategies, in the order of the counts returned by getNumTriggers.
+     */
+    public static String[] getStrategyNames() {
+        return STRATEGY_NAMES.clone();
+    }
+
+    /**
+     * @return How many times every strategy took effect since the factory was created or reset. A brick with a
+     * combination of strategies counts once for each of them.
+     */
+    public long[] getNumTriggers() {
+        return numTriggers.clone();
     }
 
     public CollisionStrategy getStrategy() {
-        CollisionStrategy toBeDecorated = new RemoveBrickStrategy(gameObjectCollection);
-        Random rand = new Random();
-        String strategyString =
-                collisionStrategiesStrings[rand.nextInt(collisionStrategiesStrings.length)];
-        if (!Objects.equals(strategyString, DOUBLE_STRATEGY_STRING)) {
-            return getStrategyAccordingString(strategyString, toBeDecorated);
+        return getStrategy(random);
+    }
+
+    /**
+     * @param strategyRandom The random to draw the strategy from, instead of the factory's own.
+     */
+    public CollisionStrategy getStrategy(SplittableRandom strategyRandom) {
+        int strategy = strategyRandom.nextInt(NUM_STRATEGIES);
+        if (strategy != DOUBLE_STRATEGY) {
+            return getCombinedStrategy(strategy);
         } else {        // double strategy chosen once
-            String firstStrategyString =
-                    collisionStrategiesStrings[rand.nextInt(collisionStrategiesStrings.length - 1) + 1];
-            String secondStrategyString =
-                    collisionStrategiesStrings[rand.nextInt(collisionStrategiesStrings.length - 1) + 1];
-
-            if (!Objects.equals(firstStrategyString, DOUBLE_STRATEGY_STRING) && !Objects.equals(secondStrategyString, DOUBLE_STRATEGY_STRING)) {
-                return getStrategyAccordingString(secondStrategyString,
-                        getStrategyAccordingString(firstStrategyString, toBeDecorated));
+            int firstStrategy = strategyRandom.nextInt(NUM_STRATEGIES - 1) + 1;
+            int secondStrategy = strategyRandom.nextInt(NUM_STRATEGIES - 1) + 1;
+
+            if (firstStrategy != DOUBLE_STRATEGY && secondStrategy != DOUBLE_STRATEGY) {
+                return getCombinedStrategy(firstStrategy, secondStrategy);
             } else {        // double strategy chosen twice
-                firstStrategyString =
-                        collisionStrategiesStrings[rand.nextInt(collisionStrategiesStrings.length - 2) + 1];
-                secondStrategyString =
-                        collisionStrategiesStrings[rand.nextInt(collisionStrategiesStrings.length - 2) + 1];
-                String thirdStrategyString =
-                        collisionStrategiesStrings[rand.nextInt(collisionStrategiesStrings.length - 2) + 1];
-
-                return getStrategyAccordingString(thirdStrategyString,
-                        getStrategyAccordingString(secondStrategyString,
-                                getStrategyAccordingString(firstStrategyString, toBeDecorated)));
+                firstStrategy = strategyRandom.nextInt(NUM_STRATEGIES - 2) + 1;
+                secondStrategy = strategyRandom.nextInt(NUM_STRATEGIES - 2) + 1;
+                int thirdStrategy = strategyRandom.nextInt(NUM_STRATEGIES - 2) + 1;
+
+                return getCombinedStrategy(firstStrategy, secondStrategy, thirdStrategy);
+            }
+        }
+    }
+
+    /**
+     * @param strategyId An id returned by parseStrategyId.
+     * @return The strategy with the given id, drawn at random if it is RANDOM_STRATEGY_ID.
+     */
+    public CollisionStrategy getStrategy(int strategyId) {
+        return getStrategy(strategyId, random);
+    }
+
+    /**
+     * @param strategyId     An id returned by parseStrategyId.
+     * @param strategyRandom The random to draw the strategy from if it is RANDOM_STRATEGY_ID, instead of the
+     *                       factory's own.
+     */
+    public CollisionStrategy getStrategy(int strategyId, SplittableRandom strategyRandom) {
+        if (strategyId == RANDOM_STRATEGY_ID) {
+            return getStrategy(strategyRandom);
+        }
+        if (strategyId < 0 || strategyId >= NUM_COMBINATION_KEYS) {
+            throw new IllegalArgumentException("Unknown strategy id " + strategyId);
+        }
+        if (strategyId == REMOVE_BRICK_STRATEGY) {
+            return getCombinedStrategy(REMOVE_BRICK_STRATEGY);
+        }
+        int numStrategies = 0;
+        for (int key = strategyId; key > 0; key /= COMBINATION_KEY_BASE) {
+            numStrategies++;
+        }
+        int[] strategies = new int[numStrategies];
+        for (int i = 0, key = strategyId; i < numStrategies; i++, key /= COMBINATION_KEY_BASE) {
+            strategies[i] = key % COMBINATION_KEY_BASE;
+        }
+        return getCombinedStrategy(strategies);
+    }
+
+    /**
+     * Parses the description of a strategy: "random", a single strategy name, e.g. "puck", or up to three
+     * names joined by "+", e.g. "puck+addPaddle", which are applied in that order. Every strategy removes
+     * the brick, so "removeBrick" can only stand alone.
+     *
+     * @return The strategy's id, to be given to getStrategy(int).
+     * @throws IllegalArgumentException If the description names no valid strategy.
+     */
+    public static int parseStrategyId(String description) {
+        if (description.equals(RANDOM_STRATEGY_NAME)) {
+            return RANDOM_STRATEGY_ID;
+        }
+        if (description.equals(STRATEGY_NAMES[REMOVE_BRICK_STRATEGY])) {
+            return REMOVE_BRICK_STRATEGY;
+        }
+        String[] names = description.split(Pattern.quote(STRATEGY_NAMES_SEPARATOR), -1);
+        if (names.length > MAX_COMBINED_STRATEGIES) {
+            throw new IllegalArgumentException("At most " + MAX_COMBINED_STRATEGIES +
+                    " strategies can be combined: " + description);
+        }
+        int strategyId = 0;
+        for (int i = names.length - 1; i >= 0; i--) {
+            int strategy = Arrays.asList(STRATEGY_NAMES).indexOf(names[i]);
+            if (strategy <= REMOVE_BRICK_STRATEGY) {
+                throw new IllegalArgumentException("Unknown strategy '" + names[i] + "' in " + description);
             }
+            strategyId = strategyId * COMBINATION_KEY_BASE + strategy;
         }
+        return strategyId;
     }
 
-    private CollisionStrategy getStrategyAccordingString(String strategyString,
-                                                         CollisionStrategy toBeDecorated) {
-        switch (strategyString) {
-            case REMOVE_BRICK_STRATEGY_STRING:
-                return new RemoveBrickStrategy(gameObjectCollection);
-            case PUCK_STRATEGY_STRING:
-                return new PuckStrategy(toBeDecorated, imageReader,
-                        soundReader);
-            case ADD_PADDLE_STRATEGY_STRING:
-                return new AddPaddleStrategy(toBeDecorated, imageReader,
-                        inputListener, windowDimensions);
-            case CHANGE_CAMERA_STRATEGY_STRING:
-                return new ChangeCameraStrategy(toBeDecorated,
-                        windowController, gameManager);
-            case WIDEN_OR_NARROW_OBJECT_STRATEGY_STRING:
-                return new WidenOrNarrowObjectStrategy(toBeDecorated,
-                        imageReader);
-            default:
-                return null;
+    /**
+     * @param strategies The strategies to combine, in the order they are applied. Repetitions are allowed.
+     * @return The shared strategy that removes the brick and then applies the given strategies.
+     */
+    private CollisionStrategy getCombinedStrategy(int... strategies) {
+        int combination = 0;
+        for (int i = strategies.length - 1; i >= 0; i--) {
+            combination = combination * COMBINATION_KEY_BASE + strategies[i];
         }
+        CollisionStrategy collisionStrategy = strategiesByCombination[combination];
+        if (collisionStrategy == null) {
+            collisionStrategy = createStrategy(strategies);
+            strategiesByCombination[combination] = collisionStrategy;
+        }
+        return collisionStrategy;
+    }
+
+    private CollisionStrategy createStrategy(int[] strategies) {
+        CollisionEffect[] combinedEffects = new CollisionEffect[strategies.length];
+        String[] names = new String[strategies.length];
+        for (int i = 0; i < strategies.length; i++) {
+            combinedEffects[i] = effects[strategies[i]];
+            names[i] = STRATEGY_NAMES[strategies[i]];
+        }
+        CollisionStrategy collisionStrategy = new CombinedCollisionStrategy(
+                String.join(STRATEGY_NAMES_SEPARATOR, names), removeBrickStrategy, combinedEffects);
+        // without profiling, strategies run undecorated
+        return frameProfiler.isEnabled() ?
+                new ProfiledCollisionStrategy(collisionStrategy, frameProfiler) : collisionStrategy;
+    }
+
+    private CollisionEffect countTriggers(int strategy, CollisionEffect effect) {
+        return (thisObj, otherObj) -> {
+            numTriggers[strategy]++;
+            StrategyEffectEvent event = new StrategyEffectEvent();
+            event.begin();
+            effect.applyEffect(thisObj, otherObj);
+            event.commit(STRATEGY_NAMES[strategy]);
+        };
     }
 
 }
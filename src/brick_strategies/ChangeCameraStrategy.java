@@ -3,11 +3,11 @@ package brick_strategies;
 import danogl.GameObject;
 import danogl.gui.WindowController;
 import danogl.gui.rendering.Camera;
-import danogl.util.Counter;
 import danogl.util.Vector2;
 import danogl.GameManager;
 import gameobjects.Ball;
 import gameobjects.BallCollisionCountdownAgent;
+import jfr.CameraChangeEvent;
 
 import java.util.Objects;
 
@@ -27,8 +27,7 @@ public class ChangeCameraStrategy extends RemoveBrickStrategyDecorator implement
     }
 
     @Override
-    public void onCollision(GameObject thisObj, GameObject otherObj, Counter counter) {
-        super.onCollision(thisObj, otherObj, counter);
+    public void applyEffect(GameObject thisObj, GameObject otherObj) {
         if (gameManager.getCamera() == null && Objects.equals(otherObj.getTag(), "ball")) {
             turnOnCameraChange((Ball) otherObj);
         }
@@ -36,9 +35,16 @@ public class ChangeCameraStrategy extends RemoveBrickStrategyDecorator implement
 
     public void turnOffCameraChange() {
         gameManager.setCamera(null);
+        CameraChangeEvent.emit(false);
     }
 
-    private void turnOnCameraChange(Ball ball) {
+    /**
+     * Makes the camera follow the ball until the ball's collision count reaches the given value, as a hit
+     * that turned the camera change on earlier would, e.g. when restoring a snapshot.
+     *
+     * @return The agent that turns the camera change off, which is up to the caller to add to the collection.
+     */
+    public BallCollisionCountdownAgent followBall(Ball ball, int countDownValue) {
         gameManager.setCamera(
                 new Camera(
                         ball,            //ball to follow
@@ -47,9 +53,14 @@ public class ChangeCameraStrategy extends RemoveBrickStrategyDecorator implement
                         windowController.getWindowDimensions()   //share the window dimensions
                 )
         );
-        GameObject ballCollisionCountdownAgent = new BallCollisionCountdownAgent(ball, this,
-                ball.getCollisionCount() + NUM_MAX_BALL_COLLS_TO_TURN_OFF_CAMERA_CHANGE);
+        return new BallCollisionCountdownAgent(ball, this, countDownValue);
+    }
+
+    private void turnOnCameraChange(Ball ball) {
+        GameObject ballCollisionCountdownAgent =
+                followBall(ball, ball.getCollisionCount() + NUM_MAX_BALL_COLLS_TO_TURN_OFF_CAMERA_CHANGE);
         getGameObjectCollection().addGameObject(ballCollisionCountdownAgent);
+        CameraChangeEvent.emit(true);
     }
 
 }
@@ -0,0 +1,15 @@
+package brick_strategies;
+
+import danogl.GameObject;
+
+public interface CollisionEffect {
+
+    /**
+     * Applies the effect of a single strategy, without the brick's removal that precedes it.
+     *
+     * @param thisObj  The brick that was hit.
+     * @param otherObj The object that hit it.
+     */
+    void applyEffect(GameObject thisObj, GameObject otherObj);
+
+}
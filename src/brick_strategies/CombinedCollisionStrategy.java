@@ -0,0 +1,42 @@
+package brick_strategies;
+
+import danogl.GameObject;
+import danogl.collisions.GameObjectCollection;
+import danogl.util.Counter;
+import jfr.BrickHitEvent;
+
+/**
+ * A flat equivalent of a chain of decorators: the decorated strategy runs first, followed by every effect
+ * in the order the decorators were stacked. Holds no per-brick state, so a single instance is shared by
+ * all the bricks with the same combination.
+ */
+public class CombinedCollisionStrategy implements CollisionStrategy {
+
+    private final String name;
+    private final CollisionStrategy toBeDecorated;
+    private final CollisionEffect[] effects;
+
+    /**
+     * @param name The names of the strategies, joined by "+", as reported in BrickHitEvent.
+     */
+    public CombinedCollisionStrategy(String name, CollisionStrategy toBeDecorated, CollisionEffect... effects) {
+        this.name = name;
+        this.toBeDecorated = toBeDecorated;
+        this.effects = effects.clone();
+    }
+
+    @Override
+    public void onCollision(GameObject thisObj, GameObject otherObj, Counter counter) {
+        BrickHitEvent.emit(name, thisObj, otherObj);
+        toBeDecorated.onCollision(thisObj, otherObj, counter);
+        for (CollisionEffect effect : effects) {
+            effect.applyEffect(thisObj, otherObj);
+        }
+    }
+
+    @Override
+    public GameObjectCollection getGameObjectCollection() {
+        return toBeDecorated.getGameObjectCollection();
+    }
+
+}
@@ -0,0 +1,37 @@
+package brick_strategies;
+
+import danogl.GameObject;
+import danogl.collisions.GameObjectCollection;
+import danogl.util.Counter;
+import profiling.FrameProfiler;
+
+/**
+ * Counts the time the decorated strategy takes as FrameProfiler.Phase.STRATEGY_CALLBACKS, and resumes the
+ * phase it interrupted once it's done.
+ */
+public class ProfiledCollisionStrategy implements CollisionStrategy {
+
+    private final CollisionStrategy toBeDecorated;
+    private final FrameProfiler frameProfiler;
+
+    public ProfiledCollisionStrategy(CollisionStrategy toBeDecorated, FrameProfiler frameProfiler) {
+        this.toBeDecorated = toBeDecorated;
+        this.frameProfiler = frameProfiler;
+    }
+
+    @Override
+    public void onCollision(GameObject thisObj, GameObject otherObj, Counter counter) {
+        FrameProfiler.Phase interruptedPhase = frameProfiler.enterPhase(FrameProfiler.Phase.STRATEGY_CALLBACKS);
+        try {
+            toBeDecorated.onCollision(thisObj, otherObj, counter);
+        } finally {
+            frameProfiler.enterPhase(interruptedPhase);
+        }
+    }
+
+    @Override
+    public GameObjectCollection getGameObjectCollection() {
+        return toBeDecorated.getGameObjectCollection();
+    }
+
+}
@@ -5,67 +5,77 @@ import danogl.gui.ImageReader;
 import danogl.gui.Sound;
 import danogl.gui.SoundReader;
 import danogl.gui.rendering.Renderable;
-import danogl.util.Counter;
 import danogl.util.Vector2;
+import gameobjects.GameObjectPool;
 import gameobjects.Puck;
+import randomness.RewindableRandom;
 
-import java.util.Random;
+import java.util.function.Supplier;
 
 public class PuckStrategy extends RemoveBrickStrategyDecorator implements CollisionStrategy {
 
     private static final int NUM_PUCKS_TO_CREATE = 1;
     private static final float PUCK_VELOCITY = 180;
 
-    private final Renderable puckImage;
-    private final Sound collisionSound;
+    private final ImageReader imageReader;
+    private final SoundReader soundReader;
+    private final GameObjectPool<Puck> puckPool;
+    private final Supplier<Puck> puckFactory;
+    private final RewindableRandom random;
+    private Renderable puckImage;
+    private Sound collisionSound;
 
-    public PuckStrategy(CollisionStrategy toBeDecorated, ImageReader imageReader, SoundReader soundReader) {
+    public PuckStrategy(CollisionStrategy toBeDecorated, ImageReader imageReader, SoundReader soundReader,
+                        GameObjectPool<Puck> puckPool, RewindableRandom random) {
         super(toBeDecorated);
-        // sound and image are initialized here in order to prevent error message because of reading files
-        // overload
-        this.collisionSound = soundReader.readSound("assets/Bubble5_4.wav");
-        this.puckImage = imageReader.readImage("assets/mockBall.png", true);
+        this.imageReader = imageReader;
+        this.soundReader = soundReader;
+        this.puckPool = puckPool;
+        this.random = random;
+        this.puckFactory = () -> new Puck(Vector2.ZERO, Vector2.ONES, puckImage, collisionSound);
     }
 
     @Override
-    public void onCollision(GameObject thisObj, GameObject otherObj, Counter counter) {
-        super.onCollision(thisObj, otherObj, counter);
+    public void applyEffect(GameObject thisObj, GameObject otherObj) {
         createPucks(thisObj);
     }
 
+    /**
+     * @return A puck from the pool, with the strategy's image and sound, and at rest. It is up to the caller
+     * to place it, e.g. where a snapshot had it, and to add it to the collection.
+     */
+    public Puck acquirePuck() {
+        // the strategy is shared by every brick, so its sound and image are read once, on the first puck
+        if (puckImage == null) {
+            collisionSound = soundReader.readSound("assets/Bubble5_4.wav");
+            puckImage = imageReader.readImage("assets/mockBall.png", true);
+        }
+        Puck puck = puckPool.acquire(puckFactory);
+        puck.renderer().setRenderable(puckImage);
+        return puck;
+    }
+
     private void createPucks(GameObject thisObj) {
         float puckVelX = PUCK_VELOCITY;
-        Random rand = new Random();
-        if (rand.nextBoolean()) {
+        if (random.nextBoolean()) {
             puckVelX *= -1;
         }
-        Vector2 puckVel = new Vector2(puckVelX, PUCK_VELOCITY);
 
+        Vector2 brickTopLeftCorner = thisObj.getTopLeftCorner();
         Vector2 brickDimensions = thisObj.getDimensions();
         float longerBrickEdge = Math.max(brickDimensions.x(), brickDimensions.y());
         float puckDiameter = longerBrickEdge / 3;
-        Vector2[] pucksCenters = getPucksCenters(thisObj, puckDiameter);
+        float firstPuckCenterX = brickTopLeftCorner.x() + brickDimensions.x() / NUM_PUCKS_TO_CREATE / 2;
+        float puckCenterY = brickTopLeftCorner.y() + brickDimensions.y() / 2 + puckDiameter / 2;
 
         for (int i = 0; i < NUM_PUCKS_TO_CREATE; i++) {
-            GameObject puck = new Puck(Vector2.ZERO, new Vector2(puckDiameter, puckDiameter), puckImage,
-                    collisionSound);
-            puck.setVelocity(puckVel);
-            puck.setCenter(pucksCenters[i]);
+            // pucks are recycled, so they are positioned through their transform without new vectors
+            Puck puck = acquirePuck();
+            puck.transform().setDimensions(puckDiameter, puckDiameter);
+            puck.transform().setVelocity(puckVelX, PUCK_VELOCITY);
+            puck.transform().setCenter(firstPuckCenterX + i * puckDiameter, puckCenterY);
             getGameObjectCollection().addGameObject(puck);
         }
     }
 
-    private Vector2[] getPucksCenters(GameObject brick, float puckDiameter) {
-        Vector2[] pucksCenters = new Vector2[NUM_PUCKS_TO_CREATE];
-        Vector2 brickTopLeftCorner = brick.getTopLeftCorner();
-        Vector2 brickDimensions = brick.getDimensions();
-        float firstPuckCenterX = brickTopLeftCorner.x() + brickDimensions.x() / NUM_PUCKS_TO_CREATE / 2;
-        float puckCenterY = brickTopLeftCorner.y() + brickDimensions.y() / 2 + puckDiameter / 2;
-        pucksCenters[0] = new Vector2(firstPuckCenterX, puckCenterY);
-        for (int i = 1; i < NUM_PUCKS_TO_CREATE; i++) {
-            pucksCenters[i] = new Vector2(firstPuckCenterX + i * puckDiameter, puckCenterY);
-        }
-        return pucksCenters;
-    }
-
 }
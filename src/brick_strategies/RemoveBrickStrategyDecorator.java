@@ -4,7 +4,7 @@ import danogl.GameObject;
 import danogl.collisions.GameObjectCollection;
 import danogl.util.Counter;
 
-public abstract class RemoveBrickStrategyDecorator implements CollisionStrategy {
+public abstract class RemoveBrickStrategyDecorator implements CollisionStrategy, CollisionEffect {
 
     private final CollisionStrategy toBeDecorated;
 
@@ -15,6 +15,7 @@ public abstract class RemoveBrickStrategyDecorator implements CollisionStrategy
     @Override
     public void onCollision(GameObject thisObj, GameObject otherObj, Counter counter) {
         toBeDecorated.onCollision(thisObj, otherObj, counter);
+        applyEffect(thisObj, otherObj);
     }
 
     @Override
@@ -4,47 +4,62 @@ import danogl.GameObject;
 import danogl.collisions.GameObjectCollection;
 import danogl.gui.ImageReader;
 import danogl.gui.rendering.Renderable;
-import danogl.util.Counter;
 import danogl.util.Vector2;
+import gameobjects.GameObjectPool;
 import gameobjects.WidenOrNarrowObject;
+import randomness.RewindableRandom;
 
-import java.util.Random;
+import java.util.function.Supplier;
 
 public class WidenOrNarrowObjectStrategy extends RemoveBrickStrategyDecorator implements CollisionStrategy {
 
     private static final float WIDEN_OR_NARROW_OBJECT_VELOCITY = 180;
 
     private final ImageReader imageReader;
+    private final GameObjectPool<WidenOrNarrowObject> widenOrNarrowObjectPool;
+    private final Supplier<WidenOrNarrowObject> widenOrNarrowObjectFactory;
+    private final RewindableRandom random;
+    private Renderable widenObjectImage;
+    private Renderable narrowObjectImage;
 
-    public WidenOrNarrowObjectStrategy(CollisionStrategy toBeDecorated, ImageReader imageReader) {
+    public WidenOrNarrowObjectStrategy(CollisionStrategy toBeDecorated, ImageReader imageReader,
+                                       GameObjectPool<WidenOrNarrowObject> widenOrNarrowObjectPool,
+                                       RewindableRandom random) {
         super(toBeDecorated);
         this.imageReader = imageReader;
+        this.widenOrNarrowObjectPool = widenOrNarrowObjectPool;
+        this.random = random;
+        this.widenOrNarrowObjectFactory = () -> new WidenOrNarrowObject(Vector2.ZERO, Vector2.ONES, null,
+                getGameObjectCollection(), true, widenOrNarrowObjectPool);
     }
 
     @Override
-    public void onCollision(GameObject thisObj, GameObject otherObj, Counter counter) {
-        super.onCollision(thisObj, otherObj, counter);
+    public void applyEffect(GameObject thisObj, GameObject otherObj) {
         createWidenOrNarrowObject(thisObj);
     }
 
-    private void createWidenOrNarrowObject(GameObject thisObj) {
-        Renderable widenOrNarrowObjectImage;
-        boolean isWiden;
-        Random rand = new Random();
-        if (rand.nextBoolean()) {
-            widenOrNarrowObjectImage = imageReader.readImage("assets/buffWiden.png",
-                    false);
-            isWiden = true;
-        } else {
-            widenOrNarrowObjectImage = imageReader.readImage("assets/buffNarrow.png",
-                    false);
-            isWiden = false;
+    /**
+     * @return An object from the pool that widens or narrows what it hits, with the matching image, and at
+     * rest. It is up to the caller to place it and to add it to the collection.
+     */
+    public WidenOrNarrowObject acquireWidenOrNarrowObject(boolean isWiden) {
+        if (widenObjectImage == null) {
+            widenObjectImage = imageReader.readImage("assets/buffWiden.png", false);
+            narrowObjectImage = imageReader.readImage("assets/buffNarrow.png", false);
         }
+        WidenOrNarrowObject widenOrNarrowObject = widenOrNarrowObjectPool.acquire(widenOrNarrowObjectFactory);
+        widenOrNarrowObject.setWiden(isWiden);
+        widenOrNarrowObject.renderer().setRenderable(isWiden ? widenObjectImage : narrowObjectImage);
+        return widenOrNarrowObject;
+    }
+
+    private void createWidenOrNarrowObject(GameObject thisObj) {
         GameObjectCollection gameObjectCollection = getGameObjectCollection();
-        GameObject widenOrNarrowObject = new WidenOrNarrowObject(Vector2.ZERO, thisObj.getDimensions(),
-                widenOrNarrowObjectImage, gameObjectCollection, isWiden);
-        widenOrNarrowObject.setVelocity(new Vector2(0, WIDEN_OR_NARROW_OBJECT_VELOCITY));
-        widenOrNarrowObject.setCenter(thisObj.getCenter());
+        WidenOrNarrowObject widenOrNarrowObject = acquireWidenOrNarrowObject(random.nextBoolean());
+        widenOrNarrowObject.setDimensions(thisObj.getDimensions());
+        widenOrNarrowObject.transform().setVelocity(0, WIDEN_OR_NARROW_OBJECT_VELOCITY);
+        Vector2 center = thisObj.getCenter();
+        widenOrNarrowObject.transform().setCenter(center.x(), center.y());
         gameObjectCollection.addGameObject(widenOrNarrowObject);
     }
 
@@ -0,0 +1,689 @@
+package collisions;
+
+import danogl.GameObject;
+import danogl.collisions.GameObjectCollection;
+import danogl.collisions.Layer;
+import danogl.util.ModifiableList;
+import danogl.util.Vector2;
+import gameobjects.DynamicObjectRegistry;
+import jfr.ObjectDespawnedEvent;
+import jfr.ObjectSpawnedEvent;
+import profiling.FrameProfiler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * A GameObjectCollection that indexes the objects of Layer.STATIC_OBJECTS in a uniform grid. Instead of
+ * testing every moving object against every static one, each object of Layer.DEFAULT is only tested
+ * against the static objects in the cells its bounding box overlaps. Pairs are still handed to
+ * GameObjectCollection.handlePair, in the same order the generic path visits them, so the collision
+ * callbacks are the same.
+ * <p>
+ * Objects set as swept are also tested continuously: their path through the last step is swept against
+ * the static objects and the objects of Layer.DEFAULT that aren't swept, and if it entered an object further
+ * than they would overlap it at the contact, they are moved back to where they first touched it, so the
+ * collision isn't skipped however far they move in a step. Only the earliest contact along the path
+ * counts, and the objects it is tested against are taken where they are at the end of the step. Once the
+ * collision callbacks have turned the object around, it goes on with the rest of its step's motion in its
+ * new direction, up to just short of the next object in its way, so a hit costs it no distance. That next
+ * object is hit in the following step. Swept objects aren't tested against each other, so the order they
+ * are resolved in doesn't change where they end up. The objects of Layer.DEFAULT that aren't swept are kept
+ * in a list of their own, so a swept object isn't tested against, or even checked for, the others, however
+ * many there are.
+ * <p>
+ * The grid can also wrap its rows around, so that a grid of a few rows indexes a level of any height, as
+ * long as the static objects at any time span fewer rows than it has: static objects whose rows are a
+ * multiple of the number of rows apart share cells, and are told apart by the exact collision tests.
+ */
+public class GridIndexedGameObjectCollection extends GameObjectCollection {
+
+    private static final int NOT_INDEXED = -1;
+    private static final int INITIAL_CANDIDATES_CAPACITY = 64;
+    private static final int SEQ_SHIFT = 32;
+    private static final long MOVER_INDEX_MASK = 0xFFFFFFFFL;
+    // how far a swept object is moved into the object it hit, so that the two overlap, and how far short of
+    // the next object it stops when it goes on with the rest of its step
+    private static final float CONTACT_PENETRATION = 0.5f;
+    private static final int VALUES_PER_CARRIED_MOTION = 3;
+
+    private final float gridLeft;
+    private final float gridTop;
+    private final float cellWidth;
+    private final float cellHeight;
+    private final int numRows;
+    private final int numCols;
+    private final boolean isWrappingRows;
+    private final List<List<GridEntry>> cells;
+    private final Map<GameObject, GridEntry> entries;
+    private final List<GridEntry> entriesBySeq;
+    private final List<GameObject> pendingObjects;
+    private final List<Boolean> pendingIsAdd;
+    // the changes to Layer.DEFAULT since the last update, which the layer doesn't show until then
+    private final List<GameObject> pendingDefaultObjects;
+    private final List<Boolean> pendingDefaultIsAdd;
+    // the objects of Layer.DEFAULT that aren't swept, which the swept ones are tested against; changes are
+    // applied when the layer's are, so the list holds the same objects the layer does
+    private ModifiableList<GameObject> sweepTargets;
+    private final List<GameObject> movers;
+    private final Map<GameObject, List<GridEntry>> contactsByMover;
+    // the swept objects moved back to a contact in this collision handling, and for each the distance left
+    // of its step, whether it hit on the x axis, and the sign of its motion along that axis
+    private final List<GameObject> carriedMovers;
+    private float[] carriedMotions;
+    private long[] candidates;
+    private int numCandidates;
+    private int[] foundSeqs;
+    private int nextSeq;
+    private int numUnindexed;
+    // the pairs found colliding by the last collision handling, which the collection goes on colliding
+    private int numCollisionsInProgress;
+    private Predicate<GameObject> isSwept;
+    private DynamicObjectRegistry[] sweptObjectRegistries;
+    private FrameProfiler frameProfiler = FrameProfiler.DISABLED;
+    private Consumer<GameObject> staticObjectsListener = gameObject -> {
+    };
+    // the earliest contact found along the path being swept
+    private GameObject firstContact;
+    private float firstContactTime;
+    private boolean isFirstContactOnX;
+
+    /**
+     * @param gridTopLeftCorner Top left corner of the area covered by the grid, in window coordinates.
+     *                          Static objects outside of it are indexed in the nearest border cells.
+     * @param cellDimensions    Width and height of a single cell.
+     * @param numRows           Number of rows of cells.
+     * @param numCols           Number of columns of cells.
+     */
+    public GridIndexedGameObjectCollection(Vector2 gridTopLeftCorner, Vector2 cellDimensions,
+                                           int numRows, int numCols) {
+        this(gridTopLeftCorner, cellDimensions, numRows, numCols, false);
+    }
+
+    /**
+     * @param gridTopLeftCorner Top left corner of the area covered by the grid, in window coordinates.
+     *                          Static objects left or right of it are indexed in the nearest border cells,
+     *                          and so are ones above or below it, unless the rows wrap around.
+     * @param cellDimensions    Width and height of a single cell.
+     * @param numRows           Number of rows of cells.
+     * @param numCols           Number of columns of cells.
+     * @param isWrappingRows    true if the rows below the last one are the first ones again, and the rows
+     *                          above the first one are the last ones.
+     */
+    public GridIndexedGameObjectCollection(Vector2 gridTopLeftCorner, Vector2 cellDimensions,
+                                           int numRows, int numCols, boolean isWrappingRows) {
+        super();
+        this.gridLeft = gridTopLeftCorner.x();
+        this.gridTop = gridTopLeftCorner.y();
+        this.cellWidth = cellDimensions.x();
+        this.cellHeight = cellDimensions.y();
+        this.numRows = Math.max(numRows, 1);
+        this.numCols = Math.max(numCols, 1);
+        this.isWrappingRows = isWrappingRows;
+        this.cells = new ArrayList<>(this.numRows * this.numCols);
+        for (int i = 0; i < this.numRows * this.numCols; i++) {
+            cells.add(new ArrayList<>(1));
+        }
+        this.entries = new IdentityHashMap<>();
+        this.entriesBySeq = new ArrayList<>();
+        this.pendingObjects = new ArrayList<>();
+        this.pendingIsAdd = new ArrayList<>();
+        this.pendingDefaultObjects = new ArrayList<>();
+        this.pendingDefaultIsAdd = new ArrayList<>();
+        this.sweepTargets = new ModifiableList<>(false);
+        this.movers = new ArrayList<>();
+        this.contactsByMover = new IdentityHashMap<>();
+        this.carriedMovers = new ArrayList<>();
+        this.carriedMotions = new float[INITIAL_CANDIDATES_CAPACITY * VALUES_PER_CARRIED_MOTION];
+        this.candidates = new long[INITIAL_CANDIDATES_CAPACITY];
+        this.foundSeqs = new int[INITIAL_CANDIDATES_CAPACITY];
+        this.isSwept = gameObject -> false;
+        this.sweptObjectRegistries = new DynamicObjectRegistry[0];
+        // static objects are only ever tested through the grid
+        layers().shouldLayersCollide(Layer.STATIC_OBJECTS, Layer.DEFAULT, false);
+    }
+
+    @Override
+    public void addGameObject(GameObject gameObject, int layerId) {
+        super.addGameObject(gameObject, layerId);
+        ObjectSpawnedEvent.emit(gameObject, layerId);
+        if (layerId == Layer.STATIC_OBJECTS) {
+            pendingObjects.add(gameObject);
+            pendingIsAdd.add(true);
+        } else if (layerId == Layer.DEFAULT) {
+            pendingDefaultObjects.add(gameObject);
+            pendingDefaultIsAdd.add(true);
+            if (!isSwept.test(gameObject)) {
+                sweepTargets.add(gameObject);
+            }
+        }
+    }
+
+    @Override
+    public boolean removeGameObject(GameObject gameObject, int layerId) {
+        boolean isRemoved = super.removeGameObject(gameObject, layerId);
+        // the pairs of a removed object are forgotten right away, as GameObjectCollection does
+        contactsByMover.remove(gameObject);
+        if (isRemoved) {
+            ObjectDespawnedEvent.emit(gameObject, layerId);
+        }
+        if (isRemoved && layerId == Layer.STATIC_OBJECTS) {
+            pendingObjects.add(gameObject);
+            pendingIsAdd.add(false);
+        } else if (isRemoved && layerId == Layer.DEFAULT) {
+            pendingDefaultObjects.add(gameObject);
+            pendingDefaultIsAdd.add(false);
+            sweepTargets.remove(gameObject);
+            // an object removed by its own collision callbacks doesn't go on with its step
+            int carriedIndex = carriedMovers.indexOf(gameObject);
+            if (carriedIndex >= 0) {
+                carriedMovers.set(carriedIndex, null);
+            }
+        }
+        return isRemoved;
+    }
+
+    /**
+     * Applies pending additions and removals. Like the layers themselves, the grid only changes here,
+     * so an object removed during collision handling keeps colliding until the end of the frame.
+     */
+    @Override
+    public void update(float deltaTime) {
+        super.update(deltaTime);
+        sweepTargets.flushChanges();
+        for (int i = 0; i < pendingObjects.size(); i++) {
+            if (pendingIsAdd.get(i)) {
+                index(pendingObjects.get(i));
+            } else {
+                unindex(pendingObjects.get(i));
+            }
+            staticObjectsListener.accept(pendingObjects.get(i));
+        }
+        pendingObjects.clear();
+        pendingIsAdd.clear();
+        pendingDefaultObjects.clear();
+        pendingDefaultIsAdd.clear();
+        if (numUnindexed > entries.size()) {
+            compactSeqs();
+        }
+    }
+
+    /**
+     * Sets the objects whose collisions are detected continuously.
+     *
+     * @param isSwept    Tells which of the objects of the registries to sweep. It's asked once per object,
+     *                   when the object is added to Layer.DEFAULT, so it should always tell the same.
+     * @param registries Registries that know where their objects were at the start of the step. Objects
+     *                   without a previous position, e.g. ones that were just added or moved elsewhere,
+     *                   are only tested where they are.
+     */
+    public void setSweptObjects(Predicate<GameObject> isSwept, DynamicObjectRegistry... registries) {
+        this.isSwept = isSwept;
+        this.sweptObjectRegistries = registries.clone();
+        // the objects added so far are sorted out again, and the pending changes made again on top of them
+        sweepTargets = new ModifiableList<>(false);
+        if (!isLayerEmpty(Layer.DEFAULT)) {
+            for (GameObject gameObject : objectsInLayer(Layer.DEFAULT)) {
+                if (!isSwept.test(gameObject)) {
+                    sweepTargets.add(gameObject);
+                }
+            }
+        }
+        sweepTargets.flushChanges();
+        for (int i = 0; i < pendingDefaultObjects.size(); i++) {
+            GameObject gameObject = pendingDefaultObjects.get(i);
+            if (!pendingDefaultIsAdd.get(i)) {
+                sweepTargets.remove(gameObject);
+            } else if (!isSwept.test(gameObject)) {
+                sweepTargets.add(gameObject);
+            }
+        }
+    }
+
+    /**
+     * Sets a listener that is told of every object added to or removed from Layer.STATIC_OBJECTS, once the
+     * change is applied in update.
+     */
+    public void setStaticObjectsListener(Consumer<GameObject> staticObjectsListener) {
+        this.staticObjectsListener = staticObjectsListener;
+    }
+
+    /**
+     * Makes collision handling, from sweeping to the last collision callback, count as
+     * FrameProfiler.Phase.COLLISIONS in the given profiler.
+     */
+    public void setFrameProfiler(FrameProfiler frameProfiler) {
+        this.frameProfiler = frameProfiler;
+    }
+
+    @Override
+    public void handleCollisions() {
+        frameProfiler.enterPhase(FrameProfiler.Phase.COLLISIONS);
+        numCollisionsInProgress = 0;
+        sweepObjects();
+        // static-default pairs come first, as they do in the layer manager's iteration
+        collectCandidates();
+        Arrays.sort(candidates, 0, numCandidates);
+        long previousCandidate = -1;
+        for (int i = 0; i < numCandidates; i++) {
+            long candidate = candidates[i];
+            if (candidate == previousCandidate) {
+                continue;
+            }
+            previousCandidate = candidate;
+            GridEntry entry = entriesBySeq.get((int) (candidate >>> SEQ_SHIFT));
+            GameObject mover = movers.get((int) (candidate & MOVER_INDEX_MASK));
+            if (handlePair(entry.gameObject, mover)) {
+                contactsByMover.computeIfAbsent(mover, key -> new ArrayList<>(1)).add(entry);
+            }
+        }
+        super.handleCollisions();
+        carryPastContacts();
+    }
+
+    /**
+     * Counts the pairs that collide, which the layer manager hands here as well.
+     */
+    @Override
+    protected boolean handlePair(GameObject gameObject1, GameObject gameObject2) {
+        boolean areColliding = super.handlePair(gameObject1, gameObject2);
+        if (areColliding) {
+            numCollisionsInProgress++;
+        }
+        return areColliding;
+    }
+
+    /**
+     * @return The number of pairs of objects that were colliding at the last collision handling, which
+     * get onCollisionStay or onCollisionExit rather than onCollisionEnter at the next one. The collection
+     * keeps these pairs to itself, so a game is only captured exactly when there are none, counting pairs
+     * an object left since as well.
+     */
+    public int getNumCollisionsInProgress() {
+        return numCollisionsInProgress;
+    }
+
+    public int getNumIndexedObjects() {
+        return entries.size();
+    }
+
+    /**
+     * Adds the static objects indexed in the cells that overlap the given rectangle of the world to the given
+     * list, each once and in the order they are in Layer.STATIC_OBJECTS, so that only the objects around an
+     * area are gone through however many there are. Objects that share a cell with the rectangle without
+     * overlapping it may be added as well, so it is up to the caller to test them exactly. Like the grid,
+     * the result reflects the layer as of the last update.
+     *
+     * @param left   Left edge of the rectangle, in window coordinates.
+     * @param top    Top edge of the rectangle, in window coordinates.
+     * @param right  Right edge of the rectangle, in window coordinates.
+     * @param bottom Bottom edge of the rectangle, in window coordinates.
+     * @param result The list the objects are added to.
+     */
+    public void findStaticObjects(float left, float top, float right, float bottom, List<GameObject> result) {
+        int numFound = 0;
+        int minRow = rowOf(top);
+        int maxRow = lastRowOf(minRow, bottom);
+        int minCol = colOf(left);
+        int maxCol = colOf(right);
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                List<GridEntry> cell = cells.get(cellIndex(row, col));
+                if (numFound + cell.size() > foundSeqs.length) {
+                    foundSeqs = Arrays.copyOf(foundSeqs, Math.max(foundSeqs.length * 2, numFound + cell.size()));
+                }
+                for (int i = 0; i < cell.size(); i++) {
+                    foundSeqs[numFound++] = cell.get(i).seq;
+                }
+            }
+        }
+        // objects are numbered in the order they were indexed, and an object spanning cells is found in each
+        Arrays.sort(foundSeqs, 0, numFound);
+        int previousSeq = NOT_INDEXED;
+        for (int i = 0; i < numFound; i++) {
+            if (foundSeqs[i] != previousSeq) {
+                previousSeq = foundSeqs[i];
+                result.add(entriesBySeq.get(previousSeq).gameObject);
+            }
+        }
+    }
+
+    /**
+     * @param layerId The layer to count the objects of.
+     * @return The number of objects in the layer as of the last update. The layer keeps its size as its
+     * changes are applied, so it is counted without going through its objects, however many there are.
+     */
+    public int getNumObjectsInLayer(int layerId) {
+        // the collection throws rather than handing out a layer it never had
+        if (isLayerEmpty(layerId)) {
+            return 0;
+        }
+        return ((ModifiableList<GameObject>) objectsInLayer(layerId)).size();
+    }
+
+    /**
+     * @return The number of times an object was added to or removed from Layer.DEFAULT since the last
+     * update. Until the update applies them, the layer's objects don't reflect these changes.
+     */
+    public int getNumPendingDefaultChanges() {
+        return pendingDefaultObjects.size();
+    }
+
+    /**
+     * @param index The index of a change, in the order the changes were made.
+     * @return The object added or removed by the change.
+     */
+    public GameObject getPendingDefaultObject(int index) {
+        return pendingDefaultObjects.get(index);
+    }
+
+    /**
+     * @param index The index of a change, in the order the changes were made.
+     * @return true if the change added its object to Layer.DEFAULT, false if it removed it.
+     */
+    public boolean isPendingDefaultAddition(int index) {
+        return pendingDefaultIsAdd.get(index);
+    }
+
+    private void collectCandidates() {
+        numCandidates = 0;
+        movers.clear();
+        for (GameObject gameObject : objectsInLayer(Layer.DEFAULT)) {
+            movers.add(gameObject);
+        }
+        for (int moverIndex = 0; moverIndex < movers.size(); moverIndex++) {
+            GameObject mover = movers.get(moverIndex);
+            // pairs that collided last frame are revisited so that their exit is reported
+            List<GridEntry> contacts = contactsByMover.get(mover);
+            if (contacts != null) {
+                for (GridEntry entry : contacts) {
+                    if (entry.seq != NOT_INDEXED) {
+                        addCandidate(entry.seq, moverIndex);
+                    }
+                }
+                contacts.clear();
+            }
+            Vector2 topLeftCorner = mover.getTopLeftCorner();
+            Vector2 dimensions = mover.getDimensions();
+            int minRow = rowOf(topLeftCorner.y());
+            int maxRow = lastRowOf(minRow, topLeftCorner.y() + dimensions.y());
+            int minCol = colOf(topLeftCorner.x());
+            int maxCol = colOf(topLeftCorner.x() + dimensions.x());
+            for (int row = minRow; row <= maxRow; row++) {
+                for (int col = minCol; col <= maxCol; col++) {
+                    List<GridEntry> cell = cells.get(cellIndex(row, col));
+                    for (int i = 0; i < cell.size(); i++) {
+                        addCandidate(cell.get(i).seq, moverIndex);
+                    }
+                }
+            }
+        }
+    }
+
+    private void sweepObjects() {
+        carriedMovers.clear();
+        for (DynamicObjectRegistry registry : sweptObjectRegistries) {
+            for (int i = 0; i < registry.size(); i++) {
+                GameObject gameObject = registry.get(i);
+                if (registry.hasPreviousPosition(i) && isSwept.test(gameObject)) {
+                    sweep(gameObject, registry.getPreviousX(i), registry.getPreviousY(i));
+                }
+            }
+        }
+    }
+
+    private void sweep(GameObject mover, float startX, float startY) {
+        Vector2 topLeftCorner = mover.getTopLeftCorner();
+        float deltaX = topLeftCorner.x() - startX;
+        float deltaY = topLeftCorner.y() - startY;
+        if (deltaX == 0 && deltaY == 0) {
+            return;
+        }
+        findFirstContact(mover, startX, startY, deltaX, deltaY);
+        if (firstContact == null) {
+            return;
+        }
+        // a mover that ends barely inside what it hit is left where it is, as moving it to the contact
+        // wouldn't move it back; one that went deeper is moved back, so that the contact's normal is the
+        // side it came in through, and not the side it's nearest to now
+        float axisDelta = isFirstContactOnX ? deltaX : deltaY;
+        if (Math.abs(axisDelta) * (1 - firstContactTime) <= CONTACT_PENETRATION) {
+            return;
+        }
+        float contactX = startX + deltaX * firstContactTime;
+        float contactY = startY + deltaY * firstContactTime;
+        if (isFirstContactOnX) {
+            contactX += Math.signum(deltaX) * CONTACT_PENETRATION;
+        } else {
+            contactY += Math.signum(deltaY) * CONTACT_PENETRATION;
+        }
+        mover.transform().setTopLeftCorner(contactX, contactY);
+        float remainingDistance = (float) Math.sqrt(deltaX * deltaX + deltaY * deltaY) * (1 - firstContactTime);
+        addCarriedMotion(mover, remainingDistance, isFirstContactOnX, Math.signum(axisDelta));
+    }
+
+    /*
+     * Finds the earliest contact along the path of the mover through the grid's cells and the objects that
+     * aren't swept, leaving it in firstContact, or null if there is none.
+     */
+    private void findFirstContact(GameObject mover, float startX, float startY, float deltaX, float deltaY) {
+        Vector2 dimensions = mover.getDimensions();
+        firstContact = null;
+        firstContactTime = Float.POSITIVE_INFINITY;
+        int minRow = rowOf(Math.min(startY, startY + deltaY));
+        int maxRow = lastRowOf(minRow, Math.max(startY, startY + deltaY) + dimensions.y());
+        int minCol = colOf(Math.min(startX, startX + deltaX));
+        int maxCol = colOf(Math.max(startX, startX + deltaX) + dimensions.x());
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                List<GridEntry> cell = cells.get(cellIndex(row, col));
+                for (int i = 0; i < cell.size(); i++) {
+                    findContact(mover, cell.get(i).gameObject, startX, startY, deltaX, deltaY);
+                }
+            }
+        }
+        for (int i = 0; i < sweepTargets.size(); i++) {
+            findContact(mover, sweepTargets.get(i), startX, startY, deltaX, deltaY);
+        }
+    }
+
+    private void addCarriedMotion(GameObject mover, float remainingDistance, boolean isOnX, float sign) {
+        int offset = carriedMovers.size() * VALUES_PER_CARRIED_MOTION;
+        if (offset + VALUES_PER_CARRIED_MOTION > carriedMotions.length) {
+            carriedMotions = Arrays.copyOf(carriedMotions, carriedMotions.length * 2);
+        }
+        carriedMovers.add(mover);
+        carriedMotions[offset] = remainingDistance;
+        carriedMotions[offset + 1] = isOnX ? 1 : 0;
+        carriedMotions[offset + 2] = sign;
+    }
+
+    /*
+     * Moves the swept objects that were moved back to a contact by the distance they had left, in the
+     * direction the contact's callbacks turned them to. The rest of the path is swept as well, and an object
+     * that would enter another one stops just short of it, to hit it in the next step.
+     */
+    private void carryPastContacts() {
+        for (int i = 0; i < carriedMovers.size(); i++) {
+            GameObject mover = carriedMovers.get(i);
+            if (mover == null) {
+                continue;
+            }
+            int offset = i * VALUES_PER_CARRIED_MOTION;
+            boolean wasOnX = carriedMotions[offset + 1] != 0;
+            Vector2 velocity = mover.getVelocity();
+            float speed = velocity.magnitude();
+            // an object the contact didn't turn around would go on into what it hit
+            if (speed == 0 || (wasOnX ? velocity.x() : velocity.y()) * carriedMotions[offset + 2] > 0) {
+                continue;
+            }
+            Vector2 topLeftCorner = mover.getTopLeftCorner();
+            float startX = topLeftCorner.x();
+            float startY = topLeftCorner.y();
+            float deltaX = velocity.x() / speed * carriedMotions[offset];
+            float deltaY = velocity.y() / speed * carriedMotions[offset];
+            findFirstContact(mover, startX, startY, deltaX, deltaY);
+            float time = 1;
+            if (firstContact != null) {
+                float axisDelta = Math.abs(isFirstContactOnX ? deltaX : deltaY);
+                time = Math.max(firstContactTime - CONTACT_PENETRATION / axisDelta, 0);
+            }
+            mover.transform().setTopLeftCorner(startX + deltaX * time, startY + deltaY * time);
+            // a transform moves by the velocity of its previous update, which would take the object back the
+            // way it came; updating it for no time makes it go on in its new direction from the next step on
+            mover.transform().update(0);
+        }
+        carriedMovers.clear();
+    }
+
+    /*
+     * The mover overlaps the target while its top left corner is inside the target's bounding box, grown
+     * up and left by the mover's dimensions, so the contact time is where its path enters that box.
+     */
+    private void findContact(GameObject mover, GameObject target, float startX, float startY,
+                             float deltaX, float deltaY) {
+        Vector2 targetTopLeftCorner = target.getTopLeftCorner();
+        Vector2 targetDimensions = target.getDimensions();
+        if (targetDimensions.x() <= 0 || targetDimensions.y() <= 0 ||
+                !mover.shouldCollideWith(target) || !target.shouldCollideWith(mover)) {
+            return;
+        }
+        Vector2 dimensions = mover.getDimensions();
+        float enterX = enterTime(startX, deltaX, targetTopLeftCorner.x() - dimensions.x(),
+                targetTopLeftCorner.x() + targetDimensions.x());
+        float exitX = exitTime(startX, deltaX, targetTopLeftCorner.x() - dimensions.x(),
+                targetTopLeftCorner.x() + targetDimensions.x());
+        float enterY = enterTime(startY, deltaY, targetTopLeftCorner.y() - dimensions.y(),
+                targetTopLeftCorner.y() + targetDimensions.y());
+        float exitY = exitTime(startY, deltaY, targetTopLeftCorner.y() - dimensions.y(),
+                targetTopLeftCorner.y() + targetDimensions.y());
+        float enter = Math.max(enterX, enterY);
+        // contacts that began before the step are the discrete pass' to report
+        if (enter < 0 || enter > 1 || enter >= Math.min(exitX, exitY) || enter >= firstContactTime) {
+            return;
+        }
+        firstContact = target;
+        firstContactTime = enter;
+        isFirstContactOnX = enterX > enterY;
+    }
+
+    private static float enterTime(float start, float delta, float min, float max) {
+        if (delta == 0) {
+            return start > min && start < max ? Float.NEGATIVE_INFINITY : Float.POSITIVE_INFINITY;
+        }
+        return Math.min((min - start) / delta, (max - start) / delta);
+    }
+
+    private static float exitTime(float start, float delta, float min, float max) {
+        if (delta == 0) {
+            return start > min && start < max ? Float.POSITIVE_INFINITY : Float.NEGATIVE_INFINITY;
+        }
+        return Math.max((min - start) / delta, (max - start) / delta);
+    }
+
+    private void addCandidate(int seq, int moverIndex) {
+        if (numCandidates == candidates.length) {
+            candidates = Arrays.copyOf(candidates, candidates.length * 2);
+        }
+        candidates[numCandidates++] = ((long) seq << SEQ_SHIFT) | moverIndex;
+    }
+
+    private void index(GameObject gameObject) {
+        if (entries.containsKey(gameObject)) {
+            return;
+        }
+        Vector2 topLeftCorner = gameObject.getTopLeftCorner();
+        Vector2 dimensions = gameObject.getDimensions();
+        int minRow = rowOf(topLeftCorner.y());
+        GridEntry entry = new GridEntry(gameObject, nextSeq++,
+                minRow, lastRowOf(minRow, topLeftCorner.y() + dimensions.y()),
+                colOf(topLeftCorner.x()), colOf(topLeftCorner.x() + dimensions.x()));
+        entries.put(gameObject, entry);
+        entriesBySeq.add(entry);
+        for (int row = entry.minRow; row <= entry.maxRow; row++) {
+            for (int col = entry.minCol; col <= entry.maxCol; col++) {
+                cells.get(cellIndex(row, col)).add(entry);
+            }
+        }
+    }
+
+    private void unindex(GameObject gameObject) {
+        GridEntry entry = entries.remove(gameObject);
+        if (entry == null) {
+            return;
+        }
+        for (int row = entry.minRow; row <= entry.maxRow; row++) {
+            for (int col = entry.minCol; col <= entry.maxCol; col++) {
+                cells.get(cellIndex(row, col)).remove(entry);
+            }
+        }
+        entriesBySeq.set(entry.seq, null);
+        entry.seq = NOT_INDEXED;
+        numUnindexed++;
+    }
+
+    /*
+     * Renumbers the indexed objects in the order they were numbered, so that the numbers of removed
+     * objects don't pile up when static objects keep being added and removed. Only done between frames,
+     * as the candidates refer to objects by their numbers.
+     */
+    private void compactSeqs() {
+        int numIndexed = 0;
+        for (int seq = 0; seq < entriesBySeq.size(); seq++) {
+            GridEntry entry = entriesBySeq.get(seq);
+            if (entry != null) {
+                entry.seq = numIndexed;
+                entriesBySeq.set(numIndexed++, entry);
+            }
+        }
+        entriesBySeq.subList(numIndexed, entriesBySeq.size()).clear();
+        nextSeq = numIndexed;
+        numUnindexed = 0;
+    }
+
+    private int rowOf(float y) {
+        int row = (int) Math.floor((y - gridTop) / cellHeight);
+        return isWrappingRows ? row : clamp(row, numRows);
+    }
+
+    // wrapped rows never cover more than the whole grid, so that no cell is visited twice
+    private int lastRowOf(int firstRow, float y) {
+        return Math.min(rowOf(y), firstRow + numRows - 1);
+    }
+
+    private int cellIndex(int row, int col) {
+        return Math.floorMod(row, numRows) * numCols + col;
+    }
+
+    private int colOf(float x) {
+        return clamp((int) Math.floor((x - gridLeft) / cellWidth), numCols);
+    }
+
+    private static int clamp(int index, int size) {
+        return Math.min(Math.max(index, 0), size - 1);
+    }
+
+    private static class GridEntry {
+        private final GameObject gameObject;
+        private final int minRow;
+        private final int maxRow;
+        private final int minCol;
+        private final int maxCol;
+        private int seq;
+
+        private GridEntry(GameObject gameObject, int seq, int minRow, int maxRow, int minCol, int maxCol) {
+            this.gameObject = gameObject;
+            this.seq = seq;
+            this.minRow = minRow;
+            this.maxRow = maxRow;
+            this.minCol = minCol;
+            this.maxCol = maxCol;
+        }
+    }
+
+}
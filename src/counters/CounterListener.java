@@ -0,0 +1,13 @@
+package counters;
+
+public interface CounterListener {
+
+    /**
+     * Called by an ObservableCounter right after its value changed.
+     *
+     * @param counter  The counter that changed.
+     * @param oldValue The value before the change.
+     */
+    void onCounterChanged(ObservableCounter counter, int oldValue);
+
+}
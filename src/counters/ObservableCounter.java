@@ -0,0 +1,82 @@
+package counters;
+
+import danogl.util.Counter;
+
+import java.util.Arrays;
+
+/**
+ * A Counter that notifies its listeners whenever its value changes, so that whatever displays or reacts
+ * to it doesn't have to poll it every frame. Notifying doesn't allocate, and listeners may add or remove
+ * listeners, including themselves, while being notified.
+ */
+public class ObservableCounter extends Counter {
+
+    private static final CounterListener[] NO_LISTENERS = new CounterListener[0];
+
+    private CounterListener[] listeners = NO_LISTENERS;
+
+    public ObservableCounter(int initialValue) {
+        super(initialValue);
+    }
+
+    public ObservableCounter() {
+        super();
+    }
+
+    public void addListener(CounterListener listener) {
+        listeners = Arrays.copyOf(listeners, listeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+    }
+
+    public void removeListener(CounterListener listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                CounterListener[] newListeners = new CounterListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, newListeners, 0, i);
+                System.arraycopy(listeners, i + 1, newListeners, i, newListeners.length - i);
+                listeners = newListeners;
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void increment() {
+        int oldValue = value();
+        super.increment();
+        notifyListeners(oldValue);
+    }
+
+    @Override
+    public void decrement() {
+        int oldValue = value();
+        super.decrement();
+        notifyListeners(oldValue);
+    }
+
+    @Override
+    public void reset() {
+        int oldValue = value();
+        super.reset();
+        notifyListeners(oldValue);
+    }
+
+    @Override
+    public void increaseBy(int val) {
+        int oldValue = value();
+        super.increaseBy(val);
+        notifyListeners(oldValue);
+    }
+
+    private void notifyListeners(int oldValue) {
+        if (value() == oldValue) {
+            return;
+        }
+        // listeners that change the listeners replace the array, so this loop sees the listeners as they were
+        CounterListener[] currentListeners = listeners;
+        for (CounterListener listener : currentListeners) {
+            listener.onCounterChanged(this, oldValue);
+        }
+    }
+
+}
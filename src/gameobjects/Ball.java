@@ -9,6 +9,9 @@ import danogl.util.Vector2;
 public class Ball extends GameObject {
     private final Sound collisionSound;
     private int collisionCount;
+    // the velocity the ball moved by in its last update, which it moves by in the next one too
+    private float appliedVelocityX;
+    private float appliedVelocityY;
 
     /**
      * Construct a new GameObject instance.
@@ -23,6 +26,25 @@ public class Ball extends GameObject {
         this.collisionSound = collisionSound;
     }
 
+    /**
+     * Should be called once per frame.
+     *
+     * @param deltaTime The time elapsed, in seconds, since the last frame. Can
+     *                  be used to determine a new position/velocity by multiplying
+     *                  this delta with the velocity/acceleration respectively
+     *                  and adding to the position/velocity:
+     *                  velocity += deltaTime*acceleration
+     *                  pos += deltaTime*velocity
+     */
+    @Override
+    public void update(float deltaTime) {
+        super.update(deltaTime);
+        // the transform moves by the velocity it had at its previous update, which it keeps to itself
+        Vector2 velocity = getVelocity();
+        appliedVelocityX = velocity.x();
+        appliedVelocityY = velocity.y();
+    }
+
     /**
      * Called on the first frame of a collision.
      *
@@ -34,12 +56,78 @@ public class Ball extends GameObject {
     public void onCollisionEnter(GameObject other, Collision collision) {
         super.onCollisionEnter(other, collision);
         collisionCount++;
-        setVelocity(getVelocity().flipped(collision.getNormal()));
+        flipVelocity(collision.getNormal());
         collisionSound.play();
     }
 
+    /**
+     * Does what setVelocity(getVelocity().flipped(normal)) does, with the same arithmetic so that games
+     * play out the same, without allocating a vector on every bounce.
+     */
+    private void flipVelocity(Vector2 normal) {
+        Vector2 velocity = getVelocity();
+        float normalMagnitude = normal.magnitude();
+        float projection = velocity.dot(normal) / normalMagnitude;
+        if (projection < 0) {
+            transform().setVelocity(velocity.x() - normal.x() * 2f * projection / normalMagnitude,
+                    velocity.y() - normal.y() * 2f * projection / normalMagnitude);
+        }
+    }
+
     public int getCollisionCount() {
         return collisionCount;
     }
 
+    /**
+     * Counts collisions from zero again, as a new ball does.
+     */
+    public void resetCollisionCount() {
+        collisionCount = 0;
+    }
+
+    public void setCollisionCount(int collisionCount) {
+        this.collisionCount = collisionCount;
+    }
+
+    /**
+     * Stops the ball as still as a new one: it doesn't move in its next update, whatever its velocity by
+     * then.
+     */
+    public void stop() {
+        setVelocity(Vector2.ZERO);
+        setAppliedVelocity(0, 0);
+    }
+
+    /**
+     * @return The horizontal velocity the ball moves by in its next update, which is its velocity as of its
+     * last update rather than any velocity it got since, e.g. by bouncing.
+     */
+    public float getAppliedVelocityX() {
+        return appliedVelocityX;
+    }
+
+    /**
+     * @return The vertical velocity the ball moves by in its next update.
+     * @see #getAppliedVelocityX()
+     */
+    public float getAppliedVelocityY() {
+        return appliedVelocityY;
+    }
+
+    /**
+     * Makes the ball move by the given velocity in its next update, keeping its current velocity for the
+     * updates after that.
+     */
+    public void setAppliedVelocity(float appliedVelocityX, float appliedVelocityY) {
+        Vector2 velocity = getVelocity();
+        float velocityX = velocity.x();
+        float velocityY = velocity.y();
+        // updating the transform for no time moves it nowhere, and makes it apply its velocity from then on
+        transform().setVelocity(appliedVelocityX, appliedVelocityY);
+        transform().update(0);
+        transform().setVelocity(velocityX, velocityY);
+        this.appliedVelocityX = appliedVelocityX;
+        this.appliedVelocityY = appliedVelocityY;
+    }
+
 }
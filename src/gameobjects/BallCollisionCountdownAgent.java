@@ -17,6 +17,17 @@ public class BallCollisionCountdownAgent extends GameObject {
         this.countDownValue = countDownValue;
     }
 
+    public Ball getBall() {
+        return ball;
+    }
+
+    /**
+     * @return The ball's collision count at which the agent turns the camera change off.
+     */
+    public int getCountDownValue() {
+        return countDownValue;
+    }
+
     /**
      * Should be called once per frame.
      *
@@ -8,7 +8,7 @@ import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
 
 public class Brick extends GameObject {
-    private final CollisionStrategy collisionStrategy;
+    private CollisionStrategy collisionStrategy;
     private final Counter counter;
 
     /**
@@ -39,4 +39,12 @@ public class Brick extends GameObject {
         collisionStrategy.onCollision(this, other, counter);
     }
 
+    /**
+     * Replaces the brick's strategy, e.g. when a brick is brought back for a new game rather than created
+     * again.
+     */
+    public void setCollisionStrategy(CollisionStrategy collisionStrategy) {
+        this.collisionStrategy = collisionStrategy;
+    }
+
 }
@@ -0,0 +1,170 @@
+package gameobjects;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Tracks the objects that are spawned during a game and move on their own, such as pucks and power-ups,
+ * in a compact array, so per-frame checks on them don't have to go over the whole game object collection
+ * with its bricks, borders and HUD. Unregistering moves the last object into the freed slot, so iterating
+ * from the last index down is safe while unregistering the current object.
+ * <p>
+ * The registry also remembers where every object was before the last simulation step, so frames
+ * rendered between two steps can show the objects in between their last two positions, and collisions
+ * can be detected along the path they took.
+ */
+public class DynamicObjectRegistry {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Map<GameObject, Integer> indices;
+    private GameObject[] objects;
+    // NaN until a step starts with the object registered, as there's nothing to interpolate from before
+    private float[] previousX;
+    private float[] previousY;
+    private float[] savedX;
+    private float[] savedY;
+    private int size;
+
+    public DynamicObjectRegistry() {
+        this.indices = new IdentityHashMap<>();
+        this.objects = new GameObject[INITIAL_CAPACITY];
+        this.previousX = new float[INITIAL_CAPACITY];
+        this.previousY = new float[INITIAL_CAPACITY];
+        this.savedX = new float[INITIAL_CAPACITY];
+        this.savedY = new float[INITIAL_CAPACITY];
+    }
+
+    /**
+     * @return true if the object was registered, false if it already was.
+     */
+    public boolean register(GameObject gameObject) {
+        if (indices.containsKey(gameObject)) {
+            return false;
+        }
+        if (size == objects.length) {
+            objects = Arrays.copyOf(objects, size * 2);
+            previousX = Arrays.copyOf(previousX, size * 2);
+            previousY = Arrays.copyOf(previousY, size * 2);
+            savedX = Arrays.copyOf(savedX, size * 2);
+            savedY = Arrays.copyOf(savedY, size * 2);
+        }
+        indices.put(gameObject, size);
+        previousX[size] = Float.NaN;
+        objects[size++] = gameObject;
+        return true;
+    }
+
+    /**
+     * @return true if the object was unregistered, false if it wasn't registered.
+     */
+    public boolean unregister(GameObject gameObject) {
+        Integer index = indices.remove(gameObject);
+        if (index == null) {
+            return false;
+        }
+        GameObject last = objects[--size];
+        objects[size] = null;
+        if (last != gameObject) {
+            objects[index] = last;
+            previousX[index] = previousX[size];
+            previousY[index] = previousY[size];
+            indices.put(last, index);
+        }
+        return true;
+    }
+
+    /**
+     * Remembers where every object is, as the start of the simulation step that's about to run.
+     */
+    public void recordPreviousPositions() {
+        for (int i = 0; i < size; i++) {
+            Vector2 topLeftCorner = objects[i].getTopLeftCorner();
+            previousX[i] = topLeftCorner.x();
+            previousY[i] = topLeftCorner.y();
+        }
+    }
+
+    /**
+     * @return true if the object at the given index was registered when the current step started.
+     */
+    public boolean hasPreviousPosition(int index) {
+        return !Float.isNaN(previousX[index]);
+    }
+
+    /**
+     * @return The x coordinate of the top left corner of the object at the given index when the current
+     *         step started.
+     */
+    public float getPreviousX(int index) {
+        return previousX[index];
+    }
+
+    /**
+     * @return The y coordinate of the top left corner of the object at the given index when the current
+     *         step started.
+     */
+    public float getPreviousY(int index) {
+        return previousY[index];
+    }
+
+    /**
+     * Treats the object as if it didn't move in the current step, e.g. after it was moved somewhere else
+     * rather than moving there, so it isn't interpolated or swept from where it was.
+     */
+    public void forgetPreviousPosition(GameObject gameObject) {
+        Integer index = indices.get(gameObject);
+        if (index != null) {
+            previousX[index] = Float.NaN;
+        }
+    }
+
+    /**
+     * Moves every object to the given fraction of the way from its previous position to its current one,
+     * until endInterpolation is called. Meant to be called right before rendering.
+     *
+     * @param interpolationFactor 0 for the previous positions, 1 for the current ones.
+     */
+    public void beginInterpolation(float interpolationFactor) {
+        for (int i = 0; i < size; i++) {
+            Vector2 topLeftCorner = objects[i].getTopLeftCorner();
+            savedX[i] = topLeftCorner.x();
+            savedY[i] = topLeftCorner.y();
+            if (!Float.isNaN(previousX[i])) {
+                objects[i].transform().setTopLeftCorner(
+                        previousX[i] + (savedX[i] - previousX[i]) * interpolationFactor,
+                        previousY[i] + (savedY[i] - previousY[i]) * interpolationFactor);
+            }
+        }
+    }
+
+    /**
+     * Moves every object back to its current position.
+     */
+    public void endInterpolation() {
+        for (int i = 0; i < size; i++) {
+            objects[i].transform().setTopLeftCorner(savedX[i], savedY[i]);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public GameObject get(int index) {
+        return objects[index];
+    }
+
+    /**
+     * @return The index of the given object, or -1 if it isn't registered.
+     */
+    public int indexOf(GameObject gameObject) {
+        Integer index = indices.get(gameObject);
+        return index != null ? index : -1;
+    }
+
+}
@@ -0,0 +1,150 @@
+package gameobjects;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Keeps game objects of a single type that were removed from the game, so they can be handed out again
+ * instead of allocating new ones. A released object is only reused from the frame after its release:
+ * until the game object collection flushes its removals, adding it back would be ignored, and an object
+ * removed during collision handling still takes part in the rest of that frame's collisions, so it is
+ * left untouched until then. Objects are registered in a DynamicObjectRegistry from their acquisition
+ * until their release. A reused object is handed out as the factory last created one: at rest, at the
+ * origin and with the same dimensions, whatever it was resized to while in use.
+ *
+ * @param <T> The exact type of the pooled objects.
+ */
+public class GameObjectPool<T extends GameObject & Poolable> {
+
+    private final Class<T> type;
+    private final ArrayDeque<T> freeObjects;
+    private final List<T> releasedThisFrame;
+    private final DynamicObjectRegistry dynamicObjectRegistry;
+    private int maxPooledObjects;
+    // the dimensions of the last object the factory created, which reused objects are reset to
+    private float newObjectWidth;
+    private float newObjectHeight;
+    private long created;
+    private long reused;
+    private long released;
+    private long discarded;
+
+    public GameObjectPool(Class<T> type, int maxPooledObjects, DynamicObjectRegistry dynamicObjectRegistry) {
+        this.type = type;
+        this.dynamicObjectRegistry = dynamicObjectRegistry;
+        this.maxPooledObjects = maxPooledObjects;
+        this.freeObjects = new ArrayDeque<>();
+        this.releasedThisFrame = new ArrayList<>();
+    }
+
+    /**
+     * @param factory Creates a new object when none is free.
+     * @return A free object (at rest, with the dimensions of a new one, and reset by its onAcquire hook)
+     * or a new one.
+     */
+    public T acquire(Supplier<? extends T> factory) {
+        T gameObject = freeObjects.pollFirst();
+        if (gameObject == null) {
+            created++;
+            gameObject = factory.get();
+            Vector2 dimensions = gameObject.getDimensions();
+            newObjectWidth = dimensions.x();
+            newObjectHeight = dimensions.y();
+        } else {
+            reused++;
+            gameObject.setVelocity(Vector2.ZERO);
+            // a transform moves by the velocity of its previous update, so updating it for no time stops it
+            gameObject.transform().update(0);
+            gameObject.transform().setTopLeftCorner(0, 0);
+            gameObject.transform().setDimensions(newObjectWidth, newObjectHeight);
+            gameObject.onAcquire();
+        }
+        dynamicObjectRegistry.register(gameObject);
+        return gameObject;
+    }
+
+    /**
+     * Returns an object that was removed from the game to the pool. Must be called only once per removal,
+     * e.g. when GameObjectCollection.removeGameObject returned true.
+     */
+    public void release(T gameObject) {
+        released++;
+        dynamicObjectRegistry.unregister(gameObject);
+        releasedThisFrame.add(gameObject);
+    }
+
+    /**
+     * Releases the given object if it is of this pool's type.
+     *
+     * @return true if the object was released.
+     */
+    public boolean releaseIfPooled(GameObject gameObject) {
+        if (gameObject.getClass() != type) {
+            return false;
+        }
+        release(type.cast(gameObject));
+        return true;
+    }
+
+    /**
+     * Should be called once per frame, before the game object collection is updated. Makes the objects
+     * released during the previous frame available, up to the pool's cap.
+     */
+    public void onFrameStart() {
+        for (int i = 0; i < releasedThisFrame.size(); i++) {
+            if (freeObjects.size() < maxPooledObjects) {
+                freeObjects.addLast(releasedThisFrame.get(i));
+            } else {
+                discarded++;
+            }
+        }
+        releasedThisFrame.clear();
+    }
+
+    public void setMaxPooledObjects(int maxPooledObjects) {
+        this.maxPooledObjects = maxPooledObjects;
+        while (freeObjects.size() > maxPooledObjects) {
+            freeObjects.pollLast();
+            discarded++;
+        }
+    }
+
+    /**
+     * @return The number of objects handed out by the pool that weren't released yet.
+     */
+    public long getNumActiveObjects() {
+        return created + reused - released;
+    }
+
+    public int getNumFreeObjects() {
+        return freeObjects.size();
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public long getReused() {
+        return reused;
+    }
+
+    public long getReleased() {
+        return released;
+    }
+
+    public long getDiscarded() {
+        return discarded;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s pool[free=%d, created=%d, reused=%d, released=%d, discarded=%d]",
+                type.getSimpleName(), freeObjects.size(), created, reused, released, discarded);
+    }
+
+}
@@ -0,0 +1,85 @@
+package gameobjects;
+
+import danogl.GameObject;
+import danogl.collisions.GameObjectCollection;
+
+public class GameObjectPools {
+
+    private final GameObjectPool<Puck> puckPool;
+    private final GameObjectPool<WidenOrNarrowObject> widenOrNarrowObjectPool;
+    private final GameObjectPool<MockPaddle> mockPaddlePool;
+    private final DynamicObjectRegistry dynamicObjectRegistry;
+
+    /**
+     * @param maxPooledObjects The maximal number of free objects kept by each of the pools.
+     */
+    public GameObjectPools(int maxPooledObjects) {
+        this.dynamicObjectRegistry = new DynamicObjectRegistry();
+        this.puckPool = new GameObjectPool<>(Puck.class, maxPooledObjects, dynamicObjectRegistry);
+        this.widenOrNarrowObjectPool = new GameObjectPool<>(WidenOrNarrowObject.class, maxPooledObjects,
+                dynamicObjectRegistry);
+        this.mockPaddlePool = new GameObjectPool<>(MockPaddle.class, maxPooledObjects, dynamicObjectRegistry);
+    }
+
+    public GameObjectPool<Puck> getPuckPool() {
+        return puckPool;
+    }
+
+    public GameObjectPool<WidenOrNarrowObject> getWidenOrNarrowObjectPool() {
+        return widenOrNarrowObjectPool;
+    }
+
+    public GameObjectPool<MockPaddle> getMockPaddlePool() {
+        return mockPaddlePool;
+    }
+
+    /**
+     * @return The objects handed out by the pools that weren't released yet.
+     */
+    public DynamicObjectRegistry getDynamicObjectRegistry() {
+        return dynamicObjectRegistry;
+    }
+
+    /**
+     * Returns a removed object to its pool, if it has one.
+     *
+     * @return true if the object was pooled.
+     */
+    public boolean release(GameObject gameObject) {
+        return puckPool.releaseIfPooled(gameObject) || widenOrNarrowObjectPool.releaseIfPooled(gameObject) ||
+                mockPaddlePool.releaseIfPooled(gameObject);
+    }
+
+    /**
+     * Removes the objects handed out by the pools whose centers are below the given height from the
+     * collection, and returns them to their pools.
+     */
+    public void removeObjectsBelow(GameObjectCollection gameObjectCollection, float maxCenterY) {
+        for (int i = dynamicObjectRegistry.size() - 1; i >= 0; i--) {
+            GameObject gameObject = dynamicObjectRegistry.get(i);
+            float centerY = gameObject.getTopLeftCorner().y() + gameObject.getDimensions().y() / 2;
+            // releasing unregisters the object, which only moves objects that were already visited
+            if (centerY > maxCenterY && gameObjectCollection.removeGameObject(gameObject)) {
+                release(gameObject);
+            }
+        }
+    }
+
+    public void onFrameStart() {
+        puckPool.onFrameStart();
+        widenOrNarrowObjectPool.onFrameStart();
+        mockPaddlePool.onFrameStart();
+    }
+
+    public void setMaxPooledObjects(int maxPooledObjects) {
+        puckPool.setMaxPooledObjects(maxPooledObjects);
+        widenOrNarrowObjectPool.setMaxPooledObjects(maxPooledObjects);
+        mockPaddlePool.setMaxPooledObjects(maxPooledObjects);
+    }
+
+    @Override
+    public String toString() {
+        return puckPool + ", " + widenOrNarrowObjectPool + ", " + mockPaddlePool;
+    }
+
+}
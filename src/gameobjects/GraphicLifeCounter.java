@@ -1,14 +1,14 @@
 package gameobjects;
 
+import counters.CounterListener;
+import counters.ObservableCounter;
 import danogl.GameObject;
 import danogl.collisions.GameObjectCollection;
 import danogl.collisions.Layer;
 import danogl.gui.rendering.Renderable;
-import danogl.util.Counter;
 import danogl.util.Vector2;
 
-public class GraphicLifeCounter extends GameObject {
-    private final Counter livesCounter;
+public class GraphicLifeCounter extends GameObject implements CounterListener {
     private final GameObjectCollection gameObjectCollection;
     private final int numOfLives;
 
@@ -21,29 +21,26 @@ public class GraphicLifeCounter extends GameObject {
      * @param widgetRenderable    The renderable representing the object. Can be null, in which case
      */
     public GraphicLifeCounter(Vector2 widgetTopLeftCorner, Vector2 widgetDimensions,
-                              Counter livesCounter, Renderable widgetRenderable,
+                              ObservableCounter livesCounter, Renderable widgetRenderable,
                               GameObjectCollection gameObjectCollection, int numOfLives) {
         super(widgetTopLeftCorner, widgetDimensions, widgetRenderable);
-        this.livesCounter = livesCounter;
         this.gameObjectCollection = gameObjectCollection;
         this.numOfLives = numOfLives;
+        livesCounter.addListener(this);
     }
 
     /**
-     * Should be called once per frame.
+     * Removes the widget once the life it stands for is lost, instead of checking the lives counter every
+     * frame.
      *
-     * @param deltaTime The time elapsed, in seconds, since the last frame. Can
-     *                  be used to determine a new position/velocity by multiplying
-     *                  this delta with the velocity/acceleration respectively
-     *                  and adding to the position/velocity:
-     *                  velocity += deltaTime*acceleration
-     *                  pos += deltaTime*velocity
+     * @param counter  The lives counter.
+     * @param oldValue The number of lives before the change.
      */
     @Override
-    public void update(float deltaTime) {
-        super.update(deltaTime);
-        if (numOfLives > livesCounter.value()) {
+    public void onCounterChanged(ObservableCounter counter, int oldValue) {
+        if (numOfLives > counter.value()) {
             gameObjectCollection.removeGameObject(this, Layer.BACKGROUND);
+            counter.removeListener(this);
         }
     }
 
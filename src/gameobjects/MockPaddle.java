@@ -7,10 +7,10 @@ import danogl.gui.UserInputListener;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
 
-public class MockPaddle extends Paddle {
-    public static boolean isInstantiated;
+public class MockPaddle extends Paddle implements Poolable {
     private final GameObjectCollection gameObjectCollection;
     private final int numCollisionsToDisappear;
+    private final GameObjectPool<MockPaddle> pool;
     private int collisionsCounter;
 
     /**
@@ -20,6 +20,7 @@ public class MockPaddle extends Paddle {
      *                            Note that (0,0) is the top-left corner of the window.
      * @param dimensions          Width and height in window coordinates.
      * @param renderable          The renderable representing the object. Can be null, in which case
+     * @param pool                The pool the paddle is returned to once it disappears.
      */
     public MockPaddle(Vector2 topLeftCorner,
                       Vector2 dimensions,
@@ -28,11 +29,12 @@ public class MockPaddle extends Paddle {
                       Vector2 windowDimensions,
                       GameObjectCollection gameObjectCollection,
                       int minDistanceFromEdge,
-                      int numCollisionsToDisappear) {
+                      int numCollisionsToDisappear,
+                      GameObjectPool<MockPaddle> pool) {
         super(topLeftCorner, dimensions, renderable, inputListener, windowDimensions, minDistanceFromEdge);
         this.gameObjectCollection = gameObjectCollection;
         this.numCollisionsToDisappear = numCollisionsToDisappear;
-        isInstantiated = true;
+        this.pool = pool;
     }
 
     /**
@@ -48,10 +50,28 @@ public class MockPaddle extends Paddle {
         if (!(other instanceof WidenOrNarrowObject)) {
             if (++collisionsCounter >= numCollisionsToDisappear) {
                 if (gameObjectCollection.removeGameObject(this)) {
-                    isInstantiated = false;
+                    pool.release(this);
                 }
             }
         }
     }
 
+    /**
+     * @return The number of collisions the paddle counted towards its disappearance.
+     */
+    public int getNumCollisions() {
+        return collisionsCounter;
+    }
+
+    public void setNumCollisions(int numCollisions) {
+        this.collisionsCounter = numCollisions;
+    }
+
+    @Override
+    public void onAcquire() {
+        collisionsCounter = 0;
+        // the pool stopped the transform, which the velocity kept for snapshots follows
+        stop();
+    }
+
 }
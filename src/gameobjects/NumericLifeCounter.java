@@ -1,16 +1,17 @@
 package gameobjects;
 
+import counters.CounterListener;
+import counters.ObservableCounter;
 import danogl.GameObject;
 import danogl.collisions.GameObjectCollection;
 import danogl.collisions.Layer;
 import danogl.gui.rendering.TextRenderable;
-import danogl.util.Counter;
 import danogl.util.Vector2;
 
-public class NumericLifeCounter extends GameObject {
+public class NumericLifeCounter extends GameObject implements CounterListener {
+
+    private static final String LIVES_TEXT_PREFIX = "Lives remaining: ";
 
-    private final Counter livesCounter;
-    private int livesCounterDisplayedNum;
     private final GameObjectCollection gameObjectCollection;
     private final TextRenderable textRenderable;
 
@@ -21,34 +22,40 @@ public class NumericLifeCounter extends GameObject {
      *                      Note that (0,0) is the top-left corner of the window.
      * @param dimensions    Width and height in window coordinates.
      */
-    public NumericLifeCounter(Counter livesCounter, Vector2 topLeftCorner, Vector2 dimensions,
+    public NumericLifeCounter(ObservableCounter livesCounter, Vector2 topLeftCorner, Vector2 dimensions,
                               GameObjectCollection gameObjectCollection) {
-        super(topLeftCorner, dimensions, new TextRenderable(String.format("Lives remaining: %d",
-                livesCounter.value())));
-        this.livesCounterDisplayedNum = livesCounter.value();
-        this.livesCounter = livesCounter;
+        this(livesCounter, topLeftCorner, dimensions, gameObjectCollection,
+                new TextRenderable(LIVES_TEXT_PREFIX + livesCounter.value()));
+    }
+
+    /**
+     * Construct a new GameObject instance.
+     *
+     * @param topLeftCorner  Position of the object, in window coordinates (pixels).
+     *                       Note that (0,0) is the top-left corner of the window.
+     * @param dimensions     Width and height in window coordinates.
+     * @param textRenderable The renderable the lives count is written to.
+     */
+    public NumericLifeCounter(ObservableCounter livesCounter, Vector2 topLeftCorner, Vector2 dimensions,
+                              GameObjectCollection gameObjectCollection, TextRenderable textRenderable) {
+        super(topLeftCorner, dimensions, textRenderable);
         this.gameObjectCollection = gameObjectCollection;
-        this.textRenderable = (TextRenderable) renderer().getRenderable();
+        this.textRenderable = textRenderable;
+        livesCounter.addListener(this);
     }
 
     /**
-     * Should be called once per frame.
+     * Updates the text when the lives counter changes, instead of checking it every frame.
      *
-     * @param deltaTime The time elapsed, in seconds, since the last frame. Can
-     *                  be used to determine a new position/velocity by multiplying
-     *                  this delta with the velocity/acceleration respectively
-     *                  and adding to the position/velocity:
-     *                  velocity += deltaTime*acceleration
-     *                  pos += deltaTime*velocity
+     * @param counter  The lives counter.
+     * @param oldValue The number of lives before the change.
      */
     @Override
-    public void update(float deltaTime) {
-        super.update(deltaTime);
-        if (livesCounter.value() < livesCounterDisplayedNum) {
-            textRenderable.setString(String.format("Lives remaining: %d", --livesCounterDisplayedNum));
-        }
-        if (livesCounter.value() <= 0) {
+    public void onCounterChanged(ObservableCounter counter, int oldValue) {
+        textRenderable.setString(LIVES_TEXT_PREFIX + counter.value());
+        if (counter.value() <= 0) {
             gameObjectCollection.removeGameObject(this, Layer.BACKGROUND);
+            counter.removeListener(this);
         }
     }
 
@@ -12,6 +12,8 @@ public class Paddle extends GameObject {
     private final UserInputListener inputListener;
     private final Vector2 windowDimensions;
     private final int minDistanceFromEdge;
+    // the horizontal velocity the paddle moved by in its last update, which it moves by in the next one too
+    private float appliedVelocityX;
 
     /**
      * Construct a new GameObject instance.
@@ -42,14 +44,17 @@ public class Paddle extends GameObject {
     @Override
     public void update(float deltaTime) {
         super.update(deltaTime);
-        Vector2 movementDir = Vector2.ZERO;
+        // the transform moves by the velocity it had at its previous update, which it keeps to itself
+        appliedVelocityX = getVelocity().x();
+        // the direction is kept in a float rather than a Vector2, so that moving doesn't allocate every frame
+        float movementDirX = 0;
         if (inputListener.isKeyPressed(KeyEvent.VK_LEFT)) {
-            movementDir = movementDir.add(Vector2.LEFT);
+            movementDirX += Vector2.LEFT.x();
         }
         if (inputListener.isKeyPressed(KeyEvent.VK_RIGHT)) {
-            movementDir = movementDir.add(Vector2.RIGHT);
+            movementDirX += Vector2.RIGHT.x();
         }
-        setVelocity(movementDir.mult(MOVEMENT_VELOCITY));
+        transform().setVelocity(movementDirX * MOVEMENT_VELOCITY, 0);
 
         // delineate the disk
         float topLeftCornerX = getTopLeftCorner().x();
@@ -63,4 +68,33 @@ public class Paddle extends GameObject {
         }
     }
 
+    /**
+     * Stops the paddle as still as a new one: it doesn't move in its next update, whatever its keys.
+     */
+    public void stop() {
+        setVelocity(Vector2.ZERO);
+        setAppliedVelocityX(0);
+    }
+
+    /**
+     * @return The horizontal velocity the paddle moves by in its next update, which is its velocity as of its
+     * last update rather than the one its keys gave it since.
+     */
+    public float getAppliedVelocityX() {
+        return appliedVelocityX;
+    }
+
+    /**
+     * Makes the paddle move by the given horizontal velocity in its next update, keeping its current velocity
+     * for the updates after that.
+     */
+    public void setAppliedVelocityX(float appliedVelocityX) {
+        float velocityX = getVelocity().x();
+        // updating the transform for no time moves it nowhere, and makes it apply its velocity from then on
+        transform().setVelocity(appliedVelocityX, 0);
+        transform().update(0);
+        transform().setVelocity(velocityX, 0);
+        this.appliedVelocityX = appliedVelocityX;
+    }
+
 }
@@ -0,0 +1,10 @@
+package gameobjects;
+
+public interface Poolable {
+
+    /**
+     * Called by GameObjectPool when the object is handed out again, before the caller positions it.
+     */
+    void onAcquire();
+
+}
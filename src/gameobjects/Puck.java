@@ -4,7 +4,7 @@ import danogl.gui.Sound;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
 
-public class Puck extends Ball {
+public class Puck extends Ball implements Poolable {
     /**
      * Construct a new GameObject instance.
      *
@@ -17,4 +17,11 @@ public class Puck extends Ball {
         super(topLeftCorner, dimensions, renderable, collisionSound);
     }
 
+    @Override
+    public void onAcquire() {
+        resetCollisionCount();
+        // the pool stopped the puck's transform, so the puck forgets what it last moved by too
+        stop();
+    }
+
 }
@@ -0,0 +1,49 @@
+package gameobjects;
+
+import danogl.GameObject;
+import danogl.gui.rendering.Camera;
+import danogl.util.Vector2;
+
+/**
+ * A camera for levels taller than the window: it spans the whole width of the window and follows an object
+ * up and down, without going past the top or bottom of the world.
+ * <p>
+ * Camera's own following centers it through the engine's shared scratch vector, which isn't safe when
+ * games run on several threads at once, so this camera follows by itself.
+ */
+public class ScrollingCamera extends Camera {
+
+    private final GameObject objectToFollow;
+    private final float minTopY;
+    private final float maxTopY;
+
+    /**
+     * @param objectToFollow   The object to keep in the middle of the window's height.
+     * @param windowDimensions Dimensions of the window, which are also the dimensions of the view.
+     * @param worldHeight      Height of the world, whose top is at y = 0.
+     */
+    public ScrollingCamera(GameObject objectToFollow, Vector2 windowDimensions, float worldHeight) {
+        super(Vector2.ZERO, windowDimensions, windowDimensions);
+        this.objectToFollow = objectToFollow;
+        this.minTopY = 0;
+        this.maxTopY = Math.max(worldHeight - windowDimensions.y(), 0);
+        follow();
+    }
+
+    @Override
+    public void update(float deltaTime) {
+        super.update(deltaTime);
+        follow();
+    }
+
+    /**
+     * Moves the view to the followed object right away, e.g. after the object was moved elsewhere rather
+     * than moving there.
+     */
+    public void follow() {
+        float objectCenterY = objectToFollow.getTopLeftCorner().y() + objectToFollow.getDimensions().y() / 2;
+        float topY = Math.min(Math.max(objectCenterY - getDimensions().y() / 2, minTopY), maxTopY);
+        transform().setTopLeftCorner(0, topY);
+    }
+
+}
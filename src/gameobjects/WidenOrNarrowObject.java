@@ -6,11 +6,14 @@ import danogl.collisions.GameObjectCollection;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
 
-public class WidenOrNarrowObject extends GameObject {
+public class WidenOrNarrowObject extends GameObject implements Poolable {
     private static final float WIDEN_CONST = 1.2f;
     private static final float NARROW_CONST = 0.8f;
     private final GameObjectCollection gameObjectCollection;
-    private final boolean isWiden;
+    private final GameObjectPool<WidenOrNarrowObject> pool;
+    private boolean isWiden;
+    // a new object moves nowhere in its first update, as its transform has yet to apply its velocity
+    private boolean isFalling;
 
     /**
      * Construct a new GameObject instance.
@@ -19,12 +22,63 @@ public class WidenOrNarrowObject extends GameObject {
      *                             Note that (0,0) is the top-left corner of the window.
      * @param dimensions           Width and height in window coordinates.
      * @param renderable           The renderable representing the object. Can be null, in which case
+     * @param pool                 The pool the object is returned to once it is removed.
      */
     public WidenOrNarrowObject(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable,
-                               GameObjectCollection gameObjectCollection, boolean isWiden) {
+                               GameObjectCollection gameObjectCollection, boolean isWiden,
+                               GameObjectPool<WidenOrNarrowObject> pool) {
         super(topLeftCorner, dimensions, renderable);
         this.gameObjectCollection = gameObjectCollection;
         this.isWiden = isWiden;
+        this.pool = pool;
+    }
+
+    public boolean isWiden() {
+        return isWiden;
+    }
+
+    public void setWiden(boolean isWiden) {
+        this.isWiden = isWiden;
+    }
+
+    /**
+     * @return true if the object moves by its velocity in its next update, false if it was just acquired.
+     */
+    public boolean isFalling() {
+        return isFalling;
+    }
+
+    /**
+     * Makes the object move by its velocity from its next update on, or only from the update after it, as
+     * an object that was just acquired does.
+     */
+    public void setFalling(boolean isFalling) {
+        Vector2 velocity = getVelocity();
+        float velocityX = velocity.x();
+        float velocityY = velocity.y();
+        if (!isFalling) {
+            transform().setVelocity(0, 0);
+        }
+        // updating the transform for no time moves it nowhere, and makes it apply its velocity from then on
+        transform().update(0);
+        transform().setVelocity(velocityX, velocityY);
+        this.isFalling = isFalling;
+    }
+
+    /**
+     * Should be called once per frame.
+     *
+     * @param deltaTime The time elapsed, in seconds, since the last frame. Can
+     *                  be used to determine a new position/velocity by multiplying
+     *                  this delta with the velocity/acceleration respectively
+     *                  and adding to the position/velocity:
+     *                  velocity += deltaTime*acceleration
+     *                  pos += deltaTime*velocity
+     */
+    @Override
+    public void update(float deltaTime) {
+        super.update(deltaTime);
+        isFalling = true;
     }
 
     /**
@@ -37,12 +91,17 @@ public class WidenOrNarrowObject extends GameObject {
     @Override
     public void onCollisionEnter(GameObject other, Collision collision) {
         super.onCollisionEnter(other, collision);
-        if (isWiden) {
-            other.setDimensions(other.getDimensions().mult(WIDEN_CONST));
-        } else {
-            other.setDimensions(other.getDimensions().mult(NARROW_CONST));
+        float factor = isWiden ? WIDEN_CONST : NARROW_CONST;
+        Vector2 dimensions = other.getDimensions();
+        other.transform().setDimensions(dimensions.x() * factor, dimensions.y() * factor);
+        if (gameObjectCollection.removeGameObject(this)) {
+            pool.release(this);
         }
-        gameObjectCollection.removeGameObject(this);
+    }
+
+    @Override
+    public void onAcquire() {
+        isFalling = false;
     }
 
     /**
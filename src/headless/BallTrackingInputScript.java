@@ -0,0 +1,71 @@
+package headless;
+
+import danogl.GameObject;
+import danogl.collisions.GameObjectCollection;
+import gameobjects.Paddle;
+
+import java.awt.event.KeyEvent;
+import java.util.Objects;
+
+/**
+ * A simple player for simulated games: every tick it moves the paddle toward the ball's x coordinate.
+ * The ball and the paddle are looked up again whenever the game replaces its game object collection,
+ * which BrickerGameManager does on every new game, and until both were added to it.
+ */
+public class BallTrackingInputScript implements InputScript {
+
+    private static final String BALL_TAG = "ball";
+
+    private final SimulatedGame game;
+    private final float deadZone;
+    private GameObjectCollection trackedCollection;
+    private GameObject ball;
+    private GameObject paddle;
+
+    /**
+     * @param game     The game whose ball is tracked.
+     * @param deadZone The horizontal distance between the ball and the paddle's center within which the
+     *                 paddle stands still, so that it doesn't jitter around the ball.
+     */
+    public BallTrackingInputScript(SimulatedGame game, float deadZone) {
+        this.game = game;
+        this.deadZone = deadZone;
+    }
+
+    @Override
+    public void onTick(long tick, ScriptedInputListener inputListener) {
+        GameObjectCollection gameObjectCollection = game.getGameObjectCollection();
+        if (gameObjectCollection != trackedCollection || ball == null || paddle == null) {
+            trackedCollection = gameObjectCollection;
+            findBallAndPaddle(gameObjectCollection);
+        }
+        inputListener.releaseAllKeys();
+        if (ball == null || paddle == null) {
+            return;
+        }
+        float ballCenterX = ball.getTopLeftCorner().x() + ball.getDimensions().x() / 2;
+        float paddleCenterX = paddle.getTopLeftCorner().x() + paddle.getDimensions().x() / 2;
+        if (ballCenterX < paddleCenterX - deadZone) {
+            inputListener.pressKey(KeyEvent.VK_LEFT);
+        } else if (ballCenterX > paddleCenterX + deadZone) {
+            inputListener.pressKey(KeyEvent.VK_RIGHT);
+        }
+    }
+
+    private void findBallAndPaddle(GameObjectCollection gameObjectCollection) {
+        ball = null;
+        paddle = null;
+        if (gameObjectCollection == null) {
+            return;
+        }
+        for (GameObject gameObject : gameObjectCollection) {
+            if (Objects.equals(gameObject.getTag(), BALL_TAG)) {
+                ball = gameObject;
+            } else if (gameObject.getClass() == Paddle.class) {
+                // mock paddles are Paddles as well, but only the player's paddle is steered
+                paddle = gameObject;
+            }
+        }
+    }
+
+}
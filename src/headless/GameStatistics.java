@@ -0,0 +1,69 @@
+package headless;
+
+/**
+ * A snapshot of the statistics of a single game, as reported by a SimulatedGame.
+ */
+public class GameStatistics {
+
+    private final boolean isOver;
+    private final boolean isWon;
+    private final long ticks;
+    private final int livesLost;
+    private final int bricksDestroyed;
+    private final long pucksSpawned;
+    private final long[] strategyTriggers;
+
+    /**
+     * @param isOver           Whether the game was won or lost.
+     * @param isWon            Whether the game was won.
+     * @param ticks            Number of updates the game went through.
+     * @param livesLost        Number of times the ball fell.
+     * @param bricksDestroyed  Number of bricks removed.
+     * @param pucksSpawned     Number of pucks added by puck strategies.
+     * @param strategyTriggers Number of times every brick strategy took effect, indexed like
+     *                         BrickStrategyFactory.getStrategyNames().
+     */
+    public GameStatistics(boolean isOver, boolean isWon, long ticks, int livesLost, int bricksDestroyed,
+                          long pucksSpawned, long[] strategyTriggers) {
+        this.isOver = isOver;
+        this.isWon = isWon;
+        this.ticks = ticks;
+        this.livesLost = livesLost;
+        this.bricksDestroyed = bricksDestroyed;
+        this.pucksSpawned = pucksSpawned;
+        this.strategyTriggers = strategyTriggers.clone();
+    }
+
+    public boolean isOver() {
+        return isOver;
+    }
+
+    public boolean isWon() {
+        return isWon;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public int getLivesLost() {
+        return livesLost;
+    }
+
+    public int getBricksDestroyed() {
+        return bricksDestroyed;
+    }
+
+    public long getPucksSpawned() {
+        return pucksSpawned;
+    }
+
+    public long getStrategyTriggers(int strategy) {
+        return strategyTriggers[strategy];
+    }
+
+    public int getNumStrategies() {
+        return strategyTriggers.length;
+    }
+
+}
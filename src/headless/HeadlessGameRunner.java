@@ -0,0 +1,93 @@
+package headless;
+
+import danogl.GameManager;
+import danogl.util.Vector2;
+
+public class HeadlessGameRunner {
+
+    private static final double NANOS_IN_SECOND = 1e9;
+
+    private final GameManager gameManager;
+    private final HeadlessWindowController windowController;
+    private final HeadlessImageReader imageReader;
+    private final HeadlessSoundReader soundReader;
+    private final ScriptedInputListener inputListener;
+    private final float deltaTime;
+    private long ticks;
+    private int gamesStarted;
+
+    /**
+     * Runs the given game manager without a window, audio device or keyboard.
+     *
+     * @param gameManager      The game to simulate. Its initializeGame must not rely on the GUI component
+     *                         created by GameManager.run().
+     * @param windowDimensions Dimensions reported to the game as the window's.
+     * @param deltaTime        The simulated time, in seconds, that passes in every tick.
+     */
+    public HeadlessGameRunner(GameManager gameManager, Vector2 windowDimensions, float deltaTime) {
+        this.gameManager = gameManager;
+        this.windowController = new HeadlessWindowController(windowDimensions, true);
+        this.imageReader = new HeadlessImageReader(windowController);
+        this.soundReader = new HeadlessSoundReader(windowController);
+        this.inputListener = new ScriptedInputListener();
+        this.deltaTime = deltaTime;
+    }
+
+    public HeadlessWindowController getWindowController() {
+        return windowController;
+    }
+
+    public ScriptedInputListener getInputListener() {
+        return inputListener;
+    }
+
+    public long getTicks() {
+        return ticks;
+    }
+
+    public int getGamesStarted() {
+        return gamesStarted;
+    }
+
+    public void initializeGame() {
+        gameManager.initializeGame(imageReader, soundReader, inputListener, windowController);
+        gamesStarted++;
+    }
+
+    /**
+     * Simulates a single tick, re-initializing the game afterwards if it asked to be reset.
+     *
+     * @return false if the game closed its window, true otherwise.
+     */
+    public boolean tick() {
+        if (windowController.isClosed()) {
+            return false;
+        }
+        inputListener.onFrameStart(ticks);
+        gameManager.update(deltaTime);
+        ticks++;
+        if (windowController.consumeResetRequest()) {
+            initializeGame();
+        }
+        return !windowController.isClosed();
+    }
+
+    /**
+     * Simulates up to the given number of ticks as fast as possible, stopping early if the window closes.
+     *
+     * @param numTicks The maximal number of ticks to simulate.
+     * @return The simulation speed, in ticks per second of wall-clock time.
+     */
+    public double run(long numTicks) {
+        long startTicks = ticks;
+        long startTime = System.nanoTime();
+        for (long i = 0; i < numTicks; i++) {
+            if (!tick()) {
+                break;
+            }
+        }
+        long elapsedNanos = Math.max(System.nanoTime() - startTime, 1);
+        return (ticks - startTicks) * NANOS_IN_SECOND / elapsedNanos;
+    }
+
+}
@@ -0,0 +1,24 @@
+package headless;
+
+import danogl.gui.ImageReader;
+import danogl.gui.WindowController;
+import danogl.gui.rendering.ImageRenderable;
+
+import java.awt.image.BufferedImage;
+
+public class HeadlessImageReader extends ImageReader {
+
+    private final ImageRenderable placeholderImage;
+
+    public HeadlessImageReader(WindowController windowController) {
+        super(windowController);
+        // a single 1x1 image stands in for every asset, nothing is ever drawn
+        this.placeholderImage = new ImageRenderable(new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB));
+    }
+
+    @Override
+    public ImageRenderable readImage(String imageFilePath, boolean useTopLeftPixelAsTransparentColor) {
+        return placeholderImage;
+    }
+
+}
@@ -0,0 +1,24 @@
+package headless;
+
+import danogl.gui.Sound;
+import danogl.gui.SoundReader;
+import danogl.gui.WindowController;
+
+import javax.sound.sampled.Clip;
+
+public class HeadlessSoundReader extends SoundReader {
+
+    private final Sound silentSound;
+
+    public HeadlessSoundReader(WindowController windowController) {
+        super(windowController);
+        // a sound without clips plays nothing, so no audio device is ever opened
+        this.silentSound = new Sound(new Clip[0]);
+    }
+
+    @Override
+    public Sound readSound(String soundFilePath) {
+        return silentSound;
+    }
+
+}
@@ -0,0 +1,33 @@
+package headless;
+
+import danogl.gui.rendering.TextRenderable;
+
+public class HeadlessTextRenderable extends TextRenderable {
+
+    private String str;
+
+    public HeadlessTextRenderable(String str) {
+        super(str);
+        this.str = str;
+    }
+
+    /**
+     * Only keeps the string; TextRenderable measures fonts against the screen, which a headless
+     * environment doesn't have.
+     */
+    @Override
+    public void setString(String str) {
+        this.str = str;
+    }
+
+    @Override
+    public void setString(String str, MultilineHandling multilineHandling, int gapBetweenLinesInPixels) {
+        this.str = str;
+    }
+
+    @Override
+    public String renderedString() {
+        return str;
+    }
+
+}
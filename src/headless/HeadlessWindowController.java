@@ -0,0 +1,117 @@
+package headless;
+
+import danogl.gui.WindowController;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+public class HeadlessWindowController implements WindowController {
+
+    private final Vector2 windowDimensions;
+    private boolean playAgainAnswer;
+    private boolean isResetRequested;
+    private boolean isClosed;
+    private String lastMessage;
+    private float timeScale;
+    private int targetFramerate;
+    private Renderable mouseCursor;
+    private Vector2 mouseCursorDimensions;
+
+    public HeadlessWindowController(Vector2 windowDimensions, boolean playAgainAnswer) {
+        this.windowDimensions = windowDimensions;
+        this.playAgainAnswer = playAgainAnswer;
+        this.timeScale = 1;
+        this.mouseCursorDimensions = Vector2.ZERO;
+    }
+
+    public void setPlayAgainAnswer(boolean playAgainAnswer) {
+        this.playAgainAnswer = playAgainAnswer;
+    }
+
+    /**
+     * Returns whether resetGame() was called since the last invocation of this method, and clears the
+     * request. The game loop should re-initialize the game only between frames, as the real window does.
+     */
+    public boolean consumeResetRequest() {
+        boolean wasResetRequested = isResetRequested;
+        isResetRequested = false;
+        return wasResetRequested;
+    }
+
+    public boolean isClosed() {
+        return isClosed;
+    }
+
+    public String getLastMessage() {
+        return lastMessage;
+    }
+
+    public int getTargetFramerate() {
+        return targetFramerate;
+    }
+
+    @Override
+    public void closeWindow() {
+        isClosed = true;
+    }
+
+    @Override
+    public void resetGame() {
+        isResetRequested = true;
+    }
+
+    @Override
+    public void showMessageBox(String msg) {
+        lastMessage = msg;
+    }
+
+    @Override
+    public boolean openYesNoDialog(String msg) {
+        lastMessage = msg;
+        return playAgainAnswer;
+    }
+
+    @Override
+    public double getTimeScale() {
+        return timeScale;
+    }
+
+    @Override
+    public void setTimeScale(float timeScale) {
+        this.timeScale = timeScale;
+    }
+
+    @Override
+    public Vector2 getWindowDimensions() {
+        return windowDimensions;
+    }
+
+    @Override
+    public void setTargetFramerate(int targetFramerate) {
+        this.targetFramerate = targetFramerate;
+    }
+
+    @Override
+    public void setPauseButton(int pauseButton) {
+    }
+
+    @Override
+    public void setExitButton(int exitButton) {
+    }
+
+    @Override
+    public void setMouseCursor(Renderable renderable, Vector2 dimensions, Vector2 offset) {
+        this.mouseCursor = renderable;
+        this.mouseCursorDimensions = dimensions;
+    }
+
+    @Override
+    public Renderable getMouseCursor() {
+        return mouseCursor;
+    }
+
+    @Override
+    public Vector2 getMouseCursorDimensions() {
+        return mouseCursorDimensions;
+    }
+
+}
@@ -0,0 +1,7 @@
+package headless;
+
+public interface InputScript {
+
+    void onTick(long tick, ScriptedInputListener inputListener);
+
+}
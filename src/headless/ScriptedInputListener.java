@@ -0,0 +1,80 @@
+package headless;
+
+import danogl.gui.UserInputListener;
+import danogl.gui.mouse.MouseButton;
+import danogl.util.Vector2;
+
+import java.util.BitSet;
+
+public class ScriptedInputListener implements UserInputListener {
+
+    private final BitSet pressedKeys;
+    private final BitSet pressedKeysLastFrame;
+    private InputScript inputScript;
+
+    public ScriptedInputListener() {
+        this.pressedKeys = new BitSet();
+        this.pressedKeysLastFrame = new BitSet();
+    }
+
+    public void setInputScript(InputScript inputScript) {
+        this.inputScript = inputScript;
+    }
+
+    public void pressKey(int keyCode) {
+        pressedKeys.set(keyCode);
+    }
+
+    public void releaseKey(int keyCode) {
+        pressedKeys.clear(keyCode);
+    }
+
+    public void releaseAllKeys() {
+        pressedKeys.clear();
+    }
+
+    /**
+     * Should be called once per tick, before the game is updated. Lets the script (if any) set the keys
+     * pressed during this tick.
+     *
+     * @param tick The index of the tick about to be simulated.
+     */
+    public void onFrameStart(long tick) {
+        pressedKeysLastFrame.clear();
+        pressedKeysLastFrame.or(pressedKeys);
+        if (inputScript != null) {
+            inputScript.onTick(tick, this);
+        }
+    }
+
+    @Override
+    public boolean isKeyPressed(int keyCode) {
+        return pressedKeys.get(keyCode);
+    }
+
+    @Override
+    public boolean wasKeyReleasedThisFrame(int keyCode) {
+        return pressedKeysLastFrame.get(keyCode) && !pressedKeys.get(keyCode);
+    }
+
+    @Override
+    public boolean wasMouseButtonClickedThisFrame(MouseButton mouseButton) {
+        return false;
+    }
+
+    @Override
+    public boolean isMouseButtonPressed(MouseButton mouseButton) {
+        return false;
+    }
+
+    @Override
+    public Vector2 getMouseScreenPos() {
+        return Vector2.ZERO;
+    }
+
+    @Override
+    public double mouseWheelClicksThisFrame() {
+        return 0;
+    }
+
+}
@@ -0,0 +1,18 @@
+package headless;
+
+import danogl.collisions.GameObjectCollection;
+
+public interface SimulatedGame {
+
+    /**
+     * Gives tools that drive the game without a window (benchmarks, batch simulations) access to the
+     * objects currently in the game.
+     */
+    GameObjectCollection getGameObjectCollection();
+
+    /**
+     * @return The statistics of the current game, or of the last one if it ended and no other started.
+     */
+    GameStatistics getGameStatistics();
+
+}
@@ -0,0 +1,46 @@
+package jfr;
+
+import danogl.GameObject;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A brick was hit, and its strategies are about to run.
+ */
+@Name("bricker.BrickHit")
+@Label("Brick Hit")
+@Category({"Bricker", "Gameplay"})
+@Description("A brick was hit by a ball or a puck")
+@StackTrace(false)
+public class BrickHitEvent extends Event {
+
+    @Label("Strategies")
+    @Description("The brick's strategies, in the order they are applied, joined by '+'")
+    private String strategies;
+
+    @Label("Brick X")
+    private float brickX;
+
+    @Label("Brick Y")
+    private float brickY;
+
+    @Label("Hit By")
+    @Description("Type of the object that hit the brick")
+    private String hitBy;
+
+    public static void emit(String strategies, GameObject brick, GameObject hitBy) {
+        BrickHitEvent event = new BrickHitEvent();
+        if (event.shouldCommit()) {
+            event.strategies = strategies;
+            event.brickX = brick.getTopLeftCorner().x();
+            event.brickY = brick.getTopLeftCorner().y();
+            event.hitBy = hitBy.getClass().getSimpleName();
+            event.commit();
+        }
+    }
+
+}
@@ -0,0 +1,32 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The camera change strategy turned the camera that follows the ball on or off.
+ */
+@Name("bricker.CameraChange")
+@Label("Camera Change")
+@Category({"Bricker", "Gameplay"})
+@Description("The camera started or stopped following the ball")
+@StackTrace(false)
+public class CameraChangeEvent extends Event {
+
+    @Label("On")
+    @Description("true if the camera started following the ball, false if it stopped")
+    private boolean on;
+
+    public static void emit(boolean on) {
+        CameraChangeEvent event = new CameraChangeEvent();
+        if (event.shouldCommit()) {
+            event.on = on;
+            event.commit();
+        }
+    }
+
+}
@@ -0,0 +1,40 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A new game was set up, timed from the start of its initialization to its end.
+ */
+@Name("bricker.GameReset")
+@Label("Game Reset")
+@Category({"Bricker", "Gameplay"})
+@Description("A new game was set up, either the first one or after the previous one ended")
+@StackTrace(false)
+public class GameResetEvent extends Event {
+
+    @Label("Bricks")
+    private int bricks;
+
+    @Label("Lives")
+    private int lives;
+
+    @Label("In Place")
+    @Description("Whether the previous game's objects were restored rather than created again")
+    private boolean inPlace;
+
+    public void commit(int bricks, int lives, boolean inPlace) {
+        end();
+        if (shouldCommit()) {
+            this.bricks = bricks;
+            this.lives = lives;
+            this.inPlace = inPlace;
+            commit();
+        }
+    }
+
+}
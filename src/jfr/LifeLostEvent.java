@@ -0,0 +1,31 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The ball fell out of the world.
+ */
+@Name("bricker.LifeLost")
+@Label("Life Lost")
+@Category({"Bricker", "Gameplay"})
+@Description("The ball fell out of the world and a life was lost")
+@StackTrace(false)
+public class LifeLostEvent extends Event {
+
+    @Label("Lives Left")
+    private int livesLeft;
+
+    public static void emit(int livesLeft) {
+        LifeLostEvent event = new LifeLostEvent();
+        if (event.shouldCommit()) {
+            event.livesLeft = livesLeft;
+            event.commit();
+        }
+    }
+
+}
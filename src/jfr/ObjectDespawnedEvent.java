@@ -0,0 +1,36 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * An object was removed from the game.
+ */
+@Name("bricker.ObjectDespawned")
+@Label("Object Despawned")
+@Category({"Bricker", "Objects"})
+@Description("An object was removed from the game's collection")
+@StackTrace(false)
+public class ObjectDespawnedEvent extends Event {
+
+    @Label("Object Type")
+    private String objectType;
+
+    @Label("Layer")
+    @Description("The layer the object was removed from, as a danogl Layer constant")
+    private int layer;
+
+    public static void emit(Object gameObject, int layer) {
+        ObjectDespawnedEvent event = new ObjectDespawnedEvent();
+        if (event.shouldCommit()) {
+            event.objectType = gameObject.getClass().getSimpleName();
+            event.layer = layer;
+            event.commit();
+        }
+    }
+
+}
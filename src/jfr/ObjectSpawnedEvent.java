@@ -0,0 +1,36 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * An object was added to the game.
+ */
+@Name("bricker.ObjectSpawned")
+@Label("Object Spawned")
+@Category({"Bricker", "Objects"})
+@Description("An object was added to the game's collection")
+@StackTrace(false)
+public class ObjectSpawnedEvent extends Event {
+
+    @Label("Object Type")
+    private String objectType;
+
+    @Label("Layer")
+    @Description("The layer the object was added to, as a danogl Layer constant")
+    private int layer;
+
+    public static void emit(Object gameObject, int layer) {
+        ObjectSpawnedEvent event = new ObjectSpawnedEvent();
+        if (event.shouldCommit()) {
+            event.objectType = gameObject.getClass().getSimpleName();
+            event.layer = layer;
+            event.commit();
+        }
+    }
+
+}
@@ -0,0 +1,32 @@
+package jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The effect of a single brick strategy, timed from its start to its end. Begun before the effect runs and
+ * committed after it, through commit(String).
+ */
+@Name("bricker.StrategyEffect")
+@Label("Strategy Effect")
+@Category({"Bricker", "Gameplay"})
+@Description("The effect of a brick strategy, e.g. spawning pucks")
+@StackTrace(false)
+public class StrategyEffectEvent extends Event {
+
+    @Label("Strategy")
+    private String strategy;
+
+    public void commit(String strategy) {
+        end();
+        if (shouldCommit()) {
+            this.strategy = strategy;
+            commit();
+        }
+    }
+
+}
@@ -0,0 +1,436 @@
+package levels;
+
+import brick_strategies.BrickStrategyFactory;
+import danogl.GameObject;
+import danogl.collisions.GameObjectCollection;
+import danogl.collisions.Layer;
+import danogl.gui.rendering.Camera;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Counter;
+import danogl.util.MutableVector2;
+import danogl.util.Vector2;
+import gameobjects.Brick;
+import gameobjects.DynamicObjectRegistry;
+import snapshots.SnapshottableBricks;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * The bricks of a level kept as arrays of their fields rather than as a Brick each, for levels of hundreds
+ * of thousands of bricks: a brick takes 20 bytes and two bits, where a Brick with its transform, renderer
+ * and strategy takes hundreds of bytes.
+ * <p>
+ * The field is a GameObject of its own, which draws every brick that is still alive in the view, and
+ * collides with nothing. Bricks only become Bricks in a GameObjectCollection, with their strategies and
+ * a counter of their own, while a mover could reach them within the coming step, so collisions and
+ * strategies work as they do with any other brick; once out of every mover's reach, they are removed
+ * again. Which bricks were destroyed is kept in a bitmap, and random strategies are drawn from a stream
+ * of their own brick, as LevelStreamer does, so a brick keeps its strategy every time it comes back.
+ * Relies on the level's bricks being sorted by their top edge, as LevelBuilder writes them.
+ */
+public class BrickField extends GameObject implements SnapshottableBricks {
+
+    // how far beyond a mover's path through a step its bricks are created
+    private static final float REACH_MARGIN = 8;
+    // created bricks are only removed when they are this much further away, so that a ball moving along a
+    // brick's edge doesn't remove and recreate it over and over
+    private static final float RELEASE_SLACK = 8;
+
+    private final int numBricks;
+    private final float[] xs;
+    private final float[] ys;
+    private final float[] widths;
+    private final float[] heights;
+    private final short[] spriteIds;
+    private final short[] strategyIds;
+    private final float maxBrickHeight;
+    private final BitSet aliveBricks;
+    private final BitSet createdBricks;
+    private final List<CreatedBrick> createdBrickObjects;
+    private final GameObjectCollection gameObjectCollection;
+    private final BrickStrategyFactory brickStrategyFactory;
+    private final Renderable[] sprites;
+    private final Counter bricksCounter;
+    private long seed;
+    private final Vector2 windowDimensions;
+    private final MutableVector2 screenTopLeftCorner;
+    private final MutableVector2 screenDimensions;
+    private Predicate<GameObject> isMover;
+    private DynamicObjectRegistry[] moverRegistries;
+    private Consumer<GameObject> destroyedBricksListener;
+
+    /**
+     * Copies the level's bricks into the field, with every one of them alive, and adds them to the bricks
+     * counter.
+     *
+     * @param level                The level to play, whose bricks are sorted by their top edge.
+     * @param gameObjectCollection The collection bricks within the movers' reach are added to, in
+     *                             Layer.STATIC_OBJECTS.
+     * @param brickStrategyFactory Creates the bricks' strategies.
+     * @param sprites              The level's sprites, by sprite id.
+     * @param bricksCounter        Counts the bricks left, and is decremented when a brick is destroyed.
+     * @param seed                 Determines the strategies of the bricks whose strategy is random.
+     * @param windowDimensions     Dimensions of the window, which is the view when there is no camera.
+     */
+    public BrickField(Level level, GameObjectCollection gameObjectCollection,
+                      BrickStrategyFactory brickStrategyFactory, Renderable[] sprites, Counter bricksCounter,
+                      long seed, Vector2 windowDimensions) {
+        super(new Vector2(level.getLeft(), level.getTop()),
+                new Vector2(Math.max(level.getRight() - level.getLeft(), 0),
+                        Math.max(level.getBottom() - level.getTop(), 0)), null);
+        this.numBricks = level.getNumBricks();
+        this.xs = new float[numBricks];
+        this.ys = new float[numBricks];
+        this.widths = new float[numBricks];
+        this.heights = new float[numBricks];
+        this.spriteIds = new short[numBricks];
+        this.strategyIds = new short[numBricks];
+        for (int brick = 0; brick < numBricks; brick++) {
+            xs[brick] = level.getBrickX(brick);
+            ys[brick] = level.getBrickY(brick);
+            widths[brick] = level.getBrickWidth(brick);
+            heights[brick] = level.getBrickHeight(brick);
+            spriteIds[brick] = (short) level.getSpriteId(brick);
+            strategyIds[brick] = (short) level.getStrategyId(brick);
+        }
+        this.maxBrickHeight = level.getMaxBrickHeight();
+        this.aliveBricks = new BitSet(numBricks);
+        aliveBricks.set(0, numBricks);
+        this.createdBricks = new BitSet(numBricks);
+        this.createdBrickObjects = new ArrayList<>();
+        this.gameObjectCollection = gameObjectCollection;
+        this.brickStrategyFactory = brickStrategyFactory;
+        this.sprites = sprites;
+        this.bricksCounter = bricksCounter;
+        this.seed = seed;
+        this.windowDimensions = windowDimensions;
+        this.screenTopLeftCorner = new MutableVector2();
+        this.screenDimensions = new MutableVector2();
+        this.isMover = gameObject -> false;
+        this.moverRegistries = new DynamicObjectRegistry[0];
+        this.destroyedBricksListener = gameObject -> {
+        };
+        bricksCounter.increaseBy(numBricks);
+    }
+
+    /**
+     * Sets the objects that bricks are created for when they come within reach.
+     *
+     * @param isMover    Tells which of the objects of the registries can hit bricks.
+     * @param registries Registries of the objects that may hit bricks.
+     */
+    public void setMovers(Predicate<GameObject> isMover, DynamicObjectRegistry... registries) {
+        this.isMover = isMover;
+        this.moverRegistries = registries.clone();
+    }
+
+    /**
+     * Sets a listener that is told of every brick destroyed, with the Brick it was created as.
+     */
+    public void setDestroyedBricksListener(Consumer<GameObject> destroyedBricksListener) {
+        this.destroyedBricksListener = destroyedBricksListener;
+    }
+
+    /**
+     * Starts the level over, with every brick alive and none created, as a new field would, and removes the
+     * created bricks from the collection. The bricks counter is left as it is. Takes time in proportion to
+     * the created bricks, plus a bit per brick to mark it alive.
+     */
+    @Override
+    public void reset() {
+        for (int i = 0; i < createdBrickObjects.size(); i++) {
+            CreatedBrick createdBrick = createdBrickObjects.get(i);
+            if (aliveBricks.get(createdBrick.brick)) {
+                gameObjectCollection.removeGameObject(createdBrick.gameObject, Layer.STATIC_OBJECTS);
+            }
+            createdBricks.clear(createdBrick.brick);
+        }
+        createdBrickObjects.clear();
+        aliveBricks.set(0, numBricks);
+    }
+
+    /**
+     * Makes the random strategies of the bricks created from now on drawn from the given seed.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Removes the created bricks that are out of every mover's reach, and creates the alive bricks that
+     * any mover could reach within the coming step. Should be called before every step, while the
+     * collection's pending additions and removals have yet to be applied.
+     *
+     * @param stepTime The duration of the coming step, in seconds.
+     */
+    public void updateCreatedBricks(float stepTime) {
+        // the bricks that stay are moved up over the removed ones, so they stay in the order they were created
+        int numKept = 0;
+        for (int i = 0; i < createdBrickObjects.size(); i++) {
+            CreatedBrick createdBrick = createdBrickObjects.get(i);
+            // destroyed bricks have already been removed by their strategy
+            boolean isAlive = aliveBricks.get(createdBrick.brick);
+            if (isAlive && isInReachOfMover(createdBrick.brick, stepTime, REACH_MARGIN + RELEASE_SLACK)) {
+                createdBrickObjects.set(numKept++, createdBrick);
+                continue;
+            }
+            if (isAlive) {
+                gameObjectCollection.removeGameObject(createdBrick.gameObject, Layer.STATIC_OBJECTS);
+            }
+            createdBricks.clear(createdBrick.brick);
+        }
+        createdBrickObjects.subList(numKept, createdBrickObjects.size()).clear();
+
+        for (DynamicObjectRegistry registry : moverRegistries) {
+            for (int i = 0; i < registry.size(); i++) {
+                GameObject mover = registry.get(i);
+                if (isMover.test(mover)) {
+                    createBricksInReach(mover, stepTime);
+                }
+            }
+        }
+    }
+
+    /**
+     * Draws the alive bricks in the view, created or not. If the graphics are clipped, only the bricks in the
+     * clip are drawn, so that redrawing a small part of an image takes little time however large the field.
+     */
+    @Override
+    public void render(Graphics2D g, Camera camera) {
+        float viewLeft = 0;
+        float viewTop = 0;
+        float viewWidth = windowDimensions.x();
+        float viewHeight = windowDimensions.y();
+        if (camera != null) {
+            viewLeft = camera.getTopLeftCorner().x();
+            viewTop = camera.getTopLeftCorner().y();
+            viewWidth = camera.getDimensions().x();
+            viewHeight = camera.getDimensions().y();
+        }
+        float scaleX = camera != null ? camera.windowDimensions().x() / viewWidth : 1;
+        float scaleY = camera != null ? camera.windowDimensions().y() / viewHeight : 1;
+        float drawnLeft = viewLeft;
+        float drawnTop = viewTop;
+        float drawnRight = viewLeft + viewWidth;
+        float drawnBottom = viewTop + viewHeight;
+        Rectangle clip = g.getClipBounds();
+        if (clip != null) {
+            drawnLeft = Math.max(drawnLeft, viewLeft + clip.x / scaleX);
+            drawnTop = Math.max(drawnTop, viewTop + clip.y / scaleY);
+            drawnRight = Math.min(drawnRight, viewLeft + (clip.x + clip.width) / scaleX);
+            drawnBottom = Math.min(drawnBottom, viewTop + (clip.y + clip.height) / scaleY);
+        }
+        for (int brick = findFirstBrickReaching(drawnTop); brick < numBricks && ys[brick] <= drawnBottom; brick++) {
+            if (!aliveBricks.get(brick) || !overlaps(brick, drawnLeft, drawnTop, drawnRight, drawnBottom)) {
+                continue;
+            }
+            screenTopLeftCorner.setXY((xs[brick] - viewLeft) * scaleX, (ys[brick] - viewTop) * scaleY);
+            screenDimensions.setXY(widths[brick] * scaleX, heights[brick] * scaleY);
+            sprites[spriteIds[brick]].render(g, screenTopLeftCorner, screenDimensions);
+        }
+    }
+
+    public int getNumBricks() {
+        return numBricks;
+    }
+
+    public int getNumAliveBricks() {
+        return aliveBricks.cardinality();
+    }
+
+    /**
+     * Writes which bricks were destroyed into the given bitmap, a bit per brick in the order of the level,
+     * in time proportional to the bitmap's length and the number of destroyed bricks.
+     *
+     * @param words A bitmap of at least as many bits as the field has bricks.
+     */
+    @Override
+    public void copyDestroyedBricks(long[] words) {
+        Arrays.fill(words, 0);
+        for (int brick = aliveBricks.nextClearBit(0); brick < numBricks; brick = aliveBricks.nextClearBit(brick + 1)) {
+            words[brick >>> 6] |= 1L << brick;
+        }
+    }
+
+    /**
+     * Makes the bricks of the given bitmap the destroyed ones, as copyDestroyedBricks wrote it. Should follow
+     * reset, which removed the created bricks; the bricks still alive are created again as movers come near.
+     */
+    @Override
+    public void setDestroyedBricks(long[] words) {
+        // the bitmap may be longer than the level, with whatever its words held before
+        int numWords = Math.min(words.length, (numBricks + Long.SIZE - 1) / Long.SIZE);
+        for (int i = 0; i < numWords; i++) {
+            for (long word = words[i]; word != 0; word &= word - 1) {
+                aliveBricks.clear(i * Long.SIZE + Long.numberOfTrailingZeros(word));
+            }
+        }
+    }
+
+    /**
+     * Writes the created bricks that are alive into the given buffer, in the order they were added to the
+     * collection, in 4 bytes per created brick and 4 more.
+     */
+    @Override
+    public void captureState(ByteBuffer state) {
+        int numAliveCreatedBricksPosition = state.position();
+        state.putInt(0);
+        int numAliveCreatedBricks = 0;
+        for (int i = 0; i < createdBrickObjects.size(); i++) {
+            int brick = createdBrickObjects.get(i).brick;
+            if (aliveBricks.get(brick)) {
+                state.putInt(brick);
+                numAliveCreatedBricks++;
+            }
+        }
+        state.putInt(numAliveCreatedBricksPosition, numAliveCreatedBricks);
+    }
+
+    /**
+     * Creates the bricks written by captureState again in the same order, so they collide in the order they
+     * did. Should follow reset and setDestroyedBricks.
+     */
+    @Override
+    public void restoreState(ByteBuffer state) {
+        int numAliveCreatedBricks = state.getInt();
+        for (int i = 0; i < numAliveCreatedBricks; i++) {
+            createBrick(state.getInt());
+        }
+    }
+
+    /**
+     * @return The number of bricks that are currently Bricks in the collection.
+     */
+    public int getNumCreatedBricks() {
+        return createdBrickObjects.size();
+    }
+
+    /**
+     * @return The bytes captureState writes at most with the bricks that are created now.
+     */
+    @Override
+    public int getMaxStateBytes() {
+        return Integer.BYTES * (createdBrickObjects.size() + 1);
+    }
+
+    private void createBricksInReach(GameObject mover, float stepTime) {
+        Vector2 topLeftCorner = mover.getTopLeftCorner();
+        Vector2 dimensions = mover.getDimensions();
+        Vector2 velocity = mover.getVelocity();
+        float dx = velocity.x() * stepTime;
+        float dy = velocity.y() * stepTime;
+        float left = topLeftCorner.x() + Math.min(dx, 0) - REACH_MARGIN;
+        float top = topLeftCorner.y() + Math.min(dy, 0) - REACH_MARGIN;
+        float right = topLeftCorner.x() + dimensions.x() + Math.max(dx, 0) + REACH_MARGIN;
+        float bottom = topLeftCorner.y() + dimensions.y() + Math.max(dy, 0) + REACH_MARGIN;
+        for (int brick = findFirstBrickReaching(top); brick < numBricks && ys[brick] <= bottom; brick++) {
+            if (aliveBricks.get(brick) && !createdBricks.get(brick) && overlaps(brick, left, top, right, bottom)) {
+                createBrick(brick);
+            }
+        }
+    }
+
+    private boolean isInReachOfMover(int brick, float stepTime, float margin) {
+        for (DynamicObjectRegistry registry : moverRegistries) {
+            for (int i = 0; i < registry.size(); i++) {
+                GameObject mover = registry.get(i);
+                if (!isMover.test(mover)) {
+                    continue;
+                }
+                Vector2 topLeftCorner = mover.getTopLeftCorner();
+                Vector2 dimensions = mover.getDimensions();
+                Vector2 velocity = mover.getVelocity();
+                float dx = velocity.x() * stepTime;
+                float dy = velocity.y() * stepTime;
+                if (overlaps(brick, topLeftCorner.x() + Math.min(dx, 0) - margin,
+                        topLeftCorner.y() + Math.min(dy, 0) - margin,
+                        topLeftCorner.x() + dimensions.x() + Math.max(dx, 0) + margin,
+                        topLeftCorner.y() + dimensions.y() + Math.max(dy, 0) + margin)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void createBrick(int brick) {
+        // every brick draws from a stream of its own, so it gets the same strategy every time it's created
+        SplittableRandom brickRandom = new SplittableRandom(seed + brick * LevelStreamer.BRICK_SEED_STRIDE);
+        // the field draws the brick, so the Brick itself has nothing to render
+        BrickCounter brickCounter = new BrickCounter(brick);
+        GameObject gameObject = new Brick(new Vector2(xs[brick], ys[brick]),
+                new Vector2(widths[brick], heights[brick]), null,
+                brickStrategyFactory.getStrategy(strategyIds[brick], brickRandom), brickCounter);
+        brickCounter.gameObject = gameObject;
+        gameObjectCollection.addGameObject(gameObject, Layer.STATIC_OBJECTS);
+        createdBricks.set(brick);
+        createdBrickObjects.add(new CreatedBrick(brick, gameObject));
+    }
+
+    private boolean overlaps(int brick, float left, float top, float right, float bottom) {
+        return xs[brick] <= right && xs[brick] + widths[brick] >= left &&
+                ys[brick] <= bottom && ys[brick] + heights[brick] >= top;
+    }
+
+    /**
+     * @return The index of the first brick that may reach down to y or below it, or numBricks if there is
+     * none.
+     */
+    private int findFirstBrickReaching(float y) {
+        float minTop = y - maxBrickHeight;
+        int low = 0;
+        int high = numBricks;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (ys[middle] < minTop) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /*
+     * The counter of a single brick: destroying the brick marks it dead in the field and counts it off the
+     * level's bricks.
+     */
+    private class BrickCounter extends Counter {
+        private final int brick;
+        // the Brick the counter belongs to, which is created after it
+        private GameObject gameObject;
+
+        private BrickCounter(int brick) {
+            super(1);
+            this.brick = brick;
+        }
+
+        @Override
+        public void decrement() {
+            super.decrement();
+            aliveBricks.clear(brick);
+            bricksCounter.decrement();
+            destroyedBricksListener.accept(gameObject);
+        }
+    }
+
+    private static class CreatedBrick {
+        private final int brick;
+        private final GameObject gameObject;
+
+        private CreatedBrick(int brick, GameObject gameObject) {
+            this.brick = brick;
+            this.gameObject = gameObject;
+        }
+    }
+
+}
@@ -0,0 +1,128 @@
+package levels;
+
+import danogl.collisions.GameObjectCollection;
+import danogl.collisions.Layer;
+import danogl.util.Counter;
+import gameobjects.Brick;
+import snapshots.SnapshottableBricks;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * The bricks of a game without a level, a grid of Bricks that are all in the collection from the start.
+ * Which bricks were destroyed is kept in a bitmap, as LevelStreamer and BrickField do, by the counters the
+ * bricks are created with, so a game can start over with the same bricks rather than creating them again.
+ */
+public class BrickGrid implements SnapshottableBricks {
+
+    private final GameObjectCollection gameObjectCollection;
+    private final Counter bricksCounter;
+    private final Brick[] bricks;
+    private final BitSet destroyedBricks;
+
+    /**
+     * @param numBricks     The number of bricks of the grid, which are set one by one by setBrick.
+     * @param bricksCounter The counter of the bricks left, which the bricks' own counters count off.
+     */
+    public BrickGrid(GameObjectCollection gameObjectCollection, int numBricks, Counter bricksCounter) {
+        this.gameObjectCollection = gameObjectCollection;
+        this.bricksCounter = bricksCounter;
+        this.bricks = new Brick[numBricks];
+        this.destroyedBricks = new BitSet(numBricks);
+    }
+
+    /**
+     * @return The counter the brick of the given index should be created with.
+     */
+    public Counter createBrickCounter(int brick) {
+        return new BrickCounter(brick);
+    }
+
+    public void setBrick(int brick, Brick gameObject) {
+        bricks[brick] = gameObject;
+    }
+
+    public Brick getBrick(int brick) {
+        return bricks[brick];
+    }
+
+    public int getNumBricks() {
+        return bricks.length;
+    }
+
+    @Override
+    public int getMaxStateBytes() {
+        return 0;
+    }
+
+    @Override
+    public void copyDestroyedBricks(long[] words) {
+        Arrays.fill(words, 0);
+        for (int brick = destroyedBricks.nextSetBit(0); brick >= 0; brick = destroyedBricks.nextSetBit(brick + 1)) {
+            words[brick >>> 6] |= 1L << brick;
+        }
+    }
+
+    /**
+     * The bricks are all in the collection unless destroyed, so there's nothing else to capture.
+     */
+    @Override
+    public void captureState(ByteBuffer state) {
+    }
+
+    /**
+     * Removes the bricks that are left from the collection, and marks every brick alive again. The bricks
+     * keep their strategies, and are added back by the caller, or by setDestroyedBricks.
+     */
+    @Override
+    public void reset() {
+        for (int brick = destroyedBricks.nextClearBit(0); brick < bricks.length;
+             brick = destroyedBricks.nextClearBit(brick + 1)) {
+            gameObjectCollection.removeGameObject(bricks[brick], Layer.STATIC_OBJECTS);
+        }
+        destroyedBricks.clear();
+    }
+
+    /**
+     * Makes the bricks of the given bitmap the destroyed ones, and adds the others back to the collection,
+     * in the order of the grid.
+     */
+    @Override
+    public void setDestroyedBricks(long[] words) {
+        destroyedBricks.clear();
+        for (int brick = 0; brick < bricks.length; brick++) {
+            if ((words[brick >>> 6] & (1L << brick)) != 0) {
+                destroyedBricks.set(brick);
+            } else {
+                gameObjectCollection.addGameObject(bricks[brick], Layer.STATIC_OBJECTS);
+            }
+        }
+    }
+
+    @Override
+    public void restoreState(ByteBuffer state) {
+    }
+
+    /*
+     * The counter of a single brick: destroying the brick marks it in the bitmap and counts it off the
+     * grid's bricks.
+     */
+    private class BrickCounter extends Counter {
+        private final int brick;
+
+        private BrickCounter(int brick) {
+            super(1);
+            this.brick = brick;
+        }
+
+        @Override
+        public void decrement() {
+            super.decrement();
+            destroyedBricks.set(brick);
+            bricksCounter.decrement();
+        }
+    }
+
+}
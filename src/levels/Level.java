@@ -0,0 +1,216 @@
+package levels;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A level read from its binary file, which is mapped into memory rather than read: the bricks' fields
+ * are read straight from the mapped file whenever they are asked for, so loading takes the same time
+ * however many bricks the level has.
+ * <p>
+ * The file is little-endian. A header holds the format's magic number and version, the number of bricks
+ * and sprites, the bounds of the bricks and the largest brick's dimensions. It is followed by the sprites'
+ * asset paths, then by packed arrays of the bricks' x, y, width and height as floats, and of their sprite
+ * and strategy ids as shorts. LevelBuilder writes such files, with the bricks sorted by their top edge,
+ * so the bricks of a horizontal band of the level are found by a binary search and read in one run.
+ */
+public class Level {
+
+    static final int MAGIC = 0x4C4B5242; // "BRKL"
+    static final int VERSION = 2;
+    static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+    static final int HEADER_SIZE = 40;
+    static final int BYTES_PER_BRICK = 4 * Float.BYTES + 2 * Short.BYTES;
+
+    private final ByteBuffer buffer;
+    private final int numBricks;
+    private final String[] spritePaths;
+    private final float left;
+    private final float top;
+    private final float right;
+    private final float bottom;
+    private final float maxBrickWidth;
+    private final float maxBrickHeight;
+    private final int xOffset;
+    private final int yOffset;
+    private final int widthOffset;
+    private final int heightOffset;
+    private final int spriteIdOffset;
+    private final int strategyIdOffset;
+
+    private Level(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a level file");
+        }
+        int version = buffer.getInt(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported level version " + version);
+        }
+        this.numBricks = buffer.getInt(8);
+        int numSprites = buffer.getInt(12);
+        this.left = buffer.getFloat(16);
+        this.top = buffer.getFloat(20);
+        this.right = buffer.getFloat(24);
+        this.bottom = buffer.getFloat(28);
+        this.maxBrickWidth = buffer.getFloat(32);
+        this.maxBrickHeight = buffer.getFloat(36);
+        if (numBricks < 0 || numSprites < 0) {
+            throw new IOException("Corrupt level header");
+        }
+
+        this.spritePaths = new String[numSprites];
+        int offset = HEADER_SIZE;
+        for (int i = 0; i < numSprites; i++) {
+            if (offset + Short.BYTES > buffer.capacity()) {
+                throw new IOException("Truncated level file");
+            }
+            int length = Short.toUnsignedInt(buffer.getShort(offset));
+            offset += Short.BYTES;
+            if (offset + length > buffer.capacity()) {
+                throw new IOException("Truncated level file");
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(offset, bytes);
+            spritePaths[i] = new String(bytes, StandardCharsets.UTF_8);
+            offset += length;
+        }
+
+        this.xOffset = alignToFloat(offset);
+        this.yOffset = xOffset + numBricks * Float.BYTES;
+        this.widthOffset = yOffset + numBricks * Float.BYTES;
+        this.heightOffset = widthOffset + numBricks * Float.BYTES;
+        this.spriteIdOffset = heightOffset + numBricks * Float.BYTES;
+        this.strategyIdOffset = spriteIdOffset + numBricks * Short.BYTES;
+        if ((long) xOffset + (long) numBricks * BYTES_PER_BRICK > buffer.capacity()) {
+            throw new IOException("Truncated level file");
+        }
+    }
+
+    /**
+     * Maps the given level file into memory. The file should not be modified while the level is in use.
+     *
+     * @throws IOException If the file can't be read, or isn't a level file of a supported version.
+     */
+    public static Level load(Path path) throws IOException {
+        // the mapping stays valid after its channel is closed
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(BYTE_ORDER);
+            return new Level(buffer);
+        }
+    }
+
+    static int alignToFloat(int offset) {
+        return (offset + Float.BYTES - 1) / Float.BYTES * Float.BYTES;
+    }
+
+    public int getNumBricks() {
+        return numBricks;
+    }
+
+    public float getBrickX(int brick) {
+        return buffer.getFloat(xOffset + brick * Float.BYTES);
+    }
+
+    public float getBrickY(int brick) {
+        return buffer.getFloat(yOffset + brick * Float.BYTES);
+    }
+
+    public float getBrickWidth(int brick) {
+        return buffer.getFloat(widthOffset + brick * Float.BYTES);
+    }
+
+    public float getBrickHeight(int brick) {
+        return buffer.getFloat(heightOffset + brick * Float.BYTES);
+    }
+
+    /**
+     * @return The index of the brick's sprite, see getSpritePath.
+     */
+    public int getSpriteId(int brick) {
+        return buffer.getShort(spriteIdOffset + brick * Short.BYTES);
+    }
+
+    /**
+     * @return The brick's strategy, as understood by BrickStrategyFactory.getStrategy(int).
+     */
+    public int getStrategyId(int brick) {
+        return buffer.getShort(strategyIdOffset + brick * Short.BYTES);
+    }
+
+    /**
+     * @return The index of the first brick whose top edge is at y or below it, or getNumBricks() if there
+     * is none.
+     */
+    public int findFirstBrickAtOrBelow(float y) {
+        int low = 0;
+        int high = numBricks;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (getBrickY(middle) < y) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    public int getNumSprites() {
+        return spritePaths.length;
+    }
+
+    public String getSpritePath(int spriteId) {
+        return spritePaths[spriteId];
+    }
+
+    /**
+     * @return The smallest x coordinate of a brick's left edge.
+     */
+    public float getLeft() {
+        return left;
+    }
+
+    /**
+     * @return The smallest y coordinate of a brick's top edge.
+     */
+    public float getTop() {
+        return top;
+    }
+
+    /**
+     * @return The largest x coordinate of a brick's right edge.
+     */
+    public float getRight() {
+        return right;
+    }
+
+    /**
+     * @return The largest y coordinate of a brick's bottom edge.
+     */
+    public float getBottom() {
+        return bottom;
+    }
+
+    public float getMaxBrickWidth() {
+        return maxBrickWidth;
+    }
+
+    public float getMaxBrickHeight() {
+        return maxBrickHeight;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d bricks, %d sprites, bounds (%.1f, %.1f)-(%.1f, %.1f)", numBricks,
+                spritePaths.length, left, top, right, bottom);
+    }
+
+}
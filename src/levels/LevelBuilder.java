@@ -0,0 +1,170 @@
+package levels;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Collects the sprites and bricks of a level and writes them in the binary format read by Level. The
+ * bricks are written sorted by their top edge; bricks with equal tops keep the order they were added in.
+ */
+public class LevelBuilder {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final List<String> spritePaths;
+    private float[] xs;
+    private float[] ys;
+    private float[] widths;
+    private float[] heights;
+    private short[] spriteIds;
+    private short[] strategyIds;
+    private int numBricks;
+
+    public LevelBuilder() {
+        this.spritePaths = new ArrayList<>();
+        this.xs = new float[INITIAL_CAPACITY];
+        this.ys = new float[INITIAL_CAPACITY];
+        this.widths = new float[INITIAL_CAPACITY];
+        this.heights = new float[INITIAL_CAPACITY];
+        this.spriteIds = new short[INITIAL_CAPACITY];
+        this.strategyIds = new short[INITIAL_CAPACITY];
+    }
+
+    /**
+     * @param spritePath Path of the sprite's image, as given to ImageReader.
+     * @return The sprite's id, to be given to addBrick.
+     */
+    public int addSprite(String spritePath) {
+        if (spritePaths.size() == Short.MAX_VALUE) {
+            throw new IllegalStateException("Too many sprites");
+        }
+        if (spritePath.getBytes(StandardCharsets.UTF_8).length > 0xFFFF) {
+            throw new IllegalArgumentException("Sprite path too long: " + spritePath);
+        }
+        spritePaths.add(spritePath);
+        return spritePaths.size() - 1;
+    }
+
+    /**
+     * @param strategyId The brick's strategy, see BrickStrategyFactory.parseStrategyId.
+     */
+    public void addBrick(float x, float y, float width, float height, int spriteId, int strategyId) {
+        if (spriteId < 0 || spriteId >= spritePaths.size()) {
+            throw new IllegalArgumentException("Unknown sprite id " + spriteId);
+        }
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Bricks must have positive dimensions");
+        }
+        if (numBricks == xs.length) {
+            int capacity = numBricks * 2;
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            widths = Arrays.copyOf(widths, capacity);
+            heights = Arrays.copyOf(heights, capacity);
+            spriteIds = Arrays.copyOf(spriteIds, capacity);
+            strategyIds = Arrays.copyOf(strategyIds, capacity);
+        }
+        xs[numBricks] = x;
+        ys[numBricks] = y;
+        widths[numBricks] = width;
+        heights[numBricks] = height;
+        spriteIds[numBricks] = (short) spriteId;
+        strategyIds[numBricks] = (short) strategyId;
+        numBricks++;
+    }
+
+    public int getNumBricks() {
+        return numBricks;
+    }
+
+    public void write(Path path) throws IOException {
+        int[] order = sortByTop();
+        byte[][] encodedSpritePaths = new byte[spritePaths.size()][];
+        int spritesSize = 0;
+        for (int i = 0; i < encodedSpritePaths.length; i++) {
+            encodedSpritePaths[i] = spritePaths.get(i).getBytes(StandardCharsets.UTF_8);
+            spritesSize += Short.BYTES + encodedSpritePaths[i].length;
+        }
+        int bricksOffset = Level.alignToFloat(Level.HEADER_SIZE + spritesSize);
+        ByteBuffer buffer = ByteBuffer.allocate(bricksOffset + numBricks * Level.BYTES_PER_BRICK)
+                .order(Level.BYTE_ORDER);
+
+        float left = 0;
+        float top = 0;
+        float right = 0;
+        float bottom = 0;
+        float maxBrickWidth = 0;
+        float maxBrickHeight = 0;
+        for (int i = 0; i < numBricks; i++) {
+            left = i == 0 ? xs[i] : Math.min(left, xs[i]);
+            top = i == 0 ? ys[i] : Math.min(top, ys[i]);
+            right = i == 0 ? xs[i] + widths[i] : Math.max(right, xs[i] + widths[i]);
+            bottom = i == 0 ? ys[i] + heights[i] : Math.max(bottom, ys[i] + heights[i]);
+            maxBrickWidth = Math.max(maxBrickWidth, widths[i]);
+            maxBrickHeight = Math.max(maxBrickHeight, heights[i]);
+        }
+        buffer.putInt(Level.MAGIC).putInt(Level.VERSION).putInt(numBricks).putInt(spritePaths.size())
+                .putFloat(left).putFloat(top).putFloat(right).putFloat(bottom)
+                .putFloat(maxBrickWidth).putFloat(maxBrickHeight);
+        for (byte[] encodedSpritePath : encodedSpritePaths) {
+            buffer.putShort((short) encodedSpritePath.length).put(encodedSpritePath);
+        }
+        buffer.position(bricksOffset);
+        buffer.asFloatBuffer().put(permute(xs, order)).put(permute(ys, order)).put(permute(widths, order))
+                .put(permute(heights, order));
+        buffer.position(bricksOffset + 4 * numBricks * Float.BYTES);
+        buffer.asShortBuffer().put(permute(spriteIds, order)).put(permute(strategyIds, order));
+        buffer.rewind();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /*
+     * A stable sort of the bricks' indices: the top edges' bits, remapped so that they compare as signed
+     * integers in the same order as the floats do, are the high half of the keys and the indices are the
+     * low half.
+     */
+    private int[] sortByTop() {
+        long[] keys = new long[numBricks];
+        for (int i = 0; i < numBricks; i++) {
+            int bits = Float.floatToIntBits(ys[i]);
+            bits ^= (bits >> 31) & Integer.MAX_VALUE;
+            keys[i] = ((long) bits << Integer.SIZE) | i;
+        }
+        Arrays.sort(keys);
+        int[] order = new int[numBricks];
+        for (int i = 0; i < numBricks; i++) {
+            order[i] = (int) keys[i];
+        }
+        return order;
+    }
+
+    private static float[] permute(float[] values, int[] order) {
+        float[] permuted = new float[order.length];
+        for (int i = 0; i < order.length; i++) {
+            permuted[i] = values[order[i]];
+        }
+        return permuted;
+    }
+
+    private static short[] permute(short[] values, int[] order) {
+        short[] permuted = new short[order.length];
+        for (int i = 0; i < order.length; i++) {
+            permuted[i] = values[order[i]];
+        }
+        return permuted;
+    }
+
+}
@@ -0,0 +1,139 @@
+package levels;
+
+import brick_strategies.BrickStrategyFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Converts a level from its human-readable text form to the binary form read by Level. Every line of the
+ * text form is empty, a comment starting with '#', or one of:
+ * <pre>
+ * sprite &lt;name&gt; &lt;image path&gt;
+ * brick &lt;x&gt; &lt;y&gt; &lt;width&gt; &lt;height&gt; &lt;sprite name&gt; &lt;strategy&gt;
+ * grid &lt;x&gt; &lt;y&gt; &lt;rows&gt; &lt;cols&gt; &lt;width&gt; &lt;height&gt; &lt;gap&gt; &lt;sprite name&gt; &lt;strategy&gt;
+ * </pre>
+ * A grid is a lattice of equal bricks whose top left one is at (x, y), with the given gap between
+ * neighbouring bricks. Strategies are written as BrickStrategyFactory.parseStrategyId reads them, e.g.
+ * "random" or "puck+addPaddle". A sprite must be declared before the bricks that use it.
+ */
+public class LevelConverter {
+
+    private static final String COMMENT_PREFIX = "#";
+    private static final String SPRITE_COMMAND = "sprite";
+    private static final String BRICK_COMMAND = "brick";
+    private static final String GRID_COMMAND = "grid";
+
+    private final LevelBuilder levelBuilder;
+    private final Map<String, Integer> spriteIds;
+
+    private LevelConverter() {
+        this.levelBuilder = new LevelBuilder();
+        this.spriteIds = new HashMap<>();
+    }
+
+    /**
+     * @return The level described by the given text file.
+     * @throws IOException If the file can't be read, or a line of it isn't valid.
+     */
+    public static LevelBuilder parse(Path textPath) throws IOException {
+        LevelConverter converter = new LevelConverter();
+        try (BufferedReader reader = Files.newBufferedReader(textPath, StandardCharsets.UTF_8)) {
+            int lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                try {
+                    converter.parseLine(line.trim());
+                } catch (IllegalArgumentException e) {
+                    throw new IOException(textPath + ":" + lineNumber + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        return converter.levelBuilder;
+    }
+
+    private void parseLine(String line) {
+        if (line.isEmpty() || line.startsWith(COMMENT_PREFIX)) {
+            return;
+        }
+        String[] fields = line.split("\\s+");
+        switch (fields[0]) {
+            case SPRITE_COMMAND:
+                checkNumFields(fields, 3);
+                if (spriteIds.containsKey(fields[1])) {
+                    throw new IllegalArgumentException("Sprite '" + fields[1] + "' is already declared");
+                }
+                spriteIds.put(fields[1], levelBuilder.addSprite(fields[2]));
+                break;
+            case BRICK_COMMAND:
+                checkNumFields(fields, 7);
+                levelBuilder.addBrick(parseFloat(fields[1]), parseFloat(fields[2]), parseFloat(fields[3]),
+                        parseFloat(fields[4]), getSpriteId(fields[5]),
+                        BrickStrategyFactory.parseStrategyId(fields[6]));
+                break;
+            case GRID_COMMAND:
+                checkNumFields(fields, 10);
+                parseGrid(fields);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown command '" + fields[0] + "'");
+        }
+    }
+
+    private void parseGrid(String[] fields) {
+        float x = parseFloat(fields[1]);
+        float y = parseFloat(fields[2]);
+        int numRows = Integer.parseInt(fields[3]);
+        int numCols = Integer.parseInt(fields[4]);
+        float width = parseFloat(fields[5]);
+        float height = parseFloat(fields[6]);
+        float gap = parseFloat(fields[7]);
+        int spriteId = getSpriteId(fields[8]);
+        int strategyId = BrickStrategyFactory.parseStrategyId(fields[9]);
+        for (int row = 0; row < numRows; row++) {
+            for (int col = 0; col < numCols; col++) {
+                levelBuilder.addBrick(x + col * (width + gap), y + row * (height + gap), width, height,
+                        spriteId, strategyId);
+            }
+        }
+    }
+
+    private int getSpriteId(String spriteName) {
+        Integer spriteId = spriteIds.get(spriteName);
+        if (spriteId == null) {
+            throw new IllegalArgumentException("Unknown sprite '" + spriteName + "'");
+        }
+        return spriteId;
+    }
+
+    private static float parseFloat(String field) {
+        // NumberFormatException is an IllegalArgumentException, so it's reported with the line
+        return Float.parseFloat(field);
+    }
+
+    private static void checkNumFields(String[] fields, int numFields) {
+        if (fields.length != numFields) {
+            throw new IllegalArgumentException("'" + fields[0] + "' takes " + (numFields - 1) + " fields");
+        }
+    }
+
+    /**
+     * Usage: LevelConverter &lt;level text file&gt; &lt;level binary file&gt;
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: LevelConverter <level text file> <level binary file>");
+            System.exit(1);
+        }
+        LevelBuilder levelBuilder = parse(Path.of(args[0]));
+        levelBuilder.write(Path.of(args[1]));
+        System.out.println(Level.load(Path.of(args[1])));
+    }
+
+}
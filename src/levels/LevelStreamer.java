@@ -0,0 +1,432 @@
+package levels;
+
+import brick_strategies.BrickStrategyFactory;
+import brick_strategies.CollisionStrategy;
+import danogl.collisions.GameObjectCollection;
+import danogl.collisions.Layer;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Counter;
+import danogl.util.Vector2;
+import gameobjects.Brick;
+import snapshots.SnapshottableBricks;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Keeps only the bricks of a level that are near the viewport in a GameObjectCollection, so that a level
+ * takes the same memory and time per step however tall it is. The level is cut into horizontal chunks of
+ * equal height: the chunks around the viewport are live, the ones just beyond them are read from the level
+ * file ahead of time on a background thread, and live chunks are removed once the viewport has moved far
+ * enough away from them. Which bricks were destroyed is kept in a bitmap, so a chunk that comes back only
+ * brings back the bricks it had left.
+ * <p>
+ * Bricks are only ever created on the calling thread, in the order they appear in the level, and random
+ * strategies are drawn from a stream of their own brick, so a game plays the same whatever the background
+ * thread's timing, and a brick keeps its strategy when its chunk comes back. Relies on the level's bricks
+ * being sorted by their top edge, as LevelBuilder writes them.
+ * <p>
+ * The streamer can start the level over for a new game, with a new seed. Its live chunks then become dormant:
+ * their bricks leave the collection but are kept, and are added back with their new strategies once their
+ * chunk comes to life again, so a restart creates no bricks that a chunk had already created.
+ */
+public class LevelStreamer implements SnapshottableBricks {
+
+    // chunks this far above and below the viewport are live
+    private static final int LIVE_CHUNK_MARGIN = 1;
+    // live chunks are only removed when they are this much further away, so that a ball bouncing on a
+    // chunk's edge doesn't remove and recreate it over and over
+    private static final int EVICTION_CHUNK_SLACK = 1;
+    // chunks this far beyond the live ones are read ahead
+    private static final int PREFETCH_CHUNK_MARGIN = 2;
+    // an odd constant other than SplittableRandom's own increment, so bricks' streams don't overlap
+    static final long BRICK_SEED_STRIDE = 0xBF58476D1CE4E5B9L;
+    private static final ExecutorService PREFETCH_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "level-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Level level;
+    private final GameObjectCollection gameObjectCollection;
+    private final BrickStrategyFactory brickStrategyFactory;
+    private final Renderable[] sprites;
+    private final Counter bricksCounter;
+    private long seed;
+    private final float chunkHeight;
+    private final int numChunks;
+    private final BitSet destroyedBricks;
+    private final Map<Integer, LiveChunk> liveChunks;
+    private final Map<Integer, Future<ChunkData>> prefetchedChunks;
+
+    /**
+     * Creates a streamer with no live chunks, and adds the level's bricks to the bricks counter.
+     *
+     * @param level                The level to play, whose bricks are sorted by their top edge.
+     * @param gameObjectCollection The collection the live bricks are added to, in Layer.STATIC_OBJECTS.
+     * @param brickStrategyFactory Creates the bricks' strategies.
+     * @param sprites              The level's sprites, by sprite id.
+     * @param bricksCounter        Counts the bricks left, and is decremented when a brick is destroyed.
+     * @param seed                 Determines the strategies of the bricks whose strategy is random.
+     * @param chunkHeight          Height of a chunk, in window coordinates.
+     */
+    public LevelStreamer(Level level, GameObjectCollection gameObjectCollection,
+                         BrickStrategyFactory brickStrategyFactory, Renderable[] sprites, Counter bricksCounter,
+                         long seed, float chunkHeight) {
+        this.level = level;
+        this.gameObjectCollection = gameObjectCollection;
+        this.brickStrategyFactory = brickStrategyFactory;
+        this.sprites = sprites;
+        this.bricksCounter = bricksCounter;
+        this.seed = seed;
+        this.chunkHeight = chunkHeight;
+        this.numChunks = Math.max((int) Math.ceil((level.getBottom() - level.getTop()) / chunkHeight), 1);
+        this.destroyedBricks = new BitSet(level.getNumBricks());
+        // in the order their bricks were added in, which is the order they collide in
+        this.liveChunks = new LinkedHashMap<>();
+        this.prefetchedChunks = new HashMap<>();
+        bricksCounter.increaseBy(level.getNumBricks());
+    }
+
+    /**
+     * Starts the level over, with every brick back, and removes the live bricks from the collection. The
+     * bricks counter is left as it is. Should be followed by update, once the removals were applied, as a
+     * new streamer is, and by setSeed before that for the bricks to get new strategies.
+     */
+    @Override
+    public void reset() {
+        for (LiveChunk liveChunk : liveChunks.values()) {
+            if (!liveChunk.isDormant) {
+                removeBricks(liveChunk);
+                liveChunk.isDormant = true;
+            }
+        }
+        destroyedBricks.clear();
+    }
+
+    /**
+     * Makes the random strategies of the bricks created or brought back from now on drawn from the given
+     * seed.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @return The largest height that the live bricks span while the viewport has the given height.
+     */
+    public static float getMaxLiveHeight(float viewportHeight, float chunkHeight, float maxBrickHeight) {
+        // the viewport's own chunks may stick out of it by almost a chunk on either side
+        int maxChunksAroundViewport = 2 * (LIVE_CHUNK_MARGIN + EVICTION_CHUNK_SLACK + 1);
+        return viewportHeight + maxChunksAroundViewport * chunkHeight + maxBrickHeight;
+    }
+
+    /**
+     * Brings the chunks around the given viewport to life, removes the ones far enough from it and reads
+     * ahead the ones beyond. Should be called before every step, while the collection's pending additions
+     * and removals have yet to be applied.
+     *
+     * @param viewportTop    y coordinate of the viewport's top edge.
+     * @param viewportBottom y coordinate of the viewport's bottom edge.
+     */
+    public void update(float viewportTop, float viewportBottom) {
+        int firstLiveChunk = Math.max(chunkOf(viewportTop) - LIVE_CHUNK_MARGIN, 0);
+        int lastLiveChunk = Math.min(chunkOf(viewportBottom) + LIVE_CHUNK_MARGIN, numChunks - 1);
+
+        Iterator<Map.Entry<Integer, LiveChunk>> liveChunksIterator = liveChunks.entrySet().iterator();
+        while (liveChunksIterator.hasNext()) {
+            Map.Entry<Integer, LiveChunk> liveChunk = liveChunksIterator.next();
+            int chunk = liveChunk.getKey();
+            if (chunk < firstLiveChunk - EVICTION_CHUNK_SLACK || chunk > lastLiveChunk + EVICTION_CHUNK_SLACK) {
+                // a dormant chunk's bricks have already been removed
+                if (!liveChunk.getValue().isDormant) {
+                    removeBricks(liveChunk.getValue());
+                }
+                liveChunksIterator.remove();
+            }
+        }
+
+        int firstPrefetchedChunk = Math.max(firstLiveChunk - PREFETCH_CHUNK_MARGIN, 0);
+        int lastPrefetchedChunk = Math.min(lastLiveChunk + PREFETCH_CHUNK_MARGIN, numChunks - 1);
+        Iterator<Map.Entry<Integer, Future<ChunkData>>> prefetchedChunksIterator =
+                prefetchedChunks.entrySet().iterator();
+        while (prefetchedChunksIterator.hasNext()) {
+            Map.Entry<Integer, Future<ChunkData>> prefetchedChunk = prefetchedChunksIterator.next();
+            int chunk = prefetchedChunk.getKey();
+            if (chunk < firstPrefetchedChunk || chunk > lastPrefetchedChunk) {
+                prefetchedChunk.getValue().cancel(false);
+                prefetchedChunksIterator.remove();
+            }
+        }
+        for (int chunk = firstPrefetchedChunk; chunk <= lastPrefetchedChunk; chunk++) {
+            if (!liveChunks.containsKey(chunk) && !prefetchedChunks.containsKey(chunk)) {
+                int prefetchedChunk = chunk;
+                prefetchedChunks.put(chunk, PREFETCH_EXECUTOR.submit(() -> readChunk(prefetchedChunk)));
+            }
+        }
+
+        for (int chunk = firstLiveChunk; chunk <= lastLiveChunk; chunk++) {
+            LiveChunk liveChunk = liveChunks.get(chunk);
+            if (liveChunk == null) {
+                liveChunks.put(chunk, createBricks(awaitChunk(chunk)));
+            } else if (liveChunk.isDormant) {
+                reviveBricks(chunk, liveChunk);
+            }
+        }
+    }
+
+    public int getNumLiveChunks() {
+        return liveChunks.size();
+    }
+
+    /**
+     * @return The bytes captureState writes at most with the chunks that are live now.
+     */
+    @Override
+    public int getMaxStateBytes() {
+        return Integer.BYTES * (liveChunks.size() + 1);
+    }
+
+    public int getNumDestroyedBricks() {
+        return destroyedBricks.cardinality();
+    }
+
+    /**
+     * Writes which bricks were destroyed into the given bitmap, a bit per brick in the order of the level,
+     * in time proportional to the bitmap's length and the number of destroyed bricks.
+     *
+     * @param words A bitmap of at least as many bits as the level has bricks.
+     */
+    @Override
+    public void copyDestroyedBricks(long[] words) {
+        Arrays.fill(words, 0);
+        for (int brick = destroyedBricks.nextSetBit(0); brick >= 0; brick = destroyedBricks.nextSetBit(brick + 1)) {
+            words[brick >>> 6] |= 1L << brick;
+        }
+    }
+
+    /**
+     * Makes the bricks of the given bitmap the destroyed ones, as copyDestroyedBricks wrote it. Should follow
+     * reset, once the removals were applied, and be followed by update, which adds the live bricks back.
+     */
+    @Override
+    public void setDestroyedBricks(long[] words) {
+        destroyedBricks.clear();
+        // the bitmap may be longer than the level, with whatever its words held before
+        int numWords = Math.min(words.length, (level.getNumBricks() + Long.SIZE - 1) / Long.SIZE);
+        for (int i = 0; i < numWords; i++) {
+            for (long word = words[i]; word != 0; word &= word - 1) {
+                destroyedBricks.set(i * Long.SIZE + Long.numberOfTrailingZeros(word));
+            }
+        }
+    }
+
+    /**
+     * Writes the live chunks into the given buffer, in the order their bricks were added to the collection,
+     * in 4 bytes per live chunk and 4 more.
+     */
+    @Override
+    public void captureState(ByteBuffer state) {
+        int numAwakeChunksPosition = state.position();
+        state.putInt(0);
+        int numAwakeChunks = 0;
+        for (Map.Entry<Integer, LiveChunk> liveChunk : liveChunks.entrySet()) {
+            if (!liveChunk.getValue().isDormant) {
+                state.putInt(liveChunk.getKey());
+                numAwakeChunks++;
+            }
+        }
+        state.putInt(numAwakeChunksPosition, numAwakeChunks);
+    }
+
+    /**
+     * Brings the chunks written by captureState back to life in the same order, so their bricks collide in
+     * the order they did. Should follow reset and setDestroyedBricks, once the removals were applied.
+     */
+    @Override
+    public void restoreState(ByteBuffer state) {
+        int numAwakeChunks = state.getInt();
+        for (int i = 0; i < numAwakeChunks; i++) {
+            int chunk = state.getInt();
+            LiveChunk liveChunk = liveChunks.get(chunk);
+            if (liveChunk == null) {
+                liveChunks.put(chunk, createBricks(awaitChunk(chunk)));
+            } else if (liveChunk.isDormant) {
+                reviveBricks(chunk, liveChunk);
+            }
+        }
+    }
+
+    private int chunkOf(float y) {
+        return (int) Math.floor((y - level.getTop()) / chunkHeight);
+    }
+
+    private ChunkData awaitChunk(int chunk) {
+        Future<ChunkData> prefetchedChunk = prefetchedChunks.remove(chunk);
+        if (prefetchedChunk == null) {
+            return readChunk(chunk);
+        }
+        try {
+            return prefetchedChunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading a level chunk", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to read a level chunk", e.getCause());
+        }
+    }
+
+    /*
+     * Runs on the prefetching thread as well, which only reads the mapped level file: the level's buffer
+     * is only read at absolute positions, so it may be read by both threads at once.
+     */
+    private ChunkData readChunk(int chunk) {
+        int firstBrick = level.findFirstBrickAtOrBelow(level.getTop() + chunk * chunkHeight);
+        int endBrick = chunk == numChunks - 1 ?
+                level.getNumBricks() : level.findFirstBrickAtOrBelow(level.getTop() + (chunk + 1) * chunkHeight);
+        ChunkData chunkData = new ChunkData(firstBrick, endBrick - firstBrick);
+        for (int i = 0; i < chunkData.numBricks; i++) {
+            int brick = firstBrick + i;
+            chunkData.xs[i] = level.getBrickX(brick);
+            chunkData.ys[i] = level.getBrickY(brick);
+            chunkData.widths[i] = level.getBrickWidth(brick);
+            chunkData.heights[i] = level.getBrickHeight(brick);
+            chunkData.spriteIds[i] = level.getSpriteId(brick);
+            chunkData.strategyIds[i] = level.getStrategyId(brick);
+        }
+        return chunkData;
+    }
+
+    private LiveChunk createBricks(ChunkData chunkData) {
+        Brick[] bricks = new Brick[chunkData.numBricks];
+        for (int i = 0; i < chunkData.numBricks; i++) {
+            if (destroyedBricks.get(chunkData.firstBrick + i)) {
+                continue;
+            }
+            bricks[i] = createBrick(chunkData, i);
+            gameObjectCollection.addGameObject(bricks[i], Layer.STATIC_OBJECTS);
+        }
+        return new LiveChunk(chunkData.firstBrick, bricks);
+    }
+
+    private Brick createBrick(ChunkData chunkData, int i) {
+        int brick = chunkData.firstBrick + i;
+        return new Brick(new Vector2(chunkData.xs[i], chunkData.ys[i]),
+                new Vector2(chunkData.widths[i], chunkData.heights[i]), sprites[chunkData.spriteIds[i]],
+                getStrategy(brick, chunkData.strategyIds[i]), new BrickCounter(brick));
+    }
+
+    /*
+     * Adds every brick of a dormant chunk that isn't destroyed back, in the order createBricks adds them,
+     * drawing their strategies from the current seed. Only the ones that had been destroyed before the chunk
+     * came to life are created.
+     */
+    private void reviveBricks(int chunk, LiveChunk liveChunk) {
+        ChunkData chunkData = null;
+        for (int i = 0; i < liveChunk.bricks.length; i++) {
+            int brick = liveChunk.firstBrick + i;
+            // the bricks destroyed in a restored snapshot stay destroyed
+            if (destroyedBricks.get(brick)) {
+                continue;
+            }
+            if (liveChunk.bricks[i] == null) {
+                if (chunkData == null) {
+                    chunkData = awaitChunk(chunk);
+                }
+                liveChunk.bricks[i] = createBrick(chunkData, i);
+            } else {
+                // whatever destroyed the brick may have resized it first
+                Brick revivedBrick = liveChunk.bricks[i];
+                revivedBrick.setDimensions(new Vector2(level.getBrickWidth(brick), level.getBrickHeight(brick)));
+                revivedBrick.setTopLeftCorner(new Vector2(level.getBrickX(brick), level.getBrickY(brick)));
+                revivedBrick.setCollisionStrategy(getStrategy(brick, level.getStrategyId(brick)));
+            }
+            gameObjectCollection.addGameObject(liveChunk.bricks[i], Layer.STATIC_OBJECTS);
+        }
+        liveChunk.isDormant = false;
+        // the chunk's bricks come after the other live ones now
+        liveChunks.remove(chunk);
+        liveChunks.put(chunk, liveChunk);
+    }
+
+    private CollisionStrategy getStrategy(int brick, int strategyId) {
+        // every brick draws from a stream of its own, so it gets the same strategy every time it's created
+        SplittableRandom brickRandom = new SplittableRandom(seed + brick * BRICK_SEED_STRIDE);
+        return brickStrategyFactory.getStrategy(strategyId, brickRandom);
+    }
+
+    private void removeBricks(LiveChunk liveChunk) {
+        for (int i = 0; i < liveChunk.bricks.length; i++) {
+            // destroyed bricks have already been removed
+            if (liveChunk.bricks[i] != null && !destroyedBricks.get(liveChunk.firstBrick + i)) {
+                gameObjectCollection.removeGameObject(liveChunk.bricks[i], Layer.STATIC_OBJECTS);
+            }
+        }
+    }
+
+    /*
+     * The counter of a single brick: destroying the brick marks it in the bitmap and counts it off the
+     * level's bricks.
+     */
+    private class BrickCounter extends Counter {
+        private final int brick;
+
+        private BrickCounter(int brick) {
+            super(1);
+            this.brick = brick;
+        }
+
+        @Override
+        public void decrement() {
+            super.decrement();
+            destroyedBricks.set(brick);
+            bricksCounter.decrement();
+        }
+    }
+
+    private static class LiveChunk {
+        private final int firstBrick;
+        // null where a brick had been destroyed before the chunk came to life
+        private final Brick[] bricks;
+        // the level was started over, and the chunk's bricks are yet to be added back
+        private boolean isDormant;
+
+        private LiveChunk(int firstBrick, Brick[] bricks) {
+            this.firstBrick = firstBrick;
+            this.bricks = bricks;
+        }
+    }
+
+    private static class ChunkData {
+        private final int firstBrick;
+        private final int numBricks;
+        private final float[] xs;
+        private final float[] ys;
+        private final float[] widths;
+        private final float[] heights;
+        private final int[] spriteIds;
+        private final int[] strategyIds;
+
+        private ChunkData(int firstBrick, int numBricks) {
+            this.firstBrick = firstBrick;
+            this.numBricks = numBricks;
+            this.xs = new float[numBricks];
+            this.ys = new float[numBricks];
+            this.widths = new float[numBricks];
+            this.heights = new float[numBricks];
+            this.spriteIds = new int[numBricks];
+            this.strategyIds = new int[numBricks];
+        }
+    }
+
+}
@@ -0,0 +1,86 @@
+package netplay;
+
+import danogl.gui.UserInputListener;
+import snapshots.Snapshottable;
+import snapshots.WorldSnapshot;
+
+/**
+ * Plays a game in lockstep with the other player of a LockstepSession: a step is only simulated once both
+ * players' inputs for it are in, every player's paddle is steered by the inputs of the step rather than by
+ * a keyboard, and the checksum of the game's state after every step is handed to the session, which tells
+ * whether the two games are still in sync.
+ */
+public class LockstepController {
+
+    private static final String DESYNC_MSG = "The games went out of sync at step %d.";
+    private static final String DISCONNECTED_MSG = "The other player left the game.";
+
+    private final LockstepSession lockstepSession;
+    private final Snapshottable game;
+    private final PlayerInputListener[] playerInputListeners;
+    private final WorldSnapshot checksumSnapshot = new WorldSnapshot();
+
+    /**
+     * @param lockstepSession The session, connected to the other player.
+     */
+    public LockstepController(LockstepSession lockstepSession, Snapshottable game) {
+        this.lockstepSession = lockstepSession;
+        this.game = game;
+        this.playerInputListeners = new PlayerInputListener[LockstepSession.NUM_PLAYERS];
+        for (int i = 0; i < playerInputListeners.length; i++) {
+            playerInputListeners[i] = new PlayerInputListener();
+        }
+    }
+
+    /**
+     * @return The listener the given player's paddle should be steered by, which holds the player's keys of
+     * the current step.
+     */
+    public UserInputListener getInputListener(int player) {
+        return playerInputListeners[player];
+    }
+
+    /**
+     * Until both players' inputs of the next step are in, the time that passes builds up, and the steps are
+     * caught up on once they are, as many as a frame allows.
+     *
+     * @param keyboard The keys the local player holds.
+     * @return true if the next step may be simulated.
+     */
+    public boolean pollNextStep(UserInputListener keyboard) {
+        return lockstepSession.pollNextStep(PlayerInputListener.encode(keyboard));
+    }
+
+    /**
+     * Should be called at the start of every step.
+     */
+    public void beginStep() {
+        for (int player = 0; player < playerInputListeners.length; player++) {
+            playerInputListeners[player].setInput(lockstepSession.getInput(player));
+        }
+    }
+
+    /**
+     * Should be called at the end of every step.
+     */
+    public void endStep() {
+        game.captureSnapshot(checksumSnapshot);
+        lockstepSession.endStep(checksumSnapshot.getChecksum());
+    }
+
+    /**
+     * There's no way back into sync, or to play on without the other player, so either ends the session.
+     *
+     * @return What ended the session, to tell the player, or null while it goes on.
+     */
+    public String getEndMessage() {
+        if (lockstepSession.getDesyncedStep() >= 0) {
+            return String.format(DESYNC_MSG, lockstepSession.getDesyncedStep());
+        }
+        if (!lockstepSession.isConnected()) {
+            return DISCONNECTED_MSG;
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,188 @@
+package netplay;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Matches two players for a lockstep game, on a single thread with non-blocking sockets. Once both joined,
+ * each is told its index, the input delay and the seed, and from then on whatever a player sends is relayed
+ * to the other as it is: the server knows nothing of the game, and only ever holds the bytes that didn't
+ * fit in a socket's buffer yet. The game ends, and the server with it, when either player leaves.
+ * <p>
+ * Binding to the loopback address lets both players run on the same machine, e.g. for testing.
+ */
+public class LockstepServer implements Runnable, Closeable {
+
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final SocketChannel[] players;
+    // the bytes waiting to be written to every player, in write mode
+    private final ByteBuffer[] outgoing;
+    private final int inputDelay;
+    private final long seed;
+    private int numPlayers;
+
+    /**
+     * @param address    The address to listen on. Port 0 picks a free one, which getPort tells.
+     * @param inputDelay The number of steps a player's input is sampled ahead of the step it's applied in.
+     * @param seed       The seed both games are played from.
+     * @throws IOException If the address can't be bound.
+     */
+    public LockstepServer(InetSocketAddress address, int inputDelay, long seed) throws IOException {
+        if (inputDelay < 0 || inputDelay > LockstepSession.MAX_INPUT_DELAY) {
+            throw new IllegalArgumentException("The input delay must be between 0 and " +
+                    LockstepSession.MAX_INPUT_DELAY + " steps");
+        }
+        this.inputDelay = inputDelay;
+        this.seed = seed;
+        this.players = new SocketChannel[LockstepSession.NUM_PLAYERS];
+        this.outgoing = new ByteBuffer[LockstepSession.NUM_PLAYERS];
+        for (int i = 0; i < outgoing.length; i++) {
+            outgoing[i] = ByteBuffer.allocate(LockstepSession.NUM_KEPT_STEPS * LockstepSession.MESSAGE_BYTES);
+        }
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        try {
+            serverChannel.bind(address);
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Serves a single game, and returns once a player left or the server was closed.
+     *
+     * @throws UncheckedIOException If the server's socket fails.
+     */
+    @Override
+    public void run() {
+        try {
+            while (selector.isOpen()) {
+                selector.select();
+                if (!selector.isOpen()) {
+                    break;
+                }
+                for (SelectionKey key : selector.selectedKeys()) {
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        acceptPlayer();
+                    } else if (!relay((Integer) key.attachment(), key)) {
+                        return;
+                    }
+                }
+                selector.selectedKeys().clear();
+            }
+        } catch (ClosedSelectorException e) {
+            // closed from another thread
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            try {
+                close();
+            } catch (IOException ignored) {
+                // the game is over either way
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        // waking up the selector returns run() from select()
+        selector.close();
+        serverChannel.close();
+        for (SocketChannel player : players) {
+            if (player != null) {
+                player.close();
+            }
+        }
+    }
+
+    private void acceptPlayer() throws IOException {
+        SocketChannel player = serverChannel.accept();
+        if (player == null) {
+            return;
+        }
+        player.configureBlocking(false);
+        players[numPlayers] = player;
+        numPlayers++;
+        if (numPlayers < players.length) {
+            return;
+        }
+        // no one else joins this game
+        serverChannel.close();
+        for (int i = 0; i < players.length; i++) {
+            outgoing[i].put((byte) i);
+            outgoing[i].put((byte) inputDelay);
+            outgoing[i].putLong(seed);
+            players[i].register(selector, 0, i);
+            flush(i);
+            updateInterest(i);
+        }
+    }
+
+    /*
+     * Moves what the player sent to the other one, as far as the other's buffer has room, and what's
+     * waiting for the player to it.
+     *
+     * @return false once either player left, or their connection failed.
+     */
+    private boolean relay(int player, SelectionKey key) {
+        int otherPlayer = 1 - player;
+        try {
+            if (key.isReadable()) {
+                if (players[player].read(outgoing[otherPlayer]) < 0) {
+                    return false;
+                }
+                flush(otherPlayer);
+                updateInterest(otherPlayer);
+            }
+            if (key.isWritable()) {
+                flush(player);
+            }
+        } catch (IOException e) {
+            return false;
+        }
+        updateInterest(player);
+        return true;
+    }
+
+    private void flush(int player) throws IOException {
+        outgoing[player].flip();
+        players[player].write(outgoing[player]);
+        outgoing[player].compact();
+    }
+
+    /*
+     * A player is read from while the other one's buffer has room, and written to while its own buffer
+     * holds anything, so a slow player holds the other one back instead of the server buffering for it.
+     */
+    private void updateInterest(int player) {
+        SelectionKey key = players[player].keyFor(selector);
+        int interestOps = 0;
+        if (outgoing[1 - player].hasRemaining()) {
+            interestOps |= SelectionKey.OP_READ;
+        }
+        if (outgoing[player].position() > 0) {
+            interestOps |= SelectionKey.OP_WRITE;
+        }
+        key.interestOps(interestOps);
+    }
+
+}
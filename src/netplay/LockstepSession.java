@@ -0,0 +1,248 @@
+package netplay;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * A player's end of a two-player lockstep game, connected to the other player through a LockstepServer.
+ * Both players simulate the same game from the same seed, and only exchange their input of every step: a
+ * step is simulated once both inputs of it are in, so both games go through the same steps with the same
+ * input, whatever the latency between them.
+ * <p>
+ * A player's input is sampled inputDelay steps before the step it is applied in, and sent right away, so
+ * the other player's input of a step is usually in by the time the step is due, and the latency is only
+ * felt as the delay of the player's own keys. The first inputDelay steps have no input.
+ * <p>
+ * A message of a step takes MESSAGE_BYTES however many objects the game has: the input's bitmask, and a
+ * 16-bit checksum of the state the sender's game was in after the step inputDelay steps before it. Every
+ * checksum is compared to the player's own of the same step, and the first one that differs marks the
+ * games as out of sync.
+ * <p>
+ * The session never blocks once connected: the socket is polled whenever the game asks for the next step.
+ * Steps are counted from the start of the session, across the games it plays.
+ */
+public class LockstepSession implements Closeable {
+
+    /**
+     * The bytes the server sends a player once both joined: the player's index, the input delay and the
+     * seed of the session.
+     */
+    static final int WELCOME_BYTES = 2 + Long.BYTES;
+    static final int MESSAGE_BYTES = 1 + Short.BYTES;
+    /**
+     * The number of steps the inputs and checksums are kept for, which the players can't drift further
+     * apart than.
+     */
+    static final int NUM_KEPT_STEPS = 256;
+    public static final int MAX_INPUT_DELAY = NUM_KEPT_STEPS / 2 - 2;
+    public static final int NUM_PLAYERS = 2;
+
+    private static final int KEPT_STEPS_MASK = NUM_KEPT_STEPS - 1;
+
+    private final SocketChannel channel;
+    private final int player;
+    private final int inputDelay;
+    private final long seed;
+    private final ByteBuffer incoming;
+    private final ByteBuffer outgoing;
+    private final byte[] localInputs;
+    private final byte[] remoteInputs;
+    private final short[] localChecksums;
+    private final short[] remoteChecksums;
+    private long numSteps;
+    private long numLocalInputs;
+    private long numRemoteInputs;
+    private long numLocalChecksums;
+    private long numComparedChecksums;
+    private long desyncedStep = -1;
+    private long numBytesSent;
+    private boolean isConnected;
+
+    private LockstepSession(SocketChannel channel, int player, int inputDelay, long seed) {
+        this.channel = channel;
+        this.player = player;
+        this.inputDelay = inputDelay;
+        this.seed = seed;
+        this.incoming = ByteBuffer.allocate(NUM_KEPT_STEPS * MESSAGE_BYTES);
+        this.outgoing = ByteBuffer.allocate(NUM_KEPT_STEPS * MESSAGE_BYTES);
+        this.localInputs = new byte[NUM_KEPT_STEPS];
+        this.remoteInputs = new byte[NUM_KEPT_STEPS];
+        this.localChecksums = new short[NUM_KEPT_STEPS];
+        this.remoteChecksums = new short[NUM_KEPT_STEPS];
+        // the steps before the first input arrives have none, and both games start from the same state
+        this.numLocalInputs = inputDelay;
+        this.numRemoteInputs = inputDelay;
+        this.numLocalChecksums = 1;
+        this.isConnected = true;
+    }
+
+    /**
+     * Joins the server at the given address, and waits for the other player to join.
+     *
+     * @throws IOException If the server can't be reached, or closes before the game starts.
+     */
+    public static LockstepSession connect(InetSocketAddress serverAddress) throws IOException {
+        SocketChannel channel = SocketChannel.open(serverAddress);
+        try {
+            // a message per step is worth sending right away rather than waiting for more to join it
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            ByteBuffer welcome = ByteBuffer.allocate(WELCOME_BYTES);
+            while (welcome.hasRemaining()) {
+                if (channel.read(welcome) < 0) {
+                    throw new IOException("The server closed before the game started");
+                }
+            }
+            welcome.flip();
+            int player = welcome.get();
+            int inputDelay = welcome.get();
+            long seed = welcome.getLong();
+            channel.configureBlocking(false);
+            return new LockstepSession(channel, player, inputDelay, seed);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Sends the player's input of the step inputDelay steps after the next one, unless it was sent already,
+     * and takes in the messages that arrived.
+     *
+     * @param localInput The bitmask of the keys the player holds, as PlayerInputListener encodes them.
+     * @return true if the inputs of both players for the next step are in, so that it can be simulated.
+     * @throws UncheckedIOException If the connection fails.
+     */
+    public boolean pollNextStep(int localInput) {
+        if (!isConnected) {
+            return false;
+        }
+        try {
+            if (numLocalInputs == numSteps + inputDelay) {
+                localInputs[(int) numLocalInputs & KEPT_STEPS_MASK] = (byte) localInput;
+                numLocalInputs++;
+                outgoing.put((byte) localInput);
+                outgoing.putShort(localChecksums[(int) numSteps & KEPT_STEPS_MASK]);
+            }
+            flush();
+            receive();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return numRemoteInputs > numSteps;
+    }
+
+    /**
+     * @return The input of the given player for the next step, which pollNextStep must have returned true
+     * for.
+     */
+    public int getInput(int player) {
+        byte[] inputs = player == this.player ? localInputs : remoteInputs;
+        return inputs[(int) numSteps & KEPT_STEPS_MASK];
+    }
+
+    /**
+     * Should be called once the next step was simulated.
+     *
+     * @param checksum A checksum of the whole state of the game after the step, which is the same in both
+     *                 games as long as they're in sync.
+     */
+    public void endStep(long checksum) {
+        numSteps++;
+        localChecksums[(int) numSteps & KEPT_STEPS_MASK] = foldChecksum(checksum);
+        numLocalChecksums++;
+        compareChecksums();
+    }
+
+    public int getPlayer() {
+        return player;
+    }
+
+    public int getInputDelay() {
+        return inputDelay;
+    }
+
+    /**
+     * @return The seed both games are played from.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    public long getNumSteps() {
+        return numSteps;
+    }
+
+    /**
+     * @return The first step after which the games' checksums differed, or -1 while they're in sync.
+     */
+    public long getDesyncedStep() {
+        return desyncedStep;
+    }
+
+    /**
+     * @return false once the other player left or the server closed.
+     */
+    public boolean isConnected() {
+        return isConnected;
+    }
+
+    public long getNumBytesSent() {
+        return numBytesSent;
+    }
+
+    @Override
+    public void close() throws IOException {
+        isConnected = false;
+        channel.close();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("player %d, %d steps, input delay %d, %d bytes sent", player + 1, numSteps,
+                inputDelay, numBytesSent);
+    }
+
+    private void flush() throws IOException {
+        outgoing.flip();
+        numBytesSent += channel.write(outgoing);
+        outgoing.compact();
+    }
+
+    private void receive() throws IOException {
+        if (channel.read(incoming) < 0) {
+            isConnected = false;
+        }
+        incoming.flip();
+        while (incoming.remaining() >= MESSAGE_BYTES) {
+            if (numRemoteInputs - numSteps >= NUM_KEPT_STEPS) {
+                throw new IllegalStateException("The other player is more steps ahead than are kept");
+            }
+            remoteInputs[(int) numRemoteInputs & KEPT_STEPS_MASK] = incoming.get();
+            // the message of a step holds the checksum of the step inputDelay steps before it
+            remoteChecksums[(int) (numRemoteInputs - inputDelay) & KEPT_STEPS_MASK] = incoming.getShort();
+            numRemoteInputs++;
+        }
+        incoming.compact();
+        compareChecksums();
+    }
+
+    private void compareChecksums() {
+        long numComparable = Math.min(numLocalChecksums, numRemoteInputs - inputDelay);
+        for (; numComparedChecksums < numComparable; numComparedChecksums++) {
+            int index = (int) numComparedChecksums & KEPT_STEPS_MASK;
+            if (localChecksums[index] != remoteChecksums[index] && desyncedStep < 0) {
+                desyncedStep = numComparedChecksums;
+            }
+        }
+    }
+
+    private static short foldChecksum(long checksum) {
+        return (short) (checksum ^ checksum >>> 16 ^ checksum >>> 32 ^ checksum >>> 48);
+    }
+
+}
@@ -0,0 +1,82 @@
+package netplay;
+
+import danogl.gui.UserInputListener;
+import danogl.gui.mouse.MouseButton;
+import danogl.util.Vector2;
+
+import java.awt.event.KeyEvent;
+
+/**
+ * The keys a player of a lockstep game holds during a step, as the bitmask the players exchange every step.
+ * Only the keys a paddle moves by are part of it, so a step's input fits in a byte.
+ */
+public class PlayerInputListener implements UserInputListener {
+
+    public static final int LEFT = 1;
+    public static final int RIGHT = 1 << 1;
+
+    private int input;
+
+    /**
+     * @return The bitmask of the keys the given listener holds.
+     */
+    public static int encode(UserInputListener inputListener) {
+        int input = 0;
+        if (inputListener.isKeyPressed(KeyEvent.VK_LEFT)) {
+            input |= LEFT;
+        }
+        if (inputListener.isKeyPressed(KeyEvent.VK_RIGHT)) {
+            input |= RIGHT;
+        }
+        return input;
+    }
+
+    /**
+     * Should be called before every step, with the player's input of that step.
+     */
+    public void setInput(int input) {
+        this.input = input;
+    }
+
+    public int getInput() {
+        return input;
+    }
+
+    @Override
+    public boolean isKeyPressed(int keyCode) {
+        switch (keyCode) {
+            case KeyEvent.VK_LEFT:
+                return (input & LEFT) != 0;
+            case KeyEvent.VK_RIGHT:
+                return (input & RIGHT) != 0;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public boolean wasKeyReleasedThisFrame(int keyCode) {
+        return false;
+    }
+
+    @Override
+    public boolean wasMouseButtonClickedThisFrame(MouseButton mouseButton) {
+        return false;
+    }
+
+    @Override
+    public boolean isMouseButtonPressed(MouseButton mouseButton) {
+        return false;
+    }
+
+    @Override
+    public Vector2 getMouseScreenPos() {
+        return Vector2.ZERO;
+    }
+
+    @Override
+    public double mouseWheelClicksThisFrame() {
+        return 0;
+    }
+
+}
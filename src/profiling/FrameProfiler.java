@@ -0,0 +1,195 @@
+package profiling;
+
+import collisions.GridIndexedGameObjectCollection;
+import danogl.collisions.Layer;
+
+/**
+ * Breaks the time of every frame into phases, and records how long each phase took in every frame into a
+ * histogram of its own, along with the number of objects in every layer once the frame is over.
+ * <p>
+ * The game thread switches from phase to phase as it goes, so nested work, like a brick's strategy running
+ * in the middle of collision handling, is only counted in the innermost phase. A frame's phases are summed
+ * up on the game thread and only published to the histograms when the next frame begins, under a lock that
+ * snapshots take too, so snapshots can be taken from any thread at the cost of one uncontended lock per
+ * frame. A disabled profiler returns from every call right away.
+ */
+public class FrameProfiler {
+
+    /**
+     * The phases of a frame, in the order they run.
+     */
+    public enum Phase {
+        OBJECT_UPDATES("object_updates"),
+        COLLISIONS("collisions"),
+        STRATEGY_CALLBACKS("strategy_callbacks"),
+        OUT_OF_BOUNDS_CULLING("out_of_bounds_culling"),
+        GAME_END_CHECK("game_end_check"),
+        SNAPSHOTS("snapshots"),
+        LOCKSTEP("lockstep"),
+        AUDIO("audio"),
+        RENDER("render");
+
+        private final String metricName;
+
+        Phase(String metricName) {
+            this.metricName = metricName;
+        }
+
+        public String getMetricName() {
+            return metricName;
+        }
+    }
+
+    private static final int[] LAYERS =
+            {Layer.BACKGROUND, Layer.STATIC_OBJECTS, Layer.DEFAULT, Layer.FOREGROUND, Layer.UI};
+    private static final String[] LAYER_NAMES = {"background", "static_objects", "default", "foreground", "ui"};
+    private static final Phase[] PHASES = Phase.values();
+
+    /**
+     * A profiler that records nothing.
+     */
+    public static final FrameProfiler DISABLED = new FrameProfiler(false);
+
+    private final boolean isEnabled;
+    // the current frame, only touched by the game thread
+    private final long[] frameNanos;
+    private final int[] frameLayerObjectCounts;
+    private Phase currentPhase;
+    private long phaseStartNanos;
+    private boolean isFrameStarted;
+    // published frames, guarded by this
+    private final LatencyHistogram[] phaseHistograms;
+    private final LatencyHistogram frameHistogram;
+    private final int[] layerObjectCounts;
+
+    public FrameProfiler() {
+        this(true);
+    }
+
+    private FrameProfiler(boolean isEnabled) {
+        this.isEnabled = isEnabled;
+        this.frameNanos = new long[PHASES.length];
+        this.frameLayerObjectCounts = new int[LAYERS.length];
+        this.phaseHistograms = new LatencyHistogram[PHASES.length];
+        for (int i = 0; i < PHASES.length; i++) {
+            phaseHistograms[i] = new LatencyHistogram();
+        }
+        this.frameHistogram = new LatencyHistogram();
+        this.layerObjectCounts = new int[LAYERS.length];
+    }
+
+    public boolean isEnabled() {
+        return isEnabled;
+    }
+
+    /**
+     * Publishes the frame that is over, if any, and starts a new one.
+     *
+     * @param gameObjectCollection The objects the frame that is over ended with.
+     */
+    public void beginFrame(GridIndexedGameObjectCollection gameObjectCollection) {
+        if (!isEnabled) {
+            return;
+        }
+        enterPhase(null);
+        if (isFrameStarted) {
+            publishFrame(gameObjectCollection);
+        }
+        isFrameStarted = true;
+    }
+
+    /**
+     * Ends the current phase, if any, and starts the given one.
+     *
+     * @param phase The phase to start, or null to be in no phase until the next call.
+     * @return The phase that ended, so that a nested phase can resume it when it's over.
+     */
+    public Phase enterPhase(Phase phase) {
+        if (!isEnabled) {
+            return null;
+        }
+        long now = System.nanoTime();
+        Phase previousPhase = currentPhase;
+        if (previousPhase != null) {
+            frameNanos[previousPhase.ordinal()] += now - phaseStartNanos;
+        }
+        currentPhase = phase;
+        phaseStartNanos = now;
+        return previousPhase;
+    }
+
+    /**
+     * @return A copy of everything published so far.
+     */
+    public synchronized Snapshot snapshot() {
+        LatencyHistogram[] phaseHistogramsCopy = new LatencyHistogram[PHASES.length];
+        for (int i = 0; i < PHASES.length; i++) {
+            phaseHistogramsCopy[i] = phaseHistograms[i].copy();
+        }
+        return new Snapshot(phaseHistogramsCopy, frameHistogram.copy(), layerObjectCounts.clone());
+    }
+
+    private void publishFrame(GridIndexedGameObjectCollection gameObjectCollection) {
+        for (int i = 0; i < LAYERS.length; i++) {
+            frameLayerObjectCounts[i] = gameObjectCollection.getNumObjectsInLayer(LAYERS[i]);
+        }
+        synchronized (this) {
+            long totalNanos = 0;
+            for (int i = 0; i < PHASES.length; i++) {
+                phaseHistograms[i].record(frameNanos[i]);
+                totalNanos += frameNanos[i];
+                frameNanos[i] = 0;
+            }
+            frameHistogram.record(totalNanos);
+            System.arraycopy(frameLayerObjectCounts, 0, layerObjectCounts, 0, LAYERS.length);
+        }
+    }
+
+    /**
+     * The histograms and object counts of the frames published up to some point.
+     */
+    public static class Snapshot {
+        private final LatencyHistogram[] phaseHistograms;
+        private final LatencyHistogram frameHistogram;
+        private final int[] layerObjectCounts;
+
+        private Snapshot(LatencyHistogram[] phaseHistograms, LatencyHistogram frameHistogram,
+                         int[] layerObjectCounts) {
+            this.phaseHistograms = phaseHistograms;
+            this.frameHistogram = frameHistogram;
+            this.layerObjectCounts = layerObjectCounts;
+        }
+
+        public LatencyHistogram getPhaseHistogram(Phase phase) {
+            return phaseHistograms[phase.ordinal()];
+        }
+
+        /**
+         * @return The histogram of the frames' total time, over all of their phases.
+         */
+        public LatencyHistogram getFrameHistogram() {
+            return frameHistogram;
+        }
+
+        public static int getNumLayers() {
+            return LAYERS.length;
+        }
+
+        public static String getLayerName(int layer) {
+            return LAYER_NAMES[layer];
+        }
+
+        /**
+         * @param layer An index between 0 and getNumLayers(), not a Layer constant.
+         * @return The number of objects in the layer at the end of the last published frame.
+         */
+        public int getLayerObjectCount(int layer) {
+            return layerObjectCounts[layer];
+        }
+
+        public long getNumFrames() {
+            return frameHistogram.getCount();
+        }
+    }
+
+}
@@ -0,0 +1,114 @@
+package profiling;
+
+import java.util.Arrays;
+
+/**
+ * A histogram of durations in nanoseconds with fixed, log-linear buckets: every power of two is split into
+ * eight buckets of equal width, so a recorded value costs a couple of bit operations and an increment, and
+ * quantiles are accurate to within an eighth of the value. Not thread-safe.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // values below this have a bucket of their own
+    private static final int NUM_EXACT_BUCKETS = 2 * SUB_BUCKETS;
+    private static final int FIRST_SPLIT_EXPONENT = SUB_BUCKET_BITS + 1;
+    private static final int NUM_BUCKETS = NUM_EXACT_BUCKETS + (Long.SIZE - 1 - FIRST_SPLIT_EXPONENT) * SUB_BUCKETS;
+
+    private final long[] counts;
+    private long count;
+    private long sum;
+    private long max;
+
+    public LatencyHistogram() {
+        this.counts = new long[NUM_BUCKETS];
+    }
+
+    private LatencyHistogram(LatencyHistogram histogram) {
+        this.counts = histogram.counts.clone();
+        this.count = histogram.count;
+        this.sum = histogram.sum;
+        this.max = histogram.max;
+    }
+
+    /**
+     * @param nanos A duration in nanoseconds; negative ones are recorded as 0.
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        counts[bucketOf(value)]++;
+        count++;
+        sum += value;
+        max = Math.max(max, value);
+    }
+
+    /**
+     * @param quantile A number between 0 and 1, e.g. 0.99 for the 99th percentile.
+     * @return The largest value of the bucket the quantile falls in, but no more than the largest value
+     * recorded, or 0 if nothing was recorded.
+     */
+    public long getValueAtQuantile(double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max((long) Math.ceil(quantile * count), 1);
+        long seen = 0;
+        for (int bucket = 0; bucket < NUM_BUCKETS; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) {
+                return Math.min(bucketMaxValue(bucket), max);
+            }
+        }
+        return max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return The sum of the recorded values, in nanoseconds.
+     */
+    public long getSum() {
+        return sum;
+    }
+
+    /**
+     * @return The largest recorded value, in nanoseconds.
+     */
+    public long getMax() {
+        return max;
+    }
+
+    public LatencyHistogram copy() {
+        return new LatencyHistogram(this);
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        sum = 0;
+        max = 0;
+    }
+
+    private static int bucketOf(long value) {
+        if (value < NUM_EXACT_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return NUM_EXACT_BUCKETS + (exponent - FIRST_SPLIT_EXPONENT) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long bucketMaxValue(int bucket) {
+        if (bucket < NUM_EXACT_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket - NUM_EXACT_BUCKETS) / SUB_BUCKETS + FIRST_SPLIT_EXPONENT;
+        int subBucket = (bucket - NUM_EXACT_BUCKETS) % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return ((SUB_BUCKETS + subBucket) * width) + width - 1;
+    }
+
+}
@@ -0,0 +1,214 @@
+package profiling;
+
+import audio.AudioMixer;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exports the histograms of a FrameProfiler, along with the counts of plays an AudioMixer started and
+ * dropped: over HTTP in the Prometheus text format, on the loopback interface only, and as rows appended
+ * to a CSV file every given period. Both run on threads of their own, which only take snapshots of the
+ * profiler and read the mixer's counts, so the game thread never waits for them.
+ */
+public class MetricsExporter implements Closeable {
+
+    private static final String METRICS_PATH = "/metrics";
+    private static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+    private static final String[] QUANTILE_NAMES = {"p50", "p99", "p999"};
+    private static final String FRAME_PHASE_NAME = "frame";
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final double NANOS_PER_MICROSECOND = 1e3;
+
+    private final FrameProfiler frameProfiler;
+    private final AudioMixer audioMixer;
+    private HttpServer httpServer;
+    private ScheduledExecutorService csvScheduler;
+    private BufferedWriter csvWriter;
+
+    public MetricsExporter(FrameProfiler frameProfiler, AudioMixer audioMixer) {
+        this.frameProfiler = frameProfiler;
+        this.audioMixer = audioMixer;
+    }
+
+    /**
+     * Serves the metrics at http://localhost:port/metrics until the exporter is closed.
+     *
+     * @throws IOException If the port can't be bound.
+     */
+    public void startHttpServer(int port) throws IOException {
+        httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        httpServer.createContext(METRICS_PATH, exchange -> {
+            byte[] body = toPrometheusText().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", PROMETHEUS_CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(body);
+            }
+        });
+        httpServer.start();
+    }
+
+    /**
+     * Writes a header to the given file, replacing its contents, and then appends a row of quantiles, in
+     * microseconds, object counts and play counts every period until the exporter is closed, and once more
+     * on closing.
+     *
+     * @throws IOException If the file can't be written.
+     */
+    public void startCsvDump(Path path, long periodMillis) throws IOException {
+        csvWriter = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+        csvWriter.write(toCsvHeader());
+        csvWriter.newLine();
+        csvWriter.flush();
+        csvScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-csv");
+            thread.setDaemon(true);
+            return thread;
+        });
+        csvScheduler.scheduleAtFixedRate(this::writeCsvRow, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return The current metrics, in the Prometheus text exposition format.
+     */
+    public String toPrometheusText() {
+        FrameProfiler.Snapshot snapshot = frameProfiler.snapshot();
+        StringBuilder text = new StringBuilder();
+        text.append("# HELP bricker_phase_seconds Time spent in a phase of a frame, or in the whole frame.\n");
+        text.append("# TYPE bricker_phase_seconds summary\n");
+        for (FrameProfiler.Phase phase : FrameProfiler.Phase.values()) {
+            appendSummary(text, phase.getMetricName(), snapshot.getPhaseHistogram(phase));
+        }
+        appendSummary(text, FRAME_PHASE_NAME, snapshot.getFrameHistogram());
+        text.append("# HELP bricker_phase_max_seconds Longest time spent in a phase of a frame.\n");
+        text.append("# TYPE bricker_phase_max_seconds gauge\n");
+        for (FrameProfiler.Phase phase : FrameProfiler.Phase.values()) {
+            appendMax(text, phase.getMetricName(), snapshot.getPhaseHistogram(phase));
+        }
+        appendMax(text, FRAME_PHASE_NAME, snapshot.getFrameHistogram());
+        text.append("# HELP bricker_layer_objects Objects in a layer at the end of the last frame.\n");
+        text.append("# TYPE bricker_layer_objects gauge\n");
+        for (int layer = 0; layer < FrameProfiler.Snapshot.getNumLayers(); layer++) {
+            text.append(String.format(Locale.ROOT, "bricker_layer_objects{layer=\"%s\"} %d\n",
+                    FrameProfiler.Snapshot.getLayerName(layer), snapshot.getLayerObjectCount(layer)));
+        }
+        text.append("# HELP bricker_audio_plays_total Plays of sounds asked for, by what the mixer did with them.\n");
+        text.append("# TYPE bricker_audio_plays_total counter\n");
+        appendPlays(text, "started", audioMixer.getNumStarted());
+        appendPlays(text, "merged", audioMixer.getNumMerged());
+        appendPlays(text, "rate_limited", audioMixer.getNumRateLimited());
+        text.append("# HELP bricker_audio_voices_stolen_total Plays cut short by a play that took their voice.\n");
+        text.append("# TYPE bricker_audio_voices_stolen_total counter\n");
+        text.append("bricker_audio_voices_stolen_total ").append(audioMixer.getNumStolen()).append('\n');
+        return text.toString();
+    }
+
+    /**
+     * Stops serving and dumping, after appending a last row to the CSV file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (httpServer != null) {
+            httpServer.stop(0);
+            httpServer = null;
+        }
+        if (csvScheduler != null) {
+            csvScheduler.shutdown();
+            try {
+                csvScheduler.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            csvScheduler = null;
+            writeCsvRow();
+            csvWriter.close();
+            csvWriter = null;
+        }
+    }
+
+    private static void appendSummary(StringBuilder text, String phaseName, LatencyHistogram histogram) {
+        for (double quantile : QUANTILES) {
+            text.append(String.format(Locale.ROOT, "bricker_phase_seconds{phase=\"%s\",quantile=\"%s\"} %.9f\n",
+                    phaseName, quantile, histogram.getValueAtQuantile(quantile) / NANOS_PER_SECOND));
+        }
+        text.append(String.format(Locale.ROOT, "bricker_phase_seconds_sum{phase=\"%s\"} %.9f\n", phaseName,
+                histogram.getSum() / NANOS_PER_SECOND));
+        text.append(String.format(Locale.ROOT, "bricker_phase_seconds_count{phase=\"%s\"} %d\n", phaseName,
+                histogram.getCount()));
+    }
+
+    private static void appendPlays(StringBuilder text, String outcome, long numPlays) {
+        text.append(String.format(Locale.ROOT, "bricker_audio_plays_total{outcome=\"%s\"} %d\n", outcome, numPlays));
+    }
+
+    private static void appendMax(StringBuilder text, String phaseName, LatencyHistogram histogram) {
+        text.append(String.format(Locale.ROOT, "bricker_phase_max_seconds{phase=\"%s\"} %.9f\n", phaseName,
+                histogram.getMax() / NANOS_PER_SECOND));
+    }
+
+    private static String toCsvHeader() {
+        StringBuilder header = new StringBuilder("time_millis,frames");
+        for (FrameProfiler.Phase phase : FrameProfiler.Phase.values()) {
+            appendCsvHeader(header, phase.getMetricName());
+        }
+        appendCsvHeader(header, FRAME_PHASE_NAME);
+        for (int layer = 0; layer < FrameProfiler.Snapshot.getNumLayers(); layer++) {
+            header.append(',').append(FrameProfiler.Snapshot.getLayerName(layer)).append("_objects");
+        }
+        header.append(",audio_started,audio_merged,audio_rate_limited,audio_stolen");
+        return header.toString();
+    }
+
+    private static void appendCsvHeader(StringBuilder header, String phaseName) {
+        for (String quantileName : QUANTILE_NAMES) {
+            header.append(',').append(phaseName).append('_').append(quantileName).append("_micros");
+        }
+        header.append(',').append(phaseName).append("_max_micros");
+    }
+
+    private void writeCsvRow() {
+        FrameProfiler.Snapshot snapshot = frameProfiler.snapshot();
+        StringBuilder row = new StringBuilder();
+        row.append(System.currentTimeMillis()).append(',').append(snapshot.getNumFrames());
+        for (FrameProfiler.Phase phase : FrameProfiler.Phase.values()) {
+            appendCsvValues(row, snapshot.getPhaseHistogram(phase));
+        }
+        appendCsvValues(row, snapshot.getFrameHistogram());
+        for (int layer = 0; layer < FrameProfiler.Snapshot.getNumLayers(); layer++) {
+            row.append(',').append(snapshot.getLayerObjectCount(layer));
+        }
+        row.append(',').append(audioMixer.getNumStarted()).append(',').append(audioMixer.getNumMerged())
+                .append(',').append(audioMixer.getNumRateLimited()).append(',').append(audioMixer.getNumStolen());
+        try {
+            csvWriter.write(row.toString());
+            csvWriter.newLine();
+            csvWriter.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void appendCsvValues(StringBuilder row, LatencyHistogram histogram) {
+        for (double quantile : QUANTILES) {
+            row.append(String.format(Locale.ROOT, ",%.1f",
+                    histogram.getValueAtQuantile(quantile) / NANOS_PER_MICROSECOND));
+        }
+        row.append(String.format(Locale.ROOT, ",%.1f", histogram.getMax() / NANOS_PER_MICROSECOND));
+    }
+
+}
@@ -0,0 +1,48 @@
+package randomness;
+
+import java.util.SplittableRandom;
+
+/**
+ * The single source of randomness of a game session. Every subsystem takes its own stream from it once,
+ * when it is created, and draws from that stream without allocating. Streams are split off a root
+ * generator seeded with the session's seed, so as long as the subsystems are created in the same order
+ * the seed alone determines the whole run, and sessions running in parallel never share state.
+ */
+public class RandomService {
+
+    private final long seed;
+    private final SplittableRandom root;
+
+    /**
+     * @param seed Determines every stream handed out by this service.
+     */
+    public RandomService(long seed) {
+        this.seed = seed;
+        this.root = new SplittableRandom(seed);
+    }
+
+    /**
+     * @return A seed that differs between invocations, for sessions that don't need to be reproduced.
+     */
+    public static long newSeed() {
+        return new SplittableRandom().nextLong();
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Splits a new stream off the service. The stream is statistically independent of the service and of
+     * every other stream split off it, and is meant to be used by a single subsystem on a single thread.
+     */
+    public SplittableRandom split() {
+        return root.split();
+    }
+
+    @Override
+    public String toString() {
+        return "seed=" + seed;
+    }
+
+}
@@ -0,0 +1,79 @@
+package randomness;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * A stream of random booleans that can be taken back to any earlier point, so that a game restored from a
+ * snapshot draws what it drew after the snapshot was captured. SplittableRandom keeps its state to itself,
+ * so the stream remembers every value it drew since it was given its generator instead, a bit each, and
+ * draws them again from memory until it is past the last one.
+ */
+public class RewindableRandom {
+
+    private static final int INITIAL_CAPACITY_WORDS = 16;
+
+    private SplittableRandom random;
+    private long[] drawnBits;
+    private int numDrawn;
+    private int position;
+
+    /**
+     * @param random The generator to draw from, which the stream takes over.
+     */
+    public RewindableRandom(SplittableRandom random) {
+        this.drawnBits = new long[INITIAL_CAPACITY_WORDS];
+        setRandom(random);
+    }
+
+    /**
+     * Starts the stream over, drawing from the given generator, and forgets what was drawn before.
+     */
+    public void setRandom(SplittableRandom random) {
+        this.random = random;
+        Arrays.fill(drawnBits, 0, Math.min(words(numDrawn), drawnBits.length), 0);
+        numDrawn = 0;
+        position = 0;
+    }
+
+    /**
+     * @return The value SplittableRandom.nextBoolean of the generator would return at this point.
+     */
+    public boolean nextBoolean() {
+        if (position == numDrawn) {
+            if (numDrawn == drawnBits.length * Long.SIZE) {
+                drawnBits = Arrays.copyOf(drawnBits, drawnBits.length * 2);
+            }
+            if (random.nextBoolean()) {
+                drawnBits[numDrawn >>> 6] |= 1L << numDrawn;
+            }
+            numDrawn++;
+        }
+        boolean value = (drawnBits[position >>> 6] & (1L << position)) != 0;
+        position++;
+        return value;
+    }
+
+    /**
+     * @return Where the stream is: the number of values it returned since it started over, less the ones
+     * it was taken back by.
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * Takes the stream back, or forward again, to where it was when getPosition returned the given value.
+     */
+    public void setPosition(int position) {
+        if (position < 0 || position > numDrawn) {
+            throw new IllegalArgumentException("Position " + position + " was never reached, only " + numDrawn);
+        }
+        this.position = position;
+    }
+
+    private static int words(int numBits) {
+        return (numBits + Long.SIZE - 1) / Long.SIZE;
+    }
+
+}
@@ -0,0 +1,262 @@
+package rendering;
+
+import collisions.GridIndexedGameObjectCollection;
+import danogl.GameObject;
+import danogl.gui.rendering.Camera;
+import danogl.util.Vector2;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An off-screen image of what rarely changes: the objects of Layer.STATIC_OBJECTS, a brick field if there
+ * is one, and the background when there is no camera. Every frame the image is drawn in one go, instead of
+ * every brick on its own, so drawing takes the same time however many bricks there are.
+ * <p>
+ * The image covers an area of the world around the view, at the camera's zoom. Moving the view within the
+ * area only moves where the image is drawn. When the view leaves the area, or the zoom changes, the image
+ * is drawn again from scratch. When a cached object is added or removed, only its rectangle is drawn
+ * again, before the next time the image is drawn. The objects drawn in a rectangle are looked up through the
+ * collection's grid, so drawing one takes the same time however many objects the layer has.
+ */
+public class StaticLayerCache {
+
+    // the area of the image reaches this far beyond the view on every side, in views, so that a camera
+    // that follows an object only has the image drawn again once in a while
+    private static final float VIEW_MARGIN = 0.5f;
+    // how far a changed rectangle is grown, in pixels of the image, to cover antialiased edges
+    private static final int DIRTY_RECT_PADDING = 1;
+    private static final int VALUES_PER_RECT = 4;
+    private static final int INITIAL_DIRTY_RECTS_CAPACITY = 16;
+
+    private final GridIndexedGameObjectCollection gameObjectCollection;
+    private final GameObject background;
+    private final GameObject brickField;
+    private final Vector2 windowDimensions;
+    // the objects found around the rectangle being drawn
+    private final List<GameObject> objectsToDraw;
+    private BufferedImage image;
+    private boolean isValid;
+    private boolean hasBackground;
+    // the area of the world the image covers, and the scale it is drawn at
+    private float left;
+    private float top;
+    private float width;
+    private float height;
+    private float scaleX;
+    private float scaleY;
+    private Camera imageCamera;
+    // changed rectangles of the world that are yet to be drawn again, four values each
+    private float[] dirtyRects;
+    private int numDirtyRects;
+    private long numRebuilds;
+    private long numRedrawnRects;
+
+    /**
+     * @param gameObjectCollection The collection whose Layer.STATIC_OBJECTS is cached.
+     * @param background           The background, drawn in camera coordinates, which is only cached when
+     *                             there is no camera.
+     * @param brickField           An object of another layer that is cached as well, like a brick field, or
+     *                             null if there is none.
+     * @param windowDimensions     Dimensions of the window, which is the view when there is no camera.
+     */
+    public StaticLayerCache(GridIndexedGameObjectCollection gameObjectCollection, GameObject background,
+                            GameObject brickField, Vector2 windowDimensions) {
+        this.gameObjectCollection = gameObjectCollection;
+        this.background = background;
+        this.brickField = brickField;
+        this.windowDimensions = windowDimensions;
+        this.dirtyRects = new float[INITIAL_DIRTY_RECTS_CAPACITY * VALUES_PER_RECT];
+        this.objectsToDraw = new ArrayList<>();
+    }
+
+    /**
+     * @return true if the object is drawn by the cache rather than by itself.
+     */
+    public boolean isCached(GameObject gameObject) {
+        return gameObject == brickField || (gameObject == background && hasBackground);
+    }
+
+    /**
+     * Has the rectangle of the given object drawn again before the image is next drawn, e.g. because the
+     * object was just added or removed. Objects that draw nothing change nothing.
+     */
+    public void markDirty(GameObject gameObject) {
+        if (!isValid || gameObject.renderer().getRenderable() == null) {
+            return;
+        }
+        markDirty(gameObject.getTopLeftCorner(), gameObject.getDimensions());
+    }
+
+    /**
+     * Has the given rectangle of the world drawn again before the image is next drawn.
+     */
+    public void markDirty(Vector2 topLeftCorner, Vector2 dimensions) {
+        if (!isValid) {
+            return;
+        }
+        if ((numDirtyRects + 1) * VALUES_PER_RECT > dirtyRects.length) {
+            dirtyRects = Arrays.copyOf(dirtyRects, dirtyRects.length * 2);
+        }
+        int offset = numDirtyRects * VALUES_PER_RECT;
+        dirtyRects[offset] = topLeftCorner.x();
+        dirtyRects[offset + 1] = topLeftCorner.y();
+        dirtyRects[offset + 2] = topLeftCorner.x() + dimensions.x();
+        dirtyRects[offset + 3] = topLeftCorner.y() + dimensions.y();
+        numDirtyRects++;
+    }
+
+    /**
+     * Has the whole image drawn again before it is next drawn.
+     */
+    public void invalidate() {
+        isValid = false;
+        numDirtyRects = 0;
+    }
+
+    /**
+     * Draws the cached objects as seen through the given camera: the background first, if it isn't cached,
+     * and then the image, after bringing it up to date.
+     *
+     * @param camera The camera the game is rendered through, or null to render in window coordinates.
+     */
+    public void render(Graphics2D g, Camera camera) {
+        float viewLeft = 0;
+        float viewTop = 0;
+        float viewWidth = windowDimensions.x();
+        float viewHeight = windowDimensions.y();
+        if (camera != null) {
+            viewLeft = camera.getTopLeftCorner().x();
+            viewTop = camera.getTopLeftCorner().y();
+            viewWidth = camera.getDimensions().x();
+            viewHeight = camera.getDimensions().y();
+        }
+        float viewScaleX = camera != null ? camera.windowDimensions().x() / viewWidth : 1;
+        float viewScaleY = camera != null ? camera.windowDimensions().y() / viewHeight : 1;
+        boolean isBackgroundCached = camera == null;
+        if (!isValid || isBackgroundCached != hasBackground || viewScaleX != scaleX || viewScaleY != scaleY ||
+                viewLeft < left || viewTop < top || viewLeft + viewWidth > left + width ||
+                viewTop + viewHeight > top + height) {
+            // without a camera the view never moves, so the image covers exactly the window
+            float margin = isBackgroundCached ? 0 : VIEW_MARGIN;
+            rebuild(g, viewLeft - viewWidth * margin, viewTop - viewHeight * margin,
+                    viewWidth * (1 + 2 * margin), viewHeight * (1 + 2 * margin), viewScaleX, viewScaleY,
+                    isBackgroundCached);
+        } else if (numDirtyRects > 0) {
+            redrawDirtyRects();
+        }
+        if (!hasBackground && background != null) {
+            background.render(g, camera);
+        }
+        g.drawImage(image, Math.round((left - viewLeft) * scaleX), Math.round((top - viewTop) * scaleY), null);
+    }
+
+    /**
+     * @return The number of times the whole image was drawn.
+     */
+    public long getNumRebuilds() {
+        return numRebuilds;
+    }
+
+    /**
+     * @return The number of changed rectangles drawn again since the image was created.
+     */
+    public long getNumRedrawnRects() {
+        return numRedrawnRects;
+    }
+
+    private void rebuild(Graphics2D g, float newLeft, float newTop, float newWidth, float newHeight,
+                         float newScaleX, float newScaleY, boolean isBackgroundCached) {
+        left = newLeft;
+        top = newTop;
+        width = newWidth;
+        height = newHeight;
+        scaleX = newScaleX;
+        scaleY = newScaleY;
+        hasBackground = isBackgroundCached;
+        int imageWidth = Math.max((int) Math.ceil(width * scaleX), 1);
+        int imageHeight = Math.max((int) Math.ceil(height * scaleY), 1);
+        if (image == null || image.getWidth() != imageWidth || image.getHeight() != imageHeight) {
+            image = g.getDeviceConfiguration().createCompatibleImage(imageWidth, imageHeight,
+                    Transparency.TRANSLUCENT);
+        }
+        // maps the world onto the image the way the camera maps it onto the window
+        imageCamera = new Camera(new Vector2(left, top), new Vector2(width, height),
+                new Vector2(width * scaleX, height * scaleY));
+        Graphics2D imageGraphics = image.createGraphics();
+        try {
+            imageGraphics.setRenderingHints(g.getRenderingHints());
+            draw(imageGraphics, 0, 0, imageWidth, imageHeight);
+        } finally {
+            imageGraphics.dispose();
+        }
+        isValid = true;
+        numDirtyRects = 0;
+        numRebuilds++;
+    }
+
+    private void redrawDirtyRects() {
+        Graphics2D imageGraphics = image.createGraphics();
+        try {
+            for (int i = 0; i < numDirtyRects; i++) {
+                int offset = i * VALUES_PER_RECT;
+                int x0 = (int) Math.floor((dirtyRects[offset] - left) * scaleX) - DIRTY_RECT_PADDING;
+                int y0 = (int) Math.floor((dirtyRects[offset + 1] - top) * scaleY) - DIRTY_RECT_PADDING;
+                int x1 = (int) Math.ceil((dirtyRects[offset + 2] - left) * scaleX) + DIRTY_RECT_PADDING;
+                int y1 = (int) Math.ceil((dirtyRects[offset + 3] - top) * scaleY) + DIRTY_RECT_PADDING;
+                x0 = Math.max(x0, 0);
+                y0 = Math.max(y0, 0);
+                x1 = Math.min(x1, image.getWidth());
+                y1 = Math.min(y1, image.getHeight());
+                // rectangles outside of the image change nothing in it
+                if (x0 < x1 && y0 < y1) {
+                    draw(imageGraphics, x0, y0, x1 - x0, y1 - y0);
+                    numRedrawnRects++;
+                }
+            }
+        } finally {
+            imageGraphics.dispose();
+        }
+        numDirtyRects = 0;
+    }
+
+    /*
+     * Clears the given rectangle of the image, in pixels, and draws the cached objects that overlap it.
+     */
+    private void draw(Graphics2D imageGraphics, int x, int y, int rectWidth, int rectHeight) {
+        imageGraphics.setClip(x, y, rectWidth, rectHeight);
+        imageGraphics.setComposite(AlphaComposite.Clear);
+        imageGraphics.fillRect(x, y, rectWidth, rectHeight);
+        imageGraphics.setComposite(AlphaComposite.SrcOver);
+        if (hasBackground && background != null) {
+            // without a camera, camera coordinates are window coordinates, which are the image's
+            background.render(imageGraphics, null);
+        }
+        if (brickField != null) {
+            brickField.render(imageGraphics, imageCamera);
+        }
+        float rectLeft = left + x / scaleX;
+        float rectTop = top + y / scaleY;
+        float rectRight = left + (x + rectWidth) / scaleX;
+        float rectBottom = top + (y + rectHeight) / scaleY;
+        objectsToDraw.clear();
+        gameObjectCollection.findStaticObjects(rectLeft, rectTop, rectRight, rectBottom, objectsToDraw);
+        for (int i = 0; i < objectsToDraw.size(); i++) {
+            GameObject gameObject = objectsToDraw.get(i);
+            Vector2 topLeftCorner = gameObject.getTopLeftCorner();
+            Vector2 dimensions = gameObject.getDimensions();
+            if (topLeftCorner.x() <= rectRight && topLeftCorner.x() + dimensions.x() >= rectLeft &&
+                    topLeftCorner.y() <= rectBottom && topLeftCorner.y() + dimensions.y() >= rectTop) {
+                gameObject.render(imageGraphics, imageCamera);
+            }
+        }
+        // the objects are only held on to while they are drawn
+        objectsToDraw.clear();
+    }
+
+}
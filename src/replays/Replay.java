@@ -0,0 +1,249 @@
+package replays;
+
+import danogl.util.Vector2;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * A session recorded by a ReplayWriter, loaded for playback: the settings the session was played with, the
+ * input of every step, and the events between steps that playback follows or checks itself against.
+ * <p>
+ * Steps are counted from 1, across the games of the session, including the ones a rewind or a quick load
+ * went back on: every step simulated is in the replay once, with what was held during it.
+ */
+public class Replay {
+
+    static final int MAGIC = 0x42524B52;
+    // 2: swept balls go on with the rest of their step past a contact, so version 1 replays play out otherwise
+    static final byte VERSION = 2;
+    /*
+     * The records that follow the header start with a tag byte, whose top two bits tell the kind of record:
+     * a run of steps with the same input, which is in the tag's other bits, followed by the run's length;
+     * a restore, followed by the step whose state the game went back to; or a checksum of the state the
+     * game was in after the last step, as a long. Lengths and steps are varints, 7 bits a byte, low first.
+     */
+    static final int INPUT_RUN_TAG = 0;
+    static final int RESTORE_TAG = 0x40;
+    static final int CHECKSUM_TAG = 0x80;
+    static final int TAG_KIND_MASK = 0xC0;
+    static final int MAX_INPUT = ~TAG_KIND_MASK & 0xFF;
+
+    private static final int INITIAL_RECORDS_CAPACITY = 64;
+
+    private final long seed;
+    private final int stepsPerSecond;
+    private final Vector2 windowDimensions;
+    private final int numBricksRows;
+    private final int numBricksCols;
+    private final String levelPath;
+    // the step every run of inputs ends at, inclusive, in order
+    private long[] runEnds = new long[INITIAL_RECORDS_CAPACITY];
+    private byte[] runInputs = new byte[INITIAL_RECORDS_CAPACITY];
+    private int numRuns;
+    private long[] restoreSteps = new long[INITIAL_RECORDS_CAPACITY];
+    private long[] restoredSteps = new long[INITIAL_RECORDS_CAPACITY];
+    private int numRestores;
+    private long[] checksumSteps = new long[INITIAL_RECORDS_CAPACITY];
+    private long[] checksums = new long[INITIAL_RECORDS_CAPACITY];
+    private int numChecksums;
+    private long numSteps;
+
+    private Replay(long seed, int stepsPerSecond, Vector2 windowDimensions, int numBricksRows,
+                   int numBricksCols, String levelPath) {
+        this.seed = seed;
+        this.stepsPerSecond = stepsPerSecond;
+        this.windowDimensions = windowDimensions;
+        this.numBricksRows = numBricksRows;
+        this.numBricksCols = numBricksCols;
+        this.levelPath = levelPath;
+    }
+
+    /**
+     * Reads a replay file. A file cut short, e.g. by a crash of the game it was recorded in, loads up to its
+     * last whole record.
+     *
+     * @throws IOException If the file can't be read, or isn't a replay of this version.
+     */
+    public static Replay load(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        Replay replay;
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException(path + " is not a replay");
+            }
+            byte version = buffer.get();
+            if (version != VERSION) {
+                throw new IOException(path + " is a replay of version " + version + ", not " + VERSION);
+            }
+            long seed = buffer.getLong();
+            int stepsPerSecond = buffer.getInt();
+            float windowWidth = buffer.getFloat();
+            Vector2 windowDimensions = new Vector2(windowWidth, buffer.getFloat());
+            int numBricksRows = buffer.getInt();
+            int numBricksCols = buffer.getInt();
+            byte[] levelPath = new byte[Short.toUnsignedInt(buffer.getShort())];
+            buffer.get(levelPath);
+            replay = new Replay(seed, stepsPerSecond, windowDimensions, numBricksRows, numBricksCols,
+                    levelPath.length > 0 ? new String(levelPath, StandardCharsets.UTF_8) : null);
+        } catch (BufferUnderflowException e) {
+            throw new IOException(path + " is too short to be a replay");
+        }
+        try {
+            while (buffer.hasRemaining()) {
+                replay.readRecord(buffer);
+            }
+        } catch (BufferUnderflowException e) {
+            // the last record was cut short
+        }
+        return replay;
+    }
+
+    /**
+     * @return The seed of the session's RandomService.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getStepsPerSecond() {
+        return stepsPerSecond;
+    }
+
+    public Vector2 getWindowDimensions() {
+        return windowDimensions;
+    }
+
+    public int getNumBricksRows() {
+        return numBricksRows;
+    }
+
+    public int getNumBricksCols() {
+        return numBricksCols;
+    }
+
+    /**
+     * @return The path of the level file the session played, as it was given, or null for the grid.
+     */
+    public String getLevelPath() {
+        return levelPath;
+    }
+
+    public long getNumSteps() {
+        return numSteps;
+    }
+
+    public int getNumChecksums() {
+        return numChecksums;
+    }
+
+    /**
+     * @return The input of the given step, as PlayerInputListener encodes it. Takes a binary search over the
+     * runs of inputs.
+     */
+    public int getInput(long step) {
+        if (step < 1 || step > numSteps) {
+            throw new IllegalArgumentException("The replay has steps 1 to " + numSteps + ", not " + step);
+        }
+        int run = Arrays.binarySearch(runEnds, 0, numRuns, step);
+        return runInputs[run >= 0 ? run : -run - 1];
+    }
+
+    /**
+     * @return The step whose state the game went back to right after the given step, by a rewind or a quick
+     * load, or -1 if it played on. Of several restores in a row, e.g. while the rewind key was held, only
+     * the last one counts, as it replaced the state the others went back to.
+     */
+    public long getRestoredStep(long afterStep) {
+        int restore = Arrays.binarySearch(restoreSteps, 0, numRestores, afterStep);
+        return restore >= 0 ? restoredSteps[restore] : -1;
+    }
+
+    public boolean hasChecksum(long afterStep) {
+        return Arrays.binarySearch(checksumSteps, 0, numChecksums, afterStep) >= 0;
+    }
+
+    /**
+     * @return The WorldSnapshot checksum of the state the game was in after the given step, which
+     * hasChecksum must be true for.
+     */
+    public long getChecksum(long afterStep) {
+        return checksums[Arrays.binarySearch(checksumSteps, 0, numChecksums, afterStep)];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d steps at %d per second, %d restores, %d checksums, seed %d", numSteps,
+                stepsPerSecond, numRestores, numChecksums, seed);
+    }
+
+    /*
+     * Reads a whole record before keeping any of it, so a record cut short leaves nothing behind.
+     */
+    private void readRecord(ByteBuffer buffer) throws IOException {
+        int tag = Byte.toUnsignedInt(buffer.get());
+        switch (tag & TAG_KIND_MASK) {
+            case INPUT_RUN_TAG:
+                long runLength = getVarLong(buffer);
+                if (numRuns == runEnds.length) {
+                    runEnds = Arrays.copyOf(runEnds, numRuns * 2);
+                    runInputs = Arrays.copyOf(runInputs, numRuns * 2);
+                }
+                numSteps += runLength;
+                runEnds[numRuns] = numSteps;
+                runInputs[numRuns] = (byte) (tag & MAX_INPUT);
+                numRuns++;
+                break;
+            case RESTORE_TAG:
+                long restoredStep = getVarLong(buffer);
+                if (numRestores > 0 && restoreSteps[numRestores - 1] == numSteps) {
+                    numRestores--;
+                }
+                if (numRestores == restoreSteps.length) {
+                    restoreSteps = Arrays.copyOf(restoreSteps, numRestores * 2);
+                    restoredSteps = Arrays.copyOf(restoredSteps, numRestores * 2);
+                }
+                restoreSteps[numRestores] = numSteps;
+                restoredSteps[numRestores] = restoredStep;
+                numRestores++;
+                break;
+            case CHECKSUM_TAG:
+                long checksum = buffer.getLong();
+                if (numChecksums == checksumSteps.length) {
+                    checksumSteps = Arrays.copyOf(checksumSteps, numChecksums * 2);
+                    checksums = Arrays.copyOf(checksums, numChecksums * 2);
+                }
+                checksumSteps[numChecksums] = numSteps;
+                checksums[numChecksums] = checksum;
+                numChecksums++;
+                break;
+            default:
+                throw new IOException("Unknown replay record " + tag);
+        }
+    }
+
+    private static long getVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+}
@@ -0,0 +1,221 @@
+package replays;
+
+import collisions.GridIndexedGameObjectCollection;
+import danogl.GameManager;
+import headless.HeadlessGameRunner;
+import headless.ScriptedInputListener;
+import headless.SimulatedGame;
+import netplay.PlayerInputListener;
+import snapshots.Snapshottable;
+import snapshots.WorldSnapshot;
+
+import java.awt.event.KeyEvent;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Plays a Replay back without a window, as fast as the CPU allows: every tick simulates one step of the
+ * session with the input it had, and goes back to an earlier step wherever the session was rewound or
+ * quick loaded. Every checksum of the replay is compared to the game's own the first time its step is
+ * played, and the first that differs marks where playback diverged from the session.
+ * <p>
+ * The player captures a keyframe of the game every given number of steps, at the first step after that
+ * with no collisions in progress, which is all a snapshot can be restored at. Seeking to a step of the
+ * current game restores the keyframe before it and plays the steps in between, and seeking back to an
+ * earlier game starts the session over, so a seek takes at most a keyframe interval of steps within a
+ * game. Restores of the session seek the same way.
+ *
+ * @param <G> The game, which must step once per tick of 1 / stepsPerSecond seconds, and have no other
+ *            input than the paddle's keys.
+ */
+public class ReplayPlayer<G extends GameManager & SimulatedGame & Snapshottable> {
+
+    private static final double NANOS_IN_SECOND = 1e9;
+
+    private final Supplier<G> gameFactory;
+    private final Replay replay;
+    private final int keyframeInterval;
+    private final float stepTime;
+    // the keyframes of the current game, by the step they were captured after
+    private final TreeMap<Long, WorldSnapshot> keyframes = new TreeMap<>();
+    private final WorldSnapshot checksumSnapshot = new WorldSnapshot();
+    private G game;
+    private HeadlessGameRunner runner;
+    private long step;
+    private int numGamesStarted;
+    // the steps up to this one were played at least once, and their checksums compared
+    private long numPlayedSteps;
+    private int numVerifiedChecksums;
+    private long divergedStep = -1;
+
+    /**
+     * Starts the session's first game.
+     *
+     * @param gameFactory      Creates the game as the session's was created: with a RandomService seeded
+     *                         with the replay's seed, the replay's brick grid or level, and its simulation
+     *                         rate. Called again whenever a seek goes back to an earlier game.
+     * @param keyframeInterval The number of steps between keyframes.
+     */
+    public ReplayPlayer(Supplier<G> gameFactory, Replay replay, int keyframeInterval) {
+        if (keyframeInterval <= 0) {
+            throw new IllegalArgumentException("Keyframes must be at least a step apart");
+        }
+        this.gameFactory = gameFactory;
+        this.replay = replay;
+        this.keyframeInterval = keyframeInterval;
+        this.stepTime = 1f / replay.getStepsPerSecond();
+        startSession();
+    }
+
+    /**
+     * Plays on up to the given step, or the replay's last one, or seeks back to it if it was played already.
+     *
+     * @return The playback speed, in steps per second of wall-clock time.
+     */
+    public double play(long toStep) {
+        long startStep = step;
+        long startTime = System.nanoTime();
+        toStep = Math.min(toStep, replay.getNumSteps());
+        if (toStep < step) {
+            seek(toStep);
+        } else {
+            playTo(toStep);
+        }
+        long elapsedNanos = Math.max(System.nanoTime() - startTime, 1);
+        return Math.abs(step - startStep) * NANOS_IN_SECOND / elapsedNanos;
+    }
+
+    /**
+     * Puts the game in the state it was in after the given step, before whatever restore came right after
+     * it, from the nearest keyframe before it.
+     */
+    public void seek(long toStep) {
+        if (toStep < 0 || toStep > replay.getNumSteps()) {
+            throw new IllegalArgumentException("The replay has steps 0 to " + replay.getNumSteps() + ", not " +
+                    toStep);
+        }
+        if (toStep >= step) {
+            playTo(toStep);
+            return;
+        }
+        Map.Entry<Long, WorldSnapshot> keyframe = keyframes.floorEntry(toStep);
+        if (keyframe == null) {
+            // the step is of an earlier game, or before the current one's first keyframe
+            startSession();
+            playTo(toStep);
+            return;
+        }
+        game.restoreSnapshot(keyframe.getValue());
+        step = keyframe.getKey();
+        playTo(toStep);
+    }
+
+    public G getGame() {
+        return game;
+    }
+
+    /**
+     * @return The step the game is at, the number of steps played since the start of the session.
+     */
+    public long getStep() {
+        return step;
+    }
+
+    /**
+     * @return The number of games started since the start of the session, including the current one.
+     */
+    public int getNumGamesStarted() {
+        return numGamesStarted;
+    }
+
+    public int getNumVerifiedChecksums() {
+        return numVerifiedChecksums;
+    }
+
+    /**
+     * @return The first step after which the game's checksum differed from the replay's, or -1 while none
+     * did.
+     */
+    public long getDivergedStep() {
+        return divergedStep;
+    }
+
+    private void startSession() {
+        game = gameFactory.get();
+        runner = new HeadlessGameRunner(game, replay.getWindowDimensions(), stepTime);
+        runner.initializeGame();
+        keyframes.clear();
+        step = 0;
+        numGamesStarted = 1;
+    }
+
+    /*
+     * Plays from the current step on, restores included, up to the state after the given step.
+     */
+    private void playTo(long toStep) {
+        while (step < toStep) {
+            long restoredStep = replay.getRestoredStep(step);
+            if (restoredStep >= 0) {
+                long restoreStep = step;
+                seek(restoredStep);
+                // the steps that follow are the session's next ones, whichever state they start from
+                step = restoreStep;
+            }
+            playStep();
+        }
+    }
+
+    private void playStep() {
+        step++;
+        int input = replay.getInput(step);
+        ScriptedInputListener inputListener = runner.getInputListener();
+        inputListener.onFrameStart(step);
+        inputListener.releaseAllKeys();
+        if ((input & PlayerInputListener.LEFT) != 0) {
+            inputListener.pressKey(KeyEvent.VK_LEFT);
+        }
+        if ((input & PlayerInputListener.RIGHT) != 0) {
+            inputListener.pressKey(KeyEvent.VK_RIGHT);
+        }
+        game.update(stepTime);
+        // the game's end is checked before the next game starts, which is what the session's checksum saw
+        boolean isGameOver = runner.getWindowController().consumeResetRequest();
+        if (step > numPlayedSteps) {
+            verifyChecksum();
+            numPlayedSteps = step;
+        }
+        if (isGameOver) {
+            runner.initializeGame();
+            keyframes.clear();
+            numGamesStarted++;
+        } else {
+            captureKeyframe();
+        }
+    }
+
+    private void verifyChecksum() {
+        if (!replay.hasChecksum(step)) {
+            return;
+        }
+        game.captureSnapshot(checksumSnapshot);
+        if (checksumSnapshot.getChecksum() == replay.getChecksum(step)) {
+            numVerifiedChecksums++;
+        } else if (divergedStep < 0) {
+            divergedStep = step;
+        }
+    }
+
+    private void captureKeyframe() {
+        Long previousKeyframeStep = keyframes.floorKey(step);
+        if ((previousKeyframeStep != null && step - previousKeyframeStep < keyframeInterval) ||
+                ((GridIndexedGameObjectCollection) game.getGameObjectCollection())
+                        .getNumCollisionsInProgress() > 0) {
+            return;
+        }
+        WorldSnapshot keyframe = new WorldSnapshot();
+        game.captureSnapshot(keyframe);
+        keyframes.put(step, keyframe);
+    }
+
+}
@@ -0,0 +1,71 @@
+package replays;
+
+import danogl.gui.UserInputListener;
+import netplay.PlayerInputListener;
+import snapshots.Snapshottable;
+import snapshots.WorldSnapshot;
+
+/**
+ * Records a game into a ReplayWriter as it's played: the first player's keys at the start of every step,
+ * which the game's paddle is steered by rather than by the keyboard itself, so that the paddle moves the
+ * same when the replay is played back, every rewind and quick load, and checksums of the game's state.
+ */
+public class ReplayRecorder {
+
+    // a checksum every 10 seconds of a replay at 60 steps per second
+    private static final int CHECKSUM_INTERVAL = 600;
+
+    private final ReplayWriter replayWriter;
+    private final Snapshottable game;
+    private final PlayerInputListener inputListener = new PlayerInputListener();
+    private final WorldSnapshot checksumSnapshot = new WorldSnapshot();
+
+    public ReplayRecorder(ReplayWriter replayWriter, Snapshottable game) {
+        this.replayWriter = replayWriter;
+        this.game = game;
+    }
+
+    /**
+     * @return The listener the first player's paddle should be steered by, which holds the keys of the
+     * current step.
+     */
+    public UserInputListener getInputListener() {
+        return inputListener;
+    }
+
+    /**
+     * Should be called at the start of every step.
+     *
+     * @param keyboard The keys the player holds.
+     */
+    public void beginStep(UserInputListener keyboard) {
+        int input = PlayerInputListener.encode(keyboard);
+        inputListener.setInput(input);
+        replayWriter.recordStep(input);
+    }
+
+    /**
+     * @param sessionStep The step that just ended, counted from the start of the session.
+     * @return true if a checksum is due after the step, which is every CHECKSUM_INTERVAL steps.
+     */
+    public boolean isChecksumDue(long sessionStep) {
+        return sessionStep % CHECKSUM_INTERVAL == 0;
+    }
+
+    /**
+     * Records the checksum of the game's state after the last step, which is due now and then and at the
+     * end of every game.
+     */
+    public void recordChecksum() {
+        game.captureSnapshot(checksumSnapshot);
+        replayWriter.recordChecksum(checksumSnapshot.getChecksum());
+    }
+
+    /**
+     * Should be called whenever the game is restored from a snapshot.
+     */
+    public void recordRestore(WorldSnapshot snapshot) {
+        replayWriter.recordRestore(snapshot.getSessionStep());
+    }
+
+}
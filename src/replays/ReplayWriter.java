@@ -0,0 +1,222 @@
+package replays;
+
+import danogl.util.Vector2;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records a session as its seed and settings, and the input of every step, which is all a game needs to be
+ * played again exactly as it was, along with the rewinds and quick loads, and checksums of the state now and
+ * then for playback to check itself against. Inputs are run-length encoded, as a key is held for many steps
+ * at a time, so a minute of play takes a few hundred bytes.
+ * <p>
+ * The game thread only ever writes records into a buffer in memory. Full buffers, and the one a checksum
+ * ends, are handed to a thread of the writer's own that writes them to the file, and the game goes on with
+ * a free buffer, or a new one if the file is behind, so it never waits for the disk.
+ * <p>
+ * The methods are synchronized, so the writer may be closed from another thread, e.g. a shutdown hook, and
+ * records that come after that are dropped.
+ */
+public class ReplayWriter implements Closeable {
+
+    private static final int BUFFER_BYTES = 4096;
+    // a tag and a varint of a long
+    private static final int MAX_RECORD_BYTES = 1 + 10;
+    private static final long CLOSE_TIMEOUT_SECONDS = 10;
+
+    private final FileChannel channel;
+    private final ExecutorService fileWriter;
+    private final Queue<ByteBuffer> freeBuffers = new ConcurrentLinkedQueue<>();
+    private ByteBuffer buffer;
+    private int runInput;
+    private long runLength;
+    private long numSteps;
+    // the first failure of the file writer's thread, which the game only hears of when closing
+    private volatile IOException failure;
+    private boolean isClosed;
+
+    /**
+     * Creates the file, replacing whatever it held, and writes the session's settings into it.
+     *
+     * @param seed             The seed of the session's RandomService.
+     * @param stepsPerSecond   The simulation rate of the session.
+     * @param windowDimensions The dimensions of the window the session's games are played in.
+     * @param numBricksRows    The number of rows of the brick grid.
+     * @param numBricksCols    The number of bricks in every row of the grid.
+     * @param levelPath        The path of the level file the session plays, or null for the grid.
+     * @throws IOException If the file can't be written.
+     */
+    public ReplayWriter(Path path, long seed, int stepsPerSecond, Vector2 windowDimensions, int numBricksRows,
+                        int numBricksCols, String levelPath) throws IOException {
+        byte[] levelPathBytes = levelPath != null ? levelPath.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + 1 + Long.BYTES + Integer.BYTES +
+                2 * Float.BYTES + 2 * Integer.BYTES + Short.BYTES + levelPathBytes.length);
+        header.putInt(Replay.MAGIC);
+        header.put(Replay.VERSION);
+        header.putLong(seed);
+        header.putInt(stepsPerSecond);
+        header.putFloat(windowDimensions.x());
+        header.putFloat(windowDimensions.y());
+        header.putInt(numBricksRows);
+        header.putInt(numBricksCols);
+        header.putShort((short) levelPathBytes.length);
+        header.put(levelPathBytes);
+        header.flip();
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        this.fileWriter = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replay-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.buffer = ByteBuffer.allocate(BUFFER_BYTES);
+    }
+
+    /**
+     * Should be called at the start of every step.
+     *
+     * @param input The bitmask of the keys held during the step, as PlayerInputListener encodes them.
+     */
+    public synchronized void recordStep(int input) {
+        if (input < 0 || input > Replay.MAX_INPUT) {
+            throw new IllegalArgumentException("An input must be between 0 and " + Replay.MAX_INPUT);
+        }
+        if (isClosed) {
+            return;
+        }
+        if (input != runInput) {
+            endRun();
+            runInput = input;
+        }
+        runLength++;
+        numSteps++;
+    }
+
+    /**
+     * Should be called when the game goes back to a snapshot, by a rewind or a quick load.
+     *
+     * @param restoredStep The step the snapshot was captured after, as WorldSnapshot.getSessionStep tells.
+     */
+    public synchronized void recordRestore(long restoredStep) {
+        if (isClosed) {
+            return;
+        }
+        endRun();
+        ensureRoom();
+        buffer.put((byte) Replay.RESTORE_TAG);
+        Replay.putVarLong(buffer, restoredStep);
+    }
+
+    /**
+     * Records the checksum of the state the game is in after the last step, and hands what was recorded so
+     * far to the file, so that a session cut short loses no more than the steps since its last checksum.
+     */
+    public synchronized void recordChecksum(long checksum) {
+        if (isClosed) {
+            return;
+        }
+        endRun();
+        ensureRoom();
+        buffer.put((byte) Replay.CHECKSUM_TAG);
+        buffer.putLong(checksum);
+        handOff();
+    }
+
+    public synchronized long getNumSteps() {
+        return numSteps;
+    }
+
+    /**
+     * Writes what's left, and waits for the file to be written.
+     *
+     * @throws IOException If any of the writes failed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (isClosed) {
+            return;
+        }
+        endRun();
+        handOff();
+        isClosed = true;
+        fileWriter.shutdown();
+        try {
+            if (!fileWriter.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new IOException("The replay wasn't written in " + CLOSE_TIMEOUT_SECONDS + " seconds");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while writing the replay");
+        } finally {
+            channel.close();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void endRun() {
+        if (runLength == 0) {
+            return;
+        }
+        ensureRoom();
+        buffer.put((byte) (Replay.INPUT_RUN_TAG | runInput));
+        Replay.putVarLong(buffer, runLength);
+        runLength = 0;
+    }
+
+    private void ensureRoom() {
+        if (buffer.remaining() < MAX_RECORD_BYTES) {
+            handOff();
+        }
+    }
+
+    private void handOff() {
+        if (buffer.position() == 0) {
+            return;
+        }
+        ByteBuffer fullBuffer = buffer;
+        fullBuffer.flip();
+        fileWriter.execute(() -> write(fullBuffer));
+        ByteBuffer freeBuffer = freeBuffers.poll();
+        buffer = freeBuffer != null ? freeBuffer : ByteBuffer.allocate(BUFFER_BYTES);
+    }
+
+    /*
+     * Runs on the file writer's thread, which writes the buffers in the order they were handed off.
+     */
+    private void write(ByteBuffer fullBuffer) {
+        if (failure == null) {
+            try {
+                while (fullBuffer.hasRemaining()) {
+                    channel.write(fullBuffer);
+                }
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        fullBuffer.clear();
+        freeBuffers.add(fullBuffer);
+    }
+
+}
@@ -0,0 +1,130 @@
+package snapshots;
+
+import danogl.gui.UserInputListener;
+
+import java.awt.event.KeyEvent;
+
+/**
+ * The snapshots a game captures of itself as it's played: one every given number of steps into a ring,
+ * which holding the rewind key goes back through a snapshot per frame, and a quick save of its own, which
+ * the quick save key captures at the next step it can and the quick load key restores, within the same game.
+ * <p>
+ * Snapshots are only captured at the end of steps with no collisions in progress, which a restored game
+ * would forget, so a snapshot may be taken a few steps later than asked for.
+ */
+public class SnapshotController {
+
+    private static final int REWIND_KEY = KeyEvent.VK_BACK_SPACE;
+    private static final int QUICK_SAVE_KEY = KeyEvent.VK_F5;
+    private static final int QUICK_LOAD_KEY = KeyEvent.VK_F9;
+
+    private final Snapshottable game;
+    private final WorldSnapshot quickSave = new WorldSnapshot();
+    private int snapshotInterval;
+    private SnapshotRing snapshotRing;
+    private boolean hasQuickSave;
+    private boolean isQuickSaveRequested;
+    private long stepAtSnapshot;
+
+    /**
+     * Creates a controller that captures no snapshots into a ring until setSnapshots asks it to.
+     */
+    public SnapshotController(Snapshottable game) {
+        this.game = game;
+    }
+
+    /**
+     * Makes the controller capture a snapshot every given number of steps into a ring of the given size,
+     * from the next step on.
+     *
+     * @param snapshotInterval number of steps between snapshots, or 0 to capture none
+     * @param numSnapshots     number of snapshots kept, the latest ones
+     */
+    public void setSnapshots(int snapshotInterval, int numSnapshots) {
+        this.snapshotInterval = snapshotInterval;
+        snapshotRing = snapshotInterval > 0 ?
+                new SnapshotRing(numSnapshots, WorldSnapshotCodec.INITIAL_STATE_BYTES) : null;
+    }
+
+    /**
+     * @return The ring the snapshots are captured into, or null if none are.
+     */
+    public SnapshotRing getSnapshotRing() {
+        return snapshotRing;
+    }
+
+    /**
+     * Drops the snapshots and the quick save of the game before, which can't be restored into a new one.
+     */
+    public void onGameStart() {
+        hasQuickSave = false;
+        isQuickSaveRequested = false;
+        stepAtSnapshot = 0;
+        if (snapshotRing != null) {
+            snapshotRing.clear();
+        }
+    }
+
+    /**
+     * Should be called once per frame, before its steps, while the game isn't over.
+     *
+     * @return true if the game was rewound, in which case the frame should show the snapshot rather than
+     * move on from it.
+     */
+    public boolean handleKeys(UserInputListener inputListener) {
+        if (inputListener.wasKeyReleasedThisFrame(QUICK_SAVE_KEY)) {
+            isQuickSaveRequested = true;
+        }
+        if (hasQuickSave && inputListener.wasKeyReleasedThisFrame(QUICK_LOAD_KEY)) {
+            game.restoreSnapshot(quickSave);
+            if (snapshotRing != null) {
+                // the snapshots captured since the quick save belong to what the game goes back on
+                snapshotRing.clear();
+            }
+        }
+        return snapshotRing != null && inputListener.isKeyPressed(REWIND_KEY) && snapshotRing.rewind(game, 1);
+    }
+
+    /**
+     * @param step The step of the game that just ended, counted from the start of the game.
+     * @return true if a snapshot is due after the step, into the ring or the quick save.
+     */
+    public boolean isCaptureDue(long step) {
+        return isQuickSaveRequested || (snapshotRing != null && step - stepAtSnapshot >= snapshotInterval);
+    }
+
+    /**
+     * Captures the snapshots that are due after the given step, which must be one without collisions in
+     * progress.
+     */
+    public void captureSnapshots(long step) {
+        if (snapshotRing != null && step - stepAtSnapshot >= snapshotInterval) {
+            snapshotRing.capture(game);
+            stepAtSnapshot = step;
+        }
+        if (isQuickSaveRequested) {
+            game.captureSnapshot(quickSave);
+            hasQuickSave = true;
+            isQuickSaveRequested = false;
+        }
+    }
+
+    /**
+     * Should be called whenever the game is restored, so the next snapshot is due a snapshot interval after
+     * the step it was restored to.
+     */
+    public void onRestore(long step) {
+        stepAtSnapshot = step;
+    }
+
+    /**
+     * Restores the game from one of the snapshots of the ring, which drops the ones captured after it.
+     *
+     * @param numSnapshotsBack 0 for the latest snapshot, 1 for the one before it, and so on.
+     * @return false if there aren't that many snapshots of the current game.
+     */
+    public boolean rewind(int numSnapshotsBack) {
+        return snapshotRing != null && snapshotRing.rewind(game, numSnapshotsBack);
+    }
+
+}
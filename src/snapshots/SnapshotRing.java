@@ -0,0 +1,169 @@
+package snapshots;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The latest snapshots of a game, in a ring of slots allocated up front, which the newest snapshot
+ * overwrites the oldest one in once they're all taken.
+ * <p>
+ * A slot keeps its snapshot's record as it is, as records are small, but only keeps the words of the
+ * destroyed bricks' bitmap that differ from the previous snapshot's, XORed with them: a level's bitmap
+ * hardly changes from one snapshot to the next, however many bricks it has. The ring keeps the newest
+ * bitmap in full, and gets an older one by undoing the changes of the snapshots in between, newest first,
+ * so restoring a snapshot takes time in proportion to the bricks destroyed since, and capturing one takes
+ * a pass over the bitmap.
+ */
+public class SnapshotRing {
+
+    private static final int INITIAL_CHANGED_WORDS_CAPACITY = 16;
+
+    private final ByteBuffer[] states;
+    private final long[] sessionSteps;
+    private final int[][] changedWordIndices;
+    private final long[][] changedWords;
+    private final int[] numChangedWords;
+    // holds the newest snapshot's bitmap in full
+    private final WorldSnapshot newest;
+    // the snapshot captures and restores go through
+    private final WorldSnapshot working;
+    private int newestSlot;
+    private int size;
+
+    /**
+     * @param capacity      The number of snapshots kept.
+     * @param maxStateBytes The size of the records the slots have room for up front. Slots grow to fit
+     *                      larger records.
+     */
+    public SnapshotRing(int capacity, int maxStateBytes) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("A ring of snapshots must have room for at least one");
+        }
+        this.states = new ByteBuffer[capacity];
+        this.sessionSteps = new long[capacity];
+        this.changedWordIndices = new int[capacity][];
+        this.changedWords = new long[capacity][];
+        this.numChangedWords = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            states[i] = ByteBuffer.allocate(maxStateBytes);
+            changedWordIndices[i] = new int[INITIAL_CHANGED_WORDS_CAPACITY];
+            changedWords[i] = new long[INITIAL_CHANGED_WORDS_CAPACITY];
+        }
+        this.newest = new WorldSnapshot();
+        this.working = new WorldSnapshot();
+        this.newestSlot = capacity - 1;
+    }
+
+    /**
+     * Captures the game's state as the newest snapshot, in place of the oldest one if the ring is full.
+     */
+    public void capture(Snapshottable game) {
+        game.captureSnapshot(working);
+        int slot = (newestSlot + 1) % states.length;
+        ByteBuffer state = working.getState();
+        if (states[slot].capacity() < state.limit()) {
+            states[slot] = ByteBuffer.allocate(state.limit());
+        }
+        states[slot].clear();
+        states[slot].put(state);
+        states[slot].flip();
+        sessionSteps[slot] = working.getSessionStep();
+        // the first snapshot of a level is taken as a change from a level with nothing destroyed
+        if (size == 0 || newest.getNumBricks() != working.getNumBricks()) {
+            newest.setNumBricks(working.getNumBricks());
+            size = 0;
+        }
+        encodeChanges(slot, working.getDestroyedBricks(), newest.getDestroyedBricks(),
+                WorldSnapshot.getNumBrickWords(working.getNumBricks()));
+        newest.swapDestroyedBricks(working);
+        newestSlot = slot;
+        size = Math.min(size + 1, states.length);
+    }
+
+    /**
+     * Copies a snapshot of the ring into the given one, e.g. for a quick save that outlives the ring.
+     *
+     * @param numSnapshotsBack 0 for the newest snapshot, 1 for the one before it, and so on.
+     */
+    public void copySnapshot(int numSnapshotsBack, WorldSnapshot snapshot) {
+        if (numSnapshotsBack < 0 || numSnapshotsBack >= size) {
+            throw new IllegalArgumentException("The ring holds " + size + " snapshots, not " +
+                    (numSnapshotsBack + 1));
+        }
+        int snapshotSlot = (newestSlot + states.length - numSnapshotsBack) % states.length;
+        ByteBuffer state = states[snapshotSlot];
+        state.rewind();
+        snapshot.beginCapture(state.limit(), newest.getNumBricks()).put(state);
+        snapshot.endCapture();
+        snapshot.setSessionStep(sessionSteps[snapshotSlot]);
+        long[] destroyedBricks = snapshot.getDestroyedBricks();
+        System.arraycopy(newest.getDestroyedBricks(), 0, destroyedBricks, 0,
+                WorldSnapshot.getNumBrickWords(newest.getNumBricks()));
+        for (int i = 0, slot = newestSlot; i < numSnapshotsBack; i++, slot = getPreviousSlot(slot)) {
+            // a slot's changes are XORed, so applying them again undoes them
+            for (int j = 0; j < numChangedWords[slot]; j++) {
+                destroyedBricks[changedWordIndices[slot][j]] ^= changedWords[slot][j];
+            }
+        }
+    }
+
+    /**
+     * Restores the game from a snapshot of the ring, which becomes the newest one: the snapshots captured
+     * after it are dropped, so that rewinding again goes further back.
+     *
+     * @param numSnapshotsBack 0 for the newest snapshot, 1 for the one before it, and so on.
+     * @return false if the ring doesn't hold that many snapshots, in which case the game is left as it is.
+     */
+    public boolean rewind(Snapshottable game, int numSnapshotsBack) {
+        if (numSnapshotsBack < 0 || numSnapshotsBack >= size) {
+            return false;
+        }
+        copySnapshot(numSnapshotsBack, working);
+        game.restoreSnapshot(working);
+        newest.swapDestroyedBricks(working);
+        newestSlot = (newestSlot + states.length - numSnapshotsBack) % states.length;
+        size -= numSnapshotsBack;
+        return true;
+    }
+
+    /**
+     * Drops every snapshot, e.g. when a new game starts.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return states.length;
+    }
+
+    private int getPreviousSlot(int slot) {
+        return (slot + states.length - 1) % states.length;
+    }
+
+    /*
+     * Keeps the words of the captured bitmap that differ from the previous one, XORed with it.
+     */
+    private void encodeChanges(int slot, long[] destroyedBricks, long[] previousDestroyedBricks, int numWords) {
+        int numChanged = 0;
+        for (int i = 0; i < numWords; i++) {
+            long change = destroyedBricks[i] ^ previousDestroyedBricks[i];
+            if (change == 0) {
+                continue;
+            }
+            if (numChanged == changedWords[slot].length) {
+                changedWordIndices[slot] = Arrays.copyOf(changedWordIndices[slot], numChanged * 2);
+                changedWords[slot] = Arrays.copyOf(changedWords[slot], numChanged * 2);
+            }
+            changedWordIndices[slot][numChanged] = i;
+            changedWords[slot][numChanged] = change;
+            numChanged++;
+        }
+        numChangedWords[slot] = numChanged;
+    }
+
+}
@@ -0,0 +1,22 @@
+package snapshots;
+
+/**
+ * A game whose state can be captured into a WorldSnapshot and restored from it.
+ */
+public interface Snapshottable {
+
+    /**
+     * Captures the state of the game into the given snapshot, overwriting what it held. Should be called
+     * between steps.
+     */
+    void captureSnapshot(WorldSnapshot snapshot);
+
+    /**
+     * Puts the game back in the state the given snapshot was captured in, so that it plays on from there
+     * the way it did then. Should be called between steps.
+     *
+     * @throws IllegalArgumentException if the snapshot wasn't captured in the game being played.
+     */
+    void restoreSnapshot(WorldSnapshot snapshot);
+
+}
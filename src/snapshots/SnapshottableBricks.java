@@ -0,0 +1,47 @@
+package snapshots;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The bricks of a game's level, whose state a snapshot holds apart from the world's objects: a bitmap of the
+ * destroyed bricks, a bit per brick in the order of the level, and whatever else the bricks write into the
+ * snapshot's record after the world.
+ */
+public interface SnapshottableBricks {
+
+    /**
+     * @return The most bytes captureState writes, as the bricks are now.
+     */
+    int getMaxStateBytes();
+
+    /**
+     * Writes which bricks were destroyed into the given bitmap, overwriting what it held.
+     *
+     * @param words A bitmap of at least as many bits as the level has bricks.
+     */
+    void copyDestroyedBricks(long[] words);
+
+    /**
+     * Writes the state of the bricks that are in the collection into the given buffer.
+     */
+    void captureState(ByteBuffer state);
+
+    /**
+     * Starts the level over, with every brick back, and removes the bricks from the collection. The bricks
+     * counter is left as it is.
+     */
+    void reset();
+
+    /**
+     * Makes the bricks of the given bitmap the destroyed ones, as copyDestroyedBricks wrote it. Should follow
+     * reset, once the removals were applied.
+     */
+    void setDestroyedBricks(long[] words);
+
+    /**
+     * Reads back what captureState wrote, and puts the bricks back in the collection in the order they
+     * were in. Should follow setDestroyedBricks.
+     */
+    void restoreState(ByteBuffer state);
+
+}
@@ -0,0 +1,158 @@
+package snapshots;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The state of a game at the end of a step, in a compact binary form: a buffer of the game's own record,
+ * and a bitmap of the destroyed bricks, a bit per brick. A snapshot is meant to be captured into over and
+ * over, and only grows its buffer and bitmap when a game needs more room than they have.
+ */
+public class WorldSnapshot {
+
+    private static final int INITIAL_STATE_CAPACITY = 1024;
+    // an odd multiplier, so that mixing a value in loses none of its bits
+    private static final long CHECKSUM_MULTIPLIER = 0x9E3779B97F4A7C15L;
+    private static final int CHECKSUM_ROTATION = 29;
+
+    private ByteBuffer state;
+    private long[] destroyedBricks;
+    private int numBricks;
+    private long sessionStep;
+
+    public WorldSnapshot() {
+        this.state = ByteBuffer.allocate(INITIAL_STATE_CAPACITY);
+        this.destroyedBricks = new long[0];
+    }
+
+    /**
+     * Starts capturing a new state over the old one.
+     *
+     * @param maxStateBytes The most bytes the game writes into the returned buffer.
+     * @param numBricks     The number of bricks of the game's level, which are all alive in the cleared
+     *                      bitmap.
+     * @return The cleared buffer, to write the game's record into.
+     */
+    public ByteBuffer beginCapture(int maxStateBytes, int numBricks) {
+        if (state.capacity() < maxStateBytes) {
+            state = ByteBuffer.allocate(Math.max(maxStateBytes, state.capacity() * 2));
+        }
+        state.clear();
+        setNumBricks(numBricks);
+        return state;
+    }
+
+    /**
+     * Makes the record written into the buffer since beginCapture readable from its start.
+     */
+    public void endCapture() {
+        state.flip();
+    }
+
+    /**
+     * @return The game's record, from its start, which reading it moves past.
+     */
+    public ByteBuffer getState() {
+        state.rewind();
+        return state;
+    }
+
+    /**
+     * @return The bitmap of the destroyed bricks, whose bit of a brick is bit (brick % 64) of word
+     * (brick / 64). It may be longer than the bricks need.
+     */
+    public long[] getDestroyedBricks() {
+        return destroyedBricks;
+    }
+
+    public int getNumBricks() {
+        return numBricks;
+    }
+
+    /**
+     * @return The step of the session the snapshot was captured after, counted across its games and never
+     * rewound, which only tags the snapshot: it isn't part of the state, or of the checksum.
+     */
+    public long getSessionStep() {
+        return sessionStep;
+    }
+
+    public void setSessionStep(long sessionStep) {
+        this.sessionStep = sessionStep;
+    }
+
+    /**
+     * @return The number of bytes the snapshot takes, not counting the room it keeps for larger ones.
+     */
+    public int getSize() {
+        return state.limit() + getNumBrickWords(numBricks) * Long.BYTES;
+    }
+
+    /**
+     * @return A hash of the record and the bitmap, which snapshots of the same state share, e.g. to tell
+     * whether two games that should be in lockstep still are.
+     */
+    public long getChecksum() {
+        ByteBuffer state = getState();
+        long checksum = numBricks;
+        while (state.remaining() >= Long.BYTES) {
+            checksum = mix(checksum, state.getLong());
+        }
+        while (state.hasRemaining()) {
+            checksum = mix(checksum, state.get());
+        }
+        for (int i = 0; i < getNumBrickWords(numBricks); i++) {
+            checksum = mix(checksum, destroyedBricks[i]);
+        }
+        return checksum;
+    }
+
+    /**
+     * Makes this snapshot a copy of the given one.
+     */
+    public void copyFrom(WorldSnapshot snapshot) {
+        ByteBuffer otherState = snapshot.getState();
+        beginCapture(otherState.limit(), snapshot.numBricks).put(otherState);
+        endCapture();
+        System.arraycopy(snapshot.destroyedBricks, 0, destroyedBricks, 0, getNumBrickWords(numBricks));
+        sessionStep = snapshot.sessionStep;
+    }
+
+    /**
+     * @return The number of words of a bitmap of the given number of bricks.
+     */
+    public static int getNumBrickWords(int numBricks) {
+        return (numBricks + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    private static long mix(long checksum, long value) {
+        return Long.rotateLeft((checksum ^ value) * CHECKSUM_MULTIPLIER, CHECKSUM_ROTATION);
+    }
+
+    /*
+     * Clears the bitmap, and keeps its array when it has room for the bricks.
+     */
+    void setNumBricks(int numBricks) {
+        int numWords = getNumBrickWords(numBricks);
+        if (destroyedBricks.length < numWords) {
+            destroyedBricks = new long[numWords];
+        } else {
+            Arrays.fill(destroyedBricks, 0, numWords, 0);
+        }
+        this.numBricks = numBricks;
+    }
+
+    /*
+     * Swaps the bitmaps of two snapshots of as many bricks, which is how the ring keeps the newest bitmap
+     * without copying it.
+     */
+    void swapDestroyedBricks(WorldSnapshot snapshot) {
+        long[] destroyedBricks = this.destroyedBricks;
+        this.destroyedBricks = snapshot.destroyedBricks;
+        snapshot.destroyedBricks = destroyedBricks;
+        int numBricks = this.numBricks;
+        this.numBricks = snapshot.numBricks;
+        snapshot.numBricks = numBricks;
+    }
+
+}
@@ -0,0 +1,377 @@
+package snapshots;
+
+import brick_strategies.BrickStrategyFactory;
+import collisions.GridIndexedGameObjectCollection;
+import danogl.GameManager;
+import danogl.GameObject;
+import danogl.collisions.Layer;
+import danogl.gui.rendering.Camera;
+import danogl.util.Vector2;
+import gameobjects.Ball;
+import gameobjects.BallCollisionCountdownAgent;
+import gameobjects.DynamicObjectRegistry;
+import gameobjects.GameObjectPools;
+import gameobjects.MockPaddle;
+import gameobjects.Paddle;
+import gameobjects.Puck;
+import gameobjects.WidenOrNarrowObject;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the objects of a game's world into a WorldSnapshot's record, and reads them back into the world:
+ * the strategies' state, the camera, the motion of the ball, the paddles and every spawned object, and the
+ * objects of the default layer in the order they collide in, including the ones added during the step.
+ * The game writes its own counters ahead of the world, and its bricks after it, into the same record.
+ * <p>
+ * The world's own objects are referred to by what they are, the ball, a paddle or a border, and spawned
+ * objects by their index in the dynamic object registry, so a codec only reads what it wrote in the same
+ * world. A game that builds its world anew needs a new codec.
+ */
+public class WorldSnapshotCodec {
+
+    // a snapshot's record: a header, the pooled objects and then the objects of Layer.DEFAULT
+    private static final int HEADER_BYTES = 224;
+    private static final int POOLED_OBJECT_BYTES = 48;
+    private static final int LAYER_OBJECT_BYTES = 6;
+    // the ball, the paddles and a ball collision countdown agent, besides the borders and spawned objects
+    private static final int MAX_WORLD_LAYER_OBJECTS = 4;
+    // the snapshots of a ring have room for this many spawned objects up front
+    private static final int INITIAL_POOLED_OBJECTS = 8;
+    private static final byte BALL_RECORD = 0;
+    private static final byte PADDLE_RECORD = 1;
+    private static final byte BORDER_RECORD = 2;
+    private static final byte COUNTDOWN_AGENT_RECORD = 3;
+    private static final byte POOLED_OBJECT_RECORD = 4;
+    private static final byte PUCK_RECORD = 5;
+    private static final byte WIDEN_OR_NARROW_OBJECT_RECORD = 6;
+    private static final byte MOCK_PADDLE_RECORD = 7;
+    private static final byte NO_CAMERA = 0;
+    private static final byte SCROLLING_CAMERA = 1;
+    private static final byte BALL_FOLLOWING_CAMERA = 2;
+
+    /**
+     * The size of a record of a world with a few spawned objects and no bricks, which a SnapshotRing's slots
+     * may be allocated with up front.
+     */
+    public static final int INITIAL_STATE_BYTES =
+            HEADER_BYTES + INITIAL_POOLED_OBJECTS * (POOLED_OBJECT_BYTES + LAYER_OBJECT_BYTES);
+
+    private final GameManager gameManager;
+    private final GridIndexedGameObjectCollection gameObjectCollection;
+    private final GameObjectPools gameObjectPools;
+    private final BrickStrategyFactory brickStrategyFactory;
+    private final Ball ball;
+    private final Paddle[] paddles;
+    private final GameObject[] borders;
+    private final Camera scrollingCamera;
+    // what restoreWorld read, and endRestore puts back
+    private final List<GameObject> pendingObjects = new ArrayList<>();
+    private byte cameraKind;
+    private float cameraX;
+    private float cameraY;
+
+    /**
+     * @param gameManager     The game, whose camera is captured and restored.
+     * @param paddles         The paddles of the players, in order.
+     * @param scrollingCamera The camera that scrolls through the level, or null if the game has none.
+     */
+    public WorldSnapshotCodec(GameManager gameManager, GridIndexedGameObjectCollection gameObjectCollection,
+                              GameObjectPools gameObjectPools, BrickStrategyFactory brickStrategyFactory,
+                              Ball ball, Paddle[] paddles, GameObject[] borders, Camera scrollingCamera) {
+        this.gameManager = gameManager;
+        this.gameObjectCollection = gameObjectCollection;
+        this.gameObjectPools = gameObjectPools;
+        this.brickStrategyFactory = brickStrategyFactory;
+        this.ball = ball;
+        this.paddles = paddles.clone();
+        this.borders = borders.clone();
+        this.scrollingCamera = scrollingCamera;
+    }
+
+    /**
+     * Starts capturing a new state into the given snapshot, with room for the world and the game's bricks.
+     *
+     * @param maxBricksBytes The most bytes the game writes of its bricks.
+     * @param numBricks      The number of bricks of the game's level.
+     * @return The buffer to write the game's counters into, and then the world by captureWorld.
+     */
+    public ByteBuffer beginCapture(WorldSnapshot snapshot, int maxBricksBytes, int numBricks) {
+        DynamicObjectRegistry dynamicObjectRegistry = gameObjectPools.getDynamicObjectRegistry();
+        int maxLayerObjects = borders.length + MAX_WORLD_LAYER_OBJECTS + dynamicObjectRegistry.size() +
+                gameObjectCollection.getNumPendingDefaultChanges();
+        return snapshot.beginCapture(HEADER_BYTES + dynamicObjectRegistry.size() * POOLED_OBJECT_BYTES +
+                maxLayerObjects * LAYER_OBJECT_BYTES + maxBricksBytes, numBricks);
+    }
+
+    /**
+     * Writes the world as it is at the end of the step. Takes time in proportion to the spawned objects.
+     */
+    public void captureWorld(ByteBuffer state) {
+        DynamicObjectRegistry dynamicObjectRegistry = gameObjectPools.getDynamicObjectRegistry();
+        brickStrategyFactory.captureState(state);
+        Camera camera = gameManager.camera();
+        state.put(camera == null ? NO_CAMERA : camera == scrollingCamera ? SCROLLING_CAMERA : BALL_FOLLOWING_CAMERA);
+        if (camera != null) {
+            Vector2 cameraTopLeftCorner = camera.getTopLeftCorner();
+            state.putFloat(cameraTopLeftCorner.x());
+            state.putFloat(cameraTopLeftCorner.y());
+        }
+        putMotion(state, ball);
+        state.putFloat(ball.getAppliedVelocityX());
+        state.putFloat(ball.getAppliedVelocityY());
+        state.putInt(ball.getCollisionCount());
+        for (Paddle paddle : paddles) {
+            putMotion(state, paddle);
+            state.putFloat(paddle.getAppliedVelocityX());
+        }
+
+        state.putInt(dynamicObjectRegistry.size());
+        for (int i = 0; i < dynamicObjectRegistry.size(); i++) {
+            putPooledObject(state, dynamicObjectRegistry.get(i));
+        }
+
+        // the objects collide in the order of the layer, and those added during the step are appended to it
+        int numPendingChanges = gameObjectCollection.getNumPendingDefaultChanges();
+        int numLayerObjectsPosition = state.position();
+        state.putInt(0);
+        int numLayerObjects = 0;
+        for (GameObject gameObject : gameObjectCollection.objectsInLayer(Layer.DEFAULT)) {
+            int lastChange = findLastPendingDefaultChange(gameObject);
+            if (lastChange < 0 || gameObjectCollection.isPendingDefaultAddition(lastChange)) {
+                putLayerObject(state, gameObject, false, dynamicObjectRegistry);
+                numLayerObjects++;
+            }
+        }
+        for (int i = 0; i < numPendingChanges; i++) {
+            GameObject gameObject = gameObjectCollection.getPendingDefaultObject(i);
+            if (gameObjectCollection.isPendingDefaultAddition(i) && findLastPendingDefaultChange(gameObject) == i &&
+                    !isInDefaultLayer(gameObject)) {
+                putLayerObject(state, gameObject, true, dynamicObjectRegistry);
+                numLayerObjects++;
+            }
+        }
+        state.putInt(numLayerObjectsPosition, numLayerObjects);
+    }
+
+    /**
+     * Reads the world captureWorld wrote, into a world whose default layer was emptied, and whose spawned
+     * objects went back to their pools: the pooled objects are acquired again in the order they were
+     * registered in, which registers them in that order again, and the objects of the layer are added back
+     * in their order. The objects that were added during the step, and the camera, are only put back by
+     * endRestore, once the game added back the rest of its objects.
+     */
+    public void restoreWorld(ByteBuffer state) {
+        brickStrategyFactory.restoreState(state);
+        cameraKind = state.get();
+        cameraX = cameraKind != NO_CAMERA ? state.getFloat() : 0;
+        cameraY = cameraKind != NO_CAMERA ? state.getFloat() : 0;
+        getMotion(state, ball);
+        float ballAppliedVelocityX = state.getFloat();
+        ball.setAppliedVelocity(ballAppliedVelocityX, state.getFloat());
+        ball.setCollisionCount(state.getInt());
+        for (Paddle paddle : paddles) {
+            getMotion(state, paddle);
+            paddle.setAppliedVelocityX(state.getFloat());
+        }
+
+        DynamicObjectRegistry dynamicObjectRegistry = gameObjectPools.getDynamicObjectRegistry();
+        int numPooledObjects = state.getInt();
+        for (int i = 0; i < numPooledObjects; i++) {
+            getPooledObject(state);
+        }
+
+        pendingObjects.clear();
+        int numLayerObjects = state.getInt();
+        for (int i = 0; i < numLayerObjects; i++) {
+            byte kind = state.get();
+            boolean isPending = state.get() != 0;
+            GameObject gameObject = getLayerObject(kind, state.getInt(), dynamicObjectRegistry);
+            if (isPending) {
+                pendingObjects.add(gameObject);
+            } else {
+                gameObjectCollection.addGameObject(gameObject);
+            }
+        }
+    }
+
+    /**
+     * Adds back the objects that were added during the captured step, after the collection applied the
+     * others, and puts the camera back where it was.
+     */
+    public void endRestore() {
+        for (int i = 0; i < pendingObjects.size(); i++) {
+            gameObjectCollection.addGameObject(pendingObjects.get(i));
+        }
+        pendingObjects.clear();
+        restoreCamera();
+    }
+
+    private static void putMotion(ByteBuffer state, GameObject gameObject) {
+        Vector2 topLeftCorner = gameObject.getTopLeftCorner();
+        Vector2 dimensions = gameObject.getDimensions();
+        Vector2 velocity = gameObject.getVelocity();
+        state.putFloat(topLeftCorner.x());
+        state.putFloat(topLeftCorner.y());
+        state.putFloat(dimensions.x());
+        state.putFloat(dimensions.y());
+        state.putFloat(velocity.x());
+        state.putFloat(velocity.y());
+    }
+
+    private static void getMotion(ByteBuffer state, GameObject gameObject) {
+        float x = state.getFloat();
+        float y = state.getFloat();
+        float width = state.getFloat();
+        float height = state.getFloat();
+        float velocityX = state.getFloat();
+        float velocityY = state.getFloat();
+        gameObject.transform().setDimensions(width, height);
+        gameObject.transform().setTopLeftCorner(x, y);
+        gameObject.transform().setVelocity(velocityX, velocityY);
+    }
+
+    private static void putPooledObject(ByteBuffer state, GameObject gameObject) {
+        if (gameObject instanceof Puck) {
+            Puck puck = (Puck) gameObject;
+            state.put(PUCK_RECORD);
+            putMotion(state, puck);
+            state.putFloat(puck.getAppliedVelocityX());
+            state.putFloat(puck.getAppliedVelocityY());
+            state.putInt(puck.getCollisionCount());
+        } else if (gameObject instanceof WidenOrNarrowObject) {
+            WidenOrNarrowObject widenOrNarrowObject = (WidenOrNarrowObject) gameObject;
+            state.put(WIDEN_OR_NARROW_OBJECT_RECORD);
+            state.put((byte) (widenOrNarrowObject.isWiden() ? 1 : 0));
+            putMotion(state, widenOrNarrowObject);
+            state.put((byte) (widenOrNarrowObject.isFalling() ? 1 : 0));
+        } else if (gameObject instanceof MockPaddle) {
+            MockPaddle mockPaddle = (MockPaddle) gameObject;
+            state.put(MOCK_PADDLE_RECORD);
+            putMotion(state, mockPaddle);
+            state.putFloat(mockPaddle.getAppliedVelocityX());
+            state.putInt(mockPaddle.getNumCollisions());
+        } else {
+            throw new IllegalStateException("Can't capture a spawned " + gameObject.getClass().getSimpleName());
+        }
+    }
+
+    /*
+     * Acquiring the objects in the order they were registered in registers them in that order again.
+     */
+    private void getPooledObject(ByteBuffer state) {
+        byte kind = state.get();
+        if (kind == PUCK_RECORD) {
+            Puck puck = brickStrategyFactory.getPuckStrategy().acquirePuck();
+            getMotion(state, puck);
+            float appliedVelocityX = state.getFloat();
+            puck.setAppliedVelocity(appliedVelocityX, state.getFloat());
+            puck.setCollisionCount(state.getInt());
+        } else if (kind == WIDEN_OR_NARROW_OBJECT_RECORD) {
+            WidenOrNarrowObject widenOrNarrowObject = brickStrategyFactory.getWidenOrNarrowObjectStrategy()
+                    .acquireWidenOrNarrowObject(state.get() != 0);
+            getMotion(state, widenOrNarrowObject);
+            widenOrNarrowObject.setFalling(state.get() != 0);
+        } else {
+            MockPaddle mockPaddle = brickStrategyFactory.getAddPaddleStrategy().acquireMockPaddle();
+            getMotion(state, mockPaddle);
+            mockPaddle.setAppliedVelocityX(state.getFloat());
+            mockPaddle.setNumCollisions(state.getInt());
+        }
+    }
+
+    private void putLayerObject(ByteBuffer state, GameObject gameObject, boolean isPending,
+                                DynamicObjectRegistry dynamicObjectRegistry) {
+        byte kind;
+        int value = 0;
+        if (gameObject == ball) {
+            kind = BALL_RECORD;
+        } else if (gameObject instanceof BallCollisionCountdownAgent &&
+                ((BallCollisionCountdownAgent) gameObject).getBall() == ball) {
+            kind = COUNTDOWN_AGENT_RECORD;
+            value = ((BallCollisionCountdownAgent) gameObject).getCountDownValue();
+        } else {
+            kind = PADDLE_RECORD;
+            value = indexOf(paddles, gameObject);
+            if (value < 0) {
+                kind = BORDER_RECORD;
+                value = indexOf(borders, gameObject);
+            }
+            if (value < 0) {
+                kind = POOLED_OBJECT_RECORD;
+                value = dynamicObjectRegistry.indexOf(gameObject);
+            }
+            if (value < 0) {
+                throw new IllegalStateException("Can't capture a " + gameObject.getClass().getSimpleName());
+            }
+        }
+        state.put(kind);
+        state.put((byte) (isPending ? 1 : 0));
+        state.putInt(value);
+    }
+
+    private GameObject getLayerObject(byte kind, int value, DynamicObjectRegistry dynamicObjectRegistry) {
+        switch (kind) {
+            case BALL_RECORD:
+                return ball;
+            case PADDLE_RECORD:
+                return paddles[value];
+            case BORDER_RECORD:
+                return borders[value];
+            case COUNTDOWN_AGENT_RECORD:
+                return brickStrategyFactory.getChangeCameraStrategy().followBall(ball, value);
+            default:
+                return dynamicObjectRegistry.get(value);
+        }
+    }
+
+    private void restoreCamera() {
+        Camera camera;
+        if (cameraKind == NO_CAMERA) {
+            camera = null;
+        } else if (cameraKind == SCROLLING_CAMERA) {
+            camera = scrollingCamera;
+        } else {
+            // the camera follows the ball as long as its countdown agent is around, which made it already
+            camera = gameManager.camera();
+            if (camera == null || camera == scrollingCamera) {
+                brickStrategyFactory.getChangeCameraStrategy().followBall(ball, 0);
+                camera = gameManager.camera();
+            }
+        }
+        gameManager.setCamera(camera);
+        if (camera != null) {
+            camera.transform().setTopLeftCorner(cameraX, cameraY);
+        }
+    }
+
+    private int findLastPendingDefaultChange(GameObject gameObject) {
+        for (int i = gameObjectCollection.getNumPendingDefaultChanges() - 1; i >= 0; i--) {
+            if (gameObjectCollection.getPendingDefaultObject(i) == gameObject) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean isInDefaultLayer(GameObject gameObject) {
+        for (GameObject layerObject : gameObjectCollection.objectsInLayer(Layer.DEFAULT)) {
+            if (layerObject == gameObject) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int indexOf(GameObject[] gameObjects, GameObject gameObject) {
+        for (int i = gameObjects.length - 1; i >= 0; i--) {
+            if (gameObjects[i] == gameObject) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+}
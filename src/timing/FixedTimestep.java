@@ -0,0 +1,98 @@
+package timing;
+
+/**
+ * Turns the variable time that passes between frames into a whole number of steps of a fixed length, so
+ * the simulation advances the same way whatever the frame rate. Time too short for another step carries
+ * over to the next frame, and the fraction of a step it amounts to tells how far the frame is past the
+ * last simulated state, for rendering in between the last two states.
+ * <p>
+ * At most maxStepsPerFrame steps are simulated in a frame. When the simulation can't keep up, the time
+ * beyond that is dropped and the game slows down, instead of every frame falling further behind.
+ */
+public class FixedTimestep {
+
+    private final float stepTime;
+    private final int maxStepsPerFrame;
+    private float accumulatedTime;
+    private int stepsThisFrame;
+    private long numSteps;
+    private long numDroppedSteps;
+
+    /**
+     * @param stepsPerSecond   Number of simulation steps in a second of game time.
+     * @param maxStepsPerFrame Maximal number of steps simulated in one frame.
+     */
+    public FixedTimestep(int stepsPerSecond, int maxStepsPerFrame) {
+        if (stepsPerSecond <= 0 || maxStepsPerFrame <= 0) {
+            throw new IllegalArgumentException("Steps per second and per frame must be positive");
+        }
+        this.stepTime = 1f / stepsPerSecond;
+        this.maxStepsPerFrame = maxStepsPerFrame;
+    }
+
+    /**
+     * Starts a frame.
+     *
+     * @param deltaTime The time, in seconds, that passed since the previous frame.
+     */
+    public void advance(float deltaTime) {
+        accumulatedTime += deltaTime;
+        stepsThisFrame = 0;
+        int numDueSteps = (int) (accumulatedTime / stepTime);
+        if (numDueSteps > maxStepsPerFrame) {
+            int numDropped = numDueSteps - maxStepsPerFrame;
+            accumulatedTime -= numDropped * stepTime;
+            numDroppedSteps += numDropped;
+        }
+    }
+
+    /**
+     * @return true if another step of this frame should be simulated, which counts it as simulated.
+     */
+    public boolean consumeStep() {
+        if (stepsThisFrame == maxStepsPerFrame || accumulatedTime < stepTime) {
+            return false;
+        }
+        accumulatedTime -= stepTime;
+        stepsThisFrame++;
+        numSteps++;
+        return true;
+    }
+
+    /**
+     * @return The time, in seconds, that every step simulates.
+     */
+    public float getStepTime() {
+        return stepTime;
+    }
+
+    /**
+     * @return How far the current frame is past the last simulated step, between 0 (at it) and 1 (a whole
+     *         step past it).
+     */
+    public float getInterpolationFactor() {
+        return Math.min(accumulatedTime / stepTime, 1);
+    }
+
+    /**
+     * Forgets the time that wasn't simulated yet, e.g. when a new game starts.
+     */
+    public void reset() {
+        accumulatedTime = 0;
+        stepsThisFrame = 0;
+    }
+
+    public long getNumSteps() {
+        return numSteps;
+    }
+
+    public long getNumDroppedSteps() {
+        return numDroppedSteps;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.0f steps/sec, %d steps, %d dropped", 1 / stepTime, numSteps, numDroppedSteps);
+    }
+
+}